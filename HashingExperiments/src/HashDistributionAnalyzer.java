@@ -0,0 +1,282 @@
+import components.simplewriter.SimpleWriter;
+
+/**
+ * Records how a {@code HashStrategy} distributes distinct keys over the
+ * buckets of a hash table of a given size, and reports diagnostics: the bucket
+ * histogram, the longest chain, how many buckets stay empty, a chi-square
+ * statistic measuring departure from a uniform distribution, and the average
+ * number of key comparisons (probes) for successful and unsuccessful lookups
+ * with chaining.
+ *
+ * @author Brayden May
+ *
+ */
+public final class HashDistributionAnalyzer {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Number of keys in each bucket.
+     */
+    private final int[] counts;
+
+    /**
+     * Function used to hash keys.
+     */
+    private final HashStrategy<String> strategy;
+
+    /**
+     * Number of keys recorded.
+     */
+    private int total;
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * Constructor for a table of {@code hashTableSize} buckets filled using
+     * {@code strategy}.
+     *
+     * @param hashTableSize
+     *            the number of buckets
+     * @param strategy
+     *            the function used to hash keys
+     * @requires hashTableSize > 0
+     * @ensures [no keys are recorded]
+     */
+    public HashDistributionAnalyzer(int hashTableSize,
+            HashStrategy<String> strategy) {
+        assert hashTableSize > 0 : "Violation of: hashTableSize > 0";
+        assert strategy != null : "Violation of: strategy is not null";
+
+        this.counts = new int[hashTableSize];
+        this.strategy = strategy;
+        this.total = 0;
+    }
+
+    /*
+     * Public methods ---------------------------------------------------------
+     */
+
+    /**
+     * Records {@code key} in its bucket. The caller is responsible for
+     * recording each distinct key only once.
+     *
+     * @param key
+     *            the key
+     * @updates this
+     * @requires [key has not been recorded before]
+     * @ensures [key is counted in bucket bucketOf(key)]
+     */
+    public void record(String key) {
+        assert key != null : "Violation of: key is not null";
+
+        this.counts[this.bucketOf(key)]++;
+        this.total++;
+    }
+
+    /**
+     * Reports the bucket {@code key} hashes to.
+     *
+     * @param key
+     *            the key
+     * @return the bucket index
+     * @ensures <pre>
+     * bucketOf = mod([computed result of strategy.hash(key)], hashTableSize)
+     * </pre>
+     */
+    public int bucketOf(String key) {
+        assert key != null : "Violation of: key is not null";
+
+        return HashingExploration.mod(this.strategy.hash(key),
+                this.counts.length);
+    }
+
+    /**
+     * Reports the number of keys recorded in {@code bucket}.
+     *
+     * @param bucket
+     *            the bucket index
+     * @return the number of keys in bucket
+     * @requires 0 <= bucket < hashTableSize
+     * @ensures count = [number of keys recorded in bucket]
+     */
+    public int count(int bucket) {
+        assert 0 <= bucket : "Violation of: 0 <= bucket";
+        assert bucket < this.counts.length
+                : "Violation of: bucket < hashTableSize";
+
+        return this.counts[bucket];
+    }
+
+    /**
+     * Reports the number of buckets.
+     *
+     * @return the number of buckets
+     * @ensures hashTableSize = [number of buckets]
+     */
+    public int hashTableSize() {
+        return this.counts.length;
+    }
+
+    /**
+     * Reports the number of keys recorded.
+     *
+     * @return the number of keys recorded
+     * @ensures total = [number of keys recorded]
+     */
+    public int total() {
+        return this.total;
+    }
+
+    /**
+     * Reports the largest number of keys in any one bucket.
+     *
+     * @return the longest chain length
+     * @ensures maxChainLength = [max over buckets of the number of keys]
+     */
+    public int maxChainLength() {
+        int max = 0;
+        for (int c : this.counts) {
+            max = Math.max(max, c);
+        }
+        return max;
+    }
+
+    /**
+     * Reports the number of buckets with no keys.
+     *
+     * @return the number of empty buckets
+     * @ensures emptyBuckets = [number of buckets with no keys]
+     */
+    public int emptyBuckets() {
+        int empty = 0;
+        for (int c : this.counts) {
+            if (c == 0) {
+                empty++;
+            }
+        }
+        return empty;
+    }
+
+    /**
+     * Reports Pearson's chi-square statistic of the bucket counts against a
+     * uniform distribution. For a uniform hash it is close to
+     * {@code hashTableSize - 1}; much larger values mean clustering.
+     *
+     * @return the chi-square statistic
+     * @ensures <pre>
+     * chiSquare = sum over buckets i of (counts[i] - e)^2 / e,
+     *   where e = total / hashTableSize  (0 if total = 0)
+     * </pre>
+     */
+    public double chiSquare() {
+        double chiSquare = 0.0;
+
+        if (this.total > 0) {
+            double expected = (double) this.total / this.counts.length;
+            for (int c : this.counts) {
+                double diff = c - expected;
+                chiSquare += diff * diff / expected;
+            }
+        }
+
+        return chiSquare;
+    }
+
+    /**
+     * Reports the average number of key comparisons needed to find a recorded
+     * key by scanning its bucket's chain from the front.
+     *
+     * @return the average successful probe count
+     * @ensures <pre>
+     * averageSuccessfulProbes =
+     *   (sum over buckets i of counts[i] * (counts[i] + 1) / 2) / total
+     *   (0 if total = 0)
+     * </pre>
+     */
+    public double averageSuccessfulProbes() {
+        double probes = 0.0;
+
+        if (this.total > 0) {
+            long sum = 0;
+            for (int c : this.counts) {
+                sum += (long) c * (c + 1) / 2;
+            }
+            probes = (double) sum / this.total;
+        }
+
+        return probes;
+    }
+
+    /**
+     * Reports the average number of key comparisons needed to find that a key
+     * is absent, when absent keys hash uniformly over the buckets.
+     *
+     * @return the average unsuccessful probe count
+     * @ensures averageUnsuccessfulProbes = total / hashTableSize
+     */
+    public double averageUnsuccessfulProbes() {
+        return (double) this.total / this.counts.length;
+    }
+
+    /**
+     * Adds the counts recorded in {@code other} to {@code this}.
+     *
+     * @param other
+     *            the analyzer whose counts are added
+     * @updates this
+     * @requires <pre>
+     * other.hashTableSize = this.hashTableSize  and
+     * [no key is recorded in both this and other]
+     * </pre>
+     * @ensures [this records the keys of #this and of other]
+     */
+    public void addCounts(HashDistributionAnalyzer other) {
+        assert other != null : "Violation of: other is not null";
+        assert other.counts.length == this.counts.length
+                : "Violation of: other.hashTableSize = this.hashTableSize";
+
+        for (int i = 0; i < this.counts.length; i++) {
+            this.counts[i] += other.counts[i];
+        }
+        this.total += other.total;
+    }
+
+    /**
+     * Outputs the bucket histogram followed by the diagnostics.
+     *
+     * @param out
+     *            the output stream
+     * @updates out.content
+     * @requires out.is_open
+     * @ensures out.content = #out.content * [the report]
+     */
+    public void report(SimpleWriter out) {
+        assert out != null : "Violation of: out is not null";
+
+        out.println();
+        out.println("Bucket\tHits\tBar");
+        out.println("------\t----\t---");
+        for (int i = 0; i < this.counts.length; i++) {
+            out.print(i + "\t" + this.counts[i] + "\t");
+            for (int j = 0; j < this.counts[i]; j++) {
+                out.print("*");
+            }
+            out.println();
+        }
+        out.println();
+        out.println("Total:\t" + this.total);
+        out.println("Longest chain:\t" + this.maxChainLength());
+        out.println("Empty buckets:\t" + this.emptyBuckets());
+        out.println("Chi-square:\t" + this.chiSquare() + " (uniform is about "
+                + (this.counts.length - 1) + ")");
+        out.println("Average probes, hit:\t" + this.averageSuccessfulProbes());
+        out.println(
+                "Average probes, miss:\t" + this.averageUnsuccessfulProbes());
+    }
+
+}
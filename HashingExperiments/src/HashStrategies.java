@@ -0,0 +1,285 @@
+/**
+ * Standard {@code HashStrategy} implementations: two that hash the characters
+ * of a key's {@code toString()} ({@code characterSum}, {@code polynomial}),
+ * one that trusts {@code hashCode()} ({@code identity}), and two that
+ * post-process another strategy's result to spread its bits
+ * ({@code murmurMix}, {@code bitSpread}).
+ *
+ * @author Brayden May
+ *
+ */
+public final class HashStrategies {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private HashStrategies() {
+    }
+
+    /**
+     * Base of the polynomial used by {@code String.hashCode()}.
+     */
+    private static final int DEFAULT_POLYNOMIAL_BASE = 31;
+
+    /**
+     * First multiplier of the MurmurHash3 32-bit finalizer.
+     */
+    private static final int MURMUR_C1 = 0x85ebca6b;
+
+    /**
+     * Second multiplier of the MurmurHash3 32-bit finalizer.
+     */
+    private static final int MURMUR_C2 = 0xc2b2ae35;
+
+    /**
+     * First shift of the MurmurHash3 32-bit finalizer.
+     */
+    private static final int MURMUR_SHIFT1 = 16;
+
+    /**
+     * Second shift of the MurmurHash3 32-bit finalizer.
+     */
+    private static final int MURMUR_SHIFT2 = 13;
+
+    /**
+     * Shift used by {@code bitSpread} to fold high bits into low bits.
+     */
+    private static final int SPREAD_SHIFT = 16;
+
+    /**
+     * Hashes with {@code hashCode()}.
+     *
+     * @param <T>
+     *            type of keys to be hashed
+     */
+    private static final class Identity<T> implements HashStrategy<T> {
+
+        @Override
+        public int hash(T x) {
+            return x.hashCode();
+        }
+
+    }
+
+    /**
+     * Hashes the sum of the characters of {@code toString()}.
+     *
+     * @param <T>
+     *            type of keys to be hashed
+     */
+    private static final class CharacterSum<T> implements HashStrategy<T> {
+
+        @Override
+        public int hash(T x) {
+            String s = x.toString();
+            int hash = 0;
+            for (int i = 0; i < s.length(); i++) {
+                hash += s.charAt(i);
+            }
+            return hash;
+        }
+
+    }
+
+    /**
+     * Hashes the characters of {@code toString()} as the coefficients of a
+     * polynomial evaluated at {@code base}.
+     *
+     * @param <T>
+     *            type of keys to be hashed
+     */
+    private static final class Polynomial<T> implements HashStrategy<T> {
+
+        /**
+         * The point at which the polynomial is evaluated.
+         */
+        private final int base;
+
+        /**
+         * Constructor from base.
+         *
+         * @param base
+         *            the point at which the polynomial is evaluated
+         */
+        Polynomial(int base) {
+            this.base = base;
+        }
+
+        @Override
+        public int hash(T x) {
+            String s = x.toString();
+            int hash = 0;
+            for (int i = 0; i < s.length(); i++) {
+                hash = hash * this.base + s.charAt(i);
+            }
+            return hash;
+        }
+
+    }
+
+    /**
+     * Applies the MurmurHash3 32-bit finalizer to another strategy's hash, so
+     * that every input bit affects every output bit.
+     *
+     * @param <T>
+     *            type of keys to be hashed
+     */
+    private static final class MurmurMix<T> implements HashStrategy<T> {
+
+        /**
+         * The strategy whose result is mixed.
+         */
+        private final HashStrategy<T> base;
+
+        /**
+         * Constructor from base strategy.
+         *
+         * @param base
+         *            the strategy whose result is mixed
+         */
+        MurmurMix(HashStrategy<T> base) {
+            this.base = base;
+        }
+
+        @Override
+        public int hash(T x) {
+            int h = this.base.hash(x);
+            h ^= h >>> MURMUR_SHIFT1;
+            h *= MURMUR_C1;
+            h ^= h >>> MURMUR_SHIFT2;
+            h *= MURMUR_C2;
+            h ^= h >>> MURMUR_SHIFT1;
+            return h;
+        }
+
+    }
+
+    /**
+     * Folds the high half of another strategy's hash into its low half, the
+     * cheap secondary hash {@code java.util.HashMap} uses before masking.
+     *
+     * @param <T>
+     *            type of keys to be hashed
+     */
+    private static final class BitSpread<T> implements HashStrategy<T> {
+
+        /**
+         * The strategy whose result is spread.
+         */
+        private final HashStrategy<T> base;
+
+        /**
+         * Constructor from base strategy.
+         *
+         * @param base
+         *            the strategy whose result is spread
+         */
+        BitSpread(HashStrategy<T> base) {
+            this.base = base;
+        }
+
+        @Override
+        public int hash(T x) {
+            int h = this.base.hash(x);
+            return h ^ (h >>> SPREAD_SHIFT);
+        }
+
+    }
+
+    /**
+     * Returns the strategy that hashes with {@code x.hashCode()}.
+     *
+     * @param <T>
+     *            type of keys to be hashed
+     * @return the strategy
+     * @ensures identity.hash(x) = [computed result of x.hashCode()]
+     */
+    public static <T> HashStrategy<T> identity() {
+        return new Identity<T>();
+    }
+
+    /**
+     * Returns the strategy that sums the characters of {@code x.toString()}.
+     * Anagrams collide, and all short strings land in a narrow range.
+     *
+     * @param <T>
+     *            type of keys to be hashed
+     * @return the strategy
+     * @ensures <pre>
+     * characterSum.hash(x) = [sum of the characters of x.toString()]
+     * </pre>
+     */
+    public static <T> HashStrategy<T> characterSum() {
+        return new CharacterSum<T>();
+    }
+
+    /**
+     * Returns the strategy that evaluates the characters of
+     * {@code x.toString()} as a polynomial at 31, which for {@code String}
+     * keys equals {@code String.hashCode()}.
+     *
+     * @param <T>
+     *            type of keys to be hashed
+     * @return the strategy
+     * @ensures <pre>
+     * polynomial.hash(x) = [sum over i of s[i] * 31^(|s| - 1 - i), with
+     *   s = x.toString(), in int arithmetic]
+     * </pre>
+     */
+    public static <T> HashStrategy<T> polynomial() {
+        return new Polynomial<T>(DEFAULT_POLYNOMIAL_BASE);
+    }
+
+    /**
+     * Returns the strategy that evaluates the characters of
+     * {@code x.toString()} as a polynomial at {@code base}.
+     *
+     * @param <T>
+     *            type of keys to be hashed
+     * @param base
+     *            the point at which the polynomial is evaluated
+     * @return the strategy
+     * @ensures <pre>
+     * polynomial.hash(x) = [sum over i of s[i] * base^(|s| - 1 - i), with
+     *   s = x.toString(), in int arithmetic]
+     * </pre>
+     */
+    public static <T> HashStrategy<T> polynomial(int base) {
+        return new Polynomial<T>(base);
+    }
+
+    /**
+     * Returns the strategy that applies the MurmurHash3 finalizer to the
+     * result of {@code base}.
+     *
+     * @param <T>
+     *            type of keys to be hashed
+     * @param base
+     *            the strategy whose result is mixed
+     * @return the strategy
+     * @ensures murmurMix.hash(x) = [fmix32(base.hash(x))]
+     */
+    public static <T> HashStrategy<T> murmurMix(HashStrategy<T> base) {
+        assert base != null : "Violation of: base is not null";
+
+        return new MurmurMix<T>(base);
+    }
+
+    /**
+     * Returns the strategy that XORs the high 16 bits of the result of
+     * {@code base} into its low 16 bits.
+     *
+     * @param <T>
+     *            type of keys to be hashed
+     * @param base
+     *            the strategy whose result is spread
+     * @return the strategy
+     * @ensures bitSpread.hash(x) = [h XOR (h >>> 16), where h = base.hash(x)]
+     */
+    public static <T> HashStrategy<T> bitSpread(HashStrategy<T> base) {
+        assert base != null : "Violation of: base is not null";
+
+        return new BitSpread<T>(base);
+    }
+
+}
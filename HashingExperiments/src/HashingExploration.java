@@ -1,3 +1,5 @@
+import java.io.IOException;
+
 import components.set.Set;
 import components.set.Set1L;
 import components.simplereader.SimpleReader;
@@ -6,9 +8,11 @@ import components.simplewriter.SimpleWriter;
 import components.simplewriter.SimpleWriter1L;
 
 /**
- * Lets the user test the {@code hashCode(String)} method, by reading text lines
- * from a file (whose name is supplied by the user), and then outputting the
- * distribution of lines into buckets.
+ * Lets the user test a {@code HashStrategy}, by reading text lines from a file
+ * (whose name is supplied by the user), and then outputting the distribution
+ * of lines into buckets along with the diagnostics computed by
+ * {@code HashDistributionAnalyzer}. Large files can be read in parallel with
+ * {@code ParallelKeyFileIngest} instead of line by line.
  *
  * @author Brayden May
  *
@@ -47,22 +51,35 @@ public final class HashingExploration {
     }
 
     /**
-     * Returns a hash code value for the given {@code String}.
+     * Returns the {@code HashStrategy} with the given name: "polynomial",
+     * "hashcode", "murmur" (MurmurHash3 finalizer over {@code hashCode}), or
+     * "spread" (high bits folded into {@code hashCode}); any other name gives
+     * the sum of the characters.
      *
-     * @param s
-     *            the {@code String} whose hash code is computed
-     * @return a hash code value for the given {@code String}
-     * @ensures hashCode = [hash code value for the given String]
+     * @param name
+     *            the name of the strategy
+     * @return the named strategy
+     * @ensures strategyNamed = [the strategy called name, or characterSum]
      */
-    private static int hashCode(String s) {
-        assert s != null : "Violation of: s is not null";
+    private static HashStrategy<String> strategyNamed(String name) {
+        assert name != null : "Violation of: name is not null";
+
+        HashStrategy<String> strategy;
+        String lower = name.trim().toLowerCase();
 
-        int hash = 0;
-        for (int i = 0; i < s.length(); i++) {
-            hash += s.charAt(i);
+        if (lower.equals("polynomial")) {
+            strategy = HashStrategies.polynomial();
+        } else if (lower.equals("hashcode")) {
+            strategy = HashStrategies.identity();
+        } else if (lower.equals("murmur")) {
+            strategy = HashStrategies.murmurMix(HashStrategies.identity());
+        } else if (lower.equals("spread")) {
+            strategy = HashStrategies.bitSpread(HashStrategies.identity());
+        } else {
+            strategy = HashStrategies.characterSum();
         }
 
-        return hash;
+        return strategy;
     }
 
     /**
@@ -81,40 +98,46 @@ public final class HashingExploration {
         int hashTableSize = in.nextInteger();
         out.print("Text file name: ");
         String textFileName = in.nextLine();
-        /*
-         * Set up counts and counted. All entries in counts are automatically
-         * initialized to 0.
-         */
-        int[] counts = new int[hashTableSize];
-        Set<String> counted = new Set1L<String>();
-        /*
-         * Get some lines of input, hash them, and record counts.
-         */
-        SimpleReader textFile = new SimpleReader1L(textFileName);
-        while (!textFile.atEOS()) {
-            String line = textFile.nextLine();
-            if (!counted.contains(line)) {
-                int bucket = mod(hashCode(line), hashTableSize);
-                counts[bucket]++;
-                counted.add(line);
+        out.print("Hash function (sum, polynomial, hashcode, murmur, spread): ");
+        HashStrategy<String> strategy = strategyNamed(in.nextLine());
+        out.print("Worker threads (0 to read sequentially): ");
+        int threads = in.nextInteger();
+        if (threads > 0) {
+            /*
+             * Memory-map the file and hash line-aligned chunks in parallel.
+             */
+            try {
+                ParallelKeyFileIngest
+                        .analyze(textFileName, hashTableSize, strategy, threads)
+                        .report(out);
+            } catch (IOException e) {
+                out.println("Error reading " + textFileName + ": "
+                        + e.getMessage());
             }
-        }
-        textFile.close();
-        /*
-         * Report results.
-         */
-        out.println();
-        out.println("Bucket\tHits\tBar");
-        out.println("------\t----\t---");
-        for (int i = 0; i < counts.length; i++) {
-            out.print(i + "\t" + counts[i] + "\t");
-            for (int j = 0; j < counts[i]; j++) {
-                out.print("*");
+        } else {
+            /*
+             * Set up analyzer and counted.
+             */
+            HashDistributionAnalyzer analyzer = new HashDistributionAnalyzer(
+                    hashTableSize, strategy);
+            Set<String> counted = new Set1L<String>();
+            /*
+             * Get some lines of input, hash them, and record counts.
+             */
+            SimpleReader textFile = new SimpleReader1L(textFileName);
+            while (!textFile.atEOS()) {
+                String line = textFile.nextLine();
+                if (!counted.contains(line)) {
+                    analyzer.record(line);
+                    counted.add(line);
+                }
             }
-            out.println();
+            textFile.close();
+            /*
+             * Report results.
+             */
+            analyzer.report(out);
         }
-        out.println();
-        out.println("Total:\t" + counted.size());
         in.close();
         out.close();
     }
@@ -0,0 +1,264 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Builds the bucket histogram of {@code HashingExploration} for very large key
+ * files: the file is memory-mapped, split into line-aligned chunks, and the
+ * chunks are hashed in parallel, each into its own
+ * {@code HashDistributionAnalyzer}, which are added together at the end.
+ * Duplicate lines are dropped through one shared concurrent set, so the
+ * result counts each distinct line exactly once, as the sequential tool does.
+ *
+ * <p>
+ * Lines are decoded as UTF-8 and end at {@code '\n'}, with a preceding
+ * {@code '\r'} dropped; a final line without a terminator still counts.
+ * </p>
+ *
+ * @author Brayden May
+ *
+ */
+public final class ParallelKeyFileIngest {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private ParallelKeyFileIngest() {
+    }
+
+    /**
+     * Nominal chunk length; well below the 2 GB limit of one mapping, so that
+     * extending a chunk to the end of its last line stays within it.
+     */
+    private static final long MAX_CHUNK_BYTES = 1L << 28;
+
+    /**
+     * Number of chunks per worker thread, so that uneven chunks still keep
+     * every thread busy.
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /**
+     * Size of the buffer used to scan for line boundaries.
+     */
+    private static final int SCAN_BUFFER_BYTES = 8192;
+
+    /**
+     * Initial size of the per-chunk line buffer.
+     */
+    private static final int INITIAL_LINE_BYTES = 256;
+
+    /**
+     * Returns the position of the first line that starts at or after
+     * {@code position}.
+     *
+     * @param channel
+     *            the open file
+     * @param position
+     *            the position
+     * @param fileSize
+     *            the size of the file
+     * @return the start of the next line, or {@code fileSize} if there is none
+     * @throws IOException
+     *             if the file cannot be read
+     * @requires 0 <= position <= fileSize
+     * @ensures <pre>
+     * position <= lineStartAtOrAfter <= fileSize  and
+     * (lineStartAtOrAfter = 0  or  lineStartAtOrAfter = fileSize  or
+     *  [the byte at lineStartAtOrAfter - 1 is '\n'])  and
+     * [no line starts in [position, lineStartAtOrAfter)]
+     * </pre>
+     */
+    private static long lineStartAtOrAfter(FileChannel channel, long position,
+            long fileSize) throws IOException {
+        long result = fileSize;
+
+        if (position == 0) {
+            result = 0;
+        } else {
+            ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_BYTES);
+            long p = position - 1;
+            boolean found = false;
+            while (!found && p < fileSize) {
+                buffer.clear();
+                int read = channel.read(buffer, p);
+                for (int i = 0; !found && i < read; i++) {
+                    if (buffer.get(i) == '\n') {
+                        found = true;
+                        result = p + i + 1;
+                    }
+                }
+                p += Math.max(read, 1);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Hashes the distinct lines of one chunk into a new analyzer; a line is
+     * recorded only by the chunk that first adds it to {@code seen}.
+     *
+     * @param chunk
+     *            the mapped bytes of the chunk
+     * @param hashTableSize
+     *            the number of buckets
+     * @param strategy
+     *            the function used to hash lines
+     * @param seen
+     *            the lines recorded so far by any chunk
+     * @return the analyzer holding this chunk's counts
+     * @updates seen
+     * @requires <pre>
+     * [chunk starts at the start of a line and ends at the end of a line]
+     * </pre>
+     * @ensures <pre>
+     * [analyzeChunk records exactly the lines of chunk not in #seen]  and
+     * seen = #seen union [lines of chunk]
+     * </pre>
+     */
+    private static HashDistributionAnalyzer analyzeChunk(
+            MappedByteBuffer chunk, int hashTableSize,
+            HashStrategy<String> strategy, Set<String> seen) {
+        HashDistributionAnalyzer analyzer = new HashDistributionAnalyzer(
+                hashTableSize, strategy);
+        byte[] line = new byte[INITIAL_LINE_BYTES];
+        int length = 0;
+        boolean pending = false;
+
+        while (chunk.hasRemaining()) {
+            byte b = chunk.get();
+            if (b == '\n') {
+                recordIfNew(line, length, analyzer, seen);
+                length = 0;
+                pending = false;
+            } else {
+                if (length == line.length) {
+                    byte[] bigger = new byte[2 * line.length];
+                    System.arraycopy(line, 0, bigger, 0, length);
+                    line = bigger;
+                }
+                line[length] = b;
+                length++;
+                pending = true;
+            }
+        }
+        if (pending) {
+            recordIfNew(line, length, analyzer, seen);
+        }
+
+        return analyzer;
+    }
+
+    /**
+     * Decodes {@code line[0, length)}, minus a trailing {@code '\r'}, and
+     * records it in {@code analyzer} if it is not yet in {@code seen}.
+     *
+     * @param line
+     *            the bytes of the line
+     * @param length
+     *            the number of bytes in the line
+     * @param analyzer
+     *            the analyzer to record into
+     * @param seen
+     *            the lines recorded so far by any chunk
+     * @updates analyzer, seen
+     * @ensures <pre>
+     * if [the line] is not in #seen then
+     *   [the line is recorded in analyzer]  and
+     *   seen = #seen union {[the line]}
+     * </pre>
+     */
+    private static void recordIfNew(byte[] line, int length,
+            HashDistributionAnalyzer analyzer, Set<String> seen) {
+        int end = length;
+        if (end > 0 && line[end - 1] == '\r') {
+            end--;
+        }
+        String key = new String(line, 0, end, StandardCharsets.UTF_8);
+        if (seen.add(key)) {
+            analyzer.record(key);
+        }
+    }
+
+    /**
+     * Reads the file named {@code fileName} and returns the distribution of
+     * its distinct lines over {@code hashTableSize} buckets under
+     * {@code strategy}, using {@code threads} worker threads.
+     *
+     * @param fileName
+     *            the name of the key file
+     * @param hashTableSize
+     *            the number of buckets
+     * @param strategy
+     *            the function used to hash lines
+     * @param threads
+     *            the number of worker threads
+     * @return the analyzer holding the counts of every distinct line
+     * @throws IOException
+     *             if the file cannot be read
+     * @requires hashTableSize > 0  and  threads > 0
+     * @ensures <pre>
+     * [analyze records each distinct line of the file exactly once]
+     * </pre>
+     */
+    public static HashDistributionAnalyzer analyze(String fileName,
+            int hashTableSize, HashStrategy<String> strategy, int threads)
+            throws IOException {
+        assert fileName != null : "Violation of: fileName is not null";
+        assert hashTableSize > 0 : "Violation of: hashTableSize > 0";
+        assert strategy != null : "Violation of: strategy is not null";
+        assert threads > 0 : "Violation of: threads > 0";
+
+        HashDistributionAnalyzer total = new HashDistributionAnalyzer(
+                hashTableSize, strategy);
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName),
+                StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            long chunks = Math.max((long) threads * CHUNKS_PER_THREAD,
+                    (fileSize + MAX_CHUNK_BYTES - 1) / MAX_CHUNK_BYTES);
+            long nominal = Math.max(1, (fileSize + chunks - 1) / chunks);
+
+            List<Future<HashDistributionAnalyzer>> parts = new ArrayList<>();
+            long start = 0;
+            while (start < fileSize) {
+                long end = lineStartAtOrAfter(channel,
+                        Math.min(fileSize, start + nominal), fileSize);
+                MappedByteBuffer chunk = channel
+                        .map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                parts.add(pool.submit(() -> analyzeChunk(chunk,
+                        hashTableSize, strategy, seen)));
+                start = end;
+            }
+
+            for (Future<HashDistributionAnalyzer> part : parts) {
+                total.addCounts(part.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading " + fileName, e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to read " + fileName, e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        return total;
+    }
+
+}
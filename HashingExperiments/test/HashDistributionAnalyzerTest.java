@@ -0,0 +1,98 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code HashDistributionAnalyzer}.
+ *
+ * @author Brayden May
+ *
+ */
+public final class HashDistributionAnalyzerTest {
+
+    /**
+     * Tolerance for comparing computed statistics.
+     */
+    private static final double DELTA = 1e-9;
+
+    /**
+     * Returns an analyzer over 4 buckets, using the sum of characters, with
+     * keys recorded so that the counts are 3, 1, 0, 0.
+     *
+     * @return the analyzer
+     */
+    private static HashDistributionAnalyzer skewed() {
+        HashDistributionAnalyzer a = new HashDistributionAnalyzer(4,
+                HashStrategies.<String> characterSum());
+        a.record("\u0004");
+        a.record("\u0008");
+        a.record("\u0002\u0002");
+        a.record("\u0001");
+        return a;
+    }
+
+    @Test
+    public void testBucketOfSum() {
+        HashDistributionAnalyzer a = new HashDistributionAnalyzer(10,
+                HashStrategies.<String> characterSum());
+        assertEquals(('a' + 'b') % 10, a.bucketOf("ab"));
+    }
+
+    @Test
+    public void testCountsAndTotal() {
+        HashDistributionAnalyzer a = skewed();
+        assertEquals(4, a.total());
+        assertEquals(3, a.count(0));
+        assertEquals(1, a.count(1));
+        assertEquals(0, a.count(2));
+    }
+
+    @Test
+    public void testMaxChainLength() {
+        assertEquals(3, skewed().maxChainLength());
+    }
+
+    @Test
+    public void testEmptyBuckets() {
+        assertEquals(2, skewed().emptyBuckets());
+    }
+
+    @Test
+    public void testChiSquare() {
+        /*
+         * Expected count is 1 per bucket: (3-1)^2 + 0 + 1 + 1 = 6.
+         */
+        assertEquals(6.0, skewed().chiSquare(), DELTA);
+    }
+
+    @Test
+    public void testAverageProbes() {
+        HashDistributionAnalyzer a = skewed();
+        /*
+         * (1 + 2 + 3) + 1 comparisons over 4 keys.
+         */
+        assertEquals(7.0 / 4, a.averageSuccessfulProbes(), DELTA);
+        assertEquals(1.0, a.averageUnsuccessfulProbes(), DELTA);
+    }
+
+    @Test
+    public void testEmptyAnalyzer() {
+        HashDistributionAnalyzer a = new HashDistributionAnalyzer(3,
+                HashStrategies.<String> polynomial());
+        assertEquals(0, a.total());
+        assertEquals(0.0, a.chiSquare(), DELTA);
+        assertEquals(0.0, a.averageSuccessfulProbes(), DELTA);
+    }
+
+    @Test
+    public void testAddCounts() {
+        HashDistributionAnalyzer a = skewed();
+        HashDistributionAnalyzer b = new HashDistributionAnalyzer(4,
+                HashStrategies.<String> characterSum());
+        b.record("\u0002");
+        a.addCounts(b);
+        assertEquals(5, a.total());
+        assertEquals(1, a.count(2));
+    }
+
+}
@@ -0,0 +1,121 @@
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code ParallelKeyFileIngest}.
+ *
+ * @author Brayden May
+ *
+ */
+public final class ParallelKeyFileIngestTest {
+
+    /**
+     * Number of buckets used by the tests.
+     */
+    private static final int BUCKETS = 7;
+
+    /**
+     * Writes {@code text} to a new temporary file and analyzes it with
+     * {@code threads} threads, using the sum of characters.
+     *
+     * @param text
+     *            the file contents
+     * @param threads
+     *            number of worker threads
+     * @return the analyzer
+     * @throws IOException
+     *             if the file cannot be written or read
+     */
+    private static HashDistributionAnalyzer analyze(String text, int threads)
+            throws IOException {
+        Path file = Files.createTempFile("keys", ".txt");
+        try {
+            Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+            return ParallelKeyFileIngest.analyze(file.toString(), BUCKETS,
+                    HashStrategies.<String> characterSum(), threads);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Returns an analyzer with each of {@code keys} recorded once.
+     *
+     * @param keys
+     *            the distinct keys
+     * @return the analyzer
+     */
+    private static HashDistributionAnalyzer expected(String... keys) {
+        HashDistributionAnalyzer a = new HashDistributionAnalyzer(BUCKETS,
+                HashStrategies.<String> characterSum());
+        for (String key : keys) {
+            a.record(key);
+        }
+        return a;
+    }
+
+    /**
+     * Checks that {@code a} and {@code b} have the same counts.
+     *
+     * @param a
+     *            the expected analyzer
+     * @param b
+     *            the actual analyzer
+     */
+    private static void assertSameCounts(HashDistributionAnalyzer a,
+            HashDistributionAnalyzer b) {
+        assertEquals(a.total(), b.total());
+        for (int i = 0; i < BUCKETS; i++) {
+            assertEquals(a.count(i), b.count(i));
+        }
+    }
+
+    @Test
+    public void testEmptyFile() throws IOException {
+        assertSameCounts(expected(), analyze("", 2));
+    }
+
+    @Test
+    public void testDuplicatesCountedOnce() throws IOException {
+        assertSameCounts(expected("a", "b", "c"),
+                analyze("a\nb\na\nc\nb\na\n", 1));
+    }
+
+    @Test
+    public void testLastLineWithoutNewline() throws IOException {
+        assertSameCounts(expected("a", "bc"), analyze("a\nbc", 2));
+    }
+
+    @Test
+    public void testCarriageReturnsAndEmptyLines() throws IOException {
+        assertSameCounts(expected("a", "", "b"), analyze("a\r\n\r\nb\n\n", 3));
+    }
+
+    @Test
+    public void testUtf8() throws IOException {
+        assertSameCounts(expected("\u00e9t\u00e9", "\u4e2d"),
+                analyze("\u00e9t\u00e9\n\u4e2d\n\u00e9t\u00e9\n", 2));
+    }
+
+    @Test
+    public void testManyChunksMatchesSequential() throws IOException {
+        StringBuilder text = new StringBuilder();
+        String[] keys = new String[500];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "key" + i;
+        }
+        for (int round = 0; round < 3; round++) {
+            for (String key : keys) {
+                text.append(key).append('\n');
+            }
+        }
+        assertSameCounts(expected(keys), analyze(text.toString(), 4));
+    }
+
+}
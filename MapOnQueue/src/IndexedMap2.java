@@ -0,0 +1,385 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.map.Map;
+import components.map.MapSecondary;
+
+/**
+ * {@code Map} kept in insertion order, like {@code Map2}'s queue, but with a
+ * hash index from each key to its node so that {@code add}, {@code remove},
+ * {@code value}, and {@code hasKey} take constant expected time instead of a
+ * rotation of the whole queue.
+ *
+ * <p>
+ * The order is a doubly linked list with a "smart" head node; each node is
+ * also in a bucket chain of the index. Iteration visits the pairs in the
+ * order they were added, and {@code removeAny} removes the oldest, just as
+ * {@code Map2} with {@code Organization.NONE} dequeues its front.
+ * </p>
+ *
+ * @param <K>
+ *            type of {@code Map} domain (key) entries
+ * @param <V>
+ *            type of {@code Map} range (associated value) entries
+ * @convention <pre>
+ * |$this.table| is a power of two  and
+ * $this.size <= MAX_LOAD_FACTOR * |$this.table|  and
+ * [every node of the list from $this.head is in exactly one bucket chain of
+ *  $this.table, the one at index spread(hashCode(node.pair.key)) mod
+ *  |$this.table|, and every node of a bucket chain is in the list]  and
+ * [$this.size = number of nodes in the list]  and
+ * [the keys of the nodes are distinct]
+ * </pre>
+ * @correspondence <pre>
+ * this = [the pairs of the nodes of the list from $this.head]  and
+ * [the order of iteration is the order of the list, oldest first]
+ * </pre>
+ *
+ * @author Brayden May
+ *
+ */
+public class IndexedMap2<K, V> extends MapSecondary<K, V> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Initial size of the hash index; a power of two.
+     */
+    private static final int INITIAL_TABLE_SIZE = 16;
+
+    /**
+     * Maximum ratio of pairs to buckets before the hash index is grown.
+     */
+    private static final double MAX_LOAD_FACTOR = 0.75;
+
+    /**
+     * Largest hash index size that will ever be allocated.
+     */
+    private static final int MAX_TABLE_SIZE = 1 << 30;
+
+    /**
+     * Node of the insertion-order list and of a bucket chain.
+     *
+     * @param <K>
+     *            type of key
+     * @param <V>
+     *            type of value
+     */
+    private static final class Node<K, V> {
+
+        /**
+         * The pair, or, if this is the "smart" node, {@code null}.
+         */
+        private Pair<K, V> pair;
+
+        /**
+         * Spread hash of the key.
+         */
+        private int hash;
+
+        /**
+         * Next node in the same bucket chain, or {@code null}.
+         */
+        private Node<K, V> bucketNext;
+
+        /**
+         * Next (newer) node in the list; for the "smart" node, the oldest.
+         */
+        private Node<K, V> next;
+
+        /**
+         * Previous (older) node in the list; for the "smart" node, the
+         * newest.
+         */
+        private Node<K, V> previous;
+
+    }
+
+    /**
+     * Bucket chains of the hash index.
+     */
+    private Node<K, V>[] table;
+
+    /**
+     * "Smart" node of the circular insertion-order list.
+     */
+    private Node<K, V> head;
+
+    /**
+     * Number of pairs.
+     */
+    private int size;
+
+    /**
+     * Returns {@code h} with its high bits folded into its low bits, so that
+     * masking with a power of two uses all of them.
+     *
+     * @param h
+     *            the hash code
+     * @return the spread hash
+     */
+    private static int spread(int h) {
+        return h ^ (h >>> Short.SIZE);
+    }
+
+    /**
+     * Returns a new array of {@code length} null nodes.
+     *
+     * @param length
+     *            the length
+     * @return the array
+     */
+    @SuppressWarnings("unchecked")
+    private Node<K, V>[] newTable(int length) {
+        /*
+         * Arrays of a generic type must be created through the wildcard type.
+         */
+        return (Node<K, V>[]) new Node<?, ?>[length];
+    }
+
+    /**
+     * Returns the node with key {@code key}, or {@code null}.
+     *
+     * @param key
+     *            the key
+     * @param hash
+     *            the spread hash of the key
+     * @return the node, or null if key is not in DOMAIN(this)
+     */
+    private Node<K, V> findNode(K key, int hash) {
+        Node<K, V> n = this.table[hash & (this.table.length - 1)];
+        while (n != null && !(n.hash == hash && n.pair.key().equals(key))) {
+            n = n.bucketNext;
+        }
+        return n;
+    }
+
+    /**
+     * Adds {@code n} to the front of its bucket chain.
+     *
+     * @param n
+     *            the node
+     */
+    private void indexNode(Node<K, V> n) {
+        int i = n.hash & (this.table.length - 1);
+        n.bucketNext = this.table[i];
+        this.table[i] = n;
+    }
+
+    /**
+     * Removes {@code n} from its bucket chain and from the list.
+     *
+     * @param n
+     *            the node
+     */
+    private void unlink(Node<K, V> n) {
+        int i = n.hash & (this.table.length - 1);
+        if (this.table[i] == n) {
+            this.table[i] = n.bucketNext;
+        } else {
+            Node<K, V> p = this.table[i];
+            while (p.bucketNext != n) {
+                p = p.bucketNext;
+            }
+            p.bucketNext = n.bucketNext;
+        }
+        n.bucketNext = null;
+        n.previous.next = n.next;
+        n.next.previous = n.previous;
+        n.previous = null;
+        n.next = null;
+        this.size--;
+    }
+
+    /**
+     * Doubles the hash index if {@code $this.size} exceeds the maximum load
+     * factor.
+     */
+    private void growIfNeeded() {
+        if (this.size > MAX_LOAD_FACTOR * this.table.length
+                && this.table.length < MAX_TABLE_SIZE) {
+            this.table = this.newTable(2 * this.table.length);
+            for (Node<K, V> n = this.head.next; n != this.head; n = n.next) {
+                this.indexNode(n);
+            }
+        }
+    }
+
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+        this.table = this.newTable(INITIAL_TABLE_SIZE);
+        this.head = new Node<>();
+        this.head.next = this.head;
+        this.head.previous = this.head;
+        this.size = 0;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public IndexedMap2() {
+        this.createNewRep();
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Map<K, V> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+    }
+
+    @Override
+    public final void transferFrom(Map<K, V> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof IndexedMap2<?, ?> : ""
+                + "Violation of: source is of dynamic type IndexedMap2<?,?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type
+         * IndexedMap2<?,?>, and the ?,? must be K,V or the call would not
+         * have compiled.
+         */
+        IndexedMap2<K, V> localSource = (IndexedMap2<K, V>) source;
+        this.table = localSource.table;
+        this.head = localSource.head;
+        this.size = localSource.size;
+        localSource.createNewRep();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(K key, V value) {
+        assert key != null : "Violation of: key is not null";
+        assert value != null : "Violation of: value is not null";
+        assert !this.hasKey(key) : "Violation of: key is not in DOMAIN(this)";
+
+        Node<K, V> n = new Node<>();
+        n.pair = new SimplePair<>(key, value);
+        n.hash = spread(key.hashCode());
+        this.indexNode(n);
+        n.previous = this.head.previous;
+        n.next = this.head;
+        this.head.previous.next = n;
+        this.head.previous = n;
+        this.size++;
+        this.growIfNeeded();
+    }
+
+    @Override
+    public final Pair<K, V> remove(K key) {
+        assert key != null : "Violation of: key is not null";
+        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+
+        Node<K, V> n = this.findNode(key, spread(key.hashCode()));
+        this.unlink(n);
+
+        return n.pair;
+    }
+
+    @Override
+    public final Pair<K, V> removeAny() {
+        assert this.size() > 0 : "Violation of: |this| > 0";
+
+        Node<K, V> oldest = this.head.next;
+        this.unlink(oldest);
+
+        return oldest.pair;
+    }
+
+    @Override
+    public final V value(K key) {
+        assert key != null : "Violation of: key is not null";
+        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+
+        return this.findNode(key, spread(key.hashCode())).pair.value();
+    }
+
+    @Override
+    public final boolean hasKey(K key) {
+        assert key != null : "Violation of: key is not null";
+
+        return this.findNode(key, spread(key.hashCode())) != null;
+    }
+
+    @Override
+    public final int size() {
+        return this.size;
+    }
+
+    @Override
+    public final Iterator<Pair<K, V>> iterator() {
+        return new IndexedMap2Iterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code IndexedMap2},
+     * visiting the pairs oldest first.
+     */
+    private final class IndexedMap2Iterator implements Iterator<Pair<K, V>> {
+
+        /**
+         * Node returned last, or the "smart" node.
+         */
+        private Node<K, V> current;
+
+        /**
+         * No-argument constructor.
+         */
+        IndexedMap2Iterator() {
+            this.current = IndexedMap2.this.head;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.current.next != IndexedMap2.this.head;
+        }
+
+        @Override
+        public Pair<K, V> next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            this.current = this.current.next;
+            return this.current.pair;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
@@ -9,33 +9,167 @@ import components.queue.Queue1L;
  * {@code Map} represented as a {@code Queue} of pairs with implementations of
  * primary methods.
  *
+ * <p>
+ * The map can reorganize its queue on every successful {@code value} or
+ * {@code hasKey} so that frequently used keys are found sooner, according to
+ * an {@code Organization} chosen at construction. It also counts lookups,
+ * hits, probes (key comparisons), and rotations (entries dequeued and
+ * enqueued again), so the effect of an organization on a workload can be
+ * measured.
+ * </p>
+ *
+ * <p>
+ * A {@code Queue} can only be searched by rotating it, so a lookup under
+ * every organization but {@code NONE} costs a full rotation, that is,
+ * {@code size()} dequeues and enqueues, wherever the key is: stopping at the
+ * key would leave the queue rotated and lose the order being built. The
+ * organizations only reduce the number of probes. The reorganizing is done
+ * during that one rotation, by exchanging the contents of the entry found
+ * with those of an entry already passed.
+ * </p>
+ *
  * @param <K>
  *            type of {@code Map} domain (key) entries
  * @param <V>
  *            type of {@code Map} range (associated value) entries
  * @convention <pre>
- * for all key1, key2: K, value1, value2: V, str1, str2: string of (key, value)
- *     where (str1 * <(key1, value1)> is prefix of $this.pairsQueue and
- *            str2 * <(key2, value2)> is prefix of $this.pairsQueue and
+ * for all key1, key2: K, value1, value2: V, c1, c2: integer,
+ *         str1, str2: string of (key, value, count)
+ *     where (str1 * <(key1, value1, c1)> is prefix of $this.entries and
+ *            str2 * <(key2, value2, c2)> is prefix of $this.entries and
  *            str1 /= str2)
- *   (key1 /= key2)
+ *   (key1 /= key2)  and
+ * if $this.organization = FREQUENCY_COUNT then
+ *   [the counts of $this.entries are non-increasing from front to back]
  * </pre>
- * @correspondence this = entries($this.pairsQueue)
+ * @correspondence this = [the (key, value) pairs of $this.entries]
+ *
+ * @author Brayden May
+ *
  */
 public class Map2<K, V> extends MapSecondary<K, V> {
 
+    /**
+     * How the queue is reorganized after a successful lookup.
+     */
+    public enum Organization {
+        /**
+         * Never reorganize; each lookup stops at the key, leaving the queue
+         * rotated so that the key found is at the back, exactly as
+         * {@code value} and {@code hasKey} always have. A hit on the entry
+         * at position i costs only i + 1 rotations.
+         */
+        NONE,
+        /**
+         * Move the key found to the front of the queue.
+         */
+        MOVE_TO_FRONT,
+        /**
+         * Swap the key found with the one just before it.
+         */
+        TRANSPOSE,
+        /**
+         * Count lookups of each key and keep the queue ordered by decreasing
+         * count, so the key found moves ahead of every key looked up fewer
+         * times.
+         */
+        FREQUENCY_COUNT
+    }
+
     /*
      * Private members --------------------------------------------------------
      */
 
     /**
-     * Pairs included in {@code this}.
+     * A pair of {@code this} with the number of times it has been found.
+     * Both are mutable so that {@code find} can exchange the contents of two
+     * entries instead of moving them in the queue.
+     *
+     * @param <K>
+     *            type of key
+     * @param <V>
+     *            type of value
+     */
+    private static final class Entry<K, V> {
+
+        /**
+         * The pair.
+         */
+        private Pair<K, V> pair;
+
+        /**
+         * Number of successful lookups of the pair's key.
+         */
+        private int count;
+
+        /**
+         * Constructor for the never-found entry ({@code key}, {@code value}).
+         *
+         * @param key
+         *            the key
+         * @param value
+         *            the value
+         */
+        Entry(K key, V value) {
+            this.pair = new SimplePair<>(key, value);
+            this.count = 0;
+        }
+
+    }
+
+    /**
+     * Entries included in {@code this}.
+     */
+    private Queue<Entry<K, V>> entries;
+
+    /**
+     * How {@code entries} is reorganized after a successful lookup.
+     */
+    private Organization organization;
+
+    /**
+     * Number of calls to {@code value} and {@code hasKey}.
+     */
+    private long lookups;
+
+    /**
+     * Number of calls to {@code value} and {@code hasKey} that found the key.
+     */
+    private long hits;
+
+    /**
+     * Number of keys compared by calls to {@code value} and {@code hasKey}.
      */
-    private Queue<Pair<K, V>> pairsQueue;
+    private long probes;
 
     /**
-     * Finds pair with first component {@code key} and, if such exists, moves it
-     * to the front of {@code q}.
+     * Number of entries dequeued and enqueued again by calls to
+     * {@code value} and {@code hasKey}.
+     */
+    private long rotations;
+
+    /**
+     * Moves the front entry of {@code q} to the back {@code distance} times.
+     *
+     * @param <T>
+     *            type of {@code Queue} entries
+     * @param q
+     *            the {@code Queue} to rotate
+     * @param distance
+     *            the number of entries to move
+     * @updates q
+     * @requires 0 <= distance <= |q|
+     * @ensures q = #q[distance, |#q|) * #q[0, distance)
+     */
+    private static <T> void rotate(Queue<T> q, int distance) {
+        for (int i = 0; i < distance; i++) {
+            q.enqueue(q.dequeue());
+        }
+    }
+
+    /**
+     * Reports the position of the entry of {@code q} with key {@code key},
+     * comparing keys only until it is found.
      *
      * @param <K>
      *            type of {@code Pair} key
@@ -45,46 +179,169 @@ public class Map2<K, V> extends MapSecondary<K, V> {
      *            the {@code Queue} to be searched
      * @param key
      *            the key to be searched for
-     * @updates q
+     * @return the position of the entry with key {@code key}, or -1
      * @ensures <pre>
-     * perms(q, #q)  and
-     * if there exists value: V (<(key, value)> is substring of q)
-     *  then there exists value: V (<(key, value)> is prefix of q)
+     * if there exists value: V, count: integer
+     *     (<(key, value, count)> is substring of q)
+     *  then <(key, value, count)> = q[indexOf, indexOf + 1)
+     *  else indexOf = -1
      * </pre>
      */
-    private static <K, V> void moveToFront(Queue<Pair<K, V>> q, K key) {
+    private static <K, V> int indexOf(Queue<Entry<K, V>> q, K key) {
         assert q != null : "Violation of: q is not null";
         assert key != null : "Violation of: key is not null";
 
-        Queue<Pair<K, V>> helper = new Queue1L<>();
-        Pair<K, V> match = null;
-
-        boolean found = false;
+        int index = -1;
         int length = q.length();
-
         for (int i = 0; i < length; i++) {
-            Pair<K, V> temp = q.dequeue();
-            if (!found && temp.key().equals(key)) {
-                found = true;
-                match = temp;
-            } else {
-                helper.enqueue(temp);
+            Entry<K, V> temp = q.dequeue();
+            if (index < 0 && temp.pair.key().equals(key)) {
+                index = i;
             }
+            q.enqueue(temp);
         }
 
-        if (found) {
-            q.enqueue(match);
+        return index;
+    }
+
+    /**
+     * Exchanges the pairs and counts of {@code e1} and {@code e2}.
+     *
+     * @param <K>
+     *            type of {@code Pair} key
+     * @param <V>
+     *            type of {@code Pair} value
+     * @param e1
+     *            the first entry
+     * @param e2
+     *            the second entry
+     * @updates e1, e2
+     * @ensures e1 = #e2  and  e2 = #e1
+     */
+    private static <K, V> void swap(Entry<K, V> e1, Entry<K, V> e2) {
+        Pair<K, V> pair = e1.pair;
+        int count = e1.count;
+        e1.pair = e2.pair;
+        e1.count = e2.count;
+        e2.pair = pair;
+        e2.count = count;
+    }
+
+    /**
+     * Searches for {@code key}, counting the lookup and its probes, and
+     * reorganizes {@code $this.entries} according to
+     * {@code $this.organization} if the key is found.
+     *
+     * @param key
+     *            the key to be searched for
+     * @return the entry with key {@code key}, or {@code null}
+     * @updates $this
+     * @ensures <pre>
+     * this = #this  and
+     * if key is in DOMAIN(this)
+     *  then find.pair.key = key  and  find.count = #find.count + 1
+     *  else find = null
+     * </pre>
+     */
+    private Entry<K, V> find(K key) {
+        Entry<K, V> found = null;
+        this.lookups++;
+
+        if (this.organization == Organization.NONE) {
+            /*
+             * Stop at the key, leaving the queue rotated; order is not kept.
+             */
+            for (int i = 0; found == null && i < this.entries.length(); i++) {
+                Entry<K, V> temp = this.entries.dequeue();
+                this.probes++;
+                this.rotations++;
+                if (temp.pair.key().equals(key)) {
+                    found = temp;
+                }
+                this.entries.enqueue(temp);
+            }
+        } else {
+            /*
+             * Rotate all the way round so the order is kept, comparing keys
+             * only until the key is found, and reorganize on the way by
+             * exchanging the contents of the entry found with an entry
+             * already passed: the one just before it for TRANSPOSE, and the
+             * first of the run of entries with its count for FREQUENCY_COUNT.
+             * For MOVE_TO_FRONT, the front entry is exchanged with every
+             * entry passed, so that when the key is found each entry before
+             * it has moved back by one; on a miss that has moved every entry
+             * back by one, and one more rotation undoes it.
+             */
+            int length = this.entries.length();
+            Entry<K, V> front = null;
+            Entry<K, V> previous = null;
+            Entry<K, V> runStart = null;
+            for (int i = 0; i < length; i++) {
+                Entry<K, V> temp = this.entries.dequeue();
+                this.rotations++;
+                if (found == null) {
+                    this.probes++;
+                    if (runStart == null || temp.count != runStart.count) {
+                        runStart = temp;
+                    }
+                    boolean match = temp.pair.key().equals(key);
+                    if (i == 0) {
+                        front = temp;
+                        if (match) {
+                            found = temp;
+                        }
+                    } else {
+                        switch (this.organization) {
+                            case MOVE_TO_FRONT: {
+                                swap(front, temp);
+                                if (match) {
+                                    found = front;
+                                }
+                                break;
+                            }
+                            case TRANSPOSE: {
+                                if (match) {
+                                    swap(previous, temp);
+                                    found = previous;
+                                }
+                                break;
+                            }
+                            default: {
+                                if (match) {
+                                    swap(runStart, temp);
+                                    found = runStart;
+                                }
+                                break;
+                            }
+                        }
+                    }
+                    previous = temp;
+                }
+                this.entries.enqueue(temp);
+            }
+            if (found == null && this.organization == Organization.MOVE_TO_FRONT
+                    && length > 0) {
+                this.entries.enqueue(this.entries.dequeue());
+                this.rotations++;
+            }
         }
-        while (helper.length() > 0) {
-            q.enqueue(helper.dequeue());
+
+        if (found != null) {
+            found.count++;
+            this.hits++;
         }
+        return found;
     }
 
     /**
      * Creator of initial representation.
+     *
+     * @param order
+     *            the organization
      */
-    private void createNewRep() {
-        this.pairsQueue = new Queue1L<Pair<K, V>>();
+    private void createNewRep(Organization order) {
+        this.entries = new Queue1L<Entry<K, V>>();
+        this.organization = order;
     }
 
     /*
@@ -95,7 +352,22 @@ public class Map2<K, V> extends MapSecondary<K, V> {
      * No-argument constructor.
      */
     public Map2() {
-        this.createNewRep();
+        this(Organization.NONE);
+    }
+
+    /**
+     * Constructor for a map whose queue is reorganized after each successful
+     * lookup according to {@code organization}.
+     *
+     * @param organization
+     *            the organization
+     * @ensures this = {}
+     */
+    public Map2(Organization organization) {
+        assert organization != null : "Violation of: organization is not null";
+
+        this.createNewRep(organization);
+        this.resetStatistics();
     }
 
     /*
@@ -115,7 +387,7 @@ public class Map2<K, V> extends MapSecondary<K, V> {
 
     @Override
     public final void clear() {
-        this.createNewRep();
+        this.createNewRep(this.organization);
     }
 
     @Override
@@ -130,8 +402,9 @@ public class Map2<K, V> extends MapSecondary<K, V> {
          * the ?,? must be K,V or the call would not have compiled.
          */
         Map2<K, V> localSource = (Map2<K, V>) source;
-        this.pairsQueue = localSource.pairsQueue;
-        localSource.createNewRep();
+        this.entries = localSource.entries;
+        this.organization = localSource.organization;
+        localSource.createNewRep(localSource.organization);
     }
 
     /*
@@ -142,85 +415,184 @@ public class Map2<K, V> extends MapSecondary<K, V> {
     public final void add(K key, V value) {
         assert key != null : "Violation of: key is not null";
         assert value != null : "Violation of: value is not null";
-        assert !this.hasKey(key) : "Violation of: key is not in DOMAIN(this)";
+        assert indexOf(this.entries, key) < 0
+                : "Violation of: key is not in DOMAIN(this)";
 
-        this.pairsQueue.enqueue(new SimplePair<>(key, value));
+        this.entries.enqueue(new Entry<>(key, value));
     }
 
     @Override
     public final Pair<K, V> remove(K key) {
         assert key != null : "Violation of: key is not null";
-        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+        assert indexOf(this.entries, key) >= 0
+                : "Violation of: key is in DOMAIN(this)";
 
-        moveToFront(this.pairsQueue, key);
-        return this.pairsQueue.dequeue();
+        int length = this.entries.length();
+        Entry<K, V> removed = null;
+        for (int i = 0; i < length; i++) {
+            Entry<K, V> temp = this.entries.dequeue();
+            if (removed == null && temp.pair.key().equals(key)) {
+                removed = temp;
+            } else {
+                this.entries.enqueue(temp);
+            }
+        }
+
+        return removed.pair;
     }
 
     @Override
     public final Pair<K, V> removeAny() {
         assert this.size() > 0 : "Violation of: |this| > 0";
 
-        int random = (int) (Math.random() * this.pairsQueue.length());
+        int random = (int) (Math.random() * this.entries.length());
 
-        Pair<K, V> randomElement = this.pairsQueue.dequeue();
-        for (int i = 0; i < random; i++) {
-            this.pairsQueue.enqueue(randomElement);
-            randomElement = this.pairsQueue.dequeue();
+        rotate(this.entries, random);
+        Entry<K, V> randomElement = this.entries.dequeue();
+        if (this.organization != Organization.NONE) {
+            /*
+             * Restore the order the organization has built up.
+             */
+            rotate(this.entries, this.entries.length() - random);
         }
 
-        return randomElement;
+        return randomElement.pair;
     }
 
     @Override
     public final V value(K key) {
         assert key != null : "Violation of: key is not null";
-        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
-
-        V value = null;
+        assert indexOf(this.entries, key) >= 0
+                : "Violation of: key is in DOMAIN(this)";
 
-        boolean found = false;
-        for (int i = 0; !found && i < this.pairsQueue.length(); i++) {
-            Pair<K, V> temp = this.pairsQueue.dequeue();
-
-            if (temp.key().equals(key)) {
-                found = true;
+        return this.find(key).pair.value();
+    }
 
-                value = temp.value();
-            }
+    @Override
+    public final boolean hasKey(K key) {
+        assert key != null : "Violation of: key is not null";
 
-            this.pairsQueue.enqueue(temp);
-        }
+        return this.find(key) != null;
+    }
 
-        return value;
+    @Override
+    public final int size() {
+        return this.entries.length();
     }
 
     @Override
-    public final boolean hasKey(K key) {
-        assert key != null : "Violation of: key is not null";
+    public final Iterator<Pair<K, V>> iterator() {
+        return new Map2Iterator();
+    }
 
-        boolean found = false;
+    /*
+     * Statistics methods -----------------------------------------------------
+     */
 
-        for (int i = 0; !found && i < this.pairsQueue.length(); i++) {
-            Pair<K, V> temp = this.pairsQueue.dequeue();
+    /**
+     * Reports the number of calls to {@code value} and {@code hasKey} since
+     * construction or the last {@code resetStatistics}.
+     *
+     * @return the number of lookups
+     */
+    public final long lookups() {
+        return this.lookups;
+    }
 
-            if (temp.key().equals(key)) {
-                found = true;
-            }
+    /**
+     * Reports how many of {@code lookups()} found their key.
+     *
+     * @return the number of successful lookups
+     */
+    public final long hits() {
+        return this.hits;
+    }
 
-            this.pairsQueue.enqueue(temp);
-        }
+    /**
+     * Reports the total number of keys compared by {@code lookups()}; a hit
+     * on the entry at position i costs i + 1 probes and a miss costs
+     * {@code size()}.
+     *
+     * @return the number of probes
+     */
+    public final long probes() {
+        return this.probes;
+    }
 
-        return found;
+    /**
+     * Reports the total number of entries dequeued and enqueued again by
+     * {@code lookups()}. With {@code NONE}, a hit on the entry at position i
+     * costs i + 1 rotations and a miss costs {@code size()}; with any other
+     * organization every lookup costs {@code size()}, and a miss with
+     * {@code MOVE_TO_FRONT} one more.
+     *
+     * @return the number of rotations
+     */
+    public final long rotations() {
+        return this.rotations;
     }
 
-    @Override
-    public final int size() {
-        return this.pairsQueue.length();
+    /**
+     * Reports the average number of probes per lookup.
+     *
+     * @return probes() / lookups(), or 0 if there have been no lookups
+     */
+    public final double averageProbes() {
+        double average = 0.0;
+        if (this.lookups > 0) {
+            average = (double) this.probes / this.lookups;
+        }
+        return average;
     }
 
-    @Override
-    public final Iterator<Pair<K, V>> iterator() {
-        return this.pairsQueue.iterator();
+    /**
+     * Sets {@code lookups()}, {@code hits()}, {@code probes()}, and
+     * {@code rotations()} to 0.
+     *
+     * @ensures <pre>
+     * lookups() = 0  and  hits() = 0  and  probes() = 0  and  rotations() = 0
+     * </pre>
+     */
+    public final void resetStatistics() {
+        this.lookups = 0;
+        this.hits = 0;
+        this.probes = 0;
+        this.rotations = 0;
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code Map2}.
+     */
+    private final class Map2Iterator implements Iterator<Pair<K, V>> {
+
+        /**
+         * Iterator over the entries.
+         */
+        private final Iterator<Entry<K, V>> entryIterator;
+
+        /**
+         * No-argument constructor.
+         */
+        Map2Iterator() {
+            this.entryIterator = Map2.this.entries.iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.entryIterator.hasNext();
+        }
+
+        @Override
+        public Pair<K, V> next() {
+            return this.entryIterator.next().pair;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
     }
 
 }
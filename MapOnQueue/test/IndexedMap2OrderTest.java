@@ -0,0 +1,101 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import components.map.Map.Pair;
+
+/**
+ * JUnit test fixture for the insertion order kept by {@code IndexedMap2}.
+ *
+ * @author Brayden May
+ *
+ */
+public final class IndexedMap2OrderTest {
+
+
+    /**
+     * Returns the keys of {@code m} in iteration order, concatenated.
+     *
+     * @param m
+     *            the map
+     * @return the keys in order
+     */
+    private static String order(IndexedMap2<String, String> m) {
+        StringBuilder keys = new StringBuilder();
+        for (Pair<String, String> p : m) {
+            keys.append(p.key());
+        }
+        return keys.toString();
+    }
+
+    @Test
+    public void testIterationInInsertionOrder() {
+        IndexedMap2<String, String> m = MapFixtures.createFromKeys(
+                new IndexedMap2<>(), "d", "a", "c", "b");
+        assertEquals("dacb", order(m));
+    }
+
+    @Test
+    public void testLookupsDoNotReorder() {
+        IndexedMap2<String, String> m = MapFixtures.createFromKeys(
+                new IndexedMap2<>(), "a", "b", "c", "d");
+        assertTrue(m.hasKey("d"));
+        assertEquals("c", m.value("c"));
+        assertFalse(m.hasKey("z"));
+        assertEquals("abcd", order(m));
+    }
+
+    @Test
+    public void testRemoveKeepsOrder() {
+        IndexedMap2<String, String> m = MapFixtures.createFromKeys(
+                new IndexedMap2<>(), "a", "b", "c", "d");
+        assertEquals("b", m.remove("b").value());
+        assertEquals("acd", order(m));
+        m.add("b", "B");
+        assertEquals("acdb", order(m));
+        assertEquals("B", m.value("b"));
+    }
+
+    @Test
+    public void testRemoveAnyRemovesOldest() {
+        IndexedMap2<String, String> m = MapFixtures.createFromKeys(
+                new IndexedMap2<>(), "a", "b", "c");
+        assertEquals("a", m.removeAny().key());
+        assertEquals("b", m.removeAny().key());
+        assertEquals("c", order(m));
+    }
+
+    @Test
+    public void testManyKeysGrowIndex() {
+        IndexedMap2<String, String> m = new IndexedMap2<>();
+        for (int i = 0; i < 10000; i++) {
+            m.add(Integer.toString(i), "v" + i);
+        }
+        for (int i = 0; i < 10000; i += 2) {
+            m.remove(Integer.toString(i));
+        }
+        assertEquals(5000, m.size());
+        int expected = 1;
+        for (Pair<String, String> p : m) {
+            assertEquals(Integer.toString(expected), p.key());
+            assertEquals("v" + expected, m.value(p.key()));
+            expected += 2;
+        }
+        assertFalse(m.hasKey("42"));
+    }
+
+    @Test
+    public void testTransferFromKeepsOrder() {
+        IndexedMap2<String, String> source = MapFixtures.createFromKeys(
+                new IndexedMap2<>(), "c", "a", "b");
+        IndexedMap2<String, String> m = new IndexedMap2<>();
+        m.transferFrom(source);
+        assertEquals(0, source.size());
+        assertEquals("cab", order(m));
+        source.add("x", "x");
+        assertEquals("x", order(source));
+    }
+
+}
@@ -0,0 +1,19 @@
+import components.map.Map;
+import components.map.Map1L;
+
+/**
+ * Customized JUnit test fixture for {@code IndexedMap2}.
+ */
+public class IndexedMap2Test extends MapTest {
+
+    @Override
+    protected final Map<String, String> constructorTest() {
+        return new IndexedMap2<String, String>();
+    }
+
+    @Override
+    protected final Map<String, String> constructorRef() {
+        return new Map1L<String, String>();
+    }
+
+}
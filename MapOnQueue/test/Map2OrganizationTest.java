@@ -0,0 +1,179 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import components.map.Map.Pair;
+
+/**
+ * JUnit test fixture for the self-organizing modes and the lookup statistics
+ * of {@code Map2}.
+ *
+ * @author Brayden May
+ *
+ */
+public final class Map2OrganizationTest {
+
+
+    /**
+     * Returns the keys of {@code m} in iteration (queue) order, concatenated.
+     *
+     * @param m
+     *            the map
+     * @return the keys in order
+     */
+    private static String order(Map2<String, String> m) {
+        StringBuilder keys = new StringBuilder();
+        for (Pair<String, String> p : m) {
+            keys.append(p.key());
+        }
+        return keys.toString();
+    }
+
+    @Test
+    public void testMoveToFront() {
+        Map2<String, String> m = MapFixtures.createFromKeys(
+                new Map2<>(Map2.Organization.MOVE_TO_FRONT), "a", "b", "c", "d",
+                "e");
+        assertEquals("d", m.value("d"));
+        assertEquals("dabce", order(m));
+        assertTrue(m.hasKey("e"));
+        assertEquals("edabc", order(m));
+        assertTrue(m.hasKey("e"));
+        assertEquals("edabc", order(m));
+    }
+
+    @Test
+    public void testTranspose() {
+        Map2<String, String> m = MapFixtures.createFromKeys(
+                new Map2<>(Map2.Organization.TRANSPOSE), "a", "b", "c", "d");
+        assertTrue(m.hasKey("c"));
+        assertEquals("acbd", order(m));
+        assertEquals("c", m.value("c"));
+        assertEquals("cabd", order(m));
+        assertTrue(m.hasKey("c"));
+        assertEquals("cabd", order(m));
+    }
+
+    @Test
+    public void testFrequencyCount() {
+        Map2<String, String> m = MapFixtures.createFromKeys(
+                new Map2<>(Map2.Organization.FREQUENCY_COUNT), "a", "b", "c",
+                "d");
+        /*
+         * The key found changes places with the first key of its run, so
+         * keys looked up equally often need not keep their relative order.
+         */
+        assertTrue(m.hasKey("c"));
+        assertEquals("cbad", order(m));
+        assertTrue(m.hasKey("d"));
+        assertEquals("cdab", order(m));
+        assertTrue(m.hasKey("d"));
+        assertEquals("dcab", order(m));
+        assertTrue(m.hasKey("b"));
+        assertEquals("dcba", order(m));
+    }
+
+    @Test
+    public void testMissDoesNotReorder() {
+        Map2<String, String> m = MapFixtures.createFromKeys(
+                new Map2<>(Map2.Organization.MOVE_TO_FRONT), "a", "b", "c");
+        assertFalse(m.hasKey("z"));
+        assertEquals("abc", order(m));
+        m = MapFixtures.createFromKeys(
+                new Map2<>(Map2.Organization.TRANSPOSE), "a", "b", "c");
+        assertFalse(m.hasKey("z"));
+        assertEquals("abc", order(m));
+        m = MapFixtures.createFromKeys(
+                new Map2<>(Map2.Organization.FREQUENCY_COUNT), "a", "b", "c");
+        assertFalse(m.hasKey("z"));
+        assertEquals("abc", order(m));
+    }
+
+    @Test
+    public void testOrganizedLookupsRotateOnce() {
+        Map2<String, String> m = MapFixtures.createFromKeys(
+                new Map2<>(Map2.Organization.TRANSPOSE), "a", "b", "c", "d");
+        m.hasKey("c");
+        m.hasKey("z");
+        assertEquals(8, m.rotations());
+        m = MapFixtures.createFromKeys(
+                new Map2<>(Map2.Organization.FREQUENCY_COUNT), "a", "b", "c",
+                "d");
+        m.hasKey("d");
+        m.hasKey("b");
+        assertEquals(8, m.rotations());
+        m = MapFixtures.createFromKeys(
+                new Map2<>(Map2.Organization.MOVE_TO_FRONT), "a", "b", "c",
+                "d");
+        m.hasKey("d");
+        m.hasKey("z");
+        assertEquals(4 + 4 + 1, m.rotations());
+        assertEquals(2, m.lookups());
+    }
+
+    @Test
+    public void testRemoveKeepsOrder() {
+        Map2<String, String> m = MapFixtures.createFromKeys(
+                new Map2<>(Map2.Organization.FREQUENCY_COUNT), "a", "b", "c",
+                "d");
+        m.hasKey("d");
+        m.remove("b");
+        assertEquals("dca", order(m));
+        m.removeAny();
+        assertEquals(2, m.size());
+    }
+
+    @Test
+    public void testStatistics() {
+        Map2<String, String> m = MapFixtures.createFromKeys(
+                new Map2<>(Map2.Organization.NONE), "a", "b", "c");
+        assertEquals(0, m.lookups());
+        m.hasKey("a");
+        m.hasKey("z");
+        m.value("a");
+        assertEquals(3, m.lookups());
+        assertEquals(2, m.hits());
+        assertEquals(1 + 3 + 3, m.probes());
+        assertEquals(1 + 3 + 3, m.rotations());
+        assertEquals(7.0 / 3.0, m.averageProbes(), 1e-9);
+        m.resetStatistics();
+        assertEquals(0, m.lookups());
+        assertEquals(0, m.hits());
+        assertEquals(0, m.probes());
+        assertEquals(0, m.rotations());
+        assertEquals(0.0, m.averageProbes(), 0.0);
+    }
+
+    @Test
+    public void testMoveToFrontReducesProbesOnSkewedWorkload() {
+        String[] keys = new String[20];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "k" + i;
+        }
+        Map2<String, String> plain = MapFixtures.createFromKeys(
+                new Map2<>(Map2.Organization.NONE), keys);
+        Map2<String, String> mtf = MapFixtures.createFromKeys(
+                new Map2<>(Map2.Organization.MOVE_TO_FRONT), keys);
+        for (int round = 0; round < 50; round++) {
+            plain.value("k19");
+            mtf.value("k19");
+            plain.value("k18");
+            mtf.value("k18");
+        }
+        assertTrue(mtf.probes() < plain.probes());
+        assertEquals(plain.hits(), mtf.hits());
+    }
+
+    @Test
+    public void testAssertionsDoNotCount() {
+        Map2<String, String> m = MapFixtures.createFromKeys(
+                new Map2<>(Map2.Organization.MOVE_TO_FRONT), "a", "b", "c");
+        m.add("d", "d");
+        m.remove("a");
+        assertEquals(0, m.lookups());
+        assertEquals("bcd", order(m));
+    }
+
+}
@@ -0,0 +1,21 @@
+import components.map.Map;
+import components.map.Map1L;
+
+/**
+ * Customized JUnit test fixture for {@code Map2} using the
+ * {@code FREQUENCY_COUNT} organization, which orders keys by how often they
+ * are found.
+ */
+public class Map2TestFrequencyCount extends MapTest {
+
+    @Override
+    protected final Map<String, String> constructorTest() {
+        return new Map2<String, String>(Map2.Organization.FREQUENCY_COUNT);
+    }
+
+    @Override
+    protected final Map<String, String> constructorRef() {
+        return new Map1L<String, String>();
+    }
+
+}
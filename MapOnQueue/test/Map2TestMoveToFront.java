@@ -0,0 +1,20 @@
+import components.map.Map;
+import components.map.Map1L;
+
+/**
+ * Customized JUnit test fixture for {@code Map2} using the
+ * {@code MOVE_TO_FRONT} organization, which moves each key found to the front.
+ */
+public class Map2TestMoveToFront extends MapTest {
+
+    @Override
+    protected final Map<String, String> constructorTest() {
+        return new Map2<String, String>(Map2.Organization.MOVE_TO_FRONT);
+    }
+
+    @Override
+    protected final Map<String, String> constructorRef() {
+        return new Map1L<String, String>();
+    }
+
+}
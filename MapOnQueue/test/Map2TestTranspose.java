@@ -0,0 +1,20 @@
+import components.map.Map;
+import components.map.Map1L;
+
+/**
+ * Customized JUnit test fixture for {@code Map2} using the {@code TRANSPOSE}
+ * organization, which swaps each key found with its predecessor.
+ */
+public class Map2TestTranspose extends MapTest {
+
+    @Override
+    protected final Map<String, String> constructorTest() {
+        return new Map2<String, String>(Map2.Organization.TRANSPOSE);
+    }
+
+    @Override
+    protected final Map<String, String> constructorRef() {
+        return new Map1L<String, String>();
+    }
+
+}
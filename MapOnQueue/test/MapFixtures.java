@@ -0,0 +1,53 @@
+import components.map.Map;
+
+/**
+ * Helpers shared by the JUnit test fixtures of this project that build a map
+ * of a particular configuration, rather than through {@code MapTest}'s
+ * {@code constructorTest}.
+ *
+ * @author Brayden May
+ *
+ */
+final class MapFixtures {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private MapFixtures() {
+    }
+
+    /**
+     * Adds each of {@code keys}, in order, to {@code map} with value equal to
+     * the key, and returns {@code map}.
+     *
+     * @param <M>
+     *            type of the map
+     * @param map
+     *            the map to fill
+     * @param keys
+     *            the keys, in order
+     * @return {@code map}
+     * @updates map
+     * @requires <pre>
+     * [every entry in keys is unique]  and
+     * [no entry in keys is in DOMAIN(map)]
+     * </pre>
+     * @ensures <pre>
+     * createFromKeys = map  and
+     * map = #map union [(key, key) for each key in keys]
+     * </pre>
+     */
+    static <M extends Map<String, String>> M createFromKeys(M map,
+            String... keys) {
+        for (String key : keys) {
+            /*
+             * No hasKey check here, as in createFromArgsTest: it would count
+             * as a lookup in the statistics of some implementations, and
+             * add checks its own precondition.
+             */
+            map.add(key, key);
+        }
+        return map;
+    }
+
+}
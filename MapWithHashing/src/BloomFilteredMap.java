@@ -0,0 +1,341 @@
+import java.util.Iterator;
+
+import components.map.Map;
+import components.map.MapSecondary;
+
+/**
+ * {@code Map} that wraps another {@code Map} and puts a counting Bloom filter
+ * of its keys in front of it, so that most {@code hasKey} calls for absent
+ * keys are answered without searching the wrapped map at all.
+ *
+ * <p>
+ * The filter is kept exact under {@code remove} and {@code removeAny} by
+ * decrementing counters, and is rebuilt twice as large whenever the map grows
+ * past the size it was built for, so its false-positive rate stays near the
+ * target. The wrapper counts how many misses the filter answered and how many
+ * it let through, so the false-positive rate actually observed can be
+ * compared with the target.
+ * </p>
+ *
+ * @param <K>
+ *            type of {@code Map} domain (key) entries
+ * @param <V>
+ *            type of {@code Map} range (associated value) entries
+ * @convention <pre>
+ * [$this.filter holds exactly the keys of DOMAIN($this.pairs)]  and
+ * |$this.pairs| <= $this.filter.expectedInsertions  and
+ * $this.filter.falsePositiveRate = $this.falsePositiveRate
+ * </pre>
+ * @correspondence this = $this.pairs
+ *
+ * @author Brayden May
+ *
+ */
+public class BloomFilteredMap<K, V> extends MapSecondary<K, V> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Default number of keys the filter is first sized for.
+     */
+    private static final int DEFAULT_EXPECTED_SIZE = 64;
+
+    /**
+     * Default target false-positive rate.
+     */
+    private static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+
+    /**
+     * The wrapped map.
+     */
+    private Map<K, V> pairs;
+
+    /**
+     * Filter holding the keys of {@code pairs}.
+     */
+    private CountingBloomFilter<K> filter;
+
+    /**
+     * Number of keys the filter is first sized for.
+     */
+    private int expectedSize;
+
+    /**
+     * Target false-positive rate of the filter.
+     */
+    private double falsePositiveRate;
+
+    /**
+     * Number of calls to {@code hasKey}.
+     */
+    private long lookups;
+
+    /**
+     * Number of calls to {@code hasKey} answered by the filter alone.
+     */
+    private long filtered;
+
+    /**
+     * Number of calls to {@code hasKey} the filter let through for an
+     * absent key.
+     */
+    private long falsePositives;
+
+    /**
+     * Rebuilds {@code filter} for twice as many keys if {@code pairs} has
+     * outgrown it.
+     */
+    private void growIfNeeded() {
+        int capacity = this.filter.expectedInsertions();
+        if (this.pairs.size() > capacity) {
+            this.filter = new CountingBloomFilter<>(2 * capacity,
+                    this.falsePositiveRate);
+            for (Pair<K, V> p : this.pairs) {
+                this.filter.add(p.key());
+            }
+        }
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param wrapped
+     *            the map to wrap
+     * @requires wrapped = {}
+     */
+    private void createNewRep(Map<K, V> wrapped) {
+        this.pairs = wrapped;
+        this.filter = new CountingBloomFilter<>(this.expectedSize,
+                this.falsePositiveRate);
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * Constructor wrapping {@code wrapped} with a filter at the default target
+     * false-positive rate.
+     *
+     * @param wrapped
+     *            the map to wrap
+     * @requires wrapped = {}
+     * @ensures this = {}
+     */
+    public BloomFilteredMap(Map<K, V> wrapped) {
+        this(wrapped, DEFAULT_EXPECTED_SIZE, DEFAULT_FALSE_POSITIVE_RATE);
+    }
+
+    /**
+     * Constructor wrapping {@code wrapped} with a filter first sized for
+     * {@code expectedSize} keys at a target false-positive rate of
+     * {@code falsePositiveRate}.
+     *
+     * @param wrapped
+     *            the map to wrap
+     * @param expectedSize
+     *            the number of keys expected
+     * @param falsePositiveRate
+     *            the target false-positive rate
+     * @requires <pre>
+     * wrapped = {}  and  expectedSize > 0  and  0 < falsePositiveRate < 1
+     * </pre>
+     * @ensures this = {}
+     */
+    public BloomFilteredMap(Map<K, V> wrapped, int expectedSize,
+            double falsePositiveRate) {
+        assert wrapped != null : "Violation of: wrapped is not null";
+        assert wrapped.size() == 0 : "Violation of: wrapped = {}";
+        assert expectedSize > 0 : "Violation of: expectedSize > 0";
+        assert falsePositiveRate > 0 && falsePositiveRate < 1
+                : "Violation of: 0 < falsePositiveRate < 1";
+
+        this.expectedSize = expectedSize;
+        this.falsePositiveRate = falsePositiveRate;
+        this.createNewRep(wrapped);
+        this.resetStatistics();
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @Override
+    public final Map<K, V> newInstance() {
+        return new BloomFilteredMap<>(this.pairs.newInstance(),
+                this.expectedSize, this.falsePositiveRate);
+    }
+
+    @Override
+    public final void clear() {
+        this.pairs.clear();
+        this.filter.clear();
+    }
+
+    @Override
+    public final void transferFrom(Map<K, V> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof BloomFilteredMap<?, ?> : "" + "Violation"
+                + " of: source is of dynamic type BloomFilteredMap<?,?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type
+         * BloomFilteredMap<?,?>, and the ?,? must be K,V or the call would
+         * not have compiled.
+         */
+        BloomFilteredMap<K, V> localSource = (BloomFilteredMap<K, V>) source;
+        this.pairs = localSource.pairs;
+        this.filter = localSource.filter;
+        this.expectedSize = localSource.expectedSize;
+        this.falsePositiveRate = localSource.falsePositiveRate;
+        localSource.createNewRep(localSource.pairs.newInstance());
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(K key, V value) {
+        assert key != null : "Violation of: key is not null";
+        assert value != null : "Violation of: value is not null";
+        assert !this.pairs.hasKey(key)
+                : "Violation of: key is not in DOMAIN(this)";
+
+        this.pairs.add(key, value);
+        this.filter.add(key);
+        this.growIfNeeded();
+    }
+
+    @Override
+    public final Pair<K, V> remove(K key) {
+        assert key != null : "Violation of: key is not null";
+        assert this.pairs.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+
+        Pair<K, V> removed = this.pairs.remove(key);
+        this.filter.remove(removed.key());
+        return removed;
+    }
+
+    @Override
+    public final Pair<K, V> removeAny() {
+        assert this.size() > 0 : "Violation of: this /= empty_set";
+
+        Pair<K, V> removed = this.pairs.removeAny();
+        this.filter.remove(removed.key());
+        return removed;
+    }
+
+    @Override
+    public final V value(K key) {
+        assert key != null : "Violation of: key is not null";
+        assert this.pairs.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+
+        return this.pairs.value(key);
+    }
+
+    @Override
+    public final boolean hasKey(K key) {
+        assert key != null : "Violation of: key is not null";
+
+        this.lookups++;
+        boolean found = false;
+        if (!this.filter.mightContain(key)) {
+            this.filtered++;
+        } else {
+            found = this.pairs.hasKey(key);
+            if (!found) {
+                this.falsePositives++;
+            }
+        }
+
+        return found;
+    }
+
+    @Override
+    public final int size() {
+        return this.pairs.size();
+    }
+
+    @Override
+    public final Iterator<Pair<K, V>> iterator() {
+        return this.pairs.iterator();
+    }
+
+    /*
+     * Statistics methods -----------------------------------------------------
+     */
+
+    /**
+     * Reports the number of calls to {@code hasKey} since construction or
+     * the last {@code resetStatistics}.
+     *
+     * @return the number of lookups
+     */
+    public final long lookups() {
+        return this.lookups;
+    }
+
+    /**
+     * Reports the number of calls to {@code hasKey} answered by the filter
+     * without searching the wrapped map, since construction or the last
+     * {@code resetStatistics}.
+     *
+     * @return the number of lookups filtered
+     */
+    public final long filtered() {
+        return this.filtered;
+    }
+
+    /**
+     * Reports the number of calls to {@code hasKey} for an absent key
+     * that the filter did not answer, since construction or the last
+     * {@code resetStatistics}.
+     *
+     * @return the number of false positives
+     */
+    public final long falsePositives() {
+        return this.falsePositives;
+    }
+
+    /**
+     * Reports the fraction of lookups of absent keys that the filter
+     * failed to answer.
+     *
+     * @return falsePositives() / (filtered() + falsePositives()), or 0 if
+     *         there have been no such lookups
+     */
+    public final double observedFalsePositiveRate() {
+        double rate = 0.0;
+        long misses = this.filtered + this.falsePositives;
+        if (misses > 0) {
+            rate = (double) this.falsePositives / misses;
+        }
+        return rate;
+    }
+
+    /**
+     * Reports the false-positive rate the filter is sized for.
+     *
+     * @return the target false-positive rate
+     */
+    public final double targetFalsePositiveRate() {
+        return this.falsePositiveRate;
+    }
+
+    /**
+     * Sets {@code lookups()}, {@code filtered()}, and
+     * {@code falsePositives()} to 0.
+     *
+     * @ensures lookups() = 0  and  filtered() = 0  and  falsePositives() = 0
+     */
+    public final void resetStatistics() {
+        this.lookups = 0;
+        this.filtered = 0;
+        this.falsePositives = 0;
+    }
+
+}
@@ -0,0 +1,1222 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.map.Map;
+import components.map.MapSecondary;
+import components.queue.Queue;
+import components.queue.Queue1L;
+
+/**
+ * Bounded cache {@code Map}: a hash index over nodes that are also linked
+ * into doubly linked recency lists, so that lookups, insertions, and
+ * evictions are all O(1). Whenever the total weight of the entries exceeds
+ * the maximum weight, entries are evicted according to the cache's
+ * {@code Policy}, and every registered {@code EvictionListener} is told.
+ *
+ * <p>
+ * Unlike other {@code Map}s, {@code add} and {@code put} may therefore leave
+ * out pairs that were in {@code this}, or even the pair just added. Weight is
+ * the number of entries by default, or an estimate of their size in bytes
+ * given by a {@code Weigher}.
+ * </p>
+ *
+ * <p>
+ * With {@code LRU}, all entries are in one list and the least recently used
+ * entry is evicted. With {@code W_TINY_LFU}, new entries enter a small LRU
+ * window; entries leaving the window must win admission to the main region
+ * by having been used more often, according to a frequency sketch, than the
+ * entry the main region would evict. The main region is a segmented LRU: a
+ * probation segment for entries used once since admission, and a protected
+ * segment for entries used again.
+ * </p>
+ *
+ * @param <K>
+ *            type of {@code Map} domain (key) entries
+ * @param <V>
+ *            type of {@code Map} range (associated value) entries
+ * @convention <pre>
+ * |$this.table| is a power of two  and
+ * $this.size <= MAX_LOAD_FACTOR * |$this.table|  and
+ * [every node is in exactly one bucket chain of $this.table, the one at
+ *  index spread(hashCode(node.key)) mod |$this.table|, and in exactly one of
+ *  the recency lists, the one for node.region]  and
+ * [$this.size = number of nodes]  and
+ * [$this.weight = sum of node.weight over all nodes]  and
+ * [$this.regionWeights[r] = sum of node.weight over the nodes of region r]
+ *  and
+ * [the keys of the nodes are distinct]  and
+ * ($this.weight <= $this.maximumWeight  or
+ *  [a call is in progress that is about to evict])  and
+ * if $this.policy = LRU then
+ *   [every node is in the WINDOW region]
+ * </pre>
+ * @correspondence <pre>
+ * this = {(node.key, node.value): [node is in a bucket chain of $this.table]}
+ * </pre>
+ *
+ * @author Brayden May
+ *
+ */
+public class CacheMap<K, V> extends MapSecondary<K, V> {
+
+    /**
+     * Rules for choosing which entries to evict.
+     */
+    public enum Policy {
+        /**
+         * Evict the least recently used entry.
+         */
+        LRU,
+        /**
+         * Admit entries from a small LRU window into a segmented LRU main
+         * region only if they are used more often than its victim.
+         */
+        W_TINY_LFU
+    }
+
+    /**
+     * Function giving the weight of an entry, such as an estimate of its size
+     * in bytes.
+     *
+     * @param <K>
+     *            type of keys
+     * @param <V>
+     *            type of values
+     */
+    public interface Weigher<K, V> {
+
+        /**
+         * Returns the weight of the entry ({@code key}, {@code value}).
+         *
+         * @param key
+         *            the key
+         * @param value
+         *            the value
+         * @return the weight
+         * @ensures weigh >= 0
+         */
+        int weigh(K key, V value);
+
+    }
+
+    /**
+     * Receiver of the entries a cache evicts.
+     *
+     * @param <K>
+     *            type of keys
+     * @param <V>
+     *            type of values
+     */
+    public interface EvictionListener<K, V> {
+
+        /**
+         * Called after ({@code key}, {@code value}) has been evicted.
+         *
+         * @param key
+         *            the key evicted
+         * @param value
+         *            the value evicted
+         */
+        void evicted(K key, V value);
+
+    }
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Default maximum number of entries.
+     */
+    private static final int DEFAULT_MAXIMUM_SIZE = 1000;
+
+    /**
+     * Initial size of the hash table; a power of two.
+     */
+    private static final int INITIAL_TABLE_SIZE = 16;
+
+    /**
+     * Maximum ratio of entries to buckets before the hash table is grown.
+     */
+    private static final double MAX_LOAD_FACTOR = 0.75;
+
+    /**
+     * Largest hash table size that will ever be allocated.
+     */
+    private static final int MAX_TABLE_SIZE = 1 << 30;
+
+    /**
+     * Percentage of the maximum weight given to the window with
+     * {@code W_TINY_LFU}.
+     */
+    private static final int WINDOW_PERCENT = 1;
+
+    /**
+     * Percentage of the main region given to its protected segment with
+     * {@code W_TINY_LFU}.
+     */
+    private static final int PROTECTED_PERCENT = 80;
+
+    /**
+     * Regions of the cache, each with its own recency list.
+     */
+    private enum Region {
+        /**
+         * Recently added entries ({@code W_TINY_LFU}), or all entries
+         * ({@code LRU}).
+         */
+        WINDOW,
+        /**
+         * Entries of the main region not used since admission.
+         */
+        PROBATION,
+        /**
+         * Entries of the main region used since admission.
+         */
+        PROTECTED
+    }
+
+    /**
+     * Weigher counting every entry as 1.
+     *
+     * @param <K>
+     *            type of keys
+     * @param <V>
+     *            type of values
+     */
+    private static final class UnitWeigher<K, V> implements Weigher<K, V> {
+
+        @Override
+        public int weigh(K key, V value) {
+            return 1;
+        }
+
+    }
+
+    /**
+     * Count-min sketch of how often keys have been used, with 4-bit saturating
+     * counters, packed 16 to a {@code long}, that are all halved periodically
+     * so that old popularity fades.
+     */
+    private static final class FrequencySketch {
+
+        /**
+         * Odd multipliers giving each row of the sketch its own hash.
+         */
+        private static final int[] SEEDS = { 0x9E3779B9, 0x85EBCA6B,
+                0xC2B2AE35, 0x27D4EB2F };
+
+        /**
+         * Largest value of a counter.
+         */
+        private static final int MAX_COUNT = 15;
+
+        /**
+         * Number of increments, per counter in a row, between agings.
+         */
+        private static final int SAMPLE_FACTOR = 10;
+
+        /**
+         * Number of bits of a counter.
+         */
+        private static final int COUNTER_BITS = 4;
+
+        /**
+         * log2 of the number of counters in a word.
+         */
+        private static final int COUNTERS_PER_WORD_LOG = 4;
+
+        /**
+         * Mask of the low bits of every counter in a word, cleared when all
+         * counters are halved by one shift of the word.
+         */
+        private static final long HALVING_MASK = 0x7777777777777777L;
+
+        /**
+         * Counters, 16 per word, counter i in bits 4 * (i mod 16) and up of
+         * word i / 16; each row of the sketch indexes all of them.
+         */
+        private long[] counters;
+
+        /**
+         * Number of counters.
+         */
+        private int width;
+
+        /**
+         * Number of increments since the last aging.
+         */
+        private int additions;
+
+        /**
+         * Constructor for a sketch with {@code width} counters.
+         *
+         * @param width
+         *            number of counters; a power of two
+         */
+        FrequencySketch(int width) {
+            this.allocate(width);
+        }
+
+        /**
+         * Replaces the counters with {@code width} zero counters.
+         *
+         * @param newWidth
+         *            number of counters; a power of two
+         */
+        private void allocate(int newWidth) {
+            this.width = newWidth;
+            this.counters = new long[Math.max(1,
+                    newWidth >>> COUNTERS_PER_WORD_LOG)];
+            this.additions = 0;
+        }
+
+        /**
+         * Returns the value of counter {@code i}.
+         *
+         * @param i
+         *            the index of the counter
+         * @return the value
+         */
+        private int count(int i) {
+            int shift = (i & ((1 << COUNTERS_PER_WORD_LOG) - 1))
+                    * COUNTER_BITS;
+            return (int) (this.counters[i >>> COUNTERS_PER_WORD_LOG] >>> shift)
+                    & MAX_COUNT;
+        }
+
+        /**
+         * Returns the counter of {@code hash} in row {@code row}.
+         *
+         * @param hash
+         *            the hash of the key
+         * @param row
+         *            the row
+         * @return the index of the counter
+         */
+        private int indexOf(int hash, int row) {
+            int h = hash * SEEDS[row];
+            h ^= h >>> Short.SIZE;
+            return h & (this.width - 1);
+        }
+
+        /**
+         * Records one use of the key with hash {@code hash}.
+         *
+         * @param hash
+         *            the hash of the key
+         */
+        void increment(int hash) {
+            for (int row = 0; row < SEEDS.length; row++) {
+                int i = this.indexOf(hash, row);
+                if (this.count(i) < MAX_COUNT) {
+                    int shift = (i & ((1 << COUNTERS_PER_WORD_LOG) - 1))
+                            * COUNTER_BITS;
+                    this.counters[i >>> COUNTERS_PER_WORD_LOG] += 1L << shift;
+                }
+            }
+            this.additions++;
+            if (this.additions >= SAMPLE_FACTOR * this.width) {
+                for (int w = 0; w < this.counters.length; w++) {
+                    this.counters[w] = (this.counters[w] >>> 1) & HALVING_MASK;
+                }
+                this.additions = 0;
+            }
+        }
+
+        /**
+         * Reports an estimate of the recent uses of the key with hash
+         * {@code hash}.
+         *
+         * @param hash
+         *            the hash of the key
+         * @return the estimated frequency
+         */
+        int frequency(int hash) {
+            int min = MAX_COUNT;
+            for (int row = 0; row < SEEDS.length; row++) {
+                min = Math.min(min, this.count(this.indexOf(hash, row)));
+            }
+            return min;
+        }
+
+        /**
+         * Makes the sketch at least {@code width} counters wide, starting
+         * over if it has to grow.
+         *
+         * @param width
+         *            number of counters; a power of two
+         */
+        void ensureCapacity(int width) {
+            if (width > this.width) {
+                this.allocate(width);
+            }
+        }
+
+    }
+
+    /**
+     * Node of the hash index and of a recency list.
+     *
+     * @param <K>
+     *            type of key
+     * @param <V>
+     *            type of value
+     */
+    private static final class Node<K, V> {
+
+        /**
+         * Key of the entry, or, if this is a "smart" Node, irrelevant.
+         */
+        private K key;
+
+        /**
+         * Value of the entry, or, if this is a "smart" Node, irrelevant.
+         */
+        private V value;
+
+        /**
+         * Spread hash of the key.
+         */
+        private int hash;
+
+        /**
+         * Weight of the entry.
+         */
+        private int weight;
+
+        /**
+         * Region whose recency list holds this node.
+         */
+        private Region region;
+
+        /**
+         * Next node in the same bucket chain, or {@code null}.
+         */
+        private Node<K, V> bucketNext;
+
+        /**
+         * Next (more recently used) node in the recency list; for a "smart"
+         * Node, the least recently used node.
+         */
+        private Node<K, V> next;
+
+        /**
+         * Previous (less recently used) node in the recency list; for a
+         * "smart" Node, the most recently used node.
+         */
+        private Node<K, V> previous;
+
+    }
+
+    /**
+     * Bucket chains of the hash index.
+     */
+    private Node<K, V>[] table;
+
+    /**
+     * "Smart" nodes of the circular recency lists, one per region.
+     */
+    private Node<K, V>[] heads;
+
+    /**
+     * Total weight of each region.
+     */
+    private long[] regionWeights;
+
+    /**
+     * Number of entries.
+     */
+    private int size;
+
+    /**
+     * Total weight of the entries.
+     */
+    private long weight;
+
+    /**
+     * Largest total weight kept.
+     */
+    private long maximumWeight;
+
+    /**
+     * Largest total weight of the window before entries leave it.
+     */
+    private long windowMaximum;
+
+    /**
+     * Largest total weight of the protected segment before entries are
+     * demoted to probation.
+     */
+    private long protectedMaximum;
+
+    /**
+     * Eviction policy.
+     */
+    private Policy policy;
+
+    /**
+     * Function giving the weight of each entry.
+     */
+    private Weigher<? super K, ? super V> weigher;
+
+    /**
+     * Frequency sketch used by {@code W_TINY_LFU}.
+     */
+    private FrequencySketch sketch;
+
+    /**
+     * Listeners told of each eviction.
+     */
+    private Queue<EvictionListener<? super K, ? super V>> listeners;
+
+    /**
+     * Number of lookups that found their key.
+     */
+    private long hits;
+
+    /**
+     * Number of lookups that did not find their key.
+     */
+    private long misses;
+
+    /**
+     * Number of entries evicted.
+     */
+    private long evictions;
+
+    /**
+     * Returns {@code h} with its high bits folded into its low bits, so that
+     * masking with a power of two uses all of them.
+     *
+     * @param h
+     *            the hash code
+     * @return the spread hash
+     */
+    private static int spread(int h) {
+        return h ^ (h >>> Short.SIZE);
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param maxWeight
+     *            the maximum total weight
+     * @param evictionPolicy
+     *            the eviction policy
+     * @param entryWeigher
+     *            the function giving the weight of each entry
+     */
+    private void createNewRep(long maxWeight, Policy evictionPolicy,
+            Weigher<? super K, ? super V> entryWeigher) {
+        this.table = newTable(INITIAL_TABLE_SIZE);
+        this.heads = newTable(Region.values().length);
+        for (int r = 0; r < this.heads.length; r++) {
+            Node<K, V> head = new Node<>();
+            head.next = head;
+            head.previous = head;
+            this.heads[r] = head;
+        }
+        this.regionWeights = new long[Region.values().length];
+        this.size = 0;
+        this.weight = 0;
+        this.maximumWeight = maxWeight;
+        this.policy = evictionPolicy;
+        this.weigher = entryWeigher;
+        this.sketch = new FrequencySketch(INITIAL_TABLE_SIZE);
+
+        if (evictionPolicy == Policy.LRU) {
+            this.windowMaximum = maxWeight;
+            this.protectedMaximum = 0;
+        } else {
+            this.windowMaximum = Math.max(1, maxWeight * WINDOW_PERCENT / 100);
+            this.protectedMaximum = (maxWeight - this.windowMaximum)
+                    * PROTECTED_PERCENT / 100;
+        }
+    }
+
+    /**
+     * Returns a new array of {@code length} null nodes.
+     *
+     * @param length
+     *            the length
+     * @return the array
+     */
+    @SuppressWarnings("unchecked")
+    private static <K, V> Node<K, V>[] newTable(int length) {
+        return (Node<K, V>[]) new Node<?, ?>[length];
+    }
+
+    /**
+     * Returns the node with key {@code key}, or {@code null}.
+     *
+     * @param key
+     *            the key
+     * @param hash
+     *            the spread hash of the key
+     * @return the node, or null if key is not in DOMAIN(this)
+     */
+    private Node<K, V> findNode(K key, int hash) {
+        Node<K, V> n = this.table[hash & (this.table.length - 1)];
+        while (n != null && !(n.hash == hash && n.key.equals(key))) {
+            n = n.bucketNext;
+        }
+        return n;
+    }
+
+    /**
+     * Adds {@code n} to the front of its bucket chain.
+     *
+     * @param n
+     *            the node
+     */
+    private void indexNode(Node<K, V> n) {
+        int i = n.hash & (this.table.length - 1);
+        n.bucketNext = this.table[i];
+        this.table[i] = n;
+    }
+
+    /**
+     * Removes {@code n} from its bucket chain.
+     *
+     * @param n
+     *            the node
+     */
+    private void unindexNode(Node<K, V> n) {
+        int i = n.hash & (this.table.length - 1);
+        if (this.table[i] == n) {
+            this.table[i] = n.bucketNext;
+        } else {
+            Node<K, V> p = this.table[i];
+            while (p.bucketNext != n) {
+                p = p.bucketNext;
+            }
+            p.bucketNext = n.bucketNext;
+        }
+        n.bucketNext = null;
+    }
+
+    /**
+     * Doubles the hash table, and widens the frequency sketch to match, if
+     * {@code $this.size} exceeds the maximum load factor.
+     */
+    private void growIfNeeded() {
+        if (this.size > MAX_LOAD_FACTOR * this.table.length
+                && this.table.length < MAX_TABLE_SIZE) {
+            Node<K, V>[] previous = this.table;
+            this.table = newTable(2 * previous.length);
+            for (Node<K, V> chain : previous) {
+                Node<K, V> n = chain;
+                while (n != null) {
+                    Node<K, V> following = n.bucketNext;
+                    this.indexNode(n);
+                    n = following;
+                }
+            }
+            this.sketch.ensureCapacity(this.table.length);
+        }
+    }
+
+    /**
+     * Appends {@code n} to the most recently used end of the list of
+     * {@code region}.
+     *
+     * @param n
+     *            the node, not in any list
+     * @param region
+     *            the region
+     */
+    private void linkLast(Node<K, V> n, Region region) {
+        Node<K, V> head = this.heads[region.ordinal()];
+        n.region = region;
+        n.previous = head.previous;
+        n.next = head;
+        head.previous.next = n;
+        head.previous = n;
+        this.regionWeights[region.ordinal()] += n.weight;
+    }
+
+    /**
+     * Removes {@code n} from the list of its region.
+     *
+     * @param n
+     *            the node, in a list
+     */
+    private void unlink(Node<K, V> n) {
+        n.previous.next = n.next;
+        n.next.previous = n.previous;
+        n.previous = null;
+        n.next = null;
+        this.regionWeights[n.region.ordinal()] -= n.weight;
+    }
+
+    /**
+     * Moves {@code n} to the most recently used end of the list of
+     * {@code region}.
+     *
+     * @param n
+     *            the node
+     * @param region
+     *            the region
+     */
+    private void moveTo(Node<K, V> n, Region region) {
+        this.unlink(n);
+        this.linkLast(n, region);
+    }
+
+    /**
+     * Returns the least recently used node of {@code region}, or
+     * {@code null} if it is empty.
+     *
+     * @param region
+     *            the region
+     * @return the least recently used node
+     */
+    private Node<K, V> eldest(Region region) {
+        Node<K, V> head = this.heads[region.ordinal()];
+        Node<K, V> eldest = null;
+        if (head.next != head) {
+            eldest = head.next;
+        }
+        return eldest;
+    }
+
+    /**
+     * Updates the recency lists for a use of {@code n}.
+     *
+     * @param n
+     *            the node used
+     */
+    private void recordAccess(Node<K, V> n) {
+        if (n.region == Region.PROBATION) {
+            this.moveTo(n, Region.PROTECTED);
+            while (this.regionWeights[Region.PROTECTED.ordinal()]
+                    > this.protectedMaximum) {
+                this.moveTo(this.eldest(Region.PROTECTED), Region.PROBATION);
+            }
+        } else {
+            this.moveTo(n, n.region);
+        }
+    }
+
+    /**
+     * Removes {@code n} from {@code this} entirely, without telling the
+     * listeners.
+     *
+     * @param n
+     *            the node
+     */
+    private void discard(Node<K, V> n) {
+        this.unlink(n);
+        this.unindexNode(n);
+        this.size--;
+        this.weight -= n.weight;
+    }
+
+    /**
+     * Evicts {@code n} and tells the listeners.
+     *
+     * @param n
+     *            the node
+     */
+    private void evict(Node<K, V> n) {
+        this.discard(n);
+        this.evictions++;
+        for (EvictionListener<? super K, ? super V> listener : this.listeners) {
+            listener.evicted(n.key, n.value);
+        }
+    }
+
+    /**
+     * Returns the node to be evicted next: the least recently used node of
+     * probation, then of protected, then of the window.
+     *
+     * @return the victim
+     * @requires $this.size > 0
+     */
+    private Node<K, V> victim() {
+        Node<K, V> victim = this.eldest(Region.PROBATION);
+        if (victim == null) {
+            victim = this.eldest(Region.PROTECTED);
+        }
+        if (victim == null) {
+            victim = this.eldest(Region.WINDOW);
+        }
+        return victim;
+    }
+
+    /**
+     * Evicts entries until {@code $this.weight <= $this.maximumWeight}.
+     */
+    private void evictIfNeeded() {
+        /*
+         * Entries overflowing the window move to the most recently used end
+         * of probation, where they are the candidates for admission.
+         */
+        Node<K, V> candidate = null;
+        if (this.policy == Policy.W_TINY_LFU) {
+            while (this.regionWeights[Region.WINDOW.ordinal()]
+                    > this.windowMaximum) {
+                Node<K, V> n = this.eldest(Region.WINDOW);
+                this.moveTo(n, Region.PROBATION);
+                if (candidate == null) {
+                    candidate = n;
+                }
+            }
+        }
+
+        Node<K, V> probationHead = this.heads[Region.PROBATION.ordinal()];
+        while (this.weight > this.maximumWeight) {
+            Node<K, V> victim = this.victim();
+            if (candidate == null || candidate == victim
+                    || victim.region != Region.PROBATION) {
+                if (candidate == victim) {
+                    candidate = null;
+                }
+                this.evict(victim);
+            } else if (this.sketch.frequency(candidate.hash) > this.sketch
+                    .frequency(victim.hash)) {
+                this.evict(victim);
+            } else {
+                Node<K, V> rejected = candidate;
+                candidate = candidate.next;
+                if (candidate == probationHead) {
+                    candidate = null;
+                }
+                this.evict(rejected);
+            }
+        }
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor: a {@code W_TINY_LFU} cache of at most
+     * {@code DEFAULT_MAXIMUM_SIZE} entries.
+     */
+    public CacheMap() {
+        this(DEFAULT_MAXIMUM_SIZE, Policy.W_TINY_LFU);
+    }
+
+    /**
+     * Constructor for a cache of at most {@code maximumSize} entries.
+     *
+     * @param maximumSize
+     *            the maximum number of entries
+     * @param policy
+     *            the eviction policy
+     * @requires maximumSize >= 0
+     * @ensures this = {}
+     */
+    public CacheMap(int maximumSize, Policy policy) {
+        this(maximumSize, policy, new UnitWeigher<K, V>());
+    }
+
+    /**
+     * Constructor for a cache whose entries, weighed by {@code weigher}, have
+     * a total weight of at most {@code maximumWeight}. With a weigher that
+     * estimates the size of an entry in bytes, this bounds the memory used.
+     *
+     * @param maximumWeight
+     *            the maximum total weight
+     * @param policy
+     *            the eviction policy
+     * @param weigher
+     *            the function giving the weight of each entry
+     * @requires maximumWeight >= 0
+     * @ensures this = {}
+     */
+    public CacheMap(long maximumWeight, Policy policy,
+            Weigher<? super K, ? super V> weigher) {
+        assert maximumWeight >= 0 : "Violation of: maximumWeight >= 0";
+        assert policy != null : "Violation of: policy is not null";
+        assert weigher != null : "Violation of: weigher is not null";
+
+        this.listeners = new Queue1L<>();
+        this.createNewRep(maximumWeight, policy, weigher);
+        this.resetStatistics();
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Map<K, V> newInstance() {
+        try {
+            return this.getClass()
+                    .getConstructor(long.class, Policy.class, Weigher.class)
+                    .newInstance(this.maximumWeight, this.policy,
+                            this.weigher);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep(this.maximumWeight, this.policy, this.weigher);
+    }
+
+    @Override
+    public final void transferFrom(Map<K, V> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof CacheMap<?, ?>
+                : "" + "Violation of: source is of dynamic type CacheMap<?,?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type
+         * CacheMap<?,?>, and the ?,? must be K,V or the call would not have
+         * compiled.
+         */
+        CacheMap<K, V> localSource = (CacheMap<K, V>) source;
+        this.table = localSource.table;
+        this.heads = localSource.heads;
+        this.regionWeights = localSource.regionWeights;
+        this.size = localSource.size;
+        this.weight = localSource.weight;
+        this.maximumWeight = localSource.maximumWeight;
+        this.windowMaximum = localSource.windowMaximum;
+        this.protectedMaximum = localSource.protectedMaximum;
+        this.policy = localSource.policy;
+        this.weigher = localSource.weigher;
+        this.sketch = localSource.sketch;
+        this.listeners = localSource.listeners;
+        this.hits = localSource.hits;
+        this.misses = localSource.misses;
+        this.evictions = localSource.evictions;
+        localSource.listeners = new Queue1L<>();
+        localSource.resetStatistics();
+        localSource.createNewRep(localSource.maximumWeight,
+                localSource.policy, localSource.weigher);
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    /**
+     * Adds ({@code key}, {@code value}) to {@code this}, then evicts entries
+     * while the total weight exceeds the maximum.
+     *
+     * @ensures <pre>
+     * this is a subset of #this union {(key, value)}  and
+     * [the pairs left out were evicted, and the listeners told of them]
+     * </pre>
+     */
+    @Override
+    public final void add(K key, V value) {
+        assert key != null : "Violation of: key is not null";
+        assert value != null : "Violation of: value is not null";
+        assert !this.hasKey(key) : "Violation of: key is not in DOMAIN(this)";
+
+        this.put(key, value);
+    }
+
+    @Override
+    public final Pair<K, V> remove(K key) {
+        assert key != null : "Violation of: key is not null";
+        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+
+        Node<K, V> n = this.findNode(key, spread(key.hashCode()));
+        this.discard(n);
+
+        return new SimplePair<>(n.key, n.value);
+    }
+
+    /**
+     * Removes and returns the entry that would be evicted next. The
+     * listeners are not told, since this is not an eviction.
+     */
+    @Override
+    public final Pair<K, V> removeAny() {
+        assert this.size() > 0 : "Violation of: this /= empty_set";
+
+        Node<K, V> n = this.victim();
+        this.discard(n);
+
+        return new SimplePair<>(n.key, n.value);
+    }
+
+    /**
+     * Reports the value of {@code key}, counting a hit and recording the use
+     * of the key.
+     */
+    @Override
+    public final V value(K key) {
+        assert key != null : "Violation of: key is not null";
+        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+
+        return this.get(key);
+    }
+
+    /**
+     * Reports whether {@code key} is in {@code this}, without counting a hit
+     * or miss or recording a use of the key.
+     */
+    @Override
+    public final boolean hasKey(K key) {
+        assert key != null : "Violation of: key is not null";
+
+        return this.findNode(key, spread(key.hashCode())) != null;
+    }
+
+    @Override
+    public final int size() {
+        return this.size;
+    }
+
+    @Override
+    public final Iterator<Pair<K, V>> iterator() {
+        return new CacheMapIterator();
+    }
+
+    /*
+     * Cache methods ----------------------------------------------------------
+     */
+
+    /**
+     * Returns the value of {@code key}, or {@code null} if it is not cached,
+     * counting a hit or miss and recording the use of the key.
+     *
+     * @param key
+     *            the key
+     * @return the value of key, or null
+     * @updates this
+     * @ensures <pre>
+     * this = #this  and
+     * if key is in DOMAIN(this) then (key, get) is in this else get = null
+     * </pre>
+     */
+    public final V get(K key) {
+        assert key != null : "Violation of: key is not null";
+
+        int hash = spread(key.hashCode());
+        this.sketch.increment(hash);
+
+        V value = null;
+        Node<K, V> n = this.findNode(key, hash);
+        if (n == null) {
+            this.misses++;
+        } else {
+            this.hits++;
+            this.recordAccess(n);
+            value = n.value;
+        }
+
+        return value;
+    }
+
+    /**
+     * Associates {@code value} with {@code key}, replacing any value it had,
+     * then evicts entries while the total weight exceeds the maximum.
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            the value
+     * @return the value key had, or null if it was not in DOMAIN(this)
+     * @updates this
+     * @ensures <pre>
+     * this is a subset of
+     *   ((#this \ {(key, put)}) union {(key, value)})  and
+     * [the pairs left out were evicted, and the listeners told of them]
+     * </pre>
+     */
+    public final V put(K key, V value) {
+        assert key != null : "Violation of: key is not null";
+        assert value != null : "Violation of: value is not null";
+
+        int hash = spread(key.hashCode());
+        int entryWeight = this.weigher.weigh(key, value);
+        assert entryWeight >= 0 : "Violation of: weigh >= 0";
+        this.sketch.increment(hash);
+
+        V previous = null;
+        Node<K, V> n = this.findNode(key, hash);
+        if (n == null) {
+            n = new Node<>();
+            n.key = key;
+            n.value = value;
+            n.hash = hash;
+            n.weight = entryWeight;
+            this.indexNode(n);
+            this.linkLast(n, Region.WINDOW);
+            this.size++;
+            this.weight += entryWeight;
+            this.growIfNeeded();
+        } else {
+            previous = n.value;
+            this.regionWeights[n.region.ordinal()] += entryWeight - n.weight;
+            this.weight += entryWeight - n.weight;
+            n.value = value;
+            n.weight = entryWeight;
+            this.recordAccess(n);
+        }
+        this.evictIfNeeded();
+
+        return previous;
+    }
+
+    /**
+     * Registers {@code listener} to be told of every later eviction.
+     *
+     * @param listener
+     *            the listener
+     * @updates this
+     * @ensures [listener is told of each entry evicted from now on]
+     */
+    public final void addEvictionListener(
+            EvictionListener<? super K, ? super V> listener) {
+        assert listener != null : "Violation of: listener is not null";
+
+        this.listeners.enqueue(listener);
+    }
+
+    /**
+     * Reports the total weight of the entries.
+     *
+     * @return the total weight
+     * @ensures weight <= maximumWeight()
+     */
+    public final long weight() {
+        return this.weight;
+    }
+
+    /**
+     * Reports the largest total weight kept.
+     *
+     * @return the maximum weight
+     */
+    public final long maximumWeight() {
+        return this.maximumWeight;
+    }
+
+    /*
+     * Statistics methods -----------------------------------------------------
+     */
+
+    /**
+     * Reports the number of calls to {@code get} and {@code value} that found
+     * their key, since construction or the last {@code resetStatistics}.
+     *
+     * @return the number of hits
+     */
+    public final long hits() {
+        return this.hits;
+    }
+
+    /**
+     * Reports the number of calls to {@code get} that did not find their key,
+     * since construction or the last {@code resetStatistics}.
+     *
+     * @return the number of misses
+     */
+    public final long misses() {
+        return this.misses;
+    }
+
+    /**
+     * Reports the number of entries evicted since construction or the last
+     * {@code resetStatistics}.
+     *
+     * @return the number of evictions
+     */
+    public final long evictions() {
+        return this.evictions;
+    }
+
+    /**
+     * Reports the fraction of lookups that hit.
+     *
+     * @return hits() / (hits() + misses()), or 0 if there have been none
+     */
+    public final double hitRate() {
+        double rate = 0.0;
+        long lookups = this.hits + this.misses;
+        if (lookups > 0) {
+            rate = (double) this.hits / lookups;
+        }
+        return rate;
+    }
+
+    /**
+     * Sets {@code hits()}, {@code misses()}, and {@code evictions()} to 0.
+     *
+     * @ensures hits() = 0  and  misses() = 0  and  evictions() = 0
+     */
+    public final void resetStatistics() {
+        this.hits = 0;
+        this.misses = 0;
+        this.evictions = 0;
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code CacheMap},
+     * visiting each region's list from least to most recently used.
+     */
+    private final class CacheMapIterator implements Iterator<Pair<K, V>> {
+
+        /**
+         * Number of elements seen already (i.e., |~this.seen|).
+         */
+        private int numberSeen;
+
+        /**
+         * Region of the node returned last.
+         */
+        private int region;
+
+        /**
+         * Node returned last, or the "smart" node of {@code region}.
+         */
+        private Node<K, V> current;
+
+        /**
+         * No-argument constructor.
+         */
+        CacheMapIterator() {
+            this.numberSeen = 0;
+            this.region = 0;
+            this.current = CacheMap.this.heads[0];
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.numberSeen < CacheMap.this.size;
+        }
+
+        @Override
+        public Pair<K, V> next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            this.numberSeen++;
+            this.current = this.current.next;
+            while (this.current == CacheMap.this.heads[this.region]) {
+                this.region++;
+                this.current = CacheMap.this.heads[this.region].next;
+            }
+            return new SimplePair<>(this.current.key, this.current.value);
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
@@ -0,0 +1,722 @@
+import java.util.Iterator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+import components.map.Map;
+import components.map.Map2;
+import components.map.MapSecondary;
+import components.queue.Queue;
+import components.queue.Queue1L;
+
+/**
+ * {@code Map} represented, like {@code Map4}, as a hash table using
+ * {@code Map}s for the buckets, but safe to share between threads: the buckets
+ * are split into stripes, each guarded by its own lock, so that operations on
+ * keys in different stripes run in parallel.
+ *
+ * <p>
+ * Bucket {@code i} belongs to stripe {@code i mod |$this.locks|}. Every kernel
+ * method locks only the stripe of the key's bucket, except that resizing,
+ * {@code clear}, and {@code transferFrom} lock every stripe. A transfer locks
+ * the two maps in a fixed order, so that opposite transfers between the same
+ * maps cannot deadlock. {@code size} is kept in a {@code LongAdder} so that it
+ * never takes a lock. Iteration copies one stripe at a time, so under
+ * concurrent updates it sees each stripe at a (possibly different) consistent
+ * moment.
+ * </p>
+ *
+ * @param <K>
+ *            type of {@code Map} domain (key) entries
+ * @param <V>
+ *            type of {@code Map} range (associated value) entries
+ * @convention <pre>
+ * |$this.hashTable| > 0  and  |$this.locks| > 0  and
+ * $this.initialTableSize > 0  and
+ * |$this.stripeSizes| = |$this.locks|  and
+ * for all i: integer, pf: PARTIAL_FUNCTION, x: K
+ *     where (0 <= i  and  i < |$this.hashTable|  and
+ *            <pf> = $this.hashTable[i, i+1)  and
+ *            x is in DOMAIN(pf))
+ *   ([computed result of x.hashCode()] mod |$this.hashTable| = i))  and
+ * for all i: integer
+ *     where (0 <= i  and  i < |$this.hashTable|)
+ *   ([entry at position i in $this.hashTable is not null])  and
+ * for all s: integer
+ *     where (0 <= s  and  s < |$this.locks|)
+ *   ($this.stripeSizes[s] = sum i: integer, pf: PARTIAL_FUNCTION
+ *       where (0 <= i  and  i < |$this.hashTable|  and
+ *              i mod |$this.locks| = s  and
+ *              <pf> = $this.hashTable[i, i+1))
+ *     (|pf|))  and
+ * [$this.size holds the sum of the entries of $this.stripeSizes]  and
+ * [$this.hashTable and the buckets of stripe s are changed only while
+ *  $this.locks[s] is held, and $this.hashTable is replaced only while every
+ *  lock is held]
+ * </pre>
+ * @correspondence <pre>
+ * this = union i: integer, pf: PARTIAL_FUNCTION
+ *            where (0 <= i  and  i < |$this.hashTable|  and
+ *                   <pf> = $this.hashTable[i, i+1))
+ *          (pf)
+ * </pre>
+ *
+ * @author Brayden May
+ *
+ */
+public class ConcurrentMap4<K, V> extends MapSecondary<K, V> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Default size of hash table.
+     */
+    private static final int DEFAULT_HASH_TABLE_SIZE = 101;
+
+    /**
+     * Default number of lock stripes.
+     */
+    private static final int DEFAULT_STRIPES = 16;
+
+    /**
+     * Maximum ratio of a stripe's entries to its buckets before the table is
+     * grown.
+     */
+    private static final double MAX_LOAD_FACTOR = 0.75;
+
+    /**
+     * Largest hash table size that will ever be allocated.
+     */
+    private static final int MAX_HASH_TABLE_SIZE = 1 << 30;
+
+    /**
+     * Lock held while locking two maps whose identity hash codes are equal,
+     * so that such pairs are still locked one transfer at a time.
+     */
+    private static final ReentrantLock TIE_LOCK = new ReentrantLock();
+
+    /**
+     * Buckets for hashing.
+     */
+    private volatile Map<K, V>[] hashTable;
+
+    /**
+     * Lock for each stripe of buckets.
+     */
+    private final ReentrantLock[] locks;
+
+    /**
+     * Hash table size requested at construction, restored by {@code clear}.
+     */
+    private final int initialTableSize;
+
+    /**
+     * Number of entries in each stripe, guarded by that stripe's lock.
+     */
+    private int[] stripeSizes;
+
+    /**
+     * Total size of abstract {@code this}; one adder for the life of
+     * {@code this}, reset and refilled rather than replaced, so that the
+     * unlocked reads of {@code size()} never see a discarded one.
+     */
+    private final LongAdder size;
+
+    /**
+     * Computes {@code a} mod {@code b} as % should have been defined to work.
+     *
+     * @param a
+     *            the number being reduced
+     * @param b
+     *            the modulus
+     * @return the result of a mod b, which satisfies 0 <= {@code mod} < b
+     * @requires b > 0
+     * @ensures <pre>
+     * 0 <= mod  and  mod < b  and
+     * there exists k: integer (a = k * b + mod)
+     * </pre>
+     */
+    private static int mod(int a, int b) {
+        assert b > 0 : "Violation of: b > 0";
+
+        int r = a % b;
+
+        if (r < 0) {
+
+            r += b;
+
+        }
+
+        return r;
+    }
+
+    /**
+     * Returns the bucket index for {@code key} in a table of size
+     * {@code tableSize}.
+     *
+     * @param key
+     *            the key
+     * @param tableSize
+     *            the size of the hash table
+     * @return the bucket index
+     * @requires tableSize > 0
+     * @ensures indexFor = [computed result of key.hashCode()] mod tableSize
+     */
+    private static int indexFor(Object key, int tableSize) {
+        return mod(key.hashCode(), tableSize);
+    }
+
+    /**
+     * Creates a hash table of {@code tableSize} empty buckets.
+     *
+     * @param <K>
+     *            type of {@code Map} domain (key) entries
+     * @param <V>
+     *            type of {@code Map} range (associated value) entries
+     * @param tableSize
+     *            the number of buckets
+     * @return the new hash table
+     * @requires tableSize > 0
+     * @ensures <pre>
+     * |newTable| = tableSize  and
+     * for all i: integer
+     *     where (0 <= i  and  i < |newTable|)
+     *   (newTable[i, i+1) = <{}>)
+     * </pre>
+     */
+    @SuppressWarnings("unchecked")
+    private static <K, V> Map<K, V>[] newTable(int tableSize) {
+        Map<K, V>[] table = (Map<K, V>[]) new Map<?, ?>[tableSize];
+
+        for (int i = 0; i < tableSize; i++) {
+            table[i] = new Map2<K, V>();
+        }
+
+        return table;
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param hashTableSize
+     *            the size of the hash table
+     * @requires hashTableSize > 0  and  [every lock is held or none is shared]
+     * @ensures |$this.hashTable| = hashTableSize  and  this = {}
+     */
+    private void createNewRep(int hashTableSize) {
+        this.hashTable = newTable(hashTableSize);
+        this.stripeSizes = new int[this.locks.length];
+        this.size.reset();
+    }
+
+    /**
+     * Acquires every stripe lock, in stripe order.
+     */
+    private void lockAll() {
+        for (ReentrantLock lock : this.locks) {
+            lock.lock();
+        }
+    }
+
+    /**
+     * Releases every stripe lock.
+     */
+    private void unlockAll() {
+        for (int s = this.locks.length - 1; s >= 0; s--) {
+            this.locks[s].unlock();
+        }
+    }
+
+    /**
+     * Locks the stripe holding the bucket for {@code key} and returns that
+     * bucket's index. The caller must release
+     * {@code $this.locks[lockBucketFor mod |$this.locks|]}.
+     *
+     * @param key
+     *            the key
+     * @return the bucket index for {@code key} in the current hash table
+     * @ensures <pre>
+     * lockBucketFor = indexFor(key, |$this.hashTable|)  and
+     * [$this.locks[lockBucketFor mod |$this.locks|] is held by this thread]
+     * </pre>
+     */
+    private int lockBucketFor(K key) {
+        int index;
+        boolean locked = false;
+
+        do {
+            Map<K, V>[] table = this.hashTable;
+            index = indexFor(key, table.length);
+            ReentrantLock lock = this.locks[index % this.locks.length];
+            lock.lock();
+            /*
+             * A resize could have replaced the table between reading it and
+             * acquiring the lock; resizes hold every lock, so once the table
+             * is seen unchanged under the lock it stays unchanged.
+             */
+            if (table == this.hashTable) {
+                locked = true;
+            } else {
+                lock.unlock();
+            }
+        } while (!locked);
+
+        return index;
+    }
+
+    /**
+     * Adds ({@code key}, {@code value}) to bucket {@code index} and reports
+     * whether its stripe has become overloaded.
+     *
+     * @param index
+     *            the bucket index for {@code key}
+     * @param key
+     *            the key
+     * @param value
+     *            the value
+     * @return true if the table should grow
+     * @updates this
+     * @requires <pre>
+     * [the lock of stripe index mod |$this.locks| is held]  and
+     * index = indexFor(key, |$this.hashTable|)  and
+     * key is not in DOMAIN(this)
+     * </pre>
+     * @ensures this = #this union {(key, value)}
+     */
+    private boolean addLocked(int index, K key, V value) {
+        int stripe = index % this.locks.length;
+        int stripeBuckets = (this.hashTable.length + this.locks.length - 1)
+                / this.locks.length;
+
+        this.hashTable[index].add(key, value);
+        this.stripeSizes[stripe]++;
+        this.size.increment();
+
+        return this.stripeSizes[stripe] > MAX_LOAD_FACTOR * stripeBuckets
+                && this.hashTable.length < MAX_HASH_TABLE_SIZE;
+    }
+
+    /**
+     * Removes {@code key} from bucket {@code index}.
+     *
+     * @param index
+     *            the bucket index for {@code key}
+     * @param key
+     *            the key
+     * @return the removed pair
+     * @updates this
+     * @requires <pre>
+     * [the lock of stripe index mod |$this.locks| is held]  and
+     * index = indexFor(key, |$this.hashTable|)  and
+     * key is in DOMAIN(this)
+     * </pre>
+     * @ensures <pre>
+     * removeLocked.key = key  and  removeLocked is in #this  and
+     * this = #this \ {removeLocked}
+     * </pre>
+     */
+    private Pair<K, V> removeLocked(int index, K key) {
+        Pair<K, V> removed = this.hashTable[index].remove(key);
+        this.stripeSizes[index % this.locks.length]--;
+        this.size.decrement();
+
+        return removed;
+    }
+
+    /**
+     * Grows the hash table, unless another thread already replaced
+     * {@code expected}.
+     *
+     * @param expected
+     *            the hash table found to be overloaded
+     * @updates this
+     * @requires [no stripe lock is held by this thread]
+     * @ensures this = #this
+     */
+    private void grow(Map<K, V>[] expected) {
+        this.lockAll();
+        try {
+            if (this.hashTable == expected) {
+                int newTableSize = (int) Math.min(MAX_HASH_TABLE_SIZE,
+                        2L * expected.length + 1);
+                Map<K, V>[] table = newTable(newTableSize);
+                int[] sizes = new int[this.locks.length];
+
+                for (Map<K, V> bucket : expected) {
+                    for (Pair<K, V> pair : bucket) {
+                        int index = indexFor(pair.key(), newTableSize);
+                        table[index].add(pair.key(), pair.value());
+                        sizes[index % this.locks.length]++;
+                    }
+                }
+
+                this.stripeSizes = sizes;
+                this.hashTable = table;
+            }
+        } finally {
+            this.unlockAll();
+        }
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public ConcurrentMap4() {
+        this(DEFAULT_HASH_TABLE_SIZE, DEFAULT_STRIPES);
+    }
+
+    /**
+     * Constructor resulting in a hash table of initial size
+     * {@code hashTableSize} whose buckets are guarded by {@code stripes}
+     * locks.
+     *
+     * @param hashTableSize
+     *            initial size of hash table
+     * @param stripes
+     *            number of locks
+     * @requires hashTableSize > 0  and  stripes > 0
+     * @ensures this = {}
+     */
+    public ConcurrentMap4(int hashTableSize, int stripes) {
+        assert hashTableSize > 0 : "Violation of: hashTableSize > 0";
+        assert stripes > 0 : "Violation of: stripes > 0";
+
+        this.locks = new ReentrantLock[stripes];
+        for (int s = 0; s < stripes; s++) {
+            this.locks[s] = new ReentrantLock();
+        }
+        this.initialTableSize = hashTableSize;
+        this.size = new LongAdder();
+        this.createNewRep(hashTableSize);
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Map<K, V> newInstance() {
+        try {
+            return this.getClass().getConstructor(int.class, int.class)
+                    .newInstance(this.initialTableSize, this.locks.length);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.lockAll();
+        try {
+            this.createNewRep(this.initialTableSize);
+        } finally {
+            this.unlockAll();
+        }
+    }
+
+    @Override
+    public final void transferFrom(Map<K, V> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof ConcurrentMap4<?, ?> : ""
+                + "Violation of: source is of dynamic type ConcurrentMap4<?,?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type
+         * ConcurrentMap4<?,?>, and the ?,? must be K,V or the call would not
+         * have compiled.
+         */
+        ConcurrentMap4<K, V> localSource = (ConcurrentMap4<K, V>) source;
+        /*
+         * Lock the two maps in order of identity hash code, so that a
+         * concurrent transfer the other way round cannot hold one map's locks
+         * while waiting for the other's; the rare equal codes are ordered by
+         * holding TIE_LOCK throughout.
+         */
+        int thisHash = System.identityHashCode(this);
+        int sourceHash = System.identityHashCode(localSource);
+        ConcurrentMap4<K, V> first = this;
+        ConcurrentMap4<K, V> second = localSource;
+        if (sourceHash < thisHash) {
+            first = localSource;
+            second = this;
+        }
+        boolean tied = thisHash == sourceHash;
+        if (tied) {
+            TIE_LOCK.lock();
+        }
+        first.lockAll();
+        second.lockAll();
+        try {
+            /*
+             * Stripe assignment depends on the number of locks, so the
+             * source's buckets can only be taken over as-is when it matches.
+             */
+            if (localSource.locks.length == this.locks.length) {
+                this.hashTable = localSource.hashTable;
+                this.stripeSizes = localSource.stripeSizes;
+                this.size.reset();
+                this.size.add(localSource.size.sum());
+            } else {
+                this.createNewRep(localSource.hashTable.length);
+                for (Map<K, V> bucket : localSource.hashTable) {
+                    for (Pair<K, V> pair : bucket) {
+                        int index = indexFor(pair.key(),
+                                this.hashTable.length);
+                        this.addLocked(index, pair.key(), pair.value());
+                    }
+                }
+            }
+            localSource.createNewRep(localSource.initialTableSize);
+        } finally {
+            second.unlockAll();
+            first.unlockAll();
+            if (tied) {
+                TIE_LOCK.unlock();
+            }
+        }
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(K key, V value) {
+        assert key != null : "Violation of: key is not null";
+        assert value != null : "Violation of: value is not null";
+        assert !this.hasKey(key) : "Violation of: key is not in DOMAIN(this)";
+
+        Map<K, V>[] table;
+        boolean overloaded;
+        int index = this.lockBucketFor(key);
+        try {
+            table = this.hashTable;
+            overloaded = this.addLocked(index, key, value);
+        } finally {
+            this.locks[index % this.locks.length].unlock();
+        }
+
+        if (overloaded) {
+            this.grow(table);
+        }
+    }
+
+    @Override
+    public final Pair<K, V> remove(K key) {
+        assert key != null : "Violation of: key is not null";
+        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+
+        int index = this.lockBucketFor(key);
+        try {
+            return this.removeLocked(index, key);
+        } finally {
+            this.locks[index % this.locks.length].unlock();
+        }
+    }
+
+    @Override
+    public final Pair<K, V> removeAny() {
+        assert this.size() > 0 : "Violation of: this /= empty_set";
+
+        Pair<K, V> any = null;
+
+        for (int s = 0; any == null && s < this.locks.length; s++) {
+            this.locks[s].lock();
+            try {
+                if (this.stripeSizes[s] > 0) {
+                    Map<K, V>[] table = this.hashTable;
+                    int index = s;
+                    while (table[index].size() == 0) {
+                        index += this.locks.length;
+                    }
+                    any = table[index].removeAny();
+                    this.stripeSizes[s]--;
+                    this.size.decrement();
+                }
+            } finally {
+                this.locks[s].unlock();
+            }
+        }
+
+        return any;
+    }
+
+    @Override
+    public final V value(K key) {
+        assert key != null : "Violation of: key is not null";
+        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+
+        int index = this.lockBucketFor(key);
+        try {
+            return this.hashTable[index].value(key);
+        } finally {
+            this.locks[index % this.locks.length].unlock();
+        }
+    }
+
+    @Override
+    public final boolean hasKey(K key) {
+        assert key != null : "Violation of: key is not null";
+
+        int index = this.lockBucketFor(key);
+        try {
+            return this.hashTable[index].hasKey(key);
+        } finally {
+            this.locks[index % this.locks.length].unlock();
+        }
+    }
+
+    @Override
+    public final int size() {
+        return this.size.intValue();
+    }
+
+    @Override
+    public final Iterator<Pair<K, V>> iterator() {
+        Queue<Pair<K, V>> snapshot = new Queue1L<>();
+
+        for (int s = 0; s < this.locks.length; s++) {
+            this.locks[s].lock();
+            try {
+                Map<K, V>[] table = this.hashTable;
+                for (int i = s; i < table.length; i += this.locks.length) {
+                    for (Pair<K, V> pair : table[i]) {
+                        snapshot.enqueue(pair);
+                    }
+                }
+            } finally {
+                this.locks[s].unlock();
+            }
+        }
+
+        return snapshot.iterator();
+    }
+
+    /*
+     * Other methods ----------------------------------------------------------
+     */
+
+    /**
+     * Atomically reports the value associated with {@code key}, first adding
+     * {@code key} with the value computed by {@code mappingFunction} if
+     * {@code key} is not in DOMAIN(this). {@code mappingFunction} runs while
+     * the key's stripe is locked, so it must be short and must not use
+     * {@code this}.
+     *
+     * @param key
+     *            the key
+     * @param mappingFunction
+     *            computes the value for an absent key
+     * @return the value associated with key
+     * @updates this
+     * @requires [mappingFunction does not return null]
+     * @ensures <pre>
+     * if key is in DOMAIN(#this) then
+     *   this = #this  and  (key, computeIfAbsent) is in #this
+     * else
+     *   this = #this union {(key, computeIfAbsent)}  and
+     *   computeIfAbsent = [mappingFunction applied to key]
+     * </pre>
+     */
+    public final V computeIfAbsent(K key,
+            Function<? super K, ? extends V> mappingFunction) {
+        assert key != null : "Violation of: key is not null";
+        assert mappingFunction != null
+                : "Violation of: mappingFunction is not null";
+
+        Map<K, V>[] table;
+        boolean overloaded = false;
+        V result;
+        int index = this.lockBucketFor(key);
+        try {
+            table = this.hashTable;
+            Map<K, V> bucket = table[index];
+            if (bucket.hasKey(key)) {
+                result = bucket.value(key);
+            } else {
+                result = mappingFunction.apply(key);
+                assert result != null
+                        : "Violation of: mappingFunction does not return null";
+                overloaded = this.addLocked(index, key, result);
+            }
+        } finally {
+            this.locks[index % this.locks.length].unlock();
+        }
+
+        if (overloaded) {
+            this.grow(table);
+        }
+
+        return result;
+    }
+
+    /**
+     * Atomically associates {@code key} with {@code value} if {@code key} is
+     * not in DOMAIN(this), or otherwise with the result of applying
+     * {@code remappingFunction} to its old value and {@code value}.
+     * {@code remappingFunction} runs while the key's stripe is locked, so it
+     * must be short and must not use {@code this}.
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            the value to add or combine
+     * @param remappingFunction
+     *            combines the old value with {@code value}
+     * @return the value now associated with key
+     * @updates this
+     * @requires [remappingFunction does not return null]
+     * @ensures <pre>
+     * if key is in DOMAIN(#this) then
+     *   there exists old: V ((key, old) is in #this  and
+     *     merge = [remappingFunction applied to old and value]  and
+     *     this = (#this \ {(key, old)}) union {(key, merge)})
+     * else
+     *   merge = value  and  this = #this union {(key, value)}
+     * </pre>
+     */
+    public final V merge(K key, V value,
+            BinaryOperator<V> remappingFunction) {
+        assert key != null : "Violation of: key is not null";
+        assert value != null : "Violation of: value is not null";
+        assert remappingFunction != null
+                : "Violation of: remappingFunction is not null";
+
+        Map<K, V>[] table;
+        boolean overloaded = false;
+        V result;
+        int index = this.lockBucketFor(key);
+        try {
+            table = this.hashTable;
+            Map<K, V> bucket = table[index];
+            if (bucket.hasKey(key)) {
+                result = remappingFunction.apply(bucket.value(key), value);
+                assert result != null
+                        : "Violation of: remappingFunction does not return null";
+                bucket.replaceValue(key, result);
+            } else {
+                result = value;
+                overloaded = this.addLocked(index, key, value);
+            }
+        } finally {
+            this.locks[index % this.locks.length].unlock();
+        }
+
+        if (overloaded) {
+            this.grow(table);
+        }
+
+        return result;
+    }
+
+}
@@ -0,0 +1,242 @@
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+import components.map.Map;
+import components.simplereader.SimpleReader;
+import components.simplereader.SimpleReader1L;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Measures throughput of a mixed lookup/update workload on a {@code Map4}
+ * shared behind one global lock and on a {@code ConcurrentMap4}, for thread
+ * counts from 1 up to a number supplied by the user.
+ *
+ * <p>
+ * Each thread repeatedly picks a random key; {@code READ_PERCENT} percent of
+ * operations look it up and the rest increment its count. Every measured run
+ * is preceded by an unmeasured warm-up run so that the JIT has compiled the
+ * hot paths.
+ * </p>
+ *
+ * @author Brayden May
+ *
+ */
+public final class ConcurrentMap4Benchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private ConcurrentMap4Benchmark() {
+    }
+
+    /**
+     * Number of distinct keys.
+     */
+    private static final int KEYS = 1 << 16;
+
+    /**
+     * Percentage of operations that are lookups.
+     */
+    private static final int READ_PERCENT = 90;
+
+    /**
+     * Nanoseconds per second.
+     */
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * One operation of the workload against a shared map.
+     */
+    private interface Workload {
+
+        /**
+         * Looks up {@code key}.
+         *
+         * @param key
+         *            the key
+         */
+        void read(Integer key);
+
+        /**
+         * Increments the count for {@code key}.
+         *
+         * @param key
+         *            the key
+         */
+        void update(Integer key);
+
+    }
+
+    /**
+     * Workload on a {@code Map4} guarded by a single lock.
+     */
+    private static final class GlobalLockWorkload implements Workload {
+
+        /**
+         * The shared map, also used as the lock.
+         */
+        private final Map<Integer, Integer> map = new Map4<>();
+
+        @Override
+        public void read(Integer key) {
+            synchronized (this.map) {
+                this.map.hasKey(key);
+            }
+        }
+
+        @Override
+        public void update(Integer key) {
+            synchronized (this.map) {
+                if (this.map.hasKey(key)) {
+                    this.map.replaceValue(key, this.map.value(key) + 1);
+                } else {
+                    this.map.add(key, 1);
+                }
+            }
+        }
+
+    }
+
+    /**
+     * Workload on a {@code ConcurrentMap4}.
+     */
+    private static final class StripedWorkload implements Workload {
+
+        /**
+         * The shared map.
+         */
+        private final ConcurrentMap4<Integer, Integer> map = new ConcurrentMap4<>();
+
+        @Override
+        public void read(Integer key) {
+            this.map.hasKey(key);
+        }
+
+        @Override
+        public void update(Integer key) {
+            this.map.merge(key, 1, Integer::sum);
+        }
+
+    }
+
+    /**
+     * Runs {@code opsPerThread} operations of {@code workload} on each of
+     * {@code threads} threads and returns the elapsed time.
+     *
+     * @param workload
+     *            the workload
+     * @param keys
+     *            the boxed keys, shared so that no thread boxes while timed
+     * @param threads
+     *            number of threads
+     * @param opsPerThread
+     *            operations per thread
+     * @return elapsed wall-clock time in nanoseconds
+     * @requires threads > 0  and  opsPerThread > 0
+     * @ensures runNanos = [time for all threads to finish their operations]
+     */
+    private static long runNanos(Workload workload, Integer[] keys,
+            int threads, int opsPerThread) {
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for (int i = 0; i < opsPerThread; i++) {
+                    Integer key = keys[random.nextInt(keys.length)];
+                    if (random.nextInt(100) < READ_PERCENT) {
+                        workload.read(key);
+                    } else {
+                        workload.update(key);
+                    }
+                }
+                done.countDown();
+            });
+            worker.start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return System.nanoTime() - begin;
+    }
+
+    /**
+     * Returns the throughput of a warmed-up run, in operations per second.
+     *
+     * @param global
+     *            whether to measure the globally locked {@code Map4} rather
+     *            than {@code ConcurrentMap4}
+     * @param keys
+     *            the boxed keys
+     * @param threads
+     *            number of threads
+     * @param opsPerThread
+     *            operations per thread
+     * @return operations per second
+     * @requires threads > 0  and  opsPerThread > 0
+     * @ensures throughput = [operations per second of the measured run]
+     */
+    private static double throughput(boolean global, Integer[] keys,
+            int threads, int opsPerThread) {
+        Workload warmup;
+        Workload measured;
+        if (global) {
+            warmup = new GlobalLockWorkload();
+            measured = new GlobalLockWorkload();
+        } else {
+            warmup = new StripedWorkload();
+            measured = new StripedWorkload();
+        }
+        runNanos(warmup, keys, threads, opsPerThread);
+        long nanos = runNanos(measured, keys, threads, opsPerThread);
+
+        return (double) threads * opsPerThread * NANOS_PER_SECOND / nanos;
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     */
+    public static void main(String[] args) {
+        SimpleReader in = new SimpleReader1L();
+        SimpleWriter out = new SimpleWriter1L();
+
+        out.print("Maximum number of threads: ");
+        int maxThreads = in.nextInteger();
+        out.print("Operations per thread: ");
+        int opsPerThread = in.nextInteger();
+
+        Integer[] keys = new Integer[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = i;
+        }
+
+        out.println();
+        out.println("Threads\tMap4+lock ops/s\tConcurrentMap4 ops/s");
+        out.println("-------\t---------------\t--------------------");
+        for (int threads = 1; threads <= maxThreads; threads++) {
+            double global = throughput(true, keys, threads, opsPerThread);
+            double striped = throughput(false, keys, threads, opsPerThread);
+            out.println(threads + "\t" + Math.round(global) + "\t\t"
+                    + Math.round(striped));
+        }
+
+        in.close();
+        out.close();
+    }
+
+}
@@ -0,0 +1,27 @@
+/**
+ * Function from keys to {@code int} hash codes, used to choose a bucket in a
+ * hash table. {@code HashStrategies} has the standard implementations.
+ *
+ * @param <T>
+ *            type of keys to be hashed
+ *
+ * @author Brayden May
+ *
+ */
+public interface HashStrategy<T> {
+
+    /**
+     * Returns a hash code for {@code x}.
+     *
+     * @param x
+     *            the key to be hashed
+     * @return the hash code of x
+     * @requires [x is not null]
+     * @ensures <pre>
+     * [hash is a function of the abstract value of x only, so keys that are
+     *  equal get equal hash codes]
+     * </pre>
+     */
+    int hash(T x);
+
+}
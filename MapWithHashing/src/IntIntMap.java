@@ -0,0 +1,466 @@
+import java.util.Arrays;
+
+/**
+ * Hash table from {@code int} keys to {@code int} values that, like
+ * {@code Map4}, picks a bucket with {@code mod}, but keeps everything in
+ * primitive arrays so that no operation boxes a key or value.
+ *
+ * <p>
+ * Entries are stored densely in parallel arrays at positions
+ * {@code [0, size())}, and each bucket is a chain of entry positions linked
+ * through {@code next}. Removing an entry moves the last entry into its
+ * position, so the entries stay dense and can be visited with
+ * {@code keyAt}/{@code valueAt}. Once the arrays have grown to fit the
+ * largest size the map reaches, no operation allocates.
+ * </p>
+ *
+ * @mathmodel type IntIntMap is modeled by finite set of (key: integer, value:
+ *            integer) exemplar m
+ * @constraint m is a partial function
+ * @initially <pre>
+ * ():
+ *  ensures
+ *   this = {}
+ * </pre>
+ * @convention <pre>
+ * |$this.buckets| > 0  and
+ * 0 <= $this.size <= |$this.keys| = |$this.values| = |$this.next|  and
+ * [for every i in [0, |$this.buckets|), the chain starting at
+ *  $this.buckets[i] and following $this.next until -1 visits exactly the
+ *  positions e in [0, $this.size) with
+ *  mod($this.keys[e], |$this.buckets|) = i]  and
+ * [the entries of $this.keys[0, $this.size) are distinct]
+ * </pre>
+ * @correspondence <pre>
+ * this = {(key, value): (integer, integer)
+ *           where (there exists e: integer
+ *                    (0 <= e  and  e < $this.size  and
+ *                     key = $this.keys[e]  and  value = $this.values[e]))}
+ * </pre>
+ *
+ * @author Brayden May
+ *
+ */
+public class IntIntMap {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Default size of hash table.
+     */
+    private static final int DEFAULT_HASH_TABLE_SIZE = 101;
+
+    /**
+     * Maximum ratio of {@code size} to hash table size before the hash table
+     * is grown.
+     */
+    private static final double MAX_LOAD_FACTOR = 0.75;
+
+    /**
+     * Marks the end of a bucket chain.
+     */
+    private static final int NONE = -1;
+
+    /**
+     * First entry position of each bucket's chain, or {@code NONE}.
+     */
+    private int[] buckets;
+
+    /**
+     * Keys, by entry position.
+     */
+    private int[] keys;
+
+    /**
+     * Values, by entry position.
+     */
+    private int[] values;
+
+    /**
+     * Next entry position in the same bucket chain, or {@code NONE}.
+     */
+    private int[] next;
+
+    /**
+     * Number of entries.
+     */
+    private int size;
+
+    /**
+     * Computes {@code a} mod {@code b} as % should have been defined to work.
+     *
+     * @param a
+     *            the number being reduced
+     * @param b
+     *            the modulus
+     * @return the result of a mod b, which satisfies 0 <= {@code mod} < b
+     * @requires b > 0
+     * @ensures <pre>
+     * 0 <= mod  and  mod < b  and
+     * there exists k: integer (a = k * b + mod)
+     * </pre>
+     */
+    private static int mod(int a, int b) {
+        assert b > 0 : "Violation of: b > 0";
+
+        int r = a % b;
+
+        if (r < 0) {
+
+            r += b;
+
+        }
+
+        return r;
+    }
+
+    /**
+     * Creates a hash table of {@code tableSize} empty buckets.
+     *
+     * @param tableSize
+     *            the number of buckets
+     * @return the new hash table
+     * @requires tableSize > 0
+     * @ensures |newBuckets| = tableSize  and  [every entry is NONE]
+     */
+    private static int[] newBuckets(int tableSize) {
+        int[] table = new int[tableSize];
+        for (int i = 0; i < tableSize; i++) {
+            table[i] = NONE;
+        }
+        return table;
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param hashTableSize
+     *            the size of the hash table
+     * @requires hashTableSize > 0
+     * @ensures |$this.buckets| = hashTableSize  and  this = {}
+     */
+    private void createNewRep(int hashTableSize) {
+        this.buckets = newBuckets(hashTableSize);
+        this.keys = new int[hashTableSize];
+        this.values = new int[hashTableSize];
+        this.next = new int[hashTableSize];
+        this.size = 0;
+    }
+
+    /**
+     * Returns the entry position of {@code key}, or {@code NONE}.
+     *
+     * @param key
+     *            the key to be searched for
+     * @return the entry position, or {@code NONE}
+     * @ensures <pre>
+     * if key is in DOMAIN(this) then
+     *   $this.keys[find] = key
+     * else
+     *   find = NONE
+     * </pre>
+     */
+    private int find(int key) {
+        int e = this.buckets[mod(key, this.buckets.length)];
+        while (e != NONE && this.keys[e] != key) {
+            e = this.next[e];
+        }
+        return e;
+    }
+
+    /**
+     * Links entry position {@code e} at the head of its bucket chain.
+     *
+     * @param e
+     *            the entry position
+     * @updates $this.buckets, $this.next
+     * @requires 0 <= e < $this.size  and  [e is in no chain]
+     * @ensures [e is in the chain of bucket mod($this.keys[e], |$this.buckets|)]
+     */
+    private void link(int e) {
+        int b = mod(this.keys[e], this.buckets.length);
+        this.next[e] = this.buckets[b];
+        this.buckets[b] = e;
+    }
+
+    /**
+     * Removes entry position {@code e} from its bucket chain.
+     *
+     * @param e
+     *            the entry position
+     * @updates $this.buckets, $this.next
+     * @requires [e is in the chain of bucket mod($this.keys[e], |$this.buckets|)]
+     * @ensures [e is in no chain; every other chain is unchanged]
+     */
+    private void unlink(int e) {
+        int b = mod(this.keys[e], this.buckets.length);
+        if (this.buckets[b] == e) {
+            this.buckets[b] = this.next[e];
+        } else {
+            int p = this.buckets[b];
+            while (this.next[p] != e) {
+                p = this.next[p];
+            }
+            this.next[p] = this.next[e];
+        }
+    }
+
+    /**
+     * Makes room for one more entry, growing the entry arrays and the hash
+     * table as needed.
+     *
+     * @updates $this
+     * @ensures <pre>
+     * this = #this  and  $this.size < |$this.keys|  and
+     * $this.size + 1 <= MAX_LOAD_FACTOR * |$this.buckets|
+     * </pre>
+     */
+    private void ensureRoomForOneMore() {
+        if (this.size == this.keys.length) {
+            int capacity = 2 * this.keys.length;
+            this.keys = Arrays.copyOf(this.keys, capacity);
+            this.values = Arrays.copyOf(this.values, capacity);
+            this.next = Arrays.copyOf(this.next, capacity);
+        }
+        if (this.size + 1 > MAX_LOAD_FACTOR * this.buckets.length) {
+            this.buckets = newBuckets(2 * this.buckets.length + 1);
+            for (int e = 0; e < this.size; e++) {
+                this.link(e);
+            }
+        }
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public IntIntMap() {
+        this.createNewRep(DEFAULT_HASH_TABLE_SIZE);
+    }
+
+    /**
+     * Constructor resulting in a hash table of initial size
+     * {@code hashTableSize}.
+     *
+     * @param hashTableSize
+     *            initial size of hash table
+     * @requires hashTableSize > 0
+     * @ensures this = {}
+     */
+    public IntIntMap(int hashTableSize) {
+        assert hashTableSize > 0 : "Violation of: hashTableSize > 0";
+
+        this.createNewRep(hashTableSize);
+    }
+
+    /*
+     * Public methods ---------------------------------------------------------
+     */
+
+    /**
+     * Resets {@code this} to an initial value, keeping its arrays so that
+     * refilling it does not allocate.
+     *
+     * @clears this
+     */
+    public final void clear() {
+        for (int i = 0; i < this.buckets.length; i++) {
+            this.buckets[i] = NONE;
+        }
+        this.size = 0;
+    }
+
+    /**
+     * Adds the pair ({@code key}, {@code value}) to this.
+     *
+     * @param key
+     *            the key to be added
+     * @param value
+     *            the associated value to be added
+     * @updates this
+     * @requires key is not in DOMAIN(this)
+     * @ensures this = #this union {(key, value)}
+     */
+    public final void add(int key, int value) {
+        assert !this.hasKey(key) : "Violation of: key is not in DOMAIN(this)";
+
+        this.ensureRoomForOneMore();
+
+        int e = this.size;
+        this.keys[e] = key;
+        this.values[e] = value;
+        this.size++;
+        this.link(e);
+    }
+
+    /**
+     * Removes the pair whose first component is {@code key} and returns its
+     * second component.
+     *
+     * @param key
+     *            the key to be removed
+     * @return the value that was associated with {@code key}
+     * @updates this
+     * @requires key is in DOMAIN(this)
+     * @ensures (key, remove) is in #this  and  this = #this \ {(key, remove)}
+     */
+    public final int remove(int key) {
+        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+
+        int e = this.find(key);
+        int removed = this.values[e];
+        this.unlink(e);
+
+        int last = this.size - 1;
+        if (e != last) {
+            this.unlink(last);
+            this.keys[e] = this.keys[last];
+            this.values[e] = this.values[last];
+            this.link(e);
+        }
+        this.size--;
+
+        return removed;
+    }
+
+    /**
+     * Reports the value associated with {@code key} in {@code this}.
+     *
+     * @param key
+     *            the key whose associated value is to be reported
+     * @return the value associated with key
+     * @requires key is in DOMAIN(this)
+     * @ensures (key, value) is in this
+     */
+    public final int value(int key) {
+        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+
+        return this.values[this.find(key)];
+    }
+
+    /**
+     * Reports whether there is a pair in {@code this} whose first component is
+     * {@code key}.
+     *
+     * @param key
+     *            the key to be checked
+     * @return true iff there is a pair in this whose first component is key
+     * @ensures hasKey = (key is in DOMAIN(this))
+     */
+    public final boolean hasKey(int key) {
+        return this.find(key) != NONE;
+    }
+
+    /**
+     * Replaces the value associated with {@code key} in {@code this} by
+     * {@code value}, and returns the old value.
+     *
+     * @param key
+     *            the key whose associated value is replaced
+     * @param value
+     *            the new value
+     * @return the old value associated with key
+     * @updates this
+     * @requires key is in DOMAIN(this)
+     * @ensures <pre>
+     * this = (#this \ {(key, replaceValue)}) union {(key, value)}  and
+     * (key, replaceValue) is in #this
+     * </pre>
+     */
+    public final int replaceValue(int key, int value) {
+        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+
+        int e = this.find(key);
+        int old = this.values[e];
+        this.values[e] = value;
+
+        return old;
+    }
+
+    /**
+     * Adds {@code delta} to the value associated with {@code key}, first
+     * adding {@code key} with value 0 if it is not in DOMAIN(this). This is
+     * the counting idiom of {@code ArraySiftDownMain.incrementCountFor} done
+     * with a single lookup.
+     *
+     * @param key
+     *            the key whose count is updated
+     * @param delta
+     *            the amount added to the count
+     * @return the new value associated with key
+     * @updates this
+     * @ensures <pre>
+     * if key is in DOMAIN(#this) then
+     *   there exists count: integer ((key, count) is in #this  and
+     *     this = (#this \ {(key, count)}) union {(key, count + delta)})
+     * else
+     *   this = #this union {(key, delta)}
+     * </pre>
+     */
+    public final int increment(int key, int delta) {
+        int e = this.find(key);
+        if (e == NONE) {
+            this.ensureRoomForOneMore();
+            e = this.size;
+            this.keys[e] = key;
+            this.values[e] = 0;
+            this.size++;
+            this.link(e);
+        }
+        this.values[e] += delta;
+
+        return this.values[e];
+    }
+
+    /**
+     * Reports size of {@code this}.
+     *
+     * @return the number of pairs in this
+     * @ensures size = |this|
+     */
+    public final int size() {
+        return this.size;
+    }
+
+    /**
+     * Reports the key of the {@code i}-th pair of {@code this}; together with
+     * {@code valueAt}, this iterates over {@code this} without allocating.
+     * Positions are stable until {@code this} is next changed.
+     *
+     * @param i
+     *            the position
+     * @return the key at position i
+     * @requires 0 <= i < |this|
+     * @ensures [keyAt is the key of the i-th pair in an order fixed until this
+     *          is next changed]
+     */
+    public final int keyAt(int i) {
+        assert 0 <= i : "Violation of: 0 <= i";
+        assert i < this.size : "Violation of: i < |this|";
+
+        return this.keys[i];
+    }
+
+    /**
+     * Reports the value of the {@code i}-th pair of {@code this}, in the same
+     * order as {@code keyAt}.
+     *
+     * @param i
+     *            the position
+     * @return the value at position i
+     * @requires 0 <= i < |this|
+     * @ensures (keyAt(i), valueAt) is in this
+     */
+    public final int valueAt(int i) {
+        assert 0 <= i : "Violation of: 0 <= i";
+        assert i < this.size : "Violation of: i < |this|";
+
+        return this.values[i];
+    }
+
+}
@@ -1,5 +1,18 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 import components.map.Map;
 import components.map.Map2;
@@ -19,20 +32,60 @@ import components.map.MapSecondary;
  *     where (0 <= i  and  i < |$this.hashTable|  and
  *            <pf> = $this.hashTable[i, i+1)  and
  *            x is in DOMAIN(pf))
- *   ([computed result of x.hashCode()] mod |$this.hashTable| = i))  and
+ *   ([computed result of $this.hashStrategy.hash(x)] mod
+ *      |$this.hashTable| = i))  and
  * for all i: integer
  *     where (0 <= i  and  i < |$this.hashTable|)
  *   ([entry at position i in $this.hashTable is not null])  and
- * $this.size = sum i: integer, pf: PARTIAL_FUNCTION
- *     where (0 <= i  and  i < |$this.hashTable|  and
- *            <pf> = $this.hashTable[i, i+1))
- *   (|pf|)
+ * $this.size = |[correspondence of $this]|  and
+ * $this.maxLoadFactor > 0  and
+ * $this.migrationStep > 0  and  $this.forcedBuckets >= 0  and
+ * 0 < $this.initialTableSize <= |$this.hashTable|  and
+ * if $this.sizing = POWER_OF_TWO then
+ *   [|$this.hashTable| is a power of two]  and
+ * ($this.size <= $this.maxLoadFactor * |$this.hashTable|  or
+ *  [|$this.hashTable| cannot grow any further]  or
+ *  $this.oldTable /= null)  and
+ * if $this.oldTable /= null then
+ *   |$this.oldTable| - $this.migrateIndex <=
+ *     $this.migrationStep * [least number of adds, removes, and removeAnys
+ *       after which growIfNeeded or shrinkIfNeeded would resize
+ *       $this.hashTable]  and
+ * $this.occupancy records exactly the indices i with
+ *   $this.hashTable[i, i+1) /= <{}>  or
+ *   [bucket i of $this.snapshot is not yet loaded and is non-empty]  and
+ * if $this.snapshot /= null then
+ *   ($this.oldTable = null  and
+ *    for all i: integer
+ *        where ([bucket i of $this.snapshot is not yet loaded])
+ *      ($this.hashTable[i, i+1) = <{}>  and
+ *       [every key x in bucket i of $this.snapshot has
+ *        [computed result of $this.hashStrategy.hash(x)] mod
+ *          |$this.hashTable| = i]))  and
+ * if $this.oldTable /= null then
+ *   ($this.oldOccupancy records exactly the indices i >= $this.migrateIndex
+ *      with $this.oldTable[i, i+1) /= <{}>)  and
+ *   ($this.incremental  and
+ *    0 <= $this.migrateIndex < |$this.oldTable|  and
+ *    for all i: integer, pf: PARTIAL_FUNCTION, x: K
+ *        where ($this.migrateIndex <= i  and  i < |$this.oldTable|  and
+ *               <pf> = $this.oldTable[i, i+1)  and
+ *               x is in DOMAIN(pf))
+ *      ([computed result of $this.hashStrategy.hash(x)] mod
+ *         |$this.oldTable| = i  and
+ *       x is not in DOMAIN of any bucket of $this.hashTable))
  * </pre>
  * @correspondence <pre>
- * this = union i: integer, pf: PARTIAL_FUNCTION
- *            where (0 <= i  and  i < |$this.hashTable|  and
- *                   <pf> = $this.hashTable[i, i+1))
- *          (pf)
+ * this = (union i: integer, pf: PARTIAL_FUNCTION
+ *             where (0 <= i  and  i < |$this.hashTable|  and
+ *                    <pf> = $this.hashTable[i, i+1))
+ *           (pf))  union
+ *        (union i: integer, pf: PARTIAL_FUNCTION
+ *             where ($this.oldTable /= null  and
+ *                    $this.migrateIndex <= i  and  i < |$this.oldTable|  and
+ *                    <pf> = $this.oldTable[i, i+1))
+ *           (pf))  union
+ *        [pairs in the buckets of $this.snapshot not yet loaded]
  * </pre>
  *
  * @author Brayden May and Micheal Sidoti
@@ -49,6 +102,23 @@ public class Map4<K, V> extends MapSecondary<K, V> {
      */
     private static final int DEFAULT_HASH_TABLE_SIZE = 101;
 
+    /**
+     * Default maximum ratio of {@code size} to hash table size before the
+     * table is grown.
+     */
+    private static final double DEFAULT_MAX_LOAD_FACTOR = 0.75;
+
+    /**
+     * Largest hash table size that will ever be allocated.
+     */
+    private static final int MAX_HASH_TABLE_SIZE = 1 << 30;
+
+    /**
+     * Factor by which the load factor must fall below
+     * {@code $this.maxLoadFactor} before the table is shrunk.
+     */
+    private static final int SHRINK_DIVISOR = 4;
+
     /**
      * Buckets for hashing.
      */
@@ -60,56 +130,889 @@ public class Map4<K, V> extends MapSecondary<K, V> {
     private int size;
 
     /**
-     * Computes {@code a} mod {@code b} as % should have been defined to work.
+     * Hash table size requested at construction; the table never shrinks
+     * below this size.
+     */
+    private int initialTableSize;
+
+    /**
+     * Maximum ratio of {@code size} to hash table size before the table is
+     * grown.
+     */
+    private double maxLoadFactor;
+
+    /**
+     * Policy used to pick hash table sizes on resize.
+     */
+    private TableSizing sizing;
+
+    /**
+     * Function used to hash keys.
+     */
+    private HashStrategy<? super K> hashStrategy;
+
+    /**
+     * Whether resizes migrate buckets a few at a time instead of all at once.
+     */
+    private boolean incremental;
+
+    /**
+     * Hash table being migrated into {@code hashTable}, or {@code null} if no
+     * incremental rehash is in progress.
+     */
+    private Map<K, V>[] oldTable;
+
+    /**
+     * Index of the next bucket of {@code oldTable} to be migrated; buckets
+     * below this index have already been moved.
+     */
+    private int migrateIndex;
+
+    /**
+     * Number of old-table buckets migrated per operation during the current
+     * incremental rehash, chosen when it starts so that it always finishes
+     * before the next grow or shrink.
+     */
+    private int migrationStep;
+
+    /**
+     * Number of old-table buckets that resizes have had to migrate all at
+     * once because the previous migration had not finished.
+     */
+    private long forcedBuckets;
+
+    /**
+     * Index of the non-empty buckets of {@code hashTable}.
+     */
+    private Occupancy occupancy;
+
+    /**
+     * Index of the non-empty buckets of {@code oldTable}, or {@code null} if
+     * no incremental rehash is in progress.
+     */
+    private Occupancy oldOccupancy;
+
+    /**
+     * Snapshot file whose buckets have not all been decoded into
+     * {@code hashTable} yet, or {@code null} if there is none.
+     */
+    private Snapshot<K, V> snapshot;
+
+    /**
+     * Set of the non-empty buckets of a hash table, kept as a dense array of
+     * bucket indices plus each bucket's position in that array, so that
+     * marking a bucket empty or non-empty and picking some non-empty bucket
+     * are all O(1).
+     */
+    private static final class Occupancy {
+
+        /**
+         * Position of a bucket that is not in the set.
+         */
+        private static final int ABSENT = -1;
+
+        /**
+         * Indices of the non-empty buckets, in positions [0, count).
+         */
+        private final int[] buckets;
+
+        /**
+         * Position of each bucket in {@code buckets}, or {@code ABSENT}.
+         */
+        private final int[] position;
+
+        /**
+         * Number of non-empty buckets.
+         */
+        private int count;
+
+        /**
+         * Constructor for a table of {@code tableSize} empty buckets.
+         *
+         * @param tableSize
+         *            the number of buckets
+         */
+        Occupancy(int tableSize) {
+            this.buckets = new int[tableSize];
+            this.position = new int[tableSize];
+            for (int i = 0; i < tableSize; i++) {
+                this.position[i] = ABSENT;
+            }
+            this.count = 0;
+        }
+
+        /**
+         * Records that {@code bucket} is non-empty.
+         *
+         * @param bucket
+         *            the bucket index
+         */
+        void markOccupied(int bucket) {
+            if (this.position[bucket] == ABSENT) {
+                this.buckets[this.count] = bucket;
+                this.position[bucket] = this.count;
+                this.count++;
+            }
+        }
+
+        /**
+         * Records that {@code bucket} is empty.
+         *
+         * @param bucket
+         *            the bucket index
+         */
+        void markEmpty(int bucket) {
+            int p = this.position[bucket];
+            if (p != ABSENT) {
+                this.count--;
+                int moved = this.buckets[this.count];
+                this.buckets[p] = moved;
+                this.position[moved] = p;
+                this.position[bucket] = ABSENT;
+            }
+        }
+
+        /**
+         * Reports the number of non-empty buckets.
+         *
+         * @return the number of non-empty buckets
+         */
+        int count() {
+            return this.count;
+        }
+
+        /**
+         * Reports the non-empty bucket at {@code position} in this set's
+         * internal order.
+         *
+         * @param position
+         *            the position
+         * @return the index of a non-empty bucket
+         * @requires 0 <= position < count()
+         */
+        int bucketAt(int position) {
+            assert 0 <= position : "Violation of: 0 <= position";
+            assert position < this.count : "Violation of: position < count()";
+
+            return this.buckets[position];
+        }
+
+        /**
+         * Reports some non-empty bucket.
+         *
+         * @return the index of a non-empty bucket
+         * @requires count() > 0
+         */
+        int any() {
+            assert this.count > 0 : "Violation of: count() > 0";
+
+            return this.buckets[this.count - 1];
+        }
+
+    }
+
+    /**
+     * Identifies a {@code Map4} snapshot file ("M4SN").
+     */
+    private static final int SNAPSHOT_MAGIC = 0x4D34534E;
+
+    /**
+     * Version of the snapshot format written by {@code save}.
+     */
+    private static final int SNAPSHOT_VERSION = 1;
+
+    /**
+     * Bytes before the bucket directory of a snapshot: magic, version, table
+     * size, initial table size, size, maximum load factor, sizing, and
+     * incremental flag.
+     */
+    private static final int SNAPSHOT_HEADER_BYTES = 7 * Integer.BYTES
+            + Double.BYTES;
+
+    /**
+     * Memory-mapped snapshot file, decoded one bucket at a time. After the
+     * header come |hashTable| + 1 directory entries, entry i being the offset
+     * of bucket i's first record within the records that follow, so bucket i
+     * spans [entry i, entry i+1). Each record is a key's length and bytes
+     * followed by its value's length and bytes.
+     *
+     * @param <K>
+     *            type of keys
+     * @param <V>
+     *            type of values
+     */
+    private static final class Snapshot<K, V> {
+
+        /**
+         * The mapped file.
+         */
+        private final ByteBuffer buffer;
+
+        /**
+         * Position of the records in {@code buffer}.
+         */
+        private final int recordsStart;
+
+        /**
+         * Codec used to decode keys.
+         */
+        private final SnapshotCodec<? extends K> keyCodec;
+
+        /**
+         * Codec used to decode values.
+         */
+        private final SnapshotCodec<? extends V> valueCodec;
+
+        /**
+         * Whether each bucket has been decoded, or was empty to begin with.
+         */
+        private final boolean[] loaded;
+
+        /**
+         * Number of buckets not yet decoded.
+         */
+        private int unloaded;
+
+        /**
+         * Constructor for the snapshot in {@code buffer}, whose table has
+         * {@code tableSize} buckets.
+         *
+         * @param buffer
+         *            the mapped file
+         * @param tableSize
+         *            the number of buckets
+         * @param keyCodec
+         *            codec used to decode keys
+         * @param valueCodec
+         *            codec used to decode values
+         */
+        Snapshot(ByteBuffer buffer, int tableSize,
+                SnapshotCodec<? extends K> keyCodec,
+                SnapshotCodec<? extends V> valueCodec) {
+            this.buffer = buffer;
+            this.recordsStart = SNAPSHOT_HEADER_BYTES
+                    + Integer.BYTES * (tableSize + 1);
+            this.keyCodec = keyCodec;
+            this.valueCodec = valueCodec;
+            this.loaded = new boolean[tableSize];
+            this.unloaded = 0;
+            for (int i = 0; i < tableSize; i++) {
+                this.loaded[i] = this.isEmpty(i);
+                if (!this.loaded[i]) {
+                    this.unloaded++;
+                }
+            }
+        }
+
+        /**
+         * Reports where the records of {@code bucket} start in
+         * {@code buffer}; the records of bucket i end where those of bucket
+         * i + 1 start.
+         *
+         * @param bucket
+         *            the bucket index, up to the table size
+         * @return the position of the bucket's first record
+         */
+        private int start(int bucket) {
+            return this.recordsStart + this.buffer
+                    .getInt(SNAPSHOT_HEADER_BYTES + Integer.BYTES * bucket);
+        }
+
+        /**
+         * Reports whether {@code bucket} has no records.
+         *
+         * @param bucket
+         *            the bucket index
+         * @return whether the bucket is empty
+         */
+        boolean isEmpty(int bucket) {
+            return this.start(bucket) == this.start(bucket + 1);
+        }
+
+        /**
+         * Reports whether {@code bucket} still has to be decoded.
+         *
+         * @param bucket
+         *            the bucket index
+         * @return whether the bucket is not yet loaded
+         */
+        boolean needsLoad(int bucket) {
+            return !this.loaded[bucket];
+        }
+
+        /**
+         * Reports the number of buckets not yet decoded.
+         *
+         * @return the number of buckets not yet loaded
+         */
+        int unloaded() {
+            return this.unloaded;
+        }
+
+        /**
+         * Returns the next {@code length}-prefixed byte string at
+         * {@code position}.
+         *
+         * @param position
+         *            position of the length
+         * @return the bytes after the length
+         */
+        private byte[] bytesAt(int position) {
+            byte[] bytes = new byte[this.buffer.getInt(position)];
+            this.buffer.get(position + Integer.BYTES, bytes);
+            return bytes;
+        }
+
+        /**
+         * Decodes the records of {@code bucket} into {@code into}.
+         *
+         * @param bucket
+         *            the bucket index
+         * @param into
+         *            the bucket of the hash table receiving the pairs
+         * @requires needsLoad(bucket)
+         */
+        void load(int bucket, Map<K, V> into) {
+            assert this.needsLoad(bucket)
+                    : "Violation of: needsLoad(bucket)";
+
+            int position = this.start(bucket);
+            int end = this.start(bucket + 1);
+            while (position < end) {
+                byte[] key = this.bytesAt(position);
+                position += Integer.BYTES + key.length;
+                byte[] value = this.bytesAt(position);
+                position += Integer.BYTES + value.length;
+                into.add(this.keyCodec.decode(key),
+                        this.valueCodec.decode(value));
+            }
+            this.loaded[bucket] = true;
+            this.unloaded--;
+        }
+
+    }
+
+    /**
+     * Policies for choosing the hash table size when {@code Map4} resizes.
+     */
+    public enum TableSizing {
+
+        /**
+         * Hash table sizes are primes, roughly doubling on each grow.
+         */
+        PRIME,
+
+        /**
+         * Hash table sizes are powers of two, doubling on each grow.
+         */
+        POWER_OF_TWO;
+
+    }
+
+    /**
+     * Computes {@code a} mod {@code b} as % should have been defined to work.
+     *
+     * @param a
+     *            the number being reduced
+     * @param b
+     *            the modulus
+     * @return the result of a mod b, which satisfies 0 <= {@code mod} < b
+     * @requires b > 0
+     * @ensures <pre>
+     * 0 <= mod  and  mod < b  and
+     * there exists k: integer (a = k * b + mod)
+     * </pre>
+     */
+    private static int mod(int a, int b) {
+        assert b > 0 : "Violation of: b > 0";
+
+        int r = a % b;
+
+        if (r < 0) {
+
+            r += b;
+
+        }
+
+        return r;
+    }
+
+    /**
+     * Reports whether {@code n} is prime.
+     *
+     * @param n
+     *            the number to be checked
+     * @return true if n is prime, false otherwise
+     * @ensures isPrime = [n is a prime number]
+     */
+    private static boolean isPrime(int n) {
+        boolean prime = n >= 2;
+
+        for (int d = 2; prime && d <= n / d; d++) {
+            if (n % d == 0) {
+                prime = false;
+            }
+        }
+
+        return prime;
+    }
+
+    /**
+     * Returns the smallest hash table size that is at least {@code n} and
+     * allowed by {@code sizing}, capped at {@code MAX_HASH_TABLE_SIZE}.
+     *
+     * @param n
+     *            the minimum size
+     * @param sizing
+     *            the sizing policy
+     * @return the table size
+     * @requires n > 0
+     * @ensures <pre>
+     * tableSizeAtLeast = [smallest prime (if sizing = PRIME) or power of two
+     *   (if sizing = POWER_OF_TWO) that is >= min(n, MAX_HASH_TABLE_SIZE)]
+     * </pre>
+     */
+    private static int tableSizeAtLeast(int n, TableSizing sizing) {
+        assert n > 0 : "Violation of: n > 0";
+
+        int target = Math.min(n, MAX_HASH_TABLE_SIZE);
+        int result;
+
+        if (sizing == TableSizing.POWER_OF_TWO) {
+            result = 1;
+            while (result < target) {
+                result *= 2;
+            }
+        } else {
+            result = target;
+            while (!isPrime(result)) {
+                result++;
+            }
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Creates a hash table of {@code tableSize} empty buckets.
+     *
+     * @param <K>
+     *            type of {@code Map} domain (key) entries
+     * @param <V>
+     *            type of {@code Map} range (associated value) entries
+     * @param tableSize
+     *            the number of buckets
+     * @return the new hash table
+     * @requires tableSize > 0
+     * @ensures <pre>
+     * |newTable| = tableSize  and
+     * for all i: integer
+     *     where (0 <= i  and  i < |newTable|)
+     *   (newTable[i, i+1) = <{}>)
+     * </pre>
+     */
+    @SuppressWarnings("unchecked")
+    private static <K, V> Map<K, V>[] newTable(int tableSize) {
+        Map<K, V>[] table = new Map[tableSize];
+
+        for (int i = 0; i < tableSize; i++) {
+            table[i] = new Map2<K, V>();
+        }
+
+        return table;
+    }
+
+    /**
+     * Returns the bucket index for {@code key} in a table of size
+     * {@code tableSize}.
+     *
+     * @param key
+     *            the key
+     * @param tableSize
+     *            the size of the hash table
+     * @return the bucket index
+     * @requires tableSize > 0
+     * @ensures <pre>
+     * indexFor = [computed result of $this.hashStrategy.hash(key)] mod tableSize
+     * </pre>
+     */
+    private int indexFor(K key, int tableSize) {
+        return mod(this.hashStrategy.hash(key), tableSize);
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param hashTableSize
+     *            the requested size of the hash table
+     * @param loadFactor
+     *            the maximum load factor
+     * @param tableSizing
+     *            the sizing policy
+     * @param incrementalRehash
+     *            whether resizes are spread across later operations
+     * @param strategy
+     *            the function used to hash keys
+     * @requires hashTableSize > 0  and  loadFactor > 0
+     * @ensures <pre>
+     * |$this.hashTable| = [smallest size >= hashTableSize allowed by
+     *   tableSizing; hashTableSize itself for PRIME]  and
+     * for all i: integer
+     *     where (0 <= i  and  i < |$this.hashTable|)
+     *   ($this.hashTable[i, i+1) = <{}>)  and
+     * $this.size = 0  and
+     * $this.initialTableSize = |$this.hashTable|  and
+     * $this.maxLoadFactor = loadFactor  and  $this.sizing = tableSizing  and
+     * $this.incremental = incrementalRehash  and  $this.oldTable = null  and
+     * $this.migrationStep = 1  and  $this.forcedBuckets = 0  and
+     * $this.hashStrategy = strategy
+     * </pre>
+     */
+    private void createNewRep(int hashTableSize, double loadFactor,
+            TableSizing tableSizing, boolean incrementalRehash,
+            HashStrategy<? super K> strategy) {
+        int tableSize = hashTableSize;
+        if (tableSizing == TableSizing.POWER_OF_TWO) {
+            tableSize = tableSizeAtLeast(hashTableSize, tableSizing);
+        }
+
+        this.hashTable = newTable(tableSize);
+        this.occupancy = new Occupancy(tableSize);
+        this.size = 0;
+        this.initialTableSize = tableSize;
+        this.maxLoadFactor = loadFactor;
+        this.sizing = tableSizing;
+        this.incremental = incrementalRehash;
+        this.hashStrategy = strategy;
+        this.oldTable = null;
+        this.oldOccupancy = null;
+        this.migrateIndex = 0;
+        this.migrationStep = 1;
+        this.forcedBuckets = 0;
+        this.snapshot = null;
+    }
+
+    /**
+     * Decodes bucket {@code index} of {@code $this.snapshot} into
+     * {@code $this.hashTable}, if it has not been already.
+     *
+     * @param index
+     *            the bucket index
+     * @updates $this
+     * @requires 0 <= index < |$this.hashTable|
+     * @ensures <pre>
+     * this = #this  and
+     * [bucket index of $this.hashTable holds all its pairs]
+     * </pre>
+     */
+    private void loadBucket(int index) {
+        if (this.snapshot != null && this.snapshot.needsLoad(index)) {
+            this.snapshot.load(index, this.hashTable[index]);
+            if (this.snapshot.unloaded() == 0) {
+                this.snapshot = null;
+            }
+        }
+    }
+
+    /**
+     * Decodes every bucket of {@code $this.snapshot} not yet loaded.
+     *
+     * @updates $this
+     * @ensures this = #this  and  $this.snapshot = null
+     */
+    private void loadAll() {
+        for (int i = 0; this.snapshot != null
+                && i < this.hashTable.length; i++) {
+            this.loadBucket(i);
+        }
+    }
+
+    /**
+     * Returns the number of old-table buckets each operation must migrate so
+     * that a migration of {@code oldTableSize} buckets into a new table of
+     * {@code newTableSize} buckets ends before any add, remove, or removeAny
+     * can make {@code growIfNeeded} or {@code shrinkIfNeeded} resize the new
+     * table.
+     *
+     * @param oldTableSize
+     *            the number of buckets to migrate
+     * @param newTableSize
+     *            the size of the new hash table
+     * @return the number of buckets to migrate per operation
+     * @requires oldTableSize > 0  and  newTableSize > 0
+     * @ensures <pre>
+     * stepFor * [least number of adds, removes, and removeAnys after which
+     *   |$this.hashTable| = newTableSize would be resized] >= oldTableSize
+     * </pre>
+     */
+    private int stepFor(int oldTableSize, int newTableSize) {
+        /*
+         * The table grows once size > maxLoadFactor * newTableSize and
+         * shrinks once size < maxLoadFactor * newTableSize / SHRINK_DIVISOR;
+         * each operation migrates before it checks, so the operation that
+         * crosses either threshold still gets its share.
+         */
+        long room = Long.MAX_VALUE;
+        if (newTableSize < MAX_HASH_TABLE_SIZE) {
+            room = (long) Math.floor(this.maxLoadFactor * newTableSize)
+                    - this.size + 1;
+        }
+        if (newTableSize > this.initialTableSize) {
+            long shrinkRoom = this.size - (long) Math.ceil(
+                    this.maxLoadFactor * newTableSize / SHRINK_DIVISOR) + 1;
+            room = Math.min(room, shrinkRoom);
+        }
+        room = Math.max(1, room);
+
+        return (int) ((oldTableSize + room - 1) / room);
+    }
+
+    /**
+     * Re-buckets every pair of {@code this} into a new hash table of size
+     * {@code newTableSize}. In incremental mode, only the new table is
+     * allocated here; the pairs are moved by later calls to
+     * {@code migrateStep}, enough of them per call to be done before the new
+     * table needs resizing in turn.
+     *
+     * @param newTableSize
+     *            the size of the new hash table
+     * @updates $this
+     * @requires newTableSize > 0
+     * @ensures <pre>
+     * |$this.hashTable| = newTableSize  and  this = #this
+     * </pre>
+     */
+    private void rehash(int newTableSize) {
+        if (this.incremental) {
+            this.loadAll();
+            if (this.oldTable != null) {
+                this.forcedBuckets += this.oldTable.length - this.migrateIndex;
+                this.finishMigration();
+            }
+            this.migrationStep = this.stepFor(this.hashTable.length,
+                    newTableSize);
+            this.oldTable = this.hashTable;
+            this.oldOccupancy = this.occupancy;
+            this.migrateIndex = 0;
+            this.hashTable = newTable(newTableSize);
+            this.occupancy = new Occupancy(newTableSize);
+        } else {
+            this.rehashAll(newTableSize);
+        }
+    }
+
+    /**
+     * Re-buckets every pair of {@code this} into a new hash table of size
+     * {@code newTableSize} right away, whether or not {@code this} is in
+     * incremental mode.
+     *
+     * @param newTableSize
+     *            the size of the new hash table
+     * @updates $this
+     * @requires newTableSize > 0
+     * @ensures <pre>
+     * |$this.hashTable| = newTableSize  and  $this.oldTable = null  and
+     * this = #this
+     * </pre>
+     */
+    private void rehashAll(int newTableSize) {
+        this.loadAll();
+        this.finishMigration();
+
+        Map<K, V>[] previous = this.hashTable;
+        this.hashTable = newTable(newTableSize);
+        this.occupancy = new Occupancy(newTableSize);
+
+        for (Map<K, V> bucket : previous) {
+            for (Pair<K, V> pair : bucket) {
+                this.place(pair.key(), pair.value());
+            }
+        }
+    }
+
+    /**
+     * Makes room for {@code expectedSize} pairs: finishes any migration and,
+     * if needed, grows the hash table once, so that adding pairs up to that
+     * size causes no further resize.
+     *
+     * @param expectedSize
+     *            the number of pairs {@code this} is about to hold
+     * @updates $this
+     * @requires expectedSize >= 0
+     * @ensures <pre>
+     * this = #this  and  $this.oldTable = null  and
+     * (expectedSize <= $this.maxLoadFactor * |$this.hashTable|  or
+     *  [|$this.hashTable| cannot grow any further])
+     * </pre>
+     */
+    private void reserve(int expectedSize) {
+        this.finishMigration();
+
+        int length = this.hashTable.length;
+        if (expectedSize > this.maxLoadFactor * length
+                && length < MAX_HASH_TABLE_SIZE) {
+            int needed = (int) Math.min(MAX_HASH_TABLE_SIZE,
+                    Math.ceil(expectedSize / this.maxLoadFactor));
+            this.rehashAll(tableSizeAtLeast(needed, this.sizing));
+        }
+    }
+
+    /**
+     * Adds ({@code key}, {@code value}) to its bucket of
+     * {@code $this.hashTable}, keeping {@code $this.occupancy} current; does
+     * not update {@code $this.size}.
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            the value
+     * @updates $this.hashTable, $this.occupancy
+     * @requires key is not in DOMAIN(this)
+     * @ensures [(key, value) is in bucket indexFor(key, |$this.hashTable|)]
+     */
+    private void place(K key, V value) {
+        int index = indexFor(key, this.hashTable.length);
+
+        this.loadBucket(index);
+        this.hashTable[index].add(key, value);
+        this.occupancy.markOccupied(index);
+    }
+
+    /**
+     * Moves up to {@code $this.migrationStep} buckets of {@code $this.oldTable}
+     * into {@code $this.hashTable}, ending the migration once the last one has
+     * been moved. Does nothing if no migration is in progress.
+     *
+     * @updates $this
+     * @ensures this = #this
+     */
+    private void migrateStep() {
+        for (int step = 0; step < this.migrationStep
+                && this.oldTable != null; step++) {
+            Map<K, V> bucket = this.oldTable[this.migrateIndex];
+            for (Pair<K, V> pair : bucket) {
+                this.place(pair.key(), pair.value());
+            }
+            this.oldOccupancy.markEmpty(this.migrateIndex);
+            this.oldTable[this.migrateIndex] = null;
+            this.migrateIndex++;
+
+            if (this.migrateIndex == this.oldTable.length) {
+                this.oldTable = null;
+                this.oldOccupancy = null;
+                this.migrateIndex = 0;
+            }
+        }
+    }
+
+    /**
+     * Completes any incremental migration in progress.
+     *
+     * @updates $this
+     * @ensures this = #this  and  $this.oldTable = null
+     */
+    private void finishMigration() {
+        while (this.oldTable != null) {
+            this.migrateStep();
+        }
+    }
+
+    /**
+     * Returns the bucket holding {@code key}, or, if {@code key} is not in
+     * {@code this}, the bucket of {@code $this.hashTable} it would be added
+     * to.
+     *
+     * @param key
+     *            the key
+     * @return the bucket for {@code key}
+     * @aliases reference returned
+     * @ensures <pre>
+     * if key is in DOMAIN(this) then
+     *   key is in DOMAIN(bucketFor)
+     * else
+     *   bucketFor = $this.hashTable[indexFor(key, |$this.hashTable|)]
+     * </pre>
+     */
+    private Map<K, V> bucketFor(K key) {
+        return this.bucketFor(key, this.hashStrategy.hash(key));
+    }
+
+    /**
+     * Returns {@code bucketFor(key)} given the already computed hash of
+     * {@code key}.
+     *
+     * @param key
+     *            the key
+     * @param hash
+     *            the hash of {@code key}
+     * @return the bucket for {@code key}
+     * @aliases reference returned
+     * @requires hash = [computed result of $this.hashStrategy.hash(key)]
+     * @ensures bucketFor = bucketFor(key)
+     */
+    private Map<K, V> bucketFor(K key, int hash) {
+        int index = mod(hash, this.hashTable.length);
+        this.loadBucket(index);
+        Map<K, V> bucket = this.hashTable[index];
+
+        if (this.oldTable != null && !bucket.hasKey(key)) {
+            int oldIndex = mod(hash, this.oldTable.length);
+            if (oldIndex >= this.migrateIndex
+                    && this.oldTable[oldIndex].hasKey(key)) {
+                bucket = this.oldTable[oldIndex];
+            }
+        }
+
+        return bucket;
+    }
+
+    /**
+     * Grows the hash table if {@code $this.size} exceeds the maximum load
+     * factor.
      *
-     * @param a
-     *            the number being reduced
-     * @param b
-     *            the modulus
-     * @return the result of a mod b, which satisfies 0 <= {@code mod} < b
-     * @requires b > 0
+     * @updates $this.hashTable
      * @ensures <pre>
-     * 0 <= mod  and  mod < b  and
-     * there exists k: integer (a = k * b + mod)
+     * this = #this  and
+     * ($this.size <= $this.maxLoadFactor * |$this.hashTable|  or
+     *  [|$this.hashTable| cannot grow any further])
      * </pre>
      */
-    private static int mod(int a, int b) {
-        assert b > 0 : "Violation of: b > 0";
-
-        int r = a % b;
-
-        if (r < 0) {
+    private void growIfNeeded() {
+        int length = this.hashTable.length;
 
-            r += b;
+        if (this.size > this.maxLoadFactor * length
+                && length < MAX_HASH_TABLE_SIZE) {
+            int needed = (int) Math.min(MAX_HASH_TABLE_SIZE,
+                    Math.ceil(this.size / this.maxLoadFactor));
+            int target = Math.max(needed, 2 * length);
+            if (this.sizing == TableSizing.PRIME) {
+                target = Math.min(target + 1, MAX_HASH_TABLE_SIZE);
+            }
 
+            this.rehash(tableSizeAtLeast(target, this.sizing));
         }
-
-        return r;
     }
 
     /**
-     * Creator of initial representation.
+     * Shrinks the hash table if the load factor has fallen well below the
+     * maximum, never going below {@code $this.initialTableSize}.
      *
-     * @param hashTableSize
-     *            the size of the hash table
-     * @requires hashTableSize > 0
+     * @updates $this.hashTable
      * @ensures <pre>
-     * |$this.hashTable| = hashTableSize  and
-     * for all i: integer
-     *     where (0 <= i  and  i < |$this.hashTable|)
-     *   ($this.hashTable[i, i+1) = <{}>)  and
-     * $this.size = 0
+     * this = #this  and
+     * $this.initialTableSize <= |$this.hashTable| <= |#this.hashTable|
      * </pre>
      */
-    @SuppressWarnings("unchecked")
-    private void createNewRep(int hashTableSize) {
-        this.hashTable = new Map[hashTableSize];
+    private void shrinkIfNeeded() {
+        int length = this.hashTable.length;
 
-        for (int i = 0; i < hashTableSize; i++) {
-            this.hashTable[i] = new Map2<K, V>();
-        }
+        if (length > this.initialTableSize && this.size
+                < this.maxLoadFactor * length / SHRINK_DIVISOR) {
+            int target = Math.max(this.initialTableSize, length / 2);
 
-        this.size = 0;
+            this.rehash(tableSizeAtLeast(target, this.sizing));
+        }
     }
 
     /*
@@ -120,7 +1023,8 @@ public class Map4<K, V> extends MapSecondary<K, V> {
      * No-argument constructor.
      */
     public Map4() {
-        this.createNewRep(DEFAULT_HASH_TABLE_SIZE);
+        this.createNewRep(DEFAULT_HASH_TABLE_SIZE, DEFAULT_MAX_LOAD_FACTOR,
+                TableSizing.PRIME, false, HashStrategies.identity());
     }
 
     /**
@@ -132,7 +1036,114 @@ public class Map4<K, V> extends MapSecondary<K, V> {
      * @ensures this = {}
      */
     public Map4(int hashTableSize) {
-        this.createNewRep(hashTableSize);
+        this.createNewRep(hashTableSize, DEFAULT_MAX_LOAD_FACTOR,
+                TableSizing.PRIME, false, HashStrategies.identity());
+    }
+
+    /**
+     * Constructor resulting in a hash table of the default size that hashes
+     * keys with {@code hashStrategy} instead of {@code hashCode}.
+     *
+     * @param hashStrategy
+     *            the function used to hash keys
+     * @ensures this = {}
+     */
+    public Map4(HashStrategy<? super K> hashStrategy) {
+        this(DEFAULT_HASH_TABLE_SIZE, DEFAULT_MAX_LOAD_FACTOR,
+                TableSizing.PRIME, false, hashStrategy);
+    }
+
+    /**
+     * Constructor resulting in a hash table of initial size
+     * {@code hashTableSize} that grows once the load factor exceeds
+     * {@code maxLoadFactor}, choosing new sizes according to {@code sizing}.
+     * With {@code POWER_OF_TWO}, the initial size is rounded up to a power of
+     * two.
+     *
+     * @param hashTableSize
+     *            initial size of hash table
+     * @param maxLoadFactor
+     *            maximum ratio of entries to buckets before growing
+     * @param sizing
+     *            policy for choosing hash table sizes
+     * @requires hashTableSize > 0  and  maxLoadFactor > 0
+     * @ensures this = {}
+     */
+    public Map4(int hashTableSize, double maxLoadFactor, TableSizing sizing) {
+        this(hashTableSize, maxLoadFactor, sizing, false);
+    }
+
+    /**
+     * Constructor like {@link #Map4(int, double, TableSizing)} that, if
+     * {@code incrementalRehash} is true, spreads each resize across later
+     * operations: both the old and new hash tables are kept, and every
+     * {@code add}, {@code remove}, {@code removeAny}, and {@code value} moves
+     * a bounded number of buckets from the old table to the new one, so no
+     * single call pays for re-bucketing the whole map.
+     *
+     * @param hashTableSize
+     *            initial size of hash table
+     * @param maxLoadFactor
+     *            maximum ratio of entries to buckets before growing
+     * @param sizing
+     *            policy for choosing hash table sizes
+     * @param incrementalRehash
+     *            whether resizes are spread across later operations
+     * @requires hashTableSize > 0  and  maxLoadFactor > 0
+     * @ensures this = {}
+     */
+    public Map4(int hashTableSize, double maxLoadFactor, TableSizing sizing,
+            boolean incrementalRehash) {
+        this(hashTableSize, maxLoadFactor, sizing, incrementalRehash,
+                HashStrategies.identity());
+    }
+
+    /**
+     * Constructor like {@link #Map4(int, double, TableSizing, boolean)} that
+     * hashes keys with {@code hashStrategy} instead of {@code hashCode}.
+     *
+     * @param hashTableSize
+     *            initial size of hash table
+     * @param maxLoadFactor
+     *            maximum ratio of entries to buckets before growing
+     * @param sizing
+     *            policy for choosing hash table sizes
+     * @param incrementalRehash
+     *            whether resizes are spread across later operations
+     * @param hashStrategy
+     *            the function used to hash keys
+     * @requires hashTableSize > 0  and  maxLoadFactor > 0
+     * @ensures this = {}
+     */
+    public Map4(int hashTableSize, double maxLoadFactor, TableSizing sizing,
+            boolean incrementalRehash, HashStrategy<? super K> hashStrategy) {
+        assert hashTableSize > 0 : "Violation of: hashTableSize > 0";
+        assert maxLoadFactor > 0 : "Violation of: maxLoadFactor > 0";
+        assert sizing != null : "Violation of: sizing is not null";
+        assert hashStrategy != null : "Violation of: hashStrategy is not null";
+
+        this.createNewRep(hashTableSize, maxLoadFactor, sizing,
+                incrementalRehash, hashStrategy);
+    }
+
+    /**
+     * Constructor resulting in a map of the pairs ({@code keys[i]},
+     * {@code values[i]}), built by {@link #addAll(Object[], Object[])}: the
+     * hash table is sized once for all the pairs, which are then placed in a
+     * single pass. Otherwise behaves like {@link #Map4()}.
+     *
+     * @param keys
+     *            the keys
+     * @param values
+     *            the values, {@code values[i]} going with {@code keys[i]}
+     * @requires <pre>
+     * |keys| = |values|  and  [the entries of keys are distinct]
+     * </pre>
+     * @ensures this = {(keys[i], values[i]) : 0 <= i < |keys|}
+     */
+    public Map4(K[] keys, V[] values) {
+        this();
+        this.addAll(keys, values);
     }
 
     /*
@@ -143,7 +1154,12 @@ public class Map4<K, V> extends MapSecondary<K, V> {
     @Override
     public final Map<K, V> newInstance() {
         try {
-            return this.getClass().getConstructor().newInstance();
+            return this.getClass()
+                    .getConstructor(int.class, double.class,
+                            TableSizing.class, boolean.class,
+                            HashStrategy.class)
+                    .newInstance(this.initialTableSize, this.maxLoadFactor,
+                            this.sizing, this.incremental, this.hashStrategy);
         } catch (ReflectiveOperationException e) {
             throw new AssertionError(
                     "Cannot construct object of type " + this.getClass());
@@ -152,7 +1168,8 @@ public class Map4<K, V> extends MapSecondary<K, V> {
 
     @Override
     public final void clear() {
-        this.createNewRep(DEFAULT_HASH_TABLE_SIZE);
+        this.createNewRep(this.initialTableSize, this.maxLoadFactor,
+                this.sizing, this.incremental, this.hashStrategy);
     }
 
     @Override
@@ -169,7 +1186,21 @@ public class Map4<K, V> extends MapSecondary<K, V> {
         Map4<K, V> localSource = (Map4<K, V>) source;
         this.hashTable = localSource.hashTable;
         this.size = localSource.size;
-        localSource.createNewRep(DEFAULT_HASH_TABLE_SIZE);
+        this.initialTableSize = localSource.initialTableSize;
+        this.maxLoadFactor = localSource.maxLoadFactor;
+        this.sizing = localSource.sizing;
+        this.incremental = localSource.incremental;
+        this.hashStrategy = localSource.hashStrategy;
+        this.oldTable = localSource.oldTable;
+        this.migrateIndex = localSource.migrateIndex;
+        this.migrationStep = localSource.migrationStep;
+        this.forcedBuckets = localSource.forcedBuckets;
+        this.occupancy = localSource.occupancy;
+        this.oldOccupancy = localSource.oldOccupancy;
+        this.snapshot = localSource.snapshot;
+        localSource.createNewRep(localSource.initialTableSize,
+                localSource.maxLoadFactor, localSource.sizing,
+                localSource.incremental, localSource.hashStrategy);
     }
 
     /*
@@ -182,11 +1213,12 @@ public class Map4<K, V> extends MapSecondary<K, V> {
         assert value != null : "Violation of: value is not null";
         assert !this.hasKey(key) : "Violation of: key is not in DOMAIN(this)";
 
-        int hash = key.hashCode();
-        int index = mod(hash, this.hashTable.length);
+        this.migrateStep();
 
-        this.hashTable[index].add(key, value);
+        this.place(key, value);
         this.size++;
+
+        this.growIfNeeded();
     }
 
     @Override
@@ -194,12 +1226,26 @@ public class Map4<K, V> extends MapSecondary<K, V> {
         assert key != null : "Violation of: key is not null";
         assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
 
-        int hash = key.hashCode();
-        int index = mod(hash, this.hashTable.length);
+        this.migrateStep();
 
-        Pair<K, V> removed = this.hashTable[index].remove(key);
+        Map<K, V>[] table = this.hashTable;
+        Occupancy tableOccupancy = this.occupancy;
+        int index = indexFor(key, table.length);
+        this.loadBucket(index);
+        if (this.oldTable != null && !table[index].hasKey(key)) {
+            table = this.oldTable;
+            tableOccupancy = this.oldOccupancy;
+            index = indexFor(key, table.length);
+        }
+
+        Pair<K, V> removed = table[index].remove(key);
+        if (table[index].size() == 0) {
+            tableOccupancy.markEmpty(index);
+        }
         this.size--;
 
+        this.shrinkIfNeeded();
+
         return removed;
     }
 
@@ -207,16 +1253,42 @@ public class Map4<K, V> extends MapSecondary<K, V> {
     public final Pair<K, V> removeAny() {
         assert this.size() > 0 : "Violation of: this /= empty_set";
 
-        int randomBucket = (int) (Math.random() * this.hashTable.length);
+        this.migrateStep();
 
-        while (this.hashTable[randomBucket].size() == 0) {
-            randomBucket = (int) (Math.random() * this.hashTable.length);
+        /*
+         * If $this.hashTable is empty, the pairs must all still be waiting in
+         * $this.oldTable.
+         */
+        Map<K, V>[] table = this.hashTable;
+        Occupancy tableOccupancy = this.occupancy;
+        if (tableOccupancy.count() == 0) {
+            table = this.oldTable;
+            tableOccupancy = this.oldOccupancy;
         }
 
-        Pair<K, V> random = this.hashTable[randomBucket].removeAny();
+        int index = tableOccupancy.any();
+        if (table == this.hashTable) {
+            this.loadBucket(index);
+        }
+        Pair<K, V> any = table[index].removeAny();
+        if (table[index].size() == 0) {
+            tableOccupancy.markEmpty(index);
+        }
         this.size--;
 
-        return random;
+        /*
+         * Outside incremental mode a shrink re-buckets every pair at once, so
+         * removeAny leaves shrinking to the next remove: draining a map with
+         * removeAny then costs O(1) per call in the worst case (given buckets
+         * of bounded size) rather than O(1) amortized. In incremental mode
+         * the shrink only allocates the smaller table and the pairs follow a
+         * few buckets per call.
+         */
+        if (this.incremental) {
+            this.shrinkIfNeeded();
+        }
+
+        return any;
     }
 
     @Override
@@ -224,20 +1296,16 @@ public class Map4<K, V> extends MapSecondary<K, V> {
         assert key != null : "Violation of: key is not null";
         assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
 
-        int hash = key.hashCode();
-        int index = mod(hash, this.hashTable.length);
+        this.migrateStep();
 
-        return this.hashTable[index].value(key);
+        return this.bucketFor(key).value(key);
     }
 
     @Override
     public final boolean hasKey(K key) {
         assert key != null : "Violation of: key is not null";
 
-        int hash = key.hashCode();
-        int index = mod(hash, this.hashTable.length);
-
-        return this.hashTable[index].hasKey(key);
+        return this.bucketFor(key).hasKey(key);
     }
 
     @Override
@@ -245,13 +1313,454 @@ public class Map4<K, V> extends MapSecondary<K, V> {
         return this.size;
     }
 
+    /*
+     * Statistics methods -----------------------------------------------------
+     */
+
+    /**
+     * Reports the number of old-table buckets that resizes have had to
+     * migrate all at once, because an incremental migration was still in
+     * progress when the next resize came, since construction or the last
+     * {@code clear}. Always 0 unless in incremental mode; a nonzero value
+     * means some operation paused to finish a migration.
+     *
+     * @return the number of buckets migrated by resizes
+     */
+    public final long forcedMigrationBuckets() {
+        return this.forcedBuckets;
+    }
+
+    /*
+     * Bulk methods -----------------------------------------------------------
+     */
+
+    /**
+     * Adds the pairs ({@code keys[i]}, {@code values[i]}) to {@code this}. The
+     * hash table is grown at most once, up front, and each pair then goes
+     * straight into its bucket.
+     *
+     * @param keys
+     *            the keys
+     * @param values
+     *            the values, {@code values[i]} going with {@code keys[i]}
+     * @updates this
+     * @requires <pre>
+     * |keys| = |values|  and  [the entries of keys are distinct]  and
+     * [no entry of keys is in DOMAIN(this)]
+     * </pre>
+     * @ensures this = #this union {(keys[i], values[i]) : 0 <= i < |keys|}
+     */
+    public final void addAll(K[] keys, V[] values) {
+        assert keys != null : "Violation of: keys is not null";
+        assert values != null : "Violation of: values is not null";
+        assert keys.length == values.length
+                : "Violation of: |keys| = |values|";
+
+        this.reserve(this.size + keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            assert keys[i] != null : "Violation of: key is not null";
+            assert values[i] != null : "Violation of: value is not null";
+
+            this.place(keys[i], values[i]);
+            this.size++;
+        }
+        this.growIfNeeded();
+    }
+
+    /**
+     * Adds the pairs of {@code pairs} to {@code this}. If {@code pairs} is a
+     * {@code Map} or a {@code java.util.Collection}, the hash table is grown
+     * at most once, up front; otherwise it grows as needed along the way.
+     *
+     * @param pairs
+     *            the pairs to add
+     * @updates this
+     * @requires <pre>
+     * [the keys of pairs are distinct]  and
+     * [no key of pairs is in DOMAIN(this)]
+     * </pre>
+     * @ensures this = #this union [the pairs of pairs]
+     */
+    public final void addAll(Iterable<? extends Pair<K, V>> pairs) {
+        assert pairs != null : "Violation of: pairs is not null";
+
+        if (pairs instanceof Map<?, ?>) {
+            this.reserve(this.size + ((Map<?, ?>) pairs).size());
+        } else if (pairs instanceof Collection<?>) {
+            this.reserve(this.size + ((Collection<?>) pairs).size());
+        }
+        for (Pair<K, V> pair : pairs) {
+            assert pair.key() != null : "Violation of: key is not null";
+            assert pair.value() != null : "Violation of: value is not null";
+
+            this.migrateStep();
+            this.place(pair.key(), pair.value());
+            this.size++;
+            this.growIfNeeded();
+        }
+    }
+
+    /**
+     * Returns the positions of {@code hashes} ordered by the bucket of
+     * {@code $this.hashTable} each hash selects, so that lookups for keys in
+     * the same bucket are made one after another.
+     *
+     * @param hashes
+     *            the hashes
+     * @return the positions 0 .. |hashes|-1, grouped by bucket
+     * @ensures <pre>
+     * [bucketOrder is a permutation of 0 .. |hashes|-1]  and
+     * [mod(hashes[bucketOrder[i]], |$this.hashTable|) is non-decreasing in i]
+     * </pre>
+     */
+    private int[] bucketOrder(int[] hashes) {
+        /*
+         * Each entry packs the bucket into the high half and the position
+         * into the low half, so one primitive sort groups the positions.
+         */
+        long[] packed = new long[hashes.length];
+        for (int i = 0; i < hashes.length; i++) {
+            long bucket = mod(hashes[i], this.hashTable.length);
+            packed[i] = (bucket << Integer.SIZE) | i;
+        }
+        Arrays.sort(packed);
+
+        int[] order = new int[hashes.length];
+        for (int i = 0; i < packed.length; i++) {
+            order[i] = (int) packed[i];
+        }
+        return order;
+    }
+
+    /**
+     * Returns the hash of each of {@code keys}.
+     *
+     * @param keys
+     *            the keys
+     * @return the hashes, in the same order
+     * @ensures <pre>
+     * |hashesOf| = |keys|  and
+     * for all i: integer where (0 <= i < |keys|)
+     *   (hashesOf[i] = [computed result of $this.hashStrategy.hash(keys[i])])
+     * </pre>
+     */
+    private int[] hashesOf(K[] keys) {
+        int[] hashes = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            assert keys[i] != null : "Violation of: key is not null";
+
+            hashes[i] = this.hashStrategy.hash(keys[i]);
+        }
+        return hashes;
+    }
+
+    /**
+     * Reports, for each of {@code keys}, whether it is in {@code this}. The
+     * keys are looked up grouped by bucket rather than in the given order.
+     *
+     * @param keys
+     *            the keys
+     * @return whether each key is in DOMAIN(this), in the same order
+     * @ensures <pre>
+     * |hasKeys| = |keys|  and
+     * for all i: integer where (0 <= i < |keys|)
+     *   (hasKeys[i] = (keys[i] is in DOMAIN(this)))
+     * </pre>
+     */
+    public final boolean[] hasKeys(K[] keys) {
+        assert keys != null : "Violation of: keys is not null";
+
+        int[] hashes = this.hashesOf(keys);
+        boolean[] found = new boolean[keys.length];
+        for (int i : this.bucketOrder(hashes)) {
+            found[i] = this.bucketFor(keys[i], hashes[i]).hasKey(keys[i]);
+        }
+        return found;
+    }
+
+    /**
+     * Replaces each entry of {@code values} by the value {@code keys} at the
+     * same position maps to. The keys are looked up grouped by bucket rather
+     * than in the given order.
+     *
+     * @param keys
+     *            the keys
+     * @param values
+     *            the array to fill
+     * @replaces values
+     * @requires <pre>
+     * |keys| = |values|  and  [every entry of keys is in DOMAIN(this)]
+     * </pre>
+     * @ensures <pre>
+     * for all i: integer where (0 <= i < |keys|)
+     *   ((keys[i], values[i]) is in this)
+     * </pre>
+     */
+    public final void values(K[] keys, V[] values) {
+        assert keys != null : "Violation of: keys is not null";
+        assert values != null : "Violation of: values is not null";
+        assert keys.length == values.length
+                : "Violation of: |keys| = |values|";
+
+        this.migrateStep();
+
+        int[] hashes = this.hashesOf(keys);
+        for (int i : this.bucketOrder(hashes)) {
+            Map<K, V> bucket = this.bucketFor(keys[i], hashes[i]);
+            assert bucket.hasKey(keys[i])
+                    : "Violation of: key is in DOMAIN(this)";
+
+            values[i] = bucket.value(keys[i]);
+        }
+    }
+
+    /*
+     * Snapshot methods -------------------------------------------------------
+     */
+
+    /**
+     * Writes {@code this} to the file named {@code fileName} in the binary
+     * snapshot format read by {@code open}: a header with the table
+     * configuration, a directory with the offset of each bucket's records, and
+     * the records themselves, each key and value encoded with the given codec.
+     *
+     * @param fileName
+     *            the name of the snapshot file
+     * @param keyCodec
+     *            codec used to encode keys
+     * @param valueCodec
+     *            codec used to encode values
+     * @throws IOException
+     *             if the file cannot be written, or the snapshot would exceed
+     *             2 GB
+     * @updates $this
+     * @ensures <pre>
+     * this = #this  and
+     * [the file named fileName holds a snapshot of this]
+     * </pre>
+     */
+    public final void save(String fileName,
+            SnapshotCodec<? super K> keyCodec,
+            SnapshotCodec<? super V> valueCodec) throws IOException {
+        assert fileName != null : "Violation of: fileName is not null";
+        assert keyCodec != null : "Violation of: keyCodec is not null";
+        assert valueCodec != null : "Violation of: valueCodec is not null";
+
+        this.loadAll();
+        this.finishMigration();
+
+        int tableSize = this.hashTable.length;
+        long recordsStart = SNAPSHOT_HEADER_BYTES
+                + (long) Integer.BYTES * (tableSize + 1);
+        int[] directory = new int[tableSize + 1];
+
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName),
+                StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            /*
+             * Write the records first, after room for the header and
+             * directory, noting where each bucket starts.
+             */
+            channel.position(recordsStart);
+            DataOutputStream records = new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel)));
+            for (int i = 0; i < tableSize; i++) {
+                directory[i] = records.size();
+                for (Pair<K, V> pair : this.hashTable[i]) {
+                    byte[] key = keyCodec.encode(pair.key());
+                    byte[] value = valueCodec.encode(pair.value());
+                    records.writeInt(key.length);
+                    records.write(key);
+                    records.writeInt(value.length);
+                    records.write(value);
+                }
+            }
+            records.flush();
+            directory[tableSize] = records.size();
+            if (recordsStart + directory[tableSize] >= Integer.MAX_VALUE) {
+                throw new IOException("Map too large for a snapshot");
+            }
+            /*
+             * Then go back and fill in the header and directory.
+             */
+            ByteBuffer head = ByteBuffer.allocate((int) recordsStart);
+            head.putInt(SNAPSHOT_MAGIC);
+            head.putInt(SNAPSHOT_VERSION);
+            head.putInt(tableSize);
+            head.putInt(this.initialTableSize);
+            head.putInt(this.size);
+            head.putDouble(this.maxLoadFactor);
+            head.putInt(this.sizing.ordinal());
+            head.putInt(this.incremental ? 1 : 0);
+            for (int offset : directory) {
+                head.putInt(offset);
+            }
+            head.flip();
+            while (head.hasRemaining()) {
+                channel.write(head, head.position());
+            }
+        }
+    }
+
+    /**
+     * Returns the {@code Map4} saved by {@code save} in the file named
+     * {@code fileName}, hashing keys with {@code hashCode}. See
+     * {@link #open(String, SnapshotCodec, SnapshotCodec, HashStrategy)}.
+     *
+     * @param <K>
+     *            type of keys
+     * @param <V>
+     *            type of values
+     * @param fileName
+     *            the name of the snapshot file
+     * @param keyCodec
+     *            codec used to decode keys
+     * @param valueCodec
+     *            codec used to decode values
+     * @return the map held in the snapshot
+     * @throws IOException
+     *             if the file cannot be read or is not a snapshot
+     * @requires <pre>
+     * [the snapshot was saved from a Map4 hashing with hashCode]
+     * </pre>
+     * @ensures open = [the map saved in the file named fileName]
+     */
+    public static <K, V> Map4<K, V> open(String fileName,
+            SnapshotCodec<K> keyCodec, SnapshotCodec<V> valueCodec)
+            throws IOException {
+        return open(fileName, keyCodec, valueCodec, HashStrategies.identity());
+    }
+
+    /**
+     * Returns the {@code Map4} saved by {@code save} in the file named
+     * {@code fileName}. The file is memory-mapped rather than read: each
+     * bucket is decoded the first time it is used, so opening costs time
+     * proportional to the table size but not to the size of the keys and
+     * values, and a lookup decodes only its own bucket.
+     *
+     * @param <K>
+     *            type of keys
+     * @param <V>
+     *            type of values
+     * @param fileName
+     *            the name of the snapshot file
+     * @param keyCodec
+     *            codec used to decode keys
+     * @param valueCodec
+     *            codec used to decode values
+     * @param hashStrategy
+     *            the function used to hash keys
+     * @return the map held in the snapshot
+     * @throws IOException
+     *             if the file cannot be read or is not a snapshot
+     * @requires <pre>
+     * [the snapshot was saved from a Map4 hashing with hashStrategy, and
+     *  with codecs that keyCodec and valueCodec invert]
+     * </pre>
+     * @ensures open = [the map saved in the file named fileName]
+     */
+    public static <K, V> Map4<K, V> open(String fileName,
+            SnapshotCodec<K> keyCodec, SnapshotCodec<V> valueCodec,
+            HashStrategy<? super K> hashStrategy) throws IOException {
+        assert fileName != null : "Violation of: fileName is not null";
+        assert keyCodec != null : "Violation of: keyCodec is not null";
+        assert valueCodec != null : "Violation of: valueCodec is not null";
+        assert hashStrategy != null : "Violation of: hashStrategy is not null";
+
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName),
+                StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < SNAPSHOT_HEADER_BYTES || length > Integer.MAX_VALUE) {
+                throw new IOException(fileName + " is not a Map4 snapshot");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+        }
+
+        ByteBuffer head = buffer.duplicate();
+        int magic = head.getInt();
+        int version = head.getInt();
+        int tableSize = head.getInt();
+        int initialTableSize = head.getInt();
+        int size = head.getInt();
+        double maxLoadFactor = head.getDouble();
+        int sizing = head.getInt();
+        boolean incremental = head.getInt() != 0;
+        if (magic != SNAPSHOT_MAGIC || version != SNAPSHOT_VERSION
+                || tableSize <= 0 || initialTableSize <= 0
+                || initialTableSize > tableSize || size < 0
+                || !(maxLoadFactor > 0) || sizing < 0
+                || sizing >= TableSizing.values().length
+                || SNAPSHOT_HEADER_BYTES + (long) Integer.BYTES
+                        * (tableSize + 1) > buffer.capacity()) {
+            throw new IOException(fileName + " is not a Map4 snapshot");
+        }
+
+        Map4<K, V> map = new Map4<>(tableSize, maxLoadFactor,
+                TableSizing.values()[sizing], incremental, hashStrategy);
+        map.initialTableSize = initialTableSize;
+        map.size = size;
+        Snapshot<K, V> snapshot = new Snapshot<>(buffer, tableSize, keyCodec,
+                valueCodec);
+        for (int i = 0; i < tableSize; i++) {
+            if (snapshot.needsLoad(i)) {
+                map.occupancy.markOccupied(i);
+            }
+        }
+        if (snapshot.unloaded() > 0) {
+            map.snapshot = snapshot;
+        }
+
+        return map;
+    }
+
     @Override
     public final Iterator<Pair<K, V>> iterator() {
+        /*
+         * A full iteration costs time proportional to the table size anyway,
+         * so finishing a pending migration here is free asymptotically, and it
+         * guarantees that value calls made during the iteration cannot move
+         * pairs between tables underneath the iterator. The same goes for
+         * decoding any buckets still in a snapshot.
+         */
+        this.loadAll();
+        this.finishMigration();
         return new Map4Iterator();
     }
 
     /**
-     * Implementation of {@code Iterator} interface for {@code Map4}.
+     * Applies {@code action} to each pair of {@code this}, visiting only the
+     * non-empty buckets.
+     *
+     * @param action
+     *            the action applied to each key and its value
+     * @ensures <pre>
+     * [action has been applied once to each (key, value) in this]
+     * </pre>
+     */
+    public final void forEach(BiConsumer<? super K, ? super V> action) {
+        assert action != null : "Violation of: action is not null";
+
+        this.loadAll();
+        this.finishMigration();
+        for (int p = 0; p < this.occupancy.count(); p++) {
+            int bucket = this.occupancy.bucketAt(p);
+            for (Pair<K, V> pair : this.hashTable[bucket]) {
+                action.accept(pair.key(), pair.value());
+            }
+        }
+    }
+
+    @Override
+    public final Spliterator<Pair<K, V>> spliterator() {
+        this.loadAll();
+        this.finishMigration();
+        return new Map4Spliterator(0, this.occupancy.count());
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code Map4}. Only the
+     * non-empty buckets are visited, in the order kept by {@code occupancy}.
      */
     private final class Map4Iterator implements Iterator<Pair<K, V>> {
 
@@ -261,12 +1770,13 @@ public class Map4<K, V> extends MapSecondary<K, V> {
         private int numberSeen;
 
         /**
-         * Bucket from which current bucket iterator comes.
+         * Position in {@code occupancy} of the next bucket to visit.
          */
-        private int currentBucket;
+        private int nextPosition;
 
         /**
-         * Bucket iterator from which next element will come.
+         * Bucket iterator from which next element will come, or {@code null}
+         * before the first bucket is visited.
          */
         private Iterator<Pair<K, V>> bucketIterator;
 
@@ -275,8 +1785,8 @@ public class Map4<K, V> extends MapSecondary<K, V> {
          */
         Map4Iterator() {
             this.numberSeen = 0;
-            this.currentBucket = 0;
-            this.bucketIterator = Map4.this.hashTable[0].iterator();
+            this.nextPosition = 0;
+            this.bucketIterator = null;
         }
 
         @Override
@@ -296,9 +1806,11 @@ public class Map4<K, V> extends MapSecondary<K, V> {
                 throw new NoSuchElementException();
             }
             this.numberSeen++;
-            while (!this.bucketIterator.hasNext()) {
-                this.currentBucket++;
-                this.bucketIterator = Map4.this.hashTable[this.currentBucket].iterator();
+            while (this.bucketIterator == null
+                    || !this.bucketIterator.hasNext()) {
+                int bucket = Map4.this.occupancy.bucketAt(this.nextPosition);
+                this.nextPosition++;
+                this.bucketIterator = Map4.this.hashTable[bucket].iterator();
             }
             return this.bucketIterator.next();
         }
@@ -310,4 +1822,112 @@ public class Map4<K, V> extends MapSecondary<K, V> {
 
     }
 
+    /**
+     * Implementation of {@code Spliterator} interface for {@code Map4}, over
+     * the non-empty buckets at positions [{@code position}, {@code end}) of
+     * {@code occupancy}; splitting halves that range.
+     */
+    private final class Map4Spliterator implements Spliterator<Pair<K, V>> {
+
+        /**
+         * Position in {@code occupancy} of the next bucket to visit.
+         */
+        private int position;
+
+        /**
+         * Position in {@code occupancy} just past the last bucket to visit.
+         */
+        private final int end;
+
+        /**
+         * Bucket iterator from which next element will come, or {@code null}
+         * if no bucket is being visited.
+         */
+        private Iterator<Pair<K, V>> bucketIterator;
+
+        /**
+         * Constructor for the buckets at positions [{@code position},
+         * {@code end}) of {@code occupancy}.
+         *
+         * @param position
+         *            position of the first bucket
+         * @param end
+         *            position just past the last bucket
+         */
+        Map4Spliterator(int position, int end) {
+            this.position = position;
+            this.end = end;
+            this.bucketIterator = null;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Pair<K, V>> action) {
+            assert action != null : "Violation of: action is not null";
+
+            while ((this.bucketIterator == null
+                    || !this.bucketIterator.hasNext())
+                    && this.position < this.end) {
+                int bucket = Map4.this.occupancy.bucketAt(this.position);
+                this.position++;
+                this.bucketIterator = Map4.this.hashTable[bucket].iterator();
+            }
+            boolean advanced = this.bucketIterator != null
+                    && this.bucketIterator.hasNext();
+            if (advanced) {
+                action.accept(this.bucketIterator.next());
+            }
+            return advanced;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Pair<K, V>> action) {
+            assert action != null : "Violation of: action is not null";
+
+            if (this.bucketIterator != null) {
+                while (this.bucketIterator.hasNext()) {
+                    action.accept(this.bucketIterator.next());
+                }
+            }
+            while (this.position < this.end) {
+                int bucket = Map4.this.occupancy.bucketAt(this.position);
+                this.position++;
+                for (Pair<K, V> pair : Map4.this.hashTable[bucket]) {
+                    action.accept(pair);
+                }
+            }
+            this.bucketIterator = null;
+        }
+
+        @Override
+        public Spliterator<Pair<K, V>> trySplit() {
+            Spliterator<Pair<K, V>> prefix = null;
+            int mid = (this.position + this.end) >>> 1;
+            if (mid > this.position) {
+                prefix = new Map4Spliterator(this.position, mid);
+                this.position = mid;
+            }
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            /*
+             * Buckets hold size / count pairs on average.
+             */
+            long estimate = 0;
+            int buckets = Map4.this.occupancy.count();
+            if (buckets > 0) {
+                estimate = (long) (this.end - this.position) * Map4.this.size
+                        / buckets;
+            }
+            return estimate;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.DISTINCT | Spliterator.NONNULL;
+        }
+
+    }
+
 }
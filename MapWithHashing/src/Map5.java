@@ -0,0 +1,525 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.map.Map;
+import components.map.MapSecondary;
+
+/**
+ * {@code Map} represented as an open-addressing hash table with Robin Hood
+ * linear probing, stored in flat parallel arrays of keys, values, and cached
+ * hash codes, with implementations of primary methods.
+ *
+ * <p>
+ * Each entry costs three array slots and no per-entry objects. Deletion
+ * shifts the following entries of the probe run back by one slot instead of
+ * leaving tombstones, so lookups never have to skip over deleted slots.
+ * </p>
+ *
+ * @param <K>
+ *            type of {@code Map} domain (key) entries
+ * @param <V>
+ *            type of {@code Map} range (associated value) entries
+ * @mathdefinitions <pre>
+ * HOME (
+ *   h: integer,
+ *   n: integer
+ *  ) : integer is
+ *  [h, reduced to an index in [0, n) by keeping its low bits]
+ *
+ * PROBE_DISTANCE (
+ *   i: integer,
+ *   h: integer,
+ *   n: integer
+ *  ) : integer is
+ *  (i - HOME(h, n)) mod n
+ * </pre>
+ * @convention <pre>
+ * [|$this.keys| is a power of two]  and
+ * |$this.keys| = |$this.values| = |$this.hashes|  and
+ * $this.size = [number of non-null entries in $this.keys]  and
+ * $this.size <= MAX_LOAD_FACTOR * |$this.keys|  and
+ * for all i: integer
+ *     where (0 <= i  and  i < |$this.keys|)
+ *   (($this.keys[i] = null  iff  $this.values[i] = null)  and
+ *    if $this.keys[i] /= null then
+ *      ($this.hashes[i] = [spread of $this.keys[i].hashCode()]  and
+ *       [no other non-null entry of $this.keys equals $this.keys[i]]  and
+ *       for all d: integer
+ *           where (0 <= d  and  d < PROBE_DISTANCE(i, $this.hashes[i],
+ *                                                 |$this.keys|))
+ *         ([the entry at position (i - d) mod |$this.keys| in $this.keys is
+ *           not null]  and
+ *          [the probe distance of that entry is at least
+ *           PROBE_DISTANCE(i, $this.hashes[i], |$this.keys|) - d])))
+ * </pre>
+ * @correspondence <pre>
+ * this = {(key, value): (K, V)
+ *           where (there exists i: integer
+ *                    (0 <= i  and  i < |$this.keys|  and
+ *                     $this.keys[i] /= null  and
+ *                     key = $this.keys[i]  and  value = $this.values[i]))}
+ * </pre>
+ *
+ * @author Brayden May
+ *
+ */
+public class Map5<K, V> extends MapSecondary<K, V> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Default number of slots; must be a power of two.
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * Largest number of slots that will ever be allocated.
+     */
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    /**
+     * Maximum ratio of {@code size} to number of slots before growing.
+     */
+    private static final double MAX_LOAD_FACTOR = 0.75;
+
+    /**
+     * Keys, {@code null} in empty slots.
+     */
+    private K[] keys;
+
+    /**
+     * Values, parallel to {@code keys}.
+     */
+    private V[] values;
+
+    /**
+     * Cached spread hash codes, parallel to {@code keys}.
+     */
+    private int[] hashes;
+
+    /**
+     * Number of non-empty slots.
+     */
+    private int size;
+
+    /**
+     * Slot at which {@code removeAny} resumes its search for an entry.
+     */
+    private int anyCursor;
+
+    /**
+     * Returns {@code key.hashCode()} with its high bits folded into its low
+     * bits, so that keeping only the low bits still depends on all of them.
+     *
+     * @param key
+     *            the key
+     * @return the spread hash code
+     * @ensures spread = [key.hashCode() with high bits mixed into low bits]
+     */
+    private static int spread(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the smallest power of two that is at least {@code n}, capped at
+     * {@code MAX_CAPACITY}.
+     *
+     * @param n
+     *            the minimum capacity
+     * @return the capacity
+     * @ensures <pre>
+     * capacityAtLeast = [smallest power of two >= min(n, MAX_CAPACITY)]
+     * </pre>
+     */
+    private static int capacityAtLeast(int n) {
+        int capacity = 1;
+        while (capacity < n && capacity < MAX_CAPACITY) {
+            capacity *= 2;
+        }
+        return capacity;
+    }
+
+    /**
+     * Returns the probe distance of a slot from the home slot of hash
+     * {@code h}.
+     *
+     * @param slot
+     *            the slot
+     * @param h
+     *            the spread hash code
+     * @param mask
+     *            the number of slots minus one
+     * @return the probe distance
+     * @requires [mask + 1 is a power of two]  and  0 <= slot <= mask
+     * @ensures probeDistance = PROBE_DISTANCE(slot, h, mask + 1)
+     */
+    private static int probeDistance(int slot, int h, int mask) {
+        return (slot - (h & mask)) & mask;
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param capacity
+     *            the number of slots
+     * @requires [capacity is a power of two]
+     * @ensures <pre>
+     * |$this.keys| = capacity  and  $this.size = 0  and
+     * [all entries of $this.keys and $this.values are null]
+     * </pre>
+     */
+    @SuppressWarnings("unchecked")
+    private void createNewRep(int capacity) {
+        this.keys = (K[]) new Object[capacity];
+        this.values = (V[]) new Object[capacity];
+        this.hashes = new int[capacity];
+        this.size = 0;
+        this.anyCursor = 0;
+    }
+
+    /**
+     * Returns the slot holding {@code key}, or -1 if there is none.
+     *
+     * @param key
+     *            the key to be searched for
+     * @param h
+     *            the spread hash code of {@code key}
+     * @return the slot index, or -1
+     * @ensures <pre>
+     * if key is in DOMAIN(this) then
+     *   $this.keys[findSlot] = key
+     * else
+     *   findSlot = -1
+     * </pre>
+     */
+    private int findSlot(K key, int h) {
+        int mask = this.keys.length - 1;
+        int slot = h & mask;
+        int distance = 0;
+        int found = -1;
+
+        /*
+         * Robin Hood ordering lets the search stop as soon as it reaches an
+         * entry that is closer to its own home than key would be here.
+         */
+        while (found < 0 && this.keys[slot] != null
+                && probeDistance(slot, this.hashes[slot], mask) >= distance) {
+            if (this.hashes[slot] == h && this.keys[slot].equals(key)) {
+                found = slot;
+            }
+            slot = (slot + 1) & mask;
+            distance++;
+        }
+
+        return found;
+    }
+
+    /**
+     * Places a pair in the slot arrays using Robin Hood insertion, without
+     * checking for duplicates or capacity.
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            the value
+     * @param h
+     *            the spread hash code of {@code key}
+     * @updates $this.keys, $this.values, $this.hashes
+     * @requires <pre>
+     * key is not in DOMAIN(this)  and  [some slot of $this.keys is empty]
+     * </pre>
+     * @ensures this = #this union {(key, value)}
+     */
+    private void place(K key, V value, int h) {
+        int mask = this.keys.length - 1;
+        int slot = h & mask;
+        int distance = 0;
+
+        K k = key;
+        V v = value;
+        int kh = h;
+
+        while (this.keys[slot] != null) {
+            int existing = probeDistance(slot, this.hashes[slot], mask);
+            if (existing < distance) {
+                /*
+                 * The resident is richer (closer to home) than the entry being
+                 * placed: take its slot and carry it onward instead.
+                 */
+                K tk = this.keys[slot];
+                V tv = this.values[slot];
+                int th = this.hashes[slot];
+                this.keys[slot] = k;
+                this.values[slot] = v;
+                this.hashes[slot] = kh;
+                k = tk;
+                v = tv;
+                kh = th;
+                distance = existing;
+            }
+            slot = (slot + 1) & mask;
+            distance++;
+        }
+
+        this.keys[slot] = k;
+        this.values[slot] = v;
+        this.hashes[slot] = kh;
+    }
+
+    /**
+     * Empties {@code slot} and shifts the rest of its probe run back by one
+     * slot, so that no tombstone is needed.
+     *
+     * @param slot
+     *            the slot to be emptied
+     * @updates $this.keys, $this.values, $this.hashes
+     * @requires $this.keys[slot] /= null
+     * @ensures <pre>
+     * this = #this \ {($this.keys[slot], $this.values[slot])}
+     * </pre>
+     */
+    private void removeSlot(int slot) {
+        int mask = this.keys.length - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+
+        while (this.keys[next] != null
+                && probeDistance(next, this.hashes[next], mask) > 0) {
+            this.keys[hole] = this.keys[next];
+            this.values[hole] = this.values[next];
+            this.hashes[hole] = this.hashes[next];
+            hole = next;
+            next = (hole + 1) & mask;
+        }
+
+        this.keys[hole] = null;
+        this.values[hole] = null;
+        this.size--;
+    }
+
+    /**
+     * Moves every pair into new slot arrays with {@code newCapacity} slots.
+     *
+     * @param newCapacity
+     *            the new number of slots
+     * @updates $this
+     * @requires [newCapacity is a power of two]  and  newCapacity > |this|
+     * @ensures |$this.keys| = newCapacity  and  this = #this
+     */
+    private void resize(int newCapacity) {
+        K[] oldKeys = this.keys;
+        V[] oldValues = this.values;
+        int[] oldHashes = this.hashes;
+        int oldSize = this.size;
+
+        this.createNewRep(newCapacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                this.place(oldKeys[i], oldValues[i], oldHashes[i]);
+            }
+        }
+        this.size = oldSize;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public Map5() {
+        this.createNewRep(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor with room for {@code expectedSize} entries before the first
+     * resize.
+     *
+     * @param expectedSize
+     *            number of entries expected
+     * @requires expectedSize >= 0
+     * @ensures this = {}
+     */
+    public Map5(int expectedSize) {
+        assert expectedSize >= 0 : "Violation of: expectedSize >= 0";
+
+        this.createNewRep(capacityAtLeast(
+                (int) Math.min(MAX_CAPACITY, expectedSize / MAX_LOAD_FACTOR + 1)));
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Map<K, V> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep(DEFAULT_CAPACITY);
+    }
+
+    @Override
+    public final void transferFrom(Map<K, V> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof Map5<?, ?>
+                : "" + "Violation of: source is of dynamic type Map5<?,?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type Map5<?,?>, and
+         * the ?,? must be K,V or the call would not have compiled.
+         */
+        Map5<K, V> localSource = (Map5<K, V>) source;
+        this.keys = localSource.keys;
+        this.values = localSource.values;
+        this.hashes = localSource.hashes;
+        this.size = localSource.size;
+        this.anyCursor = localSource.anyCursor;
+        localSource.createNewRep(DEFAULT_CAPACITY);
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(K key, V value) {
+        assert key != null : "Violation of: key is not null";
+        assert value != null : "Violation of: value is not null";
+        assert !this.hasKey(key) : "Violation of: key is not in DOMAIN(this)";
+
+        if (this.size + 1 > MAX_LOAD_FACTOR * this.keys.length
+                && this.keys.length < MAX_CAPACITY) {
+            this.resize(2 * this.keys.length);
+        }
+
+        this.place(key, value, spread(key));
+        this.size++;
+    }
+
+    @Override
+    public final Pair<K, V> remove(K key) {
+        assert key != null : "Violation of: key is not null";
+        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+
+        int slot = this.findSlot(key, spread(key));
+        Pair<K, V> removed = new SimplePair<>(this.keys[slot],
+                this.values[slot]);
+        this.removeSlot(slot);
+
+        return removed;
+    }
+
+    @Override
+    public final Pair<K, V> removeAny() {
+        assert this.size() > 0 : "Violation of: this /= empty_set";
+
+        int mask = this.keys.length - 1;
+        int slot = this.anyCursor & mask;
+        while (this.keys[slot] == null) {
+            slot = (slot + 1) & mask;
+        }
+
+        Pair<K, V> removed = new SimplePair<>(this.keys[slot],
+                this.values[slot]);
+        this.removeSlot(slot);
+        this.anyCursor = slot;
+
+        return removed;
+    }
+
+    @Override
+    public final V value(K key) {
+        assert key != null : "Violation of: key is not null";
+        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+
+        return this.values[this.findSlot(key, spread(key))];
+    }
+
+    @Override
+    public final boolean hasKey(K key) {
+        assert key != null : "Violation of: key is not null";
+
+        return this.findSlot(key, spread(key)) >= 0;
+    }
+
+    @Override
+    public final int size() {
+        return this.size;
+    }
+
+    @Override
+    public final Iterator<Pair<K, V>> iterator() {
+        return new Map5Iterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code Map5}.
+     */
+    private final class Map5Iterator implements Iterator<Pair<K, V>> {
+
+        /**
+         * Number of elements seen already (i.e., |~this.seen|).
+         */
+        private int numberSeen;
+
+        /**
+         * Slot at which the search for the next element starts.
+         */
+        private int currentSlot;
+
+        /**
+         * No-argument constructor.
+         */
+        Map5Iterator() {
+            this.numberSeen = 0;
+            this.currentSlot = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.numberSeen < Map5.this.size;
+        }
+
+        @Override
+        public Pair<K, V> next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            this.numberSeen++;
+            while (Map5.this.keys[this.currentSlot] == null) {
+                this.currentSlot++;
+            }
+            Pair<K, V> next = new SimplePair<>(Map5.this.keys[this.currentSlot],
+                    Map5.this.values[this.currentSlot]);
+            this.currentSlot++;
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("remove operation not supported");
+        }
+
+    }
+
+}
@@ -0,0 +1,36 @@
+/**
+ * Conversion between values and bytes, used by {@code Map4.save} and
+ * {@code Map4.open} to store keys and values in a snapshot file.
+ * {@code SnapshotCodecs} has the standard implementations.
+ *
+ * @param <T>
+ *            type of values converted
+ *
+ * @author Brayden May
+ *
+ */
+public interface SnapshotCodec<T> {
+
+    /**
+     * Returns the bytes representing {@code x}.
+     *
+     * @param x
+     *            the value to encode
+     * @return the encoding of x
+     * @requires [x is not null]
+     * @ensures decode(encode) = x
+     */
+    byte[] encode(T x);
+
+    /**
+     * Returns the value represented by {@code bytes}.
+     *
+     * @param bytes
+     *            the encoding
+     * @return the decoded value
+     * @requires [bytes = encode(x) for some x]
+     * @ensures encode(decode) = bytes
+     */
+    T decode(byte[] bytes);
+
+}
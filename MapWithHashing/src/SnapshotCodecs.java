@@ -0,0 +1,101 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Standard {@code SnapshotCodec} implementations: {@code String} as UTF-8,
+ * and {@code Integer} and {@code Long} as big-endian two's complement.
+ *
+ * @author Brayden May
+ *
+ */
+public final class SnapshotCodecs {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private SnapshotCodecs() {
+    }
+
+    /**
+     * Encodes a {@code String} as UTF-8.
+     */
+    private static final class Utf8 implements SnapshotCodec<String> {
+
+        @Override
+        public byte[] encode(String x) {
+            return x.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String decode(byte[] bytes) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+    }
+
+    /**
+     * Encodes an {@code Integer} in four bytes.
+     */
+    private static final class Int implements SnapshotCodec<Integer> {
+
+        @Override
+        public byte[] encode(Integer x) {
+            return ByteBuffer.allocate(Integer.BYTES).putInt(x).array();
+        }
+
+        @Override
+        public Integer decode(byte[] bytes) {
+            return ByteBuffer.wrap(bytes).getInt();
+        }
+
+    }
+
+    /**
+     * Encodes a {@code Long} in eight bytes.
+     */
+    private static final class LongCodec implements SnapshotCodec<Long> {
+
+        @Override
+        public byte[] encode(Long x) {
+            return ByteBuffer.allocate(Long.BYTES).putLong(x).array();
+        }
+
+        @Override
+        public Long decode(byte[] bytes) {
+            return ByteBuffer.wrap(bytes).getLong();
+        }
+
+    }
+
+    /**
+     * Returns the codec that stores a {@code String} as its UTF-8 bytes.
+     *
+     * @return the codec
+     * @ensures string.encode(x) = [UTF-8 encoding of x]
+     */
+    public static SnapshotCodec<String> string() {
+        return new Utf8();
+    }
+
+    /**
+     * Returns the codec that stores an {@code Integer} in four big-endian
+     * bytes.
+     *
+     * @return the codec
+     * @ensures integer.encode(x) = [4-byte big-endian encoding of x]
+     */
+    public static SnapshotCodec<Integer> integer() {
+        return new Int();
+    }
+
+    /**
+     * Returns the codec that stores a {@code Long} in eight big-endian bytes.
+     *
+     * @return the codec
+     * @ensures longInteger.encode(x) = [8-byte big-endian encoding of x]
+     */
+    public static SnapshotCodec<Long> longInteger() {
+        return new LongCodec();
+    }
+
+}
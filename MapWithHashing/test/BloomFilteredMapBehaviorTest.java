@@ -0,0 +1,81 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import components.map.Map.Pair;
+
+/**
+ * JUnit test fixture for the filtering and statistics of
+ * {@code BloomFilteredMap}.
+ *
+ * @author Brayden May
+ *
+ */
+public final class BloomFilteredMapBehaviorTest {
+
+
+    @Test
+    public void testMissesAreFiltered() {
+        BloomFilteredMap<String, String> m = MapFixtures.createFromKeys(
+                new BloomFilteredMap<>(new Map4<>(), 500, 0.01),
+                MapFixtures.numbered(500));
+        for (int i = 500; i < 5500; i++) {
+            assertFalse(m.hasKey(Integer.toString(i)));
+        }
+        assertEquals(5000, m.lookups());
+        assertEquals(5000, m.filtered() + m.falsePositives());
+        assertTrue(m.observedFalsePositiveRate() < 0.03);
+    }
+
+    @Test
+    public void testHitsAreNotFiltered() {
+        BloomFilteredMap<String, String> m = MapFixtures.createFromKeys(
+                new BloomFilteredMap<>(new Map4<>(), 100, 0.01),
+                MapFixtures.numbered(100));
+        for (int i = 0; i < 100; i++) {
+            assertTrue(m.hasKey(Integer.toString(i)));
+            assertEquals(Integer.toString(i), m.value(Integer.toString(i)));
+        }
+        assertEquals(100, m.lookups());
+        assertEquals(0, m.filtered());
+        assertEquals(0, m.falsePositives());
+    }
+
+    @Test
+    public void testRemoveAndRemoveAnyKeepFilterExact() {
+        BloomFilteredMap<String, String> m = MapFixtures.createFromKeys(
+                new BloomFilteredMap<>(new Map4<>(), 100, 0.01),
+                MapFixtures.numbered(100));
+        for (int i = 0; i < 50; i++) {
+            m.remove(Integer.toString(i));
+        }
+        while (m.size() > 10) {
+            Pair<String, String> p = m.removeAny();
+            assertFalse(m.hasKey(p.key()));
+        }
+        for (int i = 0; i < 50; i++) {
+            assertFalse(m.hasKey(Integer.toString(i)));
+        }
+        for (Pair<String, String> p : m) {
+            assertTrue(m.hasKey(p.key()));
+        }
+    }
+
+    @Test
+    public void testGrowthKeepsRateNearTarget() {
+        BloomFilteredMap<String, String> m = MapFixtures.createFromKeys(
+                new BloomFilteredMap<>(new Map4<>(), 1, 0.02),
+                MapFixtures.numbered(1));
+        for (int i = 1; i < 2000; i++) {
+            m.add(Integer.toString(i), "v" + i);
+        }
+        m.resetStatistics();
+        for (int i = 2000; i < 12000; i++) {
+            m.hasKey(Integer.toString(i));
+        }
+        assertTrue(m.observedFalsePositiveRate() < 0.06);
+    }
+
+}
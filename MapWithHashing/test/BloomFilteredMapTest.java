@@ -0,0 +1,31 @@
+import components.map.Map;
+import components.map.Map1L;
+
+/**
+ * Customized JUnit test fixture for {@code BloomFilteredMap} wrapping a
+ * {@code Map4}, with a filter small enough that it has to grow.
+ */
+public class BloomFilteredMapTest extends MapTest {
+
+    /**
+     * Number of keys the filter is first sized for in tests.
+     */
+    private static final int TEST_EXPECTED_SIZE = 2;
+
+    /**
+     * Target false-positive rate to be used in tests.
+     */
+    private static final double TEST_FALSE_POSITIVE_RATE = 0.05;
+
+    @Override
+    protected final Map<String, String> constructorTest() {
+        return new BloomFilteredMap<String, String>(new Map4<String, String>(),
+                TEST_EXPECTED_SIZE, TEST_FALSE_POSITIVE_RATE);
+    }
+
+    @Override
+    protected final Map<String, String> constructorRef() {
+        return new Map1L<String, String>();
+    }
+
+}
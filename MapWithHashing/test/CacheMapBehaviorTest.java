@@ -0,0 +1,235 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import components.map.Map.Pair;
+
+/**
+ * JUnit test fixture for the eviction, listeners, and statistics of
+ * {@code CacheMap}.
+ *
+ * @author Brayden May
+ *
+ */
+public final class CacheMapBehaviorTest {
+
+
+    @Test
+    public void testLruEvictsLeastRecentlyUsed() {
+        CacheMap<String, String> m = MapFixtures.createFromKeys(
+                new CacheMap<>(3, CacheMap.Policy.LRU), "a", "b", "c");
+        assertEquals("a", m.get("a"));
+        m.put("d", "d");
+        assertEquals(3, m.size());
+        assertFalse(m.hasKey("b"));
+        assertTrue(m.hasKey("a"));
+        assertTrue(m.hasKey("c"));
+        assertTrue(m.hasKey("d"));
+        assertEquals(1, m.evictions());
+    }
+
+    @Test
+    public void testHasKeyDoesNotPromote() {
+        CacheMap<String, String> m = MapFixtures.createFromKeys(
+                new CacheMap<>(2, CacheMap.Policy.LRU), "a", "b");
+        assertTrue(m.hasKey("a"));
+        m.put("c", "c");
+        assertFalse(m.hasKey("a"));
+        assertEquals(0, m.hits());
+    }
+
+    @Test
+    public void testPutReplaces() {
+        CacheMap<String, String> m = MapFixtures.createFromKeys(
+                new CacheMap<>(2, CacheMap.Policy.LRU), "a", "b");
+        assertEquals("a", m.put("a", "A"));
+        assertNull(m.put("c", "c"));
+        assertEquals("A", m.get("a"));
+        assertFalse(m.hasKey("b"));
+    }
+
+    @Test
+    public void testListenerToldOfEvictions() {
+        CacheMap<String, String> m = new CacheMap<>(2, CacheMap.Policy.LRU);
+        List<String> evicted = new ArrayList<>();
+        m.addEvictionListener((key, value) -> evicted.add(key + "=" + value));
+        m.put("a", "1");
+        m.put("b", "2");
+        m.put("c", "3");
+        m.put("d", "4");
+        m.remove("c");
+        m.removeAny();
+        assertEquals(List.of("a=1", "b=2"), evicted);
+        assertEquals(2, m.evictions());
+    }
+
+    @Test
+    public void testStatistics() {
+        CacheMap<String, String> m = MapFixtures.createFromKeys(
+                new CacheMap<>(10, CacheMap.Policy.LRU), "a", "b");
+        m.get("a");
+        m.get("z");
+        m.value("b");
+        m.get("y");
+        assertEquals(2, m.hits());
+        assertEquals(2, m.misses());
+        assertEquals(0.5, m.hitRate(), 1e-9);
+        m.resetStatistics();
+        assertEquals(0, m.hits());
+        assertEquals(0, m.misses());
+        assertEquals(0, m.evictions());
+        assertEquals(0.0, m.hitRate(), 0.0);
+    }
+
+    @Test
+    public void testWeigherBoundsWeight() {
+        CacheMap<String, String> m = new CacheMap<>(100, CacheMap.Policy.LRU,
+                (key, value) -> key.length() + value.length());
+        for (int i = 0; i < 50; i++) {
+            m.put("key" + i, "value" + i);
+            assertTrue(m.weight() <= m.maximumWeight());
+        }
+        assertTrue(m.hasKey("key49"));
+        assertEquals(100, m.maximumWeight());
+        long total = 0;
+        for (Pair<String, String> p : m) {
+            total += p.key().length() + p.value().length();
+        }
+        assertEquals(total, m.weight());
+    }
+
+    @Test
+    public void testOversizedEntryIsEvicted() {
+        CacheMap<String, String> m = new CacheMap<>(5, CacheMap.Policy.LRU,
+                (key, value) -> value.length());
+        m.put("a", "abc");
+        m.put("b", "abcdefgh");
+        assertEquals(0, m.size());
+        assertEquals(0, m.weight());
+    }
+
+    @Test
+    public void testTinyLfuKeepsFrequentKeys() {
+        CacheMap<String, String> m = new CacheMap<>(100,
+                CacheMap.Policy.W_TINY_LFU);
+        for (int i = 0; i < 100; i++) {
+            m.put("hot" + i, "v");
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 100; i++) {
+                m.get("hot" + i);
+            }
+        }
+        for (int i = 0; i < 1000; i++) {
+            m.put("scan" + i, "v");
+        }
+        int kept = 0;
+        for (int i = 0; i < 100; i++) {
+            if (m.hasKey("hot" + i)) {
+                kept++;
+            }
+        }
+        assertTrue(kept >= 90);
+        assertEquals(100, m.size());
+    }
+
+    @Test
+    public void testLruLosesFrequentKeysToScan() {
+        CacheMap<String, String> m = new CacheMap<>(100, CacheMap.Policy.LRU);
+        for (int i = 0; i < 100; i++) {
+            m.put("hot" + i, "v");
+            m.get("hot" + i);
+        }
+        for (int i = 0; i < 1000; i++) {
+            m.put("scan" + i, "v");
+        }
+        for (int i = 0; i < 100; i++) {
+            assertFalse(m.hasKey("hot" + i));
+        }
+    }
+
+    @Test
+    public void testClearKeepsConfiguration() {
+        CacheMap<String, String> m = MapFixtures.createFromKeys(
+                new CacheMap<>(2, CacheMap.Policy.LRU), "a", "b");
+        m.clear();
+        assertEquals(0, m.size());
+        m.put("c", "c");
+        m.put("d", "d");
+        m.put("e", "e");
+        assertEquals(2, m.size());
+        assertEquals(2, m.maximumWeight());
+    }
+
+    @Test
+    public void testTransferFromKeepsOrder() {
+        CacheMap<String, String> source = MapFixtures.createFromKeys(
+                new CacheMap<>(3, CacheMap.Policy.LRU), "a", "b", "c");
+        source.get("a");
+        CacheMap<String, String> m = new CacheMap<>();
+        m.transferFrom(source);
+        assertEquals(0, source.size());
+        assertEquals(3, m.maximumWeight());
+        m.put("d", "d");
+        assertFalse(m.hasKey("b"));
+        assertTrue(m.hasKey("a"));
+    }
+
+    @Test
+    public void testTransferFromMovesStatistics() {
+        CacheMap<String, String> source = MapFixtures.createFromKeys(
+                new CacheMap<>(2, CacheMap.Policy.LRU), "a", "b");
+        source.get("a");
+        source.get("z");
+        source.put("c", "c");
+        CacheMap<String, String> m = new CacheMap<>();
+        m.transferFrom(source);
+        assertEquals(1, m.hits());
+        assertEquals(1, m.misses());
+        assertEquals(1, m.evictions());
+        assertEquals(0, source.hits());
+        assertEquals(0, source.misses());
+        assertEquals(0, source.evictions());
+    }
+
+    @Test
+    public void testNewInstanceKeepsConfiguration() {
+        CacheMap<String, String> m = MapFixtures.createFromKeys(
+                new CacheMap<>(2, CacheMap.Policy.LRU), "a", "b");
+        CacheMap<String, String> n = (CacheMap<String, String>) m
+                .newInstance();
+        assertEquals(2, n.maximumWeight());
+        n.put("a", "a");
+        n.put("b", "b");
+        n.get("a");
+        n.put("c", "c");
+        assertEquals(2, n.size());
+        assertTrue(n.hasKey("a"));
+        assertFalse(n.hasKey("b"));
+    }
+
+    @Test
+    public void testManyEntriesGrowTable() {
+        CacheMap<Integer, Integer> m = new CacheMap<>(5000,
+                CacheMap.Policy.W_TINY_LFU);
+        for (int i = 0; i < 20000; i++) {
+            m.put(i, i);
+            assertTrue(m.size() <= 5000);
+        }
+        assertEquals(5000, m.size());
+        int seen = 0;
+        for (Pair<Integer, Integer> p : m) {
+            assertEquals(p.key(), p.value());
+            assertTrue(m.hasKey(p.key()));
+            seen++;
+        }
+        assertEquals(5000, seen);
+    }
+
+}
@@ -0,0 +1,26 @@
+import components.map.Map;
+import components.map.Map1L;
+
+/**
+ * Customized JUnit test fixture for {@code CacheMap} with the
+ * {@code W_TINY_LFU} policy and room for every entry the tests add.
+ */
+public class CacheMapTestTinyLfu extends MapTest {
+
+    /**
+     * Maximum number of entries to be used in tests.
+     */
+    private static final int TEST_MAXIMUM_SIZE = 1000;
+
+    @Override
+    protected final Map<String, String> constructorTest() {
+        return new CacheMap<String, String>(TEST_MAXIMUM_SIZE,
+                CacheMap.Policy.W_TINY_LFU);
+    }
+
+    @Override
+    protected final Map<String, String> constructorRef() {
+        return new Map1L<String, String>();
+    }
+
+}
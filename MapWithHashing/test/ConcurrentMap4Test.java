@@ -0,0 +1,198 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import components.map.Map;
+import components.map.Map1L;
+
+/**
+ * Customized JUnit test fixture for {@code ConcurrentMap4}, with extra test
+ * cases for its atomic operations.
+ */
+public class ConcurrentMap4Test extends MapTest {
+
+    /**
+     * Number of threads used by the concurrent test cases.
+     */
+    private static final int THREADS = 4;
+
+    /**
+     * Number of operations per thread in the concurrent test cases.
+     */
+    private static final int OPS_PER_THREAD = 10000;
+
+    /**
+     * Number of distinct keys in the concurrent test cases.
+     */
+    private static final int KEYS = 100;
+
+    @Override
+    protected final Map<String, String> constructorTest() {
+        return new ConcurrentMap4<String, String>();
+    }
+
+    @Override
+    protected final Map<String, String> constructorRef() {
+        return new Map1L<String, String>();
+    }
+
+    /**
+     * Runs {@code body} on {@code THREADS} threads and waits for all of them.
+     *
+     * @param body
+     *            the code each thread runs
+     */
+    private static void runOnThreads(Runnable body) {
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            threads[t] = new Thread(body);
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /*
+     * Test cases for computeIfAbsent
+     */
+
+    @Test
+    public final void testComputeIfAbsentAbsent() {
+        ConcurrentMap4<String, String> m = new ConcurrentMap4<>();
+        Map<String, String> mExpected = this.constructorRef();
+        mExpected.add("Red", "RED");
+
+        String result = m.computeIfAbsent("Red", String::toUpperCase);
+
+        assertEquals("RED", result);
+        assertEquals(mExpected, m);
+    }
+
+    @Test
+    public final void testComputeIfAbsentPresent() {
+        ConcurrentMap4<String, String> m = new ConcurrentMap4<>();
+        m.add("Red", "1");
+        Map<String, String> mExpected = this.constructorRef();
+        mExpected.add("Red", "1");
+
+        String result = m.computeIfAbsent("Red", String::toUpperCase);
+
+        assertEquals("1", result);
+        assertEquals(mExpected, m);
+    }
+
+    /*
+     * Test cases for merge
+     */
+
+    @Test
+    public final void testMergeAbsentAndPresent() {
+        ConcurrentMap4<String, String> m = new ConcurrentMap4<>();
+        Map<String, String> mExpected = this.constructorRef();
+        mExpected.add("Red", "12");
+
+        m.merge("Red", "1", String::concat);
+        String result = m.merge("Red", "2", String::concat);
+
+        assertEquals("12", result);
+        assertEquals(mExpected, m);
+    }
+
+    @Test
+    public final void testMergeConcurrentCounts() {
+        ConcurrentMap4<Integer, Integer> m = new ConcurrentMap4<>(1, 2);
+
+        runOnThreads(() -> {
+            for (int i = 0; i < OPS_PER_THREAD; i++) {
+                m.merge(i % KEYS, 1, Integer::sum);
+            }
+        });
+
+        assertEquals(KEYS, m.size());
+        for (int k = 0; k < KEYS; k++) {
+            assertEquals(THREADS * OPS_PER_THREAD / KEYS, (int) m.value(k));
+        }
+    }
+
+    @Test
+    public final void testAddRemoveConcurrentSize() {
+        ConcurrentMap4<Integer, Integer> m = new ConcurrentMap4<>(1, 2);
+        int[] next = { 0 };
+
+        runOnThreads(() -> {
+            int base;
+            synchronized (next) {
+                base = next[0];
+                next[0] += OPS_PER_THREAD;
+            }
+            for (int i = 0; i < OPS_PER_THREAD; i++) {
+                m.add(base + i, i);
+            }
+            for (int i = 0; i < OPS_PER_THREAD; i += 2) {
+                m.remove(base + i);
+            }
+        });
+
+        assertEquals(THREADS * OPS_PER_THREAD / 2, m.size());
+    }
+
+    /*
+     * Test cases for transferFrom
+     */
+
+    @Test(timeout = 60000)
+    public final void testTransferFromOppositeConcurrent() {
+        ConcurrentMap4<Integer, Integer> a = new ConcurrentMap4<>(1, 2);
+        ConcurrentMap4<Integer, Integer> b = new ConcurrentMap4<>(1, 2);
+        a.add(1, 1);
+        b.add(2, 2);
+        int[] turn = { 0 };
+
+        /*
+         * Half of the threads move everything from b to a, the other half
+         * from a to b; with unordered locking this deadlocks quickly.
+         */
+        runOnThreads(() -> {
+            boolean forward;
+            synchronized (turn) {
+                forward = turn[0] % 2 == 0;
+                turn[0]++;
+            }
+            for (int i = 0; i < OPS_PER_THREAD; i++) {
+                if (forward) {
+                    a.transferFrom(b);
+                } else {
+                    b.transferFrom(a);
+                }
+            }
+        });
+
+        /*
+         * Each transfer replaces one map's pairs with the other's, so the
+         * pairs can be lost but never duplicated.
+         */
+        assertEquals(true, a.size() + b.size() <= 2);
+    }
+
+    @Test
+    public final void testNewInstanceAndClearKeepConfiguration() {
+        ConcurrentMap4<Integer, Integer> m = new ConcurrentMap4<>(1, 2);
+        Map<Integer, Integer> n = m.newInstance();
+        for (int k = 0; k < KEYS; k++) {
+            m.add(k, k);
+            n.add(k, k);
+        }
+        m.clear();
+        m.add(0, 0);
+
+        assertEquals(1, m.size());
+        assertEquals(KEYS, n.size());
+        assertEquals(true, n instanceof ConcurrentMap4<?, ?>);
+    }
+
+}
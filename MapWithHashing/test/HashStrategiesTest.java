@@ -0,0 +1,68 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code HashStrategies}.
+ *
+ * @author Brayden May
+ *
+ */
+public final class HashStrategiesTest {
+
+    @Test
+    public void testIdentity() {
+        HashStrategy<String> h = HashStrategies.identity();
+        assertEquals("Red".hashCode(), h.hash("Red"));
+    }
+
+    @Test
+    public void testCharacterSum() {
+        HashStrategy<String> h = HashStrategies.characterSum();
+        assertEquals('a' + 'b' + 'c', h.hash("abc"));
+        assertEquals(h.hash("abc"), h.hash("cba"));
+    }
+
+    @Test
+    public void testCharacterSumEmpty() {
+        HashStrategy<String> h = HashStrategies.characterSum();
+        assertEquals(0, h.hash(""));
+    }
+
+    @Test
+    public void testPolynomialMatchesStringHashCode() {
+        HashStrategy<String> h = HashStrategies.polynomial();
+        assertEquals("conspiracy".hashCode(), h.hash("conspiracy"));
+    }
+
+    @Test
+    public void testPolynomialBase() {
+        HashStrategy<String> h = HashStrategies.polynomial(10);
+        assertEquals(('a' * 10 + 'b') * 10 + 'c', h.hash("abc"));
+    }
+
+    @Test
+    public void testMurmurMixZero() {
+        HashStrategy<Integer> h = HashStrategies
+                .murmurMix(HashStrategies.<Integer> identity());
+        assertEquals(0, h.hash(0));
+    }
+
+    @Test
+    public void testMurmurMixSeparatesNeighbors() {
+        HashStrategy<Integer> h = HashStrategies
+                .murmurMix(HashStrategies.<Integer> identity());
+        assertTrue(h.hash(1) != h.hash(2));
+        assertTrue((h.hash(1) & 0xFF) != 1);
+    }
+
+    @Test
+    public void testBitSpread() {
+        HashStrategy<Integer> h = HashStrategies
+                .bitSpread(HashStrategies.<Integer> identity());
+        assertEquals(0x10001 ^ 0x1, h.hash(0x10001));
+        assertEquals(0x7F, h.hash(0x7F));
+    }
+
+}
@@ -0,0 +1,117 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code IntIntMap}.
+ *
+ * @author Brayden May
+ *
+ */
+public final class IntIntMapTest {
+
+    /**
+     * Number of keys used by the larger tests; enough to force several
+     * resizes of a small table.
+     */
+    private static final int MANY = 1000;
+
+    @Test
+    public void testConstructor() {
+        IntIntMap m = new IntIntMap();
+        assertEquals(0, m.size());
+    }
+
+    @Test
+    public void testAddAndValue() {
+        IntIntMap m = new IntIntMap();
+        m.add(7, 70);
+        m.add(-3, 30);
+        assertEquals(2, m.size());
+        assertEquals(70, m.value(7));
+        assertEquals(30, m.value(-3));
+    }
+
+    @Test
+    public void testHasKey() {
+        IntIntMap m = new IntIntMap(1);
+        m.add(5, 1);
+        assertTrue(m.hasKey(5));
+        assertTrue(!m.hasKey(6));
+    }
+
+    @Test
+    public void testRemoveMovesLastEntry() {
+        IntIntMap m = new IntIntMap(1);
+        m.add(1, 10);
+        m.add(2, 20);
+        m.add(3, 30);
+        int removed = m.remove(1);
+        assertEquals(10, removed);
+        assertEquals(2, m.size());
+        assertTrue(!m.hasKey(1));
+        assertEquals(20, m.value(2));
+        assertEquals(30, m.value(3));
+    }
+
+    @Test
+    public void testReplaceValue() {
+        IntIntMap m = new IntIntMap();
+        m.add(4, 1);
+        int old = m.replaceValue(4, 2);
+        assertEquals(1, old);
+        assertEquals(2, m.value(4));
+    }
+
+    @Test
+    public void testIncrement() {
+        IntIntMap m = new IntIntMap();
+        m.increment(9, 1);
+        m.increment(9, 1);
+        int count = m.increment(9, 1);
+        assertEquals(3, count);
+        assertEquals(1, m.size());
+    }
+
+    @Test
+    public void testManyWithGrowthAndRemoval() {
+        IntIntMap m = new IntIntMap(1);
+        for (int i = 0; i < MANY; i++) {
+            m.add(i * 31 - MANY, i);
+        }
+        for (int i = 0; i < MANY; i += 2) {
+            assertEquals(i, m.remove(i * 31 - MANY));
+        }
+        assertEquals(MANY / 2, m.size());
+        for (int i = 1; i < MANY; i += 2) {
+            assertEquals(i, m.value(i * 31 - MANY));
+        }
+    }
+
+    @Test
+    public void testKeyAtValueAt() {
+        IntIntMap m = new IntIntMap();
+        m.add(1, 10);
+        m.add(2, 20);
+        int keySum = 0;
+        int valueSum = 0;
+        for (int i = 0; i < m.size(); i++) {
+            keySum += m.keyAt(i);
+            valueSum += m.valueAt(i);
+            assertEquals(m.value(m.keyAt(i)), m.valueAt(i));
+        }
+        assertEquals(3, keySum);
+        assertEquals(30, valueSum);
+    }
+
+    @Test
+    public void testClear() {
+        IntIntMap m = new IntIntMap();
+        m.add(1, 10);
+        m.clear();
+        assertEquals(0, m.size());
+        assertTrue(!m.hasKey(1));
+    }
+
+}
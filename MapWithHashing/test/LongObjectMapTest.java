@@ -0,0 +1,82 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code LongObjectMap}.
+ *
+ * @author Brayden May
+ *
+ */
+public final class LongObjectMapTest {
+
+    /**
+     * Number of keys used by the larger tests; enough to force several
+     * resizes of a small table.
+     */
+    private static final int MANY = 1000;
+
+    /**
+     * A key that does not fit in an {@code int}.
+     */
+    private static final long BIG = 1L << 40;
+
+    @Test
+    public void testConstructor() {
+        LongObjectMap<String> m = new LongObjectMap<String>();
+        assertEquals(0, m.size());
+    }
+
+    @Test
+    public void testAddAndValue() {
+        LongObjectMap<String> m = new LongObjectMap<String>();
+        m.add(BIG, "big");
+        m.add(-BIG, "negative");
+        assertEquals(2, m.size());
+        assertEquals("big", m.value(BIG));
+        assertEquals("negative", m.value(-BIG));
+        assertTrue(!m.hasKey(0));
+    }
+
+    @Test
+    public void testRemove() {
+        LongObjectMap<String> m = new LongObjectMap<String>(1);
+        m.add(1, "one");
+        m.add(2, "two");
+        m.add(3, "three");
+        String removed = m.remove(2);
+        assertEquals("two", removed);
+        assertEquals(2, m.size());
+        assertEquals("one", m.value(1));
+        assertEquals("three", m.value(3));
+    }
+
+    @Test
+    public void testReplaceValue() {
+        LongObjectMap<String> m = new LongObjectMap<String>();
+        m.add(BIG, "a");
+        String old = m.replaceValue(BIG, "b");
+        assertEquals("a", old);
+        assertEquals("b", m.value(BIG));
+    }
+
+    @Test
+    public void testManyWithGrowthAndRemoval() {
+        LongObjectMap<String> m = new LongObjectMap<String>(1);
+        for (int i = 0; i < MANY; i++) {
+            m.add(i * BIG + i, "v" + i);
+        }
+        for (int i = 0; i < MANY; i += 2) {
+            assertEquals("v" + i, m.remove(i * BIG + i));
+        }
+        assertEquals(MANY / 2, m.size());
+        for (int i = 1; i < MANY; i += 2) {
+            assertEquals("v" + i, m.value(i * BIG + i));
+        }
+        for (int i = 0; i < m.size(); i++) {
+            assertEquals(m.value(m.keyAt(i)), m.valueAt(i));
+        }
+    }
+
+}
@@ -0,0 +1,182 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import components.map.Map;
+import components.map.Map.Pair;
+import components.map.Map1L;
+
+/**
+ * JUnit test fixture for the bulk methods of {@code Map4}: the array
+ * constructor, {@code addAll}, {@code hasKeys}, and {@code values}.
+ *
+ * @author Brayden May
+ *
+ */
+public final class Map4BulkTest {
+
+    /**
+     * Returns the keys "0" .. "n-1".
+     *
+     * @param n
+     *            number of keys
+     * @return the keys
+     */
+    private static String[] keys(int n) {
+        String[] keys = new String[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = Integer.toString(i);
+        }
+        return keys;
+    }
+
+    /**
+     * Returns the values "v0" .. "v(n-1)".
+     *
+     * @param n
+     *            number of values
+     * @return the values
+     */
+    private static String[] values(int n) {
+        String[] values = new String[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = "v" + i;
+        }
+        return values;
+    }
+
+    /**
+     * Checks that {@code m} maps exactly "i" to "vi" for each i in [0, n).
+     *
+     * @param m
+     *            the map
+     * @param n
+     *            number of keys
+     */
+    private static void assertHolds(Map<String, String> m, int n) {
+        assertEquals(n, m.size());
+        for (int i = 0; i < n; i++) {
+            assertEquals("v" + i, m.value(Integer.toString(i)));
+        }
+    }
+
+    @Test
+    public void testArrayConstructorEmpty() {
+        Map4<String, String> m = new Map4<>(new String[0], new String[0]);
+        assertEquals(0, m.size());
+    }
+
+    @Test
+    public void testArrayConstructorMany() {
+        Map4<String, String> m = new Map4<>(keys(1000), values(1000));
+        assertHolds(m, 1000);
+    }
+
+    @Test
+    public void testAddAllArraysToNonEmpty() {
+        Map4<String, String> m = new Map4<>(keys(10), values(10));
+        String[] moreKeys = new String[90];
+        String[] moreValues = new String[90];
+        for (int i = 10; i < 100; i++) {
+            moreKeys[i - 10] = Integer.toString(i);
+            moreValues[i - 10] = "v" + i;
+        }
+        m.addAll(moreKeys, moreValues);
+        assertHolds(m, 100);
+    }
+
+    @Test
+    public void testAddAllArraysIncremental() {
+        Map4<String, String> m = new Map4<>(1, 0.75, Map4.TableSizing.PRIME,
+                true);
+        for (int i = 0; i < 7; i++) {
+            m.add(Integer.toString(i), "v" + i);
+        }
+        String[] moreKeys = new String[193];
+        String[] moreValues = new String[193];
+        for (int i = 7; i < 200; i++) {
+            moreKeys[i - 7] = Integer.toString(i);
+            moreValues[i - 7] = "v" + i;
+        }
+        m.addAll(moreKeys, moreValues);
+        assertHolds(m, 200);
+    }
+
+    @Test
+    public void testAddAllMap() {
+        Map<String, String> source = new Map1L<>();
+        for (int i = 0; i < 50; i++) {
+            source.add(Integer.toString(i), "v" + i);
+        }
+        Map4<String, String> m = new Map4<>();
+        m.addAll(source);
+        assertHolds(m, 50);
+        assertEquals(50, source.size());
+    }
+
+    @Test
+    public void testAddAllUnsizedIterable() {
+        Map4<String, String> source = new Map4<>(keys(300), values(300));
+        List<Pair<String, String>> list = new ArrayList<>();
+        for (Pair<String, String> p : source) {
+            list.add(p);
+        }
+        Iterable<Pair<String, String>> unsized = () -> list.iterator();
+        Map4<String, String> m = new Map4<>(1, 0.75,
+                Map4.TableSizing.POWER_OF_TWO, true);
+        m.addAll(unsized);
+        assertHolds(m, 300);
+    }
+
+    @Test
+    public void testHasKeys() {
+        Map4<String, String> m = new Map4<>(keys(100), values(100));
+        String[] probe = { "5", "x", "99", "100", "0", "5" };
+        boolean[] found = m.hasKeys(probe);
+        assertEquals(probe.length, found.length);
+        assertTrue(found[0]);
+        assertFalse(found[1]);
+        assertTrue(found[2]);
+        assertFalse(found[3]);
+        assertTrue(found[4]);
+        assertTrue(found[5]);
+    }
+
+    @Test
+    public void testValues() {
+        Map4<String, String> m = new Map4<>(keys(100), values(100));
+        String[] probe = { "42", "7", "0", "99", "7" };
+        String[] found = new String[probe.length];
+        m.values(probe, found);
+        assertEquals("v42", found[0]);
+        assertEquals("v7", found[1]);
+        assertEquals("v0", found[2]);
+        assertEquals("v99", found[3]);
+        assertEquals("v7", found[4]);
+    }
+
+    @Test
+    public void testValuesDuringIncrementalRehash() {
+        Map4<String, String> m = new Map4<>(1, 0.75, Map4.TableSizing.PRIME,
+                true);
+        for (int i = 0; i < 40; i++) {
+            m.add(Integer.toString(i), "v" + i);
+        }
+        String[] probe = keys(40);
+        String[] found = new String[40];
+        m.values(probe, found);
+        for (int i = 0; i < 40; i++) {
+            assertEquals("v" + i, found[i]);
+        }
+        boolean[] present = m.hasKeys(probe);
+        for (int i = 0; i < 40; i++) {
+            assertTrue(present[i]);
+        }
+    }
+
+}
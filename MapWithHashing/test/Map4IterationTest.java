@@ -0,0 +1,131 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.stream.StreamSupport;
+
+import org.junit.Test;
+
+import components.map.Map.Pair;
+
+/**
+ * JUnit test fixture for the iteration methods of {@code Map4}: the iterator,
+ * {@code forEach}, and the spliterator.
+ *
+ * @author Brayden May
+ *
+ */
+public final class Map4IterationTest {
+
+    /**
+     * Returns a {@code Map4} mapping each i in [0, n) to 2 * i, in a table much
+     * larger than n so that most buckets are empty.
+     *
+     * @param n
+     *            number of keys
+     * @return the map
+     */
+    private static Map4<Integer, Integer> sparse(int n) {
+        Map4<Integer, Integer> m = new Map4<>(4 * n + 1);
+        for (int i = 0; i < n; i++) {
+            m.add(i, 2 * i);
+        }
+        return m;
+    }
+
+    /**
+     * Checks that {@code seen} maps each i in [0, n) to 2 * i.
+     *
+     * @param seen
+     *            the pairs visited
+     * @param n
+     *            number of keys
+     */
+    private static void assertAllSeen(HashMap<Integer, Integer> seen, int n) {
+        assertEquals(n, seen.size());
+        for (int i = 0; i < n; i++) {
+            assertEquals(Integer.valueOf(2 * i), seen.get(i));
+        }
+    }
+
+    @Test
+    public void testIteratorEmpty() {
+        Map4<Integer, Integer> m = new Map4<>();
+        assertFalse(m.iterator().hasNext());
+    }
+
+    @Test
+    public void testIteratorSparse() {
+        Map4<Integer, Integer> m = sparse(100);
+        HashMap<Integer, Integer> seen = new HashMap<>();
+        Iterator<Pair<Integer, Integer>> it = m.iterator();
+        while (it.hasNext()) {
+            Pair<Integer, Integer> p = it.next();
+            assertNull(seen.put(p.key(), p.value()));
+        }
+        assertAllSeen(seen, 100);
+    }
+
+    @Test
+    public void testIteratorAfterRemovals() {
+        Map4<Integer, Integer> m = sparse(100);
+        for (int i = 0; i < 100; i += 3) {
+            m.remove(i);
+        }
+        int count = 0;
+        for (Pair<Integer, Integer> p : m) {
+            assertEquals(2 * p.key(), p.value().intValue());
+            assertFalse(p.key() % 3 == 0);
+            count++;
+        }
+        assertEquals(m.size(), count);
+    }
+
+    @Test
+    public void testForEach() {
+        Map4<Integer, Integer> m = sparse(100);
+        HashMap<Integer, Integer> seen = new HashMap<>();
+        m.forEach((k, v) -> assertNull(seen.put(k, v)));
+        assertAllSeen(seen, 100);
+    }
+
+    @Test
+    public void testForEachDuringIncrementalRehash() {
+        Map4<Integer, Integer> m = new Map4<>(1, 0.75, Map4.TableSizing.PRIME,
+                true);
+        for (int i = 0; i < 50; i++) {
+            m.add(i, 2 * i);
+        }
+        HashMap<Integer, Integer> seen = new HashMap<>();
+        m.forEach((k, v) -> assertNull(seen.put(k, v)));
+        assertAllSeen(seen, 50);
+    }
+
+    @Test
+    public void testSpliteratorSplitCoversAll() {
+        Map4<Integer, Integer> m = sparse(100);
+        Spliterator<Pair<Integer, Integer>> rest = m.spliterator();
+        Spliterator<Pair<Integer, Integer>> prefix = rest.trySplit();
+        HashMap<Integer, Integer> seen = new HashMap<>();
+        prefix.forEachRemaining(p -> assertNull(seen.put(p.key(), p.value())));
+        while (rest.tryAdvance(
+                p -> assertNull(seen.put(p.key(), p.value())))) {
+            assertFalse(seen.isEmpty());
+        }
+        assertAllSeen(seen, 100);
+    }
+
+    @Test
+    public void testParallelStream() {
+        Map4<Integer, Integer> m = sparse(1000);
+        long sum = StreamSupport.stream(m.spliterator(), true)
+                .mapToLong(p -> p.value()).sum();
+        assertEquals(999L * 1000L, sum);
+        assertEquals(1000L, StreamSupport.stream(m.spliterator(), true)
+                .map(p -> p.key()).distinct().count());
+    }
+
+}
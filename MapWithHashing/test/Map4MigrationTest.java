@@ -0,0 +1,288 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+
+import org.junit.Test;
+
+import components.map.Map.Pair;
+
+/**
+ * JUnit test fixture for {@code Map4} in incremental mode, exercising every
+ * kernel method while a migration from the old hash table to the new one is
+ * still in progress on a table with many buckets.
+ *
+ * @author Brayden May
+ *
+ */
+public final class Map4MigrationTest {
+
+    /**
+     * Initial size of hash table; growing it starts a migration of this many
+     * buckets.
+     */
+    private static final int TABLE_SIZE = 4096;
+
+    /**
+     * Maximum load factor; each operation migrates 3 buckets, so a migration
+     * of {@code TABLE_SIZE} buckets spans well over 1000 operations.
+     */
+    private static final double LOAD_FACTOR = 0.75;
+
+    /**
+     * Number of keys whose last addition makes the table grow.
+     */
+    private static final int TRIGGER = (int) (LOAD_FACTOR * TABLE_SIZE) + 1;
+
+    /**
+     * Number of operations done while the migration is in progress; well
+     * below the number needed to finish it.
+     */
+    private static final int OPERATIONS = 500;
+
+    /**
+     * Returns an incremental {@code Map4} mapping each i in [0, TRIGGER) to
+     * 2 * i, whose last addition has just started a migration.
+     *
+     * @return the map
+     */
+    private static Map4<Integer, Integer> migrating() {
+        Map4<Integer, Integer> m = new Map4<>(TABLE_SIZE, LOAD_FACTOR,
+                Map4.TableSizing.POWER_OF_TWO, true);
+        for (int i = 0; i < TRIGGER; i++) {
+            m.add(i, 2 * i);
+        }
+        return m;
+    }
+
+    /**
+     * Returns a {@code HashMap} with the same pairs as {@link #migrating()}.
+     *
+     * @return the reference map
+     */
+    private static HashMap<Integer, Integer> reference() {
+        HashMap<Integer, Integer> ref = new HashMap<>();
+        for (int i = 0; i < TRIGGER; i++) {
+            ref.put(i, 2 * i);
+        }
+        return ref;
+    }
+
+    /**
+     * Checks that {@code m} has exactly the pairs of {@code ref}, first by
+     * iterating, which does not advance the migration, and then through
+     * {@code hasKey} and {@code value}.
+     *
+     * @param ref
+     *            the expected pairs
+     * @param m
+     *            the map to check
+     */
+    private static void assertSamePairs(HashMap<Integer, Integer> ref,
+            Map4<Integer, Integer> m) {
+        assertEquals(ref.size(), m.size());
+        HashMap<Integer, Integer> seen = new HashMap<>();
+        for (Pair<Integer, Integer> p : m) {
+            assertNull(seen.put(p.key(), p.value()));
+        }
+        assertEquals(ref, seen);
+        for (int i = 0; i < TRIGGER; i++) {
+            assertEquals(ref.containsKey(i), m.hasKey(i));
+            if (ref.containsKey(i)) {
+                assertEquals(ref.get(i), m.value(i));
+            }
+        }
+    }
+
+    @Test
+    public void testIterationDuringMigration() {
+        Map4<Integer, Integer> m = migrating();
+        HashMap<Integer, Integer> ref = reference();
+        assertSamePairs(ref, m);
+    }
+
+    @Test
+    public void testRemoveDuringMigration() {
+        Map4<Integer, Integer> m = migrating();
+        HashMap<Integer, Integer> ref = reference();
+        /*
+         * Removing from both ends hits buckets already migrated and buckets
+         * still in the old table.
+         */
+        for (int k = 0; k < OPERATIONS / 2; k++) {
+            int low = k;
+            int high = TRIGGER - 1 - k;
+            Pair<Integer, Integer> p = m.remove(high);
+            assertEquals(Integer.valueOf(high), p.key());
+            assertEquals(ref.remove(high), p.value());
+            p = m.remove(low);
+            assertEquals(Integer.valueOf(low), p.key());
+            assertEquals(ref.remove(low), p.value());
+            assertFalse(m.hasKey(low));
+            assertFalse(m.hasKey(high));
+        }
+        assertSamePairs(ref, m);
+    }
+
+    @Test
+    public void testRemoveAnyDuringMigration() {
+        Map4<Integer, Integer> m = migrating();
+        HashMap<Integer, Integer> ref = reference();
+        for (int k = 0; k < OPERATIONS; k++) {
+            Pair<Integer, Integer> p = m.removeAny();
+            assertEquals(ref.remove(p.key()), p.value());
+            assertFalse(m.hasKey(p.key()));
+        }
+        assertSamePairs(ref, m);
+    }
+
+    @Test
+    public void testValueDuringMigration() {
+        Map4<Integer, Integer> m = migrating();
+        HashMap<Integer, Integer> ref = reference();
+        for (int k = 0; k < OPERATIONS; k++) {
+            int key = (int) ((long) k * TRIGGER / OPERATIONS);
+            assertTrue(m.hasKey(key));
+            assertEquals(Integer.valueOf(2 * key), m.value(key));
+        }
+        assertSamePairs(ref, m);
+    }
+
+    @Test
+    public void testTransferFromDuringMigration() {
+        Map4<Integer, Integer> m = migrating();
+        HashMap<Integer, Integer> ref = reference();
+        Map4<Integer, Integer> n = new Map4<>();
+        n.transferFrom(m);
+        assertEquals(0, m.size());
+        assertFalse(m.iterator().hasNext());
+        /*
+         * The migration carries on in the receiver.
+         */
+        for (int k = 0; k < OPERATIONS / 2; k++) {
+            Pair<Integer, Integer> p = n.remove(k);
+            assertEquals(ref.remove(k), p.value());
+            n.add(TRIGGER + k, -k);
+            ref.put(TRIGGER + k, -k);
+        }
+        assertEquals(ref.size(), n.size());
+        HashMap<Integer, Integer> seen = new HashMap<>();
+        for (Pair<Integer, Integer> p : n) {
+            assertNull(seen.put(p.key(), p.value()));
+        }
+        assertEquals(ref, seen);
+        /*
+         * The emptied source still works, with its own configuration.
+         */
+        m.add(1, 1);
+        assertEquals(Integer.valueOf(1), m.value(1));
+    }
+
+    /**
+     * Grows an incremental {@code Map4} with load factor {@code loadFactor}
+     * to many times its initial size, shrinks it twice, grows it back, and
+     * drains it, checking its pairs at each turn and that no resize ever had
+     * to finish the previous migration all at once.
+     *
+     * @param loadFactor
+     *            the maximum load factor
+     * @param sizing
+     *            the sizing policy
+     */
+    private static void growShrinkCycle(double loadFactor,
+            Map4.TableSizing sizing) {
+        final int initial = 64;
+        final int peak = (int) (loadFactor * initial * 64) + 1;
+        Map4<Integer, Integer> m = new Map4<>(initial, loadFactor, sizing,
+                true);
+        HashMap<Integer, Integer> ref = new HashMap<>();
+        for (int i = 0; i < peak; i++) {
+            m.add(i, 2 * i);
+            ref.put(i, 2 * i);
+        }
+        assertEquals(0, m.forcedMigrationBuckets());
+        /*
+         * Shrink then shrink again: down to an eighth crosses two shrink
+         * thresholds, alternating remove and removeAny.
+         */
+        for (int i = 0; i < peak - peak / 8; i++) {
+            Pair<Integer, Integer> p;
+            if (i % 2 == 0) {
+                p = m.remove(ref.keySet().iterator().next());
+            } else {
+                p = m.removeAny();
+            }
+            assertEquals(ref.remove(p.key()), p.value());
+            assertEquals(0, m.forcedMigrationBuckets());
+        }
+        assertSamePairsAnyKeys(ref, m);
+        /*
+         * Shrink then grow: back up to the peak.
+         */
+        for (int i = peak; ref.size() < peak; i++) {
+            m.add(i, 2 * i);
+            ref.put(i, 2 * i);
+            assertEquals(0, m.forcedMigrationBuckets());
+        }
+        assertSamePairsAnyKeys(ref, m);
+        while (m.size() > 0) {
+            Pair<Integer, Integer> p = m.removeAny();
+            assertEquals(ref.remove(p.key()), p.value());
+        }
+        assertEquals(0, m.forcedMigrationBuckets());
+    }
+
+    /**
+     * Checks that {@code m} has exactly the pairs of {@code ref}, whatever
+     * their keys, by iterating.
+     *
+     * @param ref
+     *            the expected pairs
+     * @param m
+     *            the map to check
+     */
+    private static void assertSamePairsAnyKeys(HashMap<Integer, Integer> ref,
+            Map4<Integer, Integer> m) {
+        assertEquals(ref.size(), m.size());
+        HashMap<Integer, Integer> seen = new HashMap<>();
+        for (Pair<Integer, Integer> p : m) {
+            assertNull(seen.put(p.key(), p.value()));
+        }
+        assertEquals(ref, seen);
+    }
+
+    @Test
+    public void testShrinkAndGrowWithoutPauseDefaultLoadFactor() {
+        growShrinkCycle(LOAD_FACTOR, Map4.TableSizing.POWER_OF_TWO);
+    }
+
+    @Test
+    public void testShrinkAndGrowWithoutPauseLowLoadFactor() {
+        growShrinkCycle(0.1, Map4.TableSizing.POWER_OF_TWO);
+    }
+
+    @Test
+    public void testShrinkAndGrowWithoutPauseHighLoadFactor() {
+        growShrinkCycle(4.0, Map4.TableSizing.PRIME);
+    }
+
+    @Test
+    public void testLowLoadFactorGrowth() {
+        /*
+         * With a load factor of 0.1, more than 10 buckets must move per
+         * operation for each migration to end before the next growth.
+         */
+        Map4<Integer, Integer> m = new Map4<>(1, 0.1,
+                Map4.TableSizing.POWER_OF_TWO, true);
+        HashMap<Integer, Integer> ref = new HashMap<>();
+        for (int i = 0; i < TRIGGER; i++) {
+            m.add(i, 2 * i);
+            ref.put(i, 2 * i);
+        }
+        assertSamePairs(ref, m);
+        assertEquals(0, m.forcedMigrationBuckets());
+    }
+
+}
@@ -0,0 +1,189 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+import components.map.Map;
+import components.map.Map.Pair;
+import components.map.Map1L;
+
+/**
+ * JUnit test fixture for {@code Map4.save} and {@code Map4.open}.
+ *
+ * @author Brayden May
+ *
+ */
+public final class Map4SnapshotTest {
+
+    /**
+     * Saves {@code m} to a temporary file and opens it again.
+     *
+     * @param m
+     *            the map to save
+     * @return the reopened map
+     * @throws IOException
+     *             if the file cannot be written or read
+     */
+    private static Map4<String, String> roundTrip(Map4<String, String> m)
+            throws IOException {
+        Path file = Files.createTempFile("map4", ".snapshot");
+        try {
+            m.save(file.toString(), SnapshotCodecs.string(),
+                    SnapshotCodecs.string());
+            return Map4.open(file.toString(), SnapshotCodecs.string(),
+                    SnapshotCodecs.string());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Returns a {@code Map4} and a {@code Map1L} both mapping "i" to "vi" for
+     * each i in [0, n), built in {@code m} and {@code ref}.
+     *
+     * @param m
+     *            the map to fill
+     * @param ref
+     *            the reference map to fill
+     * @param n
+     *            number of keys
+     */
+    private static void fill(Map<String, String> m, Map<String, String> ref,
+            int n) {
+        for (int i = 0; i < n; i++) {
+            m.add(Integer.toString(i), "v" + i);
+            ref.add(Integer.toString(i), "v" + i);
+        }
+    }
+
+    @Test
+    public void testRoundTripEmpty() throws IOException {
+        Map4<String, String> m = new Map4<>();
+        Map4<String, String> back = roundTrip(m);
+        assertEquals(0, back.size());
+        assertEquals(m, back);
+    }
+
+    @Test
+    public void testRoundTripEquals() throws IOException {
+        Map4<String, String> m = new Map4<>();
+        Map<String, String> ref = new Map1L<>();
+        fill(m, ref, 500);
+        Map4<String, String> back = roundTrip(m);
+        assertEquals(ref, back);
+        assertEquals(back, ref);
+        assertEquals(m, back);
+    }
+
+    @Test
+    public void testLookupBeforeFullLoad() throws IOException {
+        Map4<String, String> m = new Map4<>();
+        Map<String, String> ref = new Map1L<>();
+        fill(m, ref, 200);
+        Map4<String, String> back = roundTrip(m);
+        assertEquals(200, back.size());
+        assertTrue(back.hasKey("123"));
+        assertFalse(back.hasKey("200"));
+        assertEquals("v57", back.value("57"));
+        assertEquals(ref, back);
+    }
+
+    @Test
+    public void testUpdateAfterOpen() throws IOException {
+        Map4<String, String> m = new Map4<>();
+        Map<String, String> ref = new Map1L<>();
+        fill(m, ref, 100);
+        Map4<String, String> back = roundTrip(m);
+        back.remove("3");
+        ref.remove("3");
+        back.add("x", "y");
+        ref.add("x", "y");
+        back.replaceValue("9", "nine");
+        ref.replaceValue("9", "nine");
+        Pair<String, String> any = back.removeAny();
+        ref.remove(any.key());
+        assertEquals(ref, back);
+        for (int i = 100; i < 400; i++) {
+            back.add(Integer.toString(i), "v" + i);
+            ref.add(Integer.toString(i), "v" + i);
+        }
+        assertEquals(ref, back);
+    }
+
+    @Test
+    public void testRemoveAnyDrainsSnapshot() throws IOException {
+        Map4<String, String> m = new Map4<>();
+        Map<String, String> ref = new Map1L<>();
+        fill(m, ref, 50);
+        Map4<String, String> back = roundTrip(m);
+        while (back.size() > 0) {
+            Pair<String, String> p = back.removeAny();
+            assertEquals(ref.remove(p.key()), p);
+        }
+        assertEquals(0, ref.size());
+    }
+
+    @Test
+    public void testRoundTripKeepsConfiguration() throws IOException {
+        Map4<String, String> m = new Map4<>(1, 0.5,
+                Map4.TableSizing.POWER_OF_TWO, true);
+        Map<String, String> ref = new Map1L<>();
+        fill(m, ref, 300);
+        Map4<String, String> back = roundTrip(m);
+        assertEquals(ref, back);
+        while (back.size() > 0) {
+            back.removeAny();
+        }
+        back.add("a", "b");
+        assertEquals("b", back.value("a"));
+    }
+
+    @Test
+    public void testTransferFromUnloaded() throws IOException {
+        Map4<String, String> m = new Map4<>();
+        Map<String, String> ref = new Map1L<>();
+        fill(m, ref, 100);
+        Map4<String, String> back = roundTrip(m);
+        Map4<String, String> moved = new Map4<>();
+        moved.transferFrom(back);
+        assertEquals(0, back.size());
+        assertEquals(ref, moved);
+    }
+
+    @Test
+    public void testIntegerCodec() throws IOException {
+        Map4<Integer, Long> m = new Map4<>();
+        for (int i = -50; i < 50; i++) {
+            m.add(i, (long) i * i);
+        }
+        Path file = Files.createTempFile("map4", ".snapshot");
+        try {
+            m.save(file.toString(), SnapshotCodecs.integer(),
+                    SnapshotCodecs.longInteger());
+            Map4<Integer, Long> back = Map4.open(file.toString(),
+                    SnapshotCodecs.integer(), SnapshotCodecs.longInteger());
+            assertEquals(Long.valueOf(49L * 49L), back.value(-49));
+            assertEquals(m, back);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testOpenNotASnapshot() throws IOException {
+        Path file = Files.createTempFile("map4", ".snapshot");
+        try {
+            Files.write(file, new byte[64]);
+            Map4.open(file.toString(), SnapshotCodecs.string(),
+                    SnapshotCodecs.string());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+}
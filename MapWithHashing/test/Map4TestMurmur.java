@@ -0,0 +1,47 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import components.map.Map;
+import components.map.Map1L;
+
+/**
+ * Customized JUnit test fixture for {@code Map4} hashing keys with
+ * {@code HashStrategies.murmurMix} over {@code HashStrategies.polynomial}.
+ */
+public class Map4TestMurmur extends MapTest {
+
+    @Override
+    protected final Map<String, String> constructorTest() {
+        return new Map4<String, String>(HashStrategies
+                .murmurMix(HashStrategies.<String> polynomial()));
+    }
+
+    @Override
+    protected final Map<String, String> constructorRef() {
+        return new Map1L<String, String>();
+    }
+
+    /*
+     * Test cases for newInstance
+     */
+
+    @Test
+    public final void testNewInstanceKeepsHashStrategy() {
+        int[] calls = { 0 };
+        HashStrategy<String> counting = x -> {
+            calls[0]++;
+            return x.hashCode();
+        };
+        Map4<String, String> m = new Map4<>(16, 0.75,
+                Map4.TableSizing.POWER_OF_TWO, true, counting);
+        Map<String, String> n = m.newInstance();
+        n.add("red", "1");
+
+        assertTrue(calls[0] > 0);
+        assertTrue(n instanceof Map4<?, ?>);
+        assertEquals("1", n.value("red"));
+    }
+
+}
@@ -0,0 +1,267 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+
+import org.junit.Test;
+
+import components.map.Map.Pair;
+
+/**
+ * JUnit test fixture for the collision handling of {@code Map5}: keys whose
+ * hash codes are identical or clustered at the end of the slot arrays, so
+ * that probe runs wrap around to slot 0, removed in orders that exercise the
+ * backward-shift deletion.
+ *
+ * @author Brayden May
+ *
+ */
+public final class Map5BehaviorTest {
+
+    /**
+     * Number of slots of the maps under test: {@code new Map5<>(EXPECTED)}
+     * allocates this many and never resizes while holding at most
+     * {@code EXPECTED} entries.
+     */
+    private static final int SLOTS = 64;
+
+    /**
+     * Number of entries the maps under test are built for.
+     */
+    private static final int EXPECTED = 40;
+
+    /**
+     * Key with a chosen hash code, equal to another key only when their ids
+     * are equal.
+     */
+    private static final class Key {
+
+        /**
+         * Identity of the key.
+         */
+        private final int id;
+
+        /**
+         * Hash code of the key; small, so that {@code Map5}'s spreading
+         * leaves it unchanged.
+         */
+        private final int hash;
+
+        /**
+         * Constructor.
+         *
+         * @param id
+         *            the identity
+         * @param hash
+         *            the hash code
+         */
+        Key(int id, int hash) {
+            this.id = id;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Key && ((Key) obj).id == this.id;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        @Override
+        public String toString() {
+            return this.id + "@" + this.hash;
+        }
+
+    }
+
+    /**
+     * Returns {@code n} keys with ids 0 to n - 1 whose hash codes cycle
+     * through the last {@code width} slots and then the first {@code width}
+     * slots, so that all their probe runs merge into one that wraps around.
+     *
+     * @param n
+     *            number of keys
+     * @param width
+     *            number of distinct home slots at each end of the table
+     * @return the keys
+     */
+    private static Key[] clustered(int n, int width) {
+        Key[] keys = new Key[n];
+        for (int i = 0; i < n; i++) {
+            int home = i % (2 * width);
+            int hash;
+            if (home < width) {
+                hash = SLOTS - width + home;
+            } else {
+                hash = home - width;
+            }
+            keys[i] = new Key(i, hash);
+        }
+        return keys;
+    }
+
+    /**
+     * Returns a map holding each of {@code keys} with value equal to its id,
+     * and records the same pairs in {@code ref}.
+     *
+     * @param keys
+     *            the keys
+     * @param ref
+     *            the reference map to fill
+     * @return the map
+     */
+    private static Map5<Key, Integer> create(Key[] keys,
+            HashMap<Key, Integer> ref) {
+        Map5<Key, Integer> m = new Map5<>(EXPECTED);
+        for (Key k : keys) {
+            m.add(k, k.id);
+            ref.put(k, k.id);
+        }
+        return m;
+    }
+
+    /**
+     * Checks that {@code m} holds exactly the pairs of {@code ref}, given
+     * that every key ever added is among {@code keys}.
+     *
+     * @param keys
+     *            every key ever added
+     * @param ref
+     *            the expected pairs
+     * @param m
+     *            the map to check
+     */
+    private static void assertSurvivors(Key[] keys, HashMap<Key, Integer> ref,
+            Map5<Key, Integer> m) {
+        assertEquals(ref.size(), m.size());
+        for (Key k : keys) {
+            assertEquals(k.toString(), ref.containsKey(k), m.hasKey(k));
+            if (ref.containsKey(k)) {
+                assertEquals(ref.get(k), m.value(k));
+            }
+        }
+    }
+
+    /**
+     * Removes {@code keys[i]} for each i in {@code order} from {@code m} and
+     * {@code ref}, checking every survivor after each removal.
+     *
+     * @param keys
+     *            every key ever added
+     * @param order
+     *            indices of the keys to remove, in order
+     * @param ref
+     *            the expected pairs
+     * @param m
+     *            the map to update
+     */
+    private static void removeInOrder(Key[] keys, int[] order,
+            HashMap<Key, Integer> ref, Map5<Key, Integer> m) {
+        for (int i : order) {
+            Pair<Key, Integer> p = m.remove(keys[i]);
+            assertEquals(keys[i], p.key());
+            assertEquals(ref.remove(keys[i]), p.value());
+            assertSurvivors(keys, ref, m);
+        }
+    }
+
+    @Test
+    public void testIdenticalHashesAtLastSlot() {
+        Key[] keys = new Key[EXPECTED / 2];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = new Key(i, SLOTS - 1);
+        }
+        HashMap<Key, Integer> ref = new HashMap<>();
+        Map5<Key, Integer> m = create(keys, ref);
+        assertSurvivors(keys, ref, m);
+
+        /*
+         * Every other key, starting with the one in the home slot.
+         */
+        int[] order = new int[keys.length / 2];
+        for (int j = 0; j < order.length; j++) {
+            order[j] = 2 * j;
+        }
+        removeInOrder(keys, order, ref, m);
+    }
+
+    @Test
+    public void testClusteredHashesWrapAround() {
+        Key[] keys = clustered(EXPECTED, 4);
+        HashMap<Key, Integer> ref = new HashMap<>();
+        Map5<Key, Integer> m = create(keys, ref);
+        assertSurvivors(keys, ref, m);
+
+        /*
+         * First the keys homed at the start of the table, which have been
+         * pushed furthest from home, then those homed at the end.
+         */
+        int[] order = new int[EXPECTED * 3 / 4];
+        int j = 0;
+        for (int i = 4; i < EXPECTED && j < order.length; i += 8) {
+            for (int d = 0; d < 4; d++) {
+                order[j] = i + d;
+                j++;
+            }
+        }
+        for (int i = 0; j < order.length; i++) {
+            if (i % 8 < 4) {
+                order[j] = i;
+                j++;
+            }
+        }
+        removeInOrder(keys, order, ref, m);
+    }
+
+    @Test
+    public void testRemoveAllInReverse() {
+        Key[] keys = clustered(EXPECTED, 2);
+        HashMap<Key, Integer> ref = new HashMap<>();
+        Map5<Key, Integer> m = create(keys, ref);
+
+        int[] order = new int[EXPECTED];
+        for (int j = 0; j < EXPECTED; j++) {
+            order[j] = EXPECTED - 1 - j;
+        }
+        removeInOrder(keys, order, ref, m);
+        assertEquals(0, m.size());
+    }
+
+    @Test
+    public void testReAddAfterRemovals() {
+        Key[] keys = clustered(EXPECTED, 3);
+        HashMap<Key, Integer> ref = new HashMap<>();
+        Map5<Key, Integer> m = create(keys, ref);
+
+        int[] order = new int[EXPECTED / 2];
+        for (int j = 0; j < order.length; j++) {
+            order[j] = 2 * j + 1;
+        }
+        removeInOrder(keys, order, ref, m);
+        for (int i : order) {
+            m.add(keys[i], -keys[i].id);
+            ref.put(keys[i], -keys[i].id);
+            assertSurvivors(keys, ref, m);
+        }
+    }
+
+    @Test
+    public void testRemoveAnyFromWrappedRun() {
+        Key[] keys = clustered(EXPECTED, 4);
+        HashMap<Key, Integer> ref = new HashMap<>();
+        Map5<Key, Integer> m = create(keys, ref);
+
+        while (m.size() > 0) {
+            Pair<Key, Integer> p = m.removeAny();
+            assertTrue(ref.containsKey(p.key()));
+            assertEquals(ref.remove(p.key()), p.value());
+            assertFalse(m.hasKey(p.key()));
+            assertSurvivors(keys, ref, m);
+        }
+    }
+
+}
@@ -0,0 +1,904 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Ordered keys, each optionally with an associated value, kept in a B+-tree:
+ * the representation shared by {@code BPlusTreeSet} and {@code BPlusTreeMap}.
+ *
+ * <p>
+ * Every node keeps up to {@code fanout} keys (or children) in one contiguous
+ * array, so a search visits about log_fanout(n) nodes instead of the log_2(n)
+ * of a binary tree, and within each node it binary searches one array rather
+ * than chasing a pointer per comparison. All keys live in the leaves, which
+ * are linked in increasing order, so a range scan is a search for its first
+ * key followed by a walk along the leaves. Nodes other than the root are kept
+ * at least half full by splitting, borrowing, and merging.
+ * </p>
+ *
+ * @param <K>
+ *            type of keys
+ * @param <V>
+ *            type of associated values
+ * @mathdefinitions <pre>
+ * IS_B_PLUS_TREE(
+ *   n: node,
+ *   fanout: integer
+ *  ): boolean satisfies
+ *  [every leaf is at the same depth below n, every leaf holds at most fanout
+ *   keys in increasing order, every inner node holds at most fanout
+ *   children and one key fewer, in increasing order, the keys of the i-th
+ *   child of an inner node are at least its key i-1 (if any) and less than
+ *   its key i (if any), and every node but n holds at least fanout/2 keys
+ *   (leaves) or children (inner nodes)]
+ * </pre>
+ * @convention <pre>
+ * $this.fanout >= MIN_FANOUT  and
+ * IS_B_PLUS_TREE($this.root, $this.fanout)  and
+ * [every inner node holds at least 2 children]  and
+ * [$this.first is the leftmost leaf, and the next links of the leaves visit
+ *  every leaf from left to right]  and
+ * [values of the leaves are null iff not $this.withValues]  and
+ * $this.size = [number of keys in the leaves]
+ * </pre>
+ * @correspondence <pre>
+ * this = [the (key, value) pairs in the leaves from $this.first, with value
+ *         null when not $this.withValues]
+ * </pre>
+ *
+ * @author Brayden May
+ *
+ */
+public final class BPlusTree<K extends Comparable<K>, V> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Default number of keys per leaf and of children per inner node.
+     */
+    public static final int DEFAULT_FANOUT = 64;
+
+    /**
+     * Smallest fanout supported.
+     */
+    public static final int MIN_FANOUT = 4;
+
+    /**
+     * Node of the tree.
+     *
+     * @param <K>
+     *            type of keys
+     */
+    private abstract static class Node<K> {
+
+        /**
+         * Keys, in increasing order; one slot longer than a full node needs
+         * so that a node can overflow before it is split.
+         */
+        protected K[] keys;
+
+        /**
+         * Number of keys (in a leaf) or children (in an inner node).
+         */
+        protected int count;
+
+    }
+
+    /**
+     * Leaf node, holding keys and their values.
+     *
+     * @param <K>
+     *            type of keys
+     */
+    private static final class Leaf<K> extends Node<K> {
+
+        /**
+         * Values, parallel to {@code keys}, or {@code null} for a tree
+         * without values.
+         */
+        private Object[] values;
+
+        /**
+         * Next leaf to the right, or {@code null} for the last leaf.
+         */
+        private Leaf<K> next;
+
+    }
+
+    /**
+     * Inner node, holding {@code count} children and {@code count - 1} keys
+     * separating them.
+     *
+     * @param <K>
+     *            type of keys
+     */
+    private static final class Inner<K> extends Node<K> {
+
+        /**
+         * Children, one slot longer than a full node needs.
+         */
+        private Node<K>[] children;
+
+    }
+
+    /**
+     * Key and associated value removed by {@code delete}.
+     *
+     * @param <K>
+     *            type of keys
+     * @param <V>
+     *            type of associated values
+     */
+    public static final class Entry<K, V> {
+
+        /**
+         * The key.
+         */
+        private final K key;
+
+        /**
+         * The value, or {@code null} for a tree without values.
+         */
+        private final V value;
+
+        /**
+         * Constructor.
+         *
+         * @param key
+         *            the key
+         * @param value
+         *            the value
+         */
+        private Entry(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        /**
+         * Returns the key.
+         *
+         * @return the key
+         */
+        public K key() {
+            return this.key;
+        }
+
+        /**
+         * Returns the value.
+         *
+         * @return the value, or {@code null} for a tree without values
+         */
+        public V value() {
+            return this.value;
+        }
+
+    }
+
+    /**
+     * Maximum number of keys per leaf and of children per inner node.
+     */
+    private final int fanout;
+
+    /**
+     * Minimum number of keys per leaf and of children per inner node, other
+     * than the root.
+     */
+    private final int minimum;
+
+    /**
+     * Whether leaves hold values.
+     */
+    private final boolean withValues;
+
+    /**
+     * Root of the tree.
+     */
+    private Node<K> root;
+
+    /**
+     * Leftmost leaf.
+     */
+    private Leaf<K> first;
+
+    /**
+     * Number of keys.
+     */
+    private int size;
+
+    /**
+     * Smallest key of the right half of the last node split, to be added to
+     * its parent.
+     */
+    private K separator;
+
+    /**
+     * Returns a new array of keys with room for an overflowing node.
+     *
+     * @return the array
+     */
+    @SuppressWarnings("unchecked")
+    private K[] newKeys() {
+        return (K[]) new Comparable<?>[this.fanout + 1];
+    }
+
+    /**
+     * Returns a new empty leaf.
+     *
+     * @return the leaf
+     */
+    private Leaf<K> newLeaf() {
+        Leaf<K> leaf = new Leaf<>();
+        leaf.keys = this.newKeys();
+        if (this.withValues) {
+            leaf.values = new Object[this.fanout + 1];
+        }
+        return leaf;
+    }
+
+    /**
+     * Returns a new empty inner node.
+     *
+     * @return the inner node
+     */
+    @SuppressWarnings("unchecked")
+    private Inner<K> newInner() {
+        Inner<K> inner = new Inner<>();
+        inner.keys = this.newKeys();
+        inner.children = (Node<K>[]) new Node<?>[this.fanout + 1];
+        return inner;
+    }
+
+    /**
+     * Returns the index of the child of {@code n} whose subtree would hold
+     * {@code x}.
+     *
+     * @param n
+     *            the inner node
+     * @param x
+     *            the key
+     * @return the index of the child
+     * @ensures <pre>
+     * 0 <= childIndex < n.count  and
+     * [the keys of child childIndex of n are at least key childIndex-1 of n
+     *  and less than key childIndex of n, and x is between the same keys]
+     * </pre>
+     */
+    private static <K> int childIndex(Inner<K> n, K x) {
+        int i = Arrays.binarySearch(n.keys, 0, n.count - 1, x);
+        int index;
+        if (i >= 0) {
+            index = i + 1;
+        } else {
+            index = -i - 1;
+        }
+        return index;
+    }
+
+    /**
+     * Returns the leaf whose keys would include {@code x}.
+     *
+     * @param x
+     *            the key
+     * @return the leaf
+     */
+    private Leaf<K> leafFor(K x) {
+        Node<K> n = this.root;
+        while (n instanceof Inner<?>) {
+            Inner<K> inner = (Inner<K>) n;
+            n = inner.children[childIndex(inner, x)];
+        }
+        return (Leaf<K>) n;
+    }
+
+    /**
+     * Splits the overflowing {@code leaf}, moving its larger half to a new
+     * leaf linked after it, and records the new leaf's smallest key in
+     * {@code separator}.
+     *
+     * @param leaf
+     *            the leaf
+     * @return the new leaf
+     * @requires leaf.count = fanout + 1
+     */
+    private Leaf<K> splitLeaf(Leaf<K> leaf) {
+        Leaf<K> right = this.newLeaf();
+        int mid = leaf.count / 2;
+        right.count = leaf.count - mid;
+        System.arraycopy(leaf.keys, mid, right.keys, 0, right.count);
+        Arrays.fill(leaf.keys, mid, leaf.count, null);
+        if (this.withValues) {
+            System.arraycopy(leaf.values, mid, right.values, 0, right.count);
+            Arrays.fill(leaf.values, mid, leaf.count, null);
+        }
+        leaf.count = mid;
+        right.next = leaf.next;
+        leaf.next = right;
+        this.separator = right.keys[0];
+        return right;
+    }
+
+    /**
+     * Splits the overflowing {@code inner}, moving its larger half of
+     * children to a new inner node, and records the key that separated the
+     * halves in {@code separator}.
+     *
+     * @param inner
+     *            the inner node
+     * @return the new inner node
+     * @requires inner.count = fanout + 1
+     */
+    private Inner<K> splitInner(Inner<K> inner) {
+        Inner<K> right = this.newInner();
+        int mid = inner.count / 2;
+        right.count = inner.count - mid;
+        System.arraycopy(inner.children, mid, right.children, 0, right.count);
+        System.arraycopy(inner.keys, mid, right.keys, 0, right.count - 1);
+        this.separator = inner.keys[mid - 1];
+        Arrays.fill(inner.children, mid, inner.count, null);
+        Arrays.fill(inner.keys, mid - 1, inner.count - 1, null);
+        inner.count = mid;
+        return right;
+    }
+
+    /**
+     * Inserts {@code x} with value {@code value} into the subtree rooted at
+     * {@code n}, splitting nodes that overflow.
+     *
+     * @param n
+     *            the root of the subtree
+     * @param x
+     *            the key
+     * @param value
+     *            the value
+     * @return the new right sibling of n if n was split, else null
+     * @requires x is not in the subtree
+     * @ensures <pre>
+     * [the subtree rooted at n, followed by insertIn and then separating it
+     *  by separator if insertIn /= null, holds its old keys and x]
+     * </pre>
+     */
+    private Node<K> insertIn(Node<K> n, K x, V value) {
+        Node<K> sibling = null;
+        if (n instanceof Leaf<?>) {
+            Leaf<K> leaf = (Leaf<K>) n;
+            int pos = -Arrays.binarySearch(leaf.keys, 0, leaf.count, x) - 1;
+            System.arraycopy(leaf.keys, pos, leaf.keys, pos + 1,
+                    leaf.count - pos);
+            leaf.keys[pos] = x;
+            if (this.withValues) {
+                System.arraycopy(leaf.values, pos, leaf.values, pos + 1,
+                        leaf.count - pos);
+                leaf.values[pos] = value;
+            }
+            leaf.count++;
+            if (leaf.count > this.fanout) {
+                sibling = this.splitLeaf(leaf);
+            }
+        } else {
+            Inner<K> inner = (Inner<K>) n;
+            int i = childIndex(inner, x);
+            Node<K> child = this.insertIn(inner.children[i], x, value);
+            if (child != null) {
+                System.arraycopy(inner.keys, i, inner.keys, i + 1,
+                        inner.count - 1 - i);
+                inner.keys[i] = this.separator;
+                System.arraycopy(inner.children, i + 1, inner.children, i + 2,
+                        inner.count - 1 - i);
+                inner.children[i + 1] = child;
+                inner.count++;
+                if (inner.count > this.fanout) {
+                    sibling = this.splitInner(inner);
+                }
+            }
+        }
+        return sibling;
+    }
+
+    /**
+     * Removes key {@code j} and child {@code j + 1} from {@code parent}.
+     *
+     * @param parent
+     *            the inner node
+     * @param j
+     *            the index of the key
+     * @requires 0 <= j < parent.count - 1
+     */
+    private static <K> void removeSeparator(Inner<K> parent, int j) {
+        System.arraycopy(parent.keys, j + 1, parent.keys, j,
+                parent.count - 2 - j);
+        System.arraycopy(parent.children, j + 2, parent.children, j + 1,
+                parent.count - 2 - j);
+        parent.keys[parent.count - 2] = null;
+        parent.children[parent.count - 1] = null;
+        parent.count--;
+    }
+
+    /**
+     * Restores the minimum occupancy of leaves {@code left} and
+     * {@code right}, children {@code j} and {@code j + 1} of {@code parent},
+     * by merging them or moving one key between them.
+     *
+     * @param parent
+     *            the parent
+     * @param j
+     *            the index of left in parent
+     * @param left
+     *            the left leaf
+     * @param right
+     *            the right leaf
+     * @requires one of left and right has one key fewer than minimum
+     */
+    private void rebalanceLeaves(Inner<K> parent, int j, Leaf<K> left,
+            Leaf<K> right) {
+        if (left.count + right.count <= this.fanout) {
+            System.arraycopy(right.keys, 0, left.keys, left.count,
+                    right.count);
+            if (this.withValues) {
+                System.arraycopy(right.values, 0, left.values, left.count,
+                        right.count);
+            }
+            left.count += right.count;
+            left.next = right.next;
+            removeSeparator(parent, j);
+        } else if (left.count < right.count) {
+            left.keys[left.count] = right.keys[0];
+            System.arraycopy(right.keys, 1, right.keys, 0, right.count - 1);
+            right.keys[right.count - 1] = null;
+            if (this.withValues) {
+                left.values[left.count] = right.values[0];
+                System.arraycopy(right.values, 1, right.values, 0,
+                        right.count - 1);
+                right.values[right.count - 1] = null;
+            }
+            left.count++;
+            right.count--;
+            parent.keys[j] = right.keys[0];
+        } else {
+            System.arraycopy(right.keys, 0, right.keys, 1, right.count);
+            right.keys[0] = left.keys[left.count - 1];
+            left.keys[left.count - 1] = null;
+            if (this.withValues) {
+                System.arraycopy(right.values, 0, right.values, 1,
+                        right.count);
+                right.values[0] = left.values[left.count - 1];
+                left.values[left.count - 1] = null;
+            }
+            left.count--;
+            right.count++;
+            parent.keys[j] = right.keys[0];
+        }
+    }
+
+    /**
+     * Restores the minimum occupancy of inner nodes {@code left} and
+     * {@code right}, children {@code j} and {@code j + 1} of {@code parent},
+     * by merging them or moving one child between them.
+     *
+     * @param parent
+     *            the parent
+     * @param j
+     *            the index of left in parent
+     * @param left
+     *            the left inner node
+     * @param right
+     *            the right inner node
+     * @requires one of left and right has one child fewer than minimum
+     */
+    private void rebalanceInners(Inner<K> parent, int j, Inner<K> left,
+            Inner<K> right) {
+        if (left.count + right.count <= this.fanout) {
+            left.keys[left.count - 1] = parent.keys[j];
+            System.arraycopy(right.keys, 0, left.keys, left.count,
+                    right.count - 1);
+            System.arraycopy(right.children, 0, left.children, left.count,
+                    right.count);
+            left.count += right.count;
+            removeSeparator(parent, j);
+        } else if (left.count < right.count) {
+            left.keys[left.count - 1] = parent.keys[j];
+            left.children[left.count] = right.children[0];
+            left.count++;
+            parent.keys[j] = right.keys[0];
+            System.arraycopy(right.keys, 1, right.keys, 0, right.count - 2);
+            System.arraycopy(right.children, 1, right.children, 0,
+                    right.count - 1);
+            right.keys[right.count - 2] = null;
+            right.children[right.count - 1] = null;
+            right.count--;
+        } else {
+            System.arraycopy(right.keys, 0, right.keys, 1, right.count - 1);
+            System.arraycopy(right.children, 0, right.children, 1,
+                    right.count);
+            right.keys[0] = parent.keys[j];
+            right.children[0] = left.children[left.count - 1];
+            right.count++;
+            parent.keys[j] = left.keys[left.count - 2];
+            left.keys[left.count - 2] = null;
+            left.children[left.count - 1] = null;
+            left.count--;
+        }
+    }
+
+    /**
+     * Removes {@code x} from the subtree rooted at {@code n}, rebalancing
+     * children that fall below the minimum occupancy.
+     *
+     * @param n
+     *            the root of the subtree
+     * @param x
+     *            the key
+     * @return the key equal to x and its value, as they were in the subtree
+     * @requires x is in the subtree
+     * @ensures <pre>
+     * [the subtree rooted at n holds its old keys but x, and every node in it
+     *  but n satisfies IS_B_PLUS_TREE's occupancy]
+     * </pre>
+     */
+    @SuppressWarnings("unchecked")
+    private Entry<K, V> removeIn(Node<K> n, K x) {
+        Entry<K, V> removed;
+        if (n instanceof Leaf<?>) {
+            Leaf<K> leaf = (Leaf<K>) n;
+            int pos = Arrays.binarySearch(leaf.keys, 0, leaf.count, x);
+            V value = null;
+            if (this.withValues) {
+                value = (V) leaf.values[pos];
+            }
+            removed = new Entry<>(leaf.keys[pos], value);
+            System.arraycopy(leaf.keys, pos + 1, leaf.keys, pos,
+                    leaf.count - 1 - pos);
+            leaf.keys[leaf.count - 1] = null;
+            if (this.withValues) {
+                System.arraycopy(leaf.values, pos + 1, leaf.values, pos,
+                        leaf.count - 1 - pos);
+                leaf.values[leaf.count - 1] = null;
+            }
+            leaf.count--;
+        } else {
+            Inner<K> inner = (Inner<K>) n;
+            int i = childIndex(inner, x);
+            Node<K> child = inner.children[i];
+            removed = this.removeIn(child, x);
+            if (child.count < this.minimum) {
+                int j = i;
+                if (i > 0) {
+                    j = i - 1;
+                }
+                Node<K> left = inner.children[j];
+                Node<K> right = inner.children[j + 1];
+                if (left instanceof Leaf<?>) {
+                    this.rebalanceLeaves(inner, j, (Leaf<K>) left,
+                            (Leaf<K>) right);
+                } else {
+                    this.rebalanceInners(inner, j, (Inner<K>) left,
+                            (Inner<K>) right);
+                }
+            }
+        }
+        return removed;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * Constructor for an empty tree with nodes of up to {@code fanout} keys
+     * or children.
+     *
+     * @param fanout
+     *            maximum keys per leaf and children per inner node
+     * @param withValues
+     *            whether keys have associated values
+     * @requires fanout >= MIN_FANOUT
+     * @ensures this = {}
+     */
+    public BPlusTree(int fanout, boolean withValues) {
+        assert fanout >= MIN_FANOUT : "Violation of: fanout >= MIN_FANOUT";
+
+        this.fanout = fanout;
+        this.minimum = fanout / 2;
+        this.withValues = withValues;
+        this.clear();
+    }
+
+    /*
+     * Public methods ---------------------------------------------------------
+     */
+
+    /**
+     * Reports the maximum number of keys per leaf and children per inner
+     * node.
+     *
+     * @return the fanout
+     */
+    public int fanout() {
+        return this.fanout;
+    }
+
+    /**
+     * Reports the number of keys.
+     *
+     * @return the number of keys
+     * @ensures size = |this|
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Removes every key.
+     *
+     * @clears this
+     */
+    public void clear() {
+        this.first = this.newLeaf();
+        this.root = this.first;
+        this.size = 0;
+    }
+
+    /**
+     * Reports whether {@code x} is a key.
+     *
+     * @param x
+     *            the key
+     * @return true iff x is a key of this
+     */
+    public boolean contains(K x) {
+        Leaf<K> leaf = this.leafFor(x);
+        return Arrays.binarySearch(leaf.keys, 0, leaf.count, x) >= 0;
+    }
+
+    /**
+     * Returns the value associated with {@code x}.
+     *
+     * @param x
+     *            the key
+     * @return the value
+     * @requires x is a key of this
+     * @ensures (x, value) is in this
+     */
+    @SuppressWarnings("unchecked")
+    public V value(K x) {
+        V value = null;
+        if (this.withValues) {
+            Leaf<K> leaf = this.leafFor(x);
+            value = (V) leaf.values[Arrays.binarySearch(leaf.keys, 0,
+                    leaf.count, x)];
+        }
+        return value;
+    }
+
+    /**
+     * Returns the smallest key.
+     *
+     * @return the smallest key
+     * @requires |this| > 0
+     * @ensures first = [the smallest key of this]
+     */
+    public K first() {
+        return this.first.keys[0];
+    }
+
+    /**
+     * Adds {@code x} with associated value {@code value}.
+     *
+     * @param x
+     *            the key
+     * @param value
+     *            the value, ignored without values
+     * @requires x is not a key of this
+     * @updates this
+     * @ensures this = #this union {(x, value)}
+     */
+    public void insert(K x, V value) {
+        Node<K> sibling = this.insertIn(this.root, x, value);
+        if (sibling != null) {
+            Inner<K> newRoot = this.newInner();
+            newRoot.children[0] = this.root;
+            newRoot.children[1] = sibling;
+            newRoot.keys[0] = this.separator;
+            newRoot.count = 2;
+            this.root = newRoot;
+        }
+        this.separator = null;
+        this.size++;
+    }
+
+    /**
+     * Removes {@code x} and its associated value, and returns them as they
+     * were stored, finding them in the same descent that removes them.
+     *
+     * @param x
+     *            the key
+     * @return the removed key and value
+     * @requires x is a key of this
+     * @updates this
+     * @ensures <pre>
+     * delete.key = [the key of #this equal to x]  and
+     * delete.value = #this.value(x)  and
+     * this = #this \ {(x, #this.value(x))}
+     * </pre>
+     */
+    public Entry<K, V> delete(K x) {
+        Entry<K, V> removed = this.removeIn(this.root, x);
+        if (this.root instanceof Inner<?> && this.root.count == 1) {
+            this.root = ((Inner<K>) this.root).children[0];
+        }
+        this.size--;
+        return removed;
+    }
+
+    /**
+     * Returns an iterator over the keys in [{@code lo}, {@code hi}), in
+     * increasing order, walking the linked leaves.
+     *
+     * @param lo
+     *            the smallest key to include, or null for no lower bound
+     * @param hi
+     *            the bound above every key to include, or null for no upper
+     *            bound
+     * @return the iterator
+     * @ensures keys ~ [the keys k of this with lo <= k < hi, in increasing
+     *          order]
+     */
+    public Iterator<K> keys(K lo, K hi) {
+        return new KeyScan<>(this, lo, hi);
+    }
+
+    /**
+     * Iterator over the entries of a {@code BPlusTree} in a range of keys,
+     * walking the linked leaves; subclasses decide what each entry is
+     * returned as.
+     *
+     * @param <K>
+     *            type of keys
+     * @param <V>
+     *            type of associated values
+     * @param <R>
+     *            type returned by {@code next}
+     */
+    public abstract static class Scan<K extends Comparable<K>, V, R>
+            implements Iterator<R> {
+
+        /**
+         * Leaf of the next entry, or {@code null} when there is none.
+         */
+        private Leaf<K> leaf;
+
+        /**
+         * Index of the next entry in {@code leaf}.
+         */
+        private int index;
+
+        /**
+         * The bound above every key to visit, or {@code null}.
+         */
+        private final K hi;
+
+        /**
+         * Constructor for a scan of {@code tree} over [{@code lo},
+         * {@code hi}).
+         *
+         * @param tree
+         *            the tree
+         * @param lo
+         *            the smallest key to include, or null
+         * @param hi
+         *            the bound above every key to include, or null
+         */
+        protected Scan(BPlusTree<K, V> tree, K lo, K hi) {
+            assert tree != null : "Violation of: tree is not null";
+
+            this.hi = hi;
+            if (lo == null) {
+                this.leaf = tree.first;
+                this.index = 0;
+            } else {
+                this.leaf = tree.leafFor(lo);
+                int i = Arrays.binarySearch(this.leaf.keys, 0,
+                        this.leaf.count, lo);
+                if (i >= 0) {
+                    this.index = i;
+                } else {
+                    this.index = -i - 1;
+                }
+            }
+            this.skipExhaustedLeaf();
+        }
+
+        /**
+         * Moves to the next leaf if every entry of the current one has been
+         * visited.
+         */
+        private void skipExhaustedLeaf() {
+            if (this.leaf != null && this.index == this.leaf.count) {
+                this.leaf = this.leaf.next;
+                this.index = 0;
+            }
+        }
+
+        /**
+         * Returns what {@code next} returns for the entry with key
+         * {@code key} and value {@code value}.
+         *
+         * @param key
+         *            the key
+         * @param value
+         *            the value, null without values
+         * @return the element
+         */
+        protected abstract R element(K key, V value);
+
+        @Override
+        public final boolean hasNext() {
+            return this.leaf != null && (this.hi == null
+                    || this.leaf.keys[this.index].compareTo(this.hi) < 0);
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public final R next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            K key = this.leaf.keys[this.index];
+            V value = null;
+            if (this.leaf.values != null) {
+                value = (V) this.leaf.values[this.index];
+            }
+            this.index++;
+            this.skipExhaustedLeaf();
+            return this.element(key, value);
+        }
+
+        @Override
+        public final void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+    /**
+     * Scan returning keys.
+     *
+     * @param <K>
+     *            type of keys
+     * @param <V>
+     *            type of associated values
+     */
+    private static final class KeyScan<K extends Comparable<K>, V>
+            extends Scan<K, V, K> {
+
+        /**
+         * Constructor for a scan of {@code tree} over [{@code lo},
+         * {@code hi}).
+         *
+         * @param tree
+         *            the tree
+         * @param lo
+         *            the smallest key to include, or null
+         * @param hi
+         *            the bound above every key to include, or null
+         */
+        KeyScan(BPlusTree<K, V> tree, K lo, K hi) {
+            super(tree, lo, hi);
+        }
+
+        @Override
+        protected K element(K key, V value) {
+            return key;
+        }
+
+    }
+
+}
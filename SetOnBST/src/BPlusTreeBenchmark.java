@@ -0,0 +1,248 @@
+import java.util.Iterator;
+import java.util.Random;
+
+import components.set.Set;
+import components.simplereader.SimpleReader;
+import components.simplereader.SimpleReader1L;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Measures the time to insert {@code n} elements in random order, look each
+ * one up, and scan them all in order, in a {@code Set3a} (unbalanced binary
+ * tree), a {@code Set3b} (AVL tree), and a {@code BPlusTreeSet} of each
+ * fanout supplied by the user, for a number of elements supplied by the user.
+ *
+ * <p>
+ * Every measured run is preceded by an unmeasured warm-up run so that the JIT
+ * has compiled the hot paths. The scan iterates over the whole set; for
+ * {@code Set3b} and {@code BPlusTreeSet} it also times
+ * {@code range} scans of 100 elements starting at random points.
+ * </p>
+ *
+ * @author Brayden May
+ *
+ */
+public final class BPlusTreeBenchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private BPlusTreeBenchmark() {
+    }
+
+    /**
+     * Seed of the random order, so that runs are repeatable.
+     */
+    private static final long SEED = 2241L;
+
+    /**
+     * Nanoseconds per millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /**
+     * Number of elements in each range scan.
+     */
+    private static final int RANGE_LENGTH = 100;
+
+    /**
+     * Number of range scans timed.
+     */
+    private static final int RANGE_SCANS = 10000;
+
+    /**
+     * Returns the integers 0 .. n-1 in a random order.
+     *
+     * @param n
+     *            number of elements
+     * @return the elements
+     * @requires n >= 0
+     */
+    private static Integer[] shuffled(int n) {
+        Integer[] elements = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            elements[i] = i;
+        }
+        Random random = new Random(SEED);
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            Integer temp = elements[i];
+            elements[i] = elements[j];
+            elements[j] = temp;
+        }
+        return elements;
+    }
+
+    /**
+     * Adds all of {@code elements} to {@code s}, looks each one up, and scans
+     * {@code s}, and returns the elapsed time of each phase.
+     *
+     * @param s
+     *            the set
+     * @param elements
+     *            the elements, distinct
+     * @return elapsed nanoseconds of insertion, lookup, and scan
+     * @updates s
+     * @requires s = {}
+     * @ensures s = elements
+     */
+    private static long[] runNanos(Set<Integer> s, Integer[] elements) {
+        long[] nanos = new long[3];
+        long begin = System.nanoTime();
+        for (Integer x : elements) {
+            s.add(x);
+        }
+        nanos[0] = System.nanoTime() - begin;
+
+        begin = System.nanoTime();
+        for (Integer x : elements) {
+            if (!s.contains(x)) {
+                throw new AssertionError("Lost element " + x);
+            }
+        }
+        nanos[1] = System.nanoTime() - begin;
+
+        begin = System.nanoTime();
+        long sum = 0;
+        for (Integer x : s) {
+            sum += x;
+        }
+        nanos[2] = System.nanoTime() - begin;
+        if (sum < 0) {
+            throw new AssertionError("Unreachable; keeps the scan live");
+        }
+        return nanos;
+    }
+
+    /**
+     * Returns the times of a warmed-up run on a new set like {@code s},
+     * formatted in milliseconds and separated by tabs.
+     *
+     * @param s
+     *            a set of the implementation to measure
+     * @param elements
+     *            the elements, distinct
+     * @return the formatted times
+     */
+    private static String measure(Set<Integer> s, Integer[] elements) {
+        runNanos(s.newInstance(), elements);
+        long[] nanos = runNanos(s.newInstance(), elements);
+        return String.format("%.1f\t\t%.1f\t\t%.1f",
+                nanos[0] / NANOS_PER_MILLI, nanos[1] / NANOS_PER_MILLI,
+                nanos[2] / NANOS_PER_MILLI);
+    }
+
+    /**
+     * Returns the time in milliseconds of {@code RANGE_SCANS} range scans of
+     * {@code RANGE_LENGTH} elements, starting at random elements, done with
+     * {@code scan}, after the same scans as a warm-up.
+     *
+     * @param scan
+     *            the range scan of the set measured
+     * @param n
+     *            number of elements in the set, 0 .. n-1
+     * @return the formatted time
+     */
+    private static String measureRanges(RangeScan scan, int n) {
+        Random random = new Random(SEED);
+        int[] starts = new int[RANGE_SCANS];
+        for (int i = 0; i < RANGE_SCANS; i++) {
+            starts[i] = random.nextInt(Math.max(1, n - RANGE_LENGTH));
+        }
+        long sum = 0;
+        for (int lo : starts) {
+            sum += scan.sum(lo, lo + RANGE_LENGTH);
+        }
+        long begin = System.nanoTime();
+        for (int lo : starts) {
+            sum += scan.sum(lo, lo + RANGE_LENGTH);
+        }
+        long nanos = System.nanoTime() - begin;
+        if (sum < 0) {
+            throw new AssertionError("Unreachable; keeps the scans live");
+        }
+        return String.format("%.1f", nanos / NANOS_PER_MILLI);
+    }
+
+    /**
+     * Range scan of one set.
+     */
+    private interface RangeScan {
+
+        /**
+         * Returns the sum of the elements in [{@code lo}, {@code hi}).
+         *
+         * @param lo
+         *            the smallest element to include
+         * @param hi
+         *            the bound above every element to include
+         * @return the sum
+         */
+        long sum(int lo, int hi);
+
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     */
+    public static void main(String[] args) {
+        SimpleReader in = new SimpleReader1L();
+        SimpleWriter out = new SimpleWriter1L();
+
+        out.print("Number of elements: ");
+        int n = in.nextInteger();
+        out.print("Fanouts to measure (separated by spaces): ");
+        String[] fanouts = in.nextLine().trim().split("\\s+");
+
+        Integer[] elements = shuffled(n);
+        out.println();
+        out.println("Set\t\tInsert ms\tLookup ms\tScan ms");
+        out.println("---\t\t---------\t---------\t-------");
+        out.println("Set3a\t\t" + measure(new Set3a<Integer>(), elements));
+        out.println("Set3b\t\t" + measure(new Set3b<Integer>(), elements));
+        for (String fanout : fanouts) {
+            out.println("B+ " + fanout + "\t\t" + measure(
+                    new BPlusTreeSet<Integer>(Integer.parseInt(fanout)),
+                    elements));
+        }
+
+        out.println();
+        out.println(String.format("%d range scans of %d elements:",
+                RANGE_SCANS, RANGE_LENGTH));
+        Set3b<Integer> avl = new Set3b<>();
+        for (Integer x : elements) {
+            avl.add(x);
+        }
+        out.println("Set3b\t\t" + measureRanges((lo, hi) -> {
+            long sum = 0;
+            Iterator<Integer> it = avl.range(lo, hi);
+            while (it.hasNext()) {
+                sum += it.next();
+            }
+            return sum;
+        }, n));
+        for (String fanout : fanouts) {
+            BPlusTreeSet<Integer> tree = new BPlusTreeSet<>(
+                    Integer.parseInt(fanout));
+            for (Integer x : elements) {
+                tree.add(x);
+            }
+            out.println("B+ " + fanout + "\t\t" + measureRanges((lo, hi) -> {
+                long sum = 0;
+                Iterator<Integer> it = tree.range(lo, hi);
+                while (it.hasNext()) {
+                    sum += it.next();
+                }
+                return sum;
+            }, n));
+        }
+
+        in.close();
+        out.close();
+    }
+
+}
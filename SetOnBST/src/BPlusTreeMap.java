@@ -0,0 +1,227 @@
+import java.util.Iterator;
+
+import components.map.Map;
+import components.map.MapSecondary;
+
+/**
+ * {@code Map} represented as a B+-tree ({@code BPlusTree}) ordered by key,
+ * for large ordered maps: each node keeps up to {@code fanout} keys (and, in
+ * the leaves, their values) in contiguous arrays, so a search touches about
+ * log_fanout(n) nodes, and the leaves are linked so that iteration and
+ * {@code range} visit the pairs in increasing order of key.
+ *
+ * @param <K>
+ *            type of {@code Map} domain (key) entries
+ * @param <V>
+ *            type of {@code Map} range (associated value) entries
+ * @convention $this.tree.fanout = $this.fanout
+ * @correspondence this = [the (key, value) pairs of $this.tree]
+ *
+ * @author Brayden May
+ *
+ */
+public class BPlusTreeMap<K extends Comparable<K>, V>
+        extends MapSecondary<K, V> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Maximum number of pairs per leaf and children per inner node.
+     */
+    private int fanout;
+
+    /**
+     * The tree.
+     */
+    private BPlusTree<K, V> tree;
+
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+        this.tree = new BPlusTree<>(this.fanout, true);
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor, with the default fanout.
+     */
+    public BPlusTreeMap() {
+        this(BPlusTree.DEFAULT_FANOUT);
+    }
+
+    /**
+     * Constructor with nodes of up to {@code fanout} pairs or children.
+     *
+     * @param fanout
+     *            maximum pairs per leaf and children per inner node
+     * @requires fanout >= BPlusTree.MIN_FANOUT
+     * @ensures this = {}
+     */
+    public BPlusTreeMap(int fanout) {
+        assert fanout >= BPlusTree.MIN_FANOUT
+                : "Violation of: fanout >= BPlusTree.MIN_FANOUT";
+
+        this.fanout = fanout;
+        this.createNewRep();
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @Override
+    public final Map<K, V> newInstance() {
+        return new BPlusTreeMap<>(this.fanout);
+    }
+
+    @Override
+    public final void clear() {
+        this.tree.clear();
+    }
+
+    @Override
+    public final void transferFrom(Map<K, V> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof BPlusTreeMap<?, ?> : ""
+                + "Violation of: source is of dynamic type BPlusTreeMap<?,?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type
+         * BPlusTreeMap<?,?>, and the ?,? must be K,V or the call would not
+         * have compiled.
+         */
+        BPlusTreeMap<K, V> localSource = (BPlusTreeMap<K, V>) source;
+        this.fanout = localSource.fanout;
+        this.tree = localSource.tree;
+        localSource.createNewRep();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(K key, V value) {
+        assert key != null : "Violation of: key is not null";
+        assert value != null : "Violation of: value is not null";
+        assert !this.hasKey(key) : "Violation of: key is not in DOMAIN(this)";
+
+        this.tree.insert(key, value);
+    }
+
+    @Override
+    public final Pair<K, V> remove(K key) {
+        assert key != null : "Violation of: key is not null";
+        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+
+        BPlusTree.Entry<K, V> removed = this.tree.delete(key);
+        return new SimplePair<>(removed.key(), removed.value());
+    }
+
+    @Override
+    public final Pair<K, V> removeAny() {
+        assert this.size() > 0 : "Violation of: this /= empty_set";
+
+        BPlusTree.Entry<K, V> removed = this.tree.delete(this.tree.first());
+        return new SimplePair<>(removed.key(), removed.value());
+    }
+
+    @Override
+    public final V value(K key) {
+        assert key != null : "Violation of: key is not null";
+        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+
+        return this.tree.value(key);
+    }
+
+    @Override
+    public final boolean hasKey(K key) {
+        assert key != null : "Violation of: key is not null";
+
+        return this.tree.contains(key);
+    }
+
+    @Override
+    public final int size() {
+        return this.tree.size();
+    }
+
+    @Override
+    public final Iterator<Pair<K, V>> iterator() {
+        return new BPlusTreeMapIterator(null, null);
+    }
+
+    /*
+     * Range methods ----------------------------------------------------------
+     */
+
+    /**
+     * Reports the maximum number of pairs per leaf and children per inner
+     * node.
+     *
+     * @return the fanout
+     */
+    public final int fanout() {
+        return this.fanout;
+    }
+
+    /**
+     * Returns an iterator over the pairs of {@code this} with keys in
+     * [{@code lo}, {@code hi}), in increasing order of key. It takes
+     * O(log n) time to find {@code lo} and then walks the linked leaves, O(1)
+     * time per pair.
+     *
+     * @param lo
+     *            the smallest key to include
+     * @param hi
+     *            the bound above every key to include
+     * @return the iterator
+     * @requires lo <= hi
+     * @ensures <pre>
+     * range ~ [the pairs (k, v) of this with lo <= k < hi, in increasing
+     *          order of k]
+     * </pre>
+     */
+    public final Iterator<Pair<K, V>> range(K lo, K hi) {
+        assert lo != null : "Violation of: lo is not null";
+        assert hi != null : "Violation of: hi is not null";
+        assert lo.compareTo(hi) <= 0 : "Violation of: lo <= hi";
+
+        return new BPlusTreeMapIterator(lo, hi);
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code BPlusTreeMap},
+     * visiting the pairs in increasing order of key.
+     */
+    private final class BPlusTreeMapIterator
+            extends BPlusTree.Scan<K, V, Pair<K, V>> {
+
+        /**
+         * Constructor for an iterator over the pairs with keys in
+         * [{@code lo}, {@code hi}).
+         *
+         * @param lo
+         *            the smallest key to include, or null
+         * @param hi
+         *            the bound above every key to include, or null
+         */
+        BPlusTreeMapIterator(K lo, K hi) {
+            super(BPlusTreeMap.this.tree, lo, hi);
+        }
+
+        @Override
+        protected Pair<K, V> element(K key, V value) {
+            return new SimplePair<>(key, value);
+        }
+
+    }
+
+}
@@ -0,0 +1,184 @@
+import java.util.Iterator;
+
+import components.set.Set;
+import components.set.SetSecondary;
+
+/**
+ * {@code Set} represented as a B+-tree ({@code BPlusTree} without values),
+ * for large ordered sets: each node keeps up to {@code fanout} elements in one
+ * contiguous array, so a search touches about log_fanout(n) nodes, and the
+ * leaves are linked so that iteration and {@code range} walk them in order.
+ *
+ * @param <T>
+ *            type of {@code Set} elements
+ * @convention $this.tree.fanout = $this.fanout
+ * @correspondence this = [the keys of $this.tree]
+ *
+ * @author Brayden May
+ *
+ */
+public class BPlusTreeSet<T extends Comparable<T>> extends SetSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Maximum number of elements per leaf and children per inner node.
+     */
+    private int fanout;
+
+    /**
+     * The tree.
+     */
+    private BPlusTree<T, Object> tree;
+
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+        this.tree = new BPlusTree<>(this.fanout, false);
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor, with the default fanout.
+     */
+    public BPlusTreeSet() {
+        this(BPlusTree.DEFAULT_FANOUT);
+    }
+
+    /**
+     * Constructor with nodes of up to {@code fanout} elements or children.
+     *
+     * @param fanout
+     *            maximum elements per leaf and children per inner node
+     * @requires fanout >= BPlusTree.MIN_FANOUT
+     * @ensures this = {}
+     */
+    public BPlusTreeSet(int fanout) {
+        assert fanout >= BPlusTree.MIN_FANOUT
+                : "Violation of: fanout >= BPlusTree.MIN_FANOUT";
+
+        this.fanout = fanout;
+        this.createNewRep();
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @Override
+    public final Set<T> newInstance() {
+        return new BPlusTreeSet<>(this.fanout);
+    }
+
+    @Override
+    public final void clear() {
+        this.tree.clear();
+    }
+
+    @Override
+    public final void transferFrom(Set<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof BPlusTreeSet<?> : ""
+                + "Violation of: source is of dynamic type BPlusTreeSet<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type
+         * BPlusTreeSet<?>, and the ? must be T or the call would not have
+         * compiled.
+         */
+        BPlusTreeSet<T> localSource = (BPlusTreeSet<T>) source;
+        this.fanout = localSource.fanout;
+        this.tree = localSource.tree;
+        localSource.createNewRep();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert !this.contains(x) : "Violation of: x is not in this";
+
+        this.tree.insert(x, null);
+    }
+
+    @Override
+    public final T remove(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.contains(x) : "Violation of: x is in this";
+
+        return this.tree.delete(x).key();
+    }
+
+    @Override
+    public final T removeAny() {
+        assert this.size() > 0 : "Violation of: this /= empty_set";
+
+        return this.tree.delete(this.tree.first()).key();
+    }
+
+    @Override
+    public final boolean contains(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        return this.tree.contains(x);
+    }
+
+    @Override
+    public final int size() {
+        return this.tree.size();
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return this.tree.keys(null, null);
+    }
+
+    /*
+     * Range methods ----------------------------------------------------------
+     */
+
+    /**
+     * Reports the maximum number of elements per leaf and children per inner
+     * node.
+     *
+     * @return the fanout
+     */
+    public final int fanout() {
+        return this.fanout;
+    }
+
+    /**
+     * Returns an iterator over the elements of {@code this} in [{@code lo},
+     * {@code hi}), in increasing order. It takes O(log n) time to find
+     * {@code lo} and then walks the linked leaves, O(1) time per element.
+     *
+     * @param lo
+     *            the smallest element to include
+     * @param hi
+     *            the bound above every element to include
+     * @return the iterator
+     * @requires lo <= hi
+     * @ensures <pre>
+     * range ~ [the elements y of this with lo <= y < hi, in increasing
+     *          order]
+     * </pre>
+     */
+    public final Iterator<T> range(T lo, T hi) {
+        assert lo != null : "Violation of: lo is not null";
+        assert hi != null : "Violation of: hi is not null";
+        assert lo.compareTo(hi) <= 0 : "Violation of: lo <= hi";
+
+        return this.tree.keys(lo, hi);
+    }
+
+}
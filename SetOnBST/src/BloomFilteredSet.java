@@ -0,0 +1,329 @@
+import java.util.Iterator;
+
+import components.set.Set;
+import components.set.SetSecondary;
+
+/**
+ * {@code Set} that wraps another {@code Set} and puts a counting Bloom filter
+ * in front of it, so that most {@code contains} calls for absent elements are
+ * answered without searching the wrapped set at all.
+ *
+ * <p>
+ * The filter is kept exact under {@code remove} and {@code removeAny} by
+ * decrementing counters, and is rebuilt twice as large whenever the set grows
+ * past the size it was built for, so its false-positive rate stays near the
+ * target. The wrapper counts how many misses the filter answered and how many
+ * it let through, so the false-positive rate actually observed can be
+ * compared with the target.
+ * </p>
+ *
+ * @param <T>
+ *            type of {@code Set} elements
+ * @convention <pre>
+ * [$this.filter holds exactly the elements of $this.elements]  and
+ * |$this.elements| <= $this.filter.expectedInsertions  and
+ * $this.filter.falsePositiveRate = $this.falsePositiveRate
+ * </pre>
+ * @correspondence this = $this.elements
+ *
+ * @author Brayden May
+ *
+ */
+public class BloomFilteredSet<T> extends SetSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Default number of elements the filter is first sized for.
+     */
+    private static final int DEFAULT_EXPECTED_SIZE = 64;
+
+    /**
+     * Default target false-positive rate.
+     */
+    private static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+
+    /**
+     * The wrapped set.
+     */
+    private Set<T> elements;
+
+    /**
+     * Filter holding the elements of {@code elements}.
+     */
+    private CountingBloomFilter<T> filter;
+
+    /**
+     * Number of elements the filter is first sized for.
+     */
+    private int expectedSize;
+
+    /**
+     * Target false-positive rate of the filter.
+     */
+    private double falsePositiveRate;
+
+    /**
+     * Number of calls to {@code contains}.
+     */
+    private long lookups;
+
+    /**
+     * Number of calls to {@code contains} answered by the filter alone.
+     */
+    private long filtered;
+
+    /**
+     * Number of calls to {@code contains} the filter let through for an
+     * absent element.
+     */
+    private long falsePositives;
+
+    /**
+     * Rebuilds {@code filter} for twice as many elements if {@code elements}
+     * has outgrown it.
+     */
+    private void growIfNeeded() {
+        int capacity = this.filter.expectedInsertions();
+        if (this.elements.size() > capacity) {
+            this.filter = new CountingBloomFilter<>(2 * capacity,
+                    this.falsePositiveRate);
+            for (T x : this.elements) {
+                this.filter.add(x);
+            }
+        }
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param wrapped
+     *            the set to wrap
+     * @requires wrapped = {}
+     */
+    private void createNewRep(Set<T> wrapped) {
+        this.elements = wrapped;
+        this.filter = new CountingBloomFilter<>(this.expectedSize,
+                this.falsePositiveRate);
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * Constructor wrapping {@code wrapped} with a filter at the default target
+     * false-positive rate.
+     *
+     * @param wrapped
+     *            the set to wrap
+     * @requires wrapped = {}
+     * @ensures this = {}
+     */
+    public BloomFilteredSet(Set<T> wrapped) {
+        this(wrapped, DEFAULT_EXPECTED_SIZE, DEFAULT_FALSE_POSITIVE_RATE);
+    }
+
+    /**
+     * Constructor wrapping {@code wrapped} with a filter first sized for
+     * {@code expectedSize} elements at a target false-positive rate of
+     * {@code falsePositiveRate}.
+     *
+     * @param wrapped
+     *            the set to wrap
+     * @param expectedSize
+     *            the number of elements expected
+     * @param falsePositiveRate
+     *            the target false-positive rate
+     * @requires <pre>
+     * wrapped = {}  and  expectedSize > 0  and  0 < falsePositiveRate < 1
+     * </pre>
+     * @ensures this = {}
+     */
+    public BloomFilteredSet(Set<T> wrapped, int expectedSize,
+            double falsePositiveRate) {
+        assert wrapped != null : "Violation of: wrapped is not null";
+        assert wrapped.size() == 0 : "Violation of: wrapped = {}";
+        assert expectedSize > 0 : "Violation of: expectedSize > 0";
+        assert falsePositiveRate > 0 && falsePositiveRate < 1
+                : "Violation of: 0 < falsePositiveRate < 1";
+
+        this.expectedSize = expectedSize;
+        this.falsePositiveRate = falsePositiveRate;
+        this.createNewRep(wrapped);
+        this.resetStatistics();
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @Override
+    public final Set<T> newInstance() {
+        return new BloomFilteredSet<>(this.elements.newInstance(),
+                this.expectedSize, this.falsePositiveRate);
+    }
+
+    @Override
+    public final void clear() {
+        this.elements.clear();
+        this.filter.clear();
+    }
+
+    @Override
+    public final void transferFrom(Set<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof BloomFilteredSet<?> : ""
+                + "Violation of: source is of dynamic type BloomFilteredSet<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type
+         * BloomFilteredSet<?>, and the ? must be T or the call would not have
+         * compiled.
+         */
+        BloomFilteredSet<T> localSource = (BloomFilteredSet<T>) source;
+        this.elements = localSource.elements;
+        this.filter = localSource.filter;
+        this.expectedSize = localSource.expectedSize;
+        this.falsePositiveRate = localSource.falsePositiveRate;
+        localSource.createNewRep(localSource.elements.newInstance());
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert !this.elements.contains(x) : "Violation of: x is not in this";
+
+        this.elements.add(x);
+        this.filter.add(x);
+        this.growIfNeeded();
+    }
+
+    @Override
+    public final T remove(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.elements.contains(x) : "Violation of: x is in this";
+
+        T removed = this.elements.remove(x);
+        this.filter.remove(removed);
+        return removed;
+    }
+
+    @Override
+    public final T removeAny() {
+        assert this.size() > 0 : "Violation of: |this| > 0";
+
+        T removed = this.elements.removeAny();
+        this.filter.remove(removed);
+        return removed;
+    }
+
+    @Override
+    public final boolean contains(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        this.lookups++;
+        boolean found = false;
+        if (!this.filter.mightContain(x)) {
+            this.filtered++;
+        } else {
+            found = this.elements.contains(x);
+            if (!found) {
+                this.falsePositives++;
+            }
+        }
+
+        return found;
+    }
+
+    @Override
+    public final int size() {
+        return this.elements.size();
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return this.elements.iterator();
+    }
+
+    /*
+     * Statistics methods -----------------------------------------------------
+     */
+
+    /**
+     * Reports the number of calls to {@code contains} since construction or
+     * the last {@code resetStatistics}.
+     *
+     * @return the number of lookups
+     */
+    public final long lookups() {
+        return this.lookups;
+    }
+
+    /**
+     * Reports the number of calls to {@code contains} answered by the filter
+     * without searching the wrapped set, since construction or the last
+     * {@code resetStatistics}.
+     *
+     * @return the number of lookups filtered
+     */
+    public final long filtered() {
+        return this.filtered;
+    }
+
+    /**
+     * Reports the number of calls to {@code contains} for an absent element
+     * that the filter did not answer, since construction or the last
+     * {@code resetStatistics}.
+     *
+     * @return the number of false positives
+     */
+    public final long falsePositives() {
+        return this.falsePositives;
+    }
+
+    /**
+     * Reports the fraction of lookups of absent elements that the filter
+     * failed to answer.
+     *
+     * @return falsePositives() / (filtered() + falsePositives()), or 0 if
+     *         there have been no such lookups
+     */
+    public final double observedFalsePositiveRate() {
+        double rate = 0.0;
+        long misses = this.filtered + this.falsePositives;
+        if (misses > 0) {
+            rate = (double) this.falsePositives / misses;
+        }
+        return rate;
+    }
+
+    /**
+     * Reports the false-positive rate the filter is sized for.
+     *
+     * @return the target false-positive rate
+     */
+    public final double targetFalsePositiveRate() {
+        return this.falsePositiveRate;
+    }
+
+    /**
+     * Sets {@code lookups()}, {@code filtered()}, and
+     * {@code falsePositives()} to 0.
+     *
+     * @ensures lookups() = 0  and  filtered() = 0  and  falsePositives() = 0
+     */
+    public final void resetStatistics() {
+        this.lookups = 0;
+        this.filtered = 0;
+        this.falsePositives = 0;
+    }
+
+}
@@ -0,0 +1,541 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.set.Set;
+import components.set.SetSecondary;
+
+/**
+ * {@code Set} represented as a persistent AVL tree: nodes are immutable, and
+ * {@code add} and {@code remove} build a new version of the tree by copying
+ * only the O(log n) nodes on the path they change, sharing every other node
+ * with the previous version.
+ *
+ * <p>
+ * Because no version is ever modified, {@code snapshot} can return a set
+ * holding the current version in O(1) time. The snapshot does not change when
+ * {@code this} does, nor {@code this} when the snapshot does, and it costs
+ * nothing beyond the nodes it alone still refers to. The current version is
+ * held in a {@code volatile} field and nodes have only {@code final} fields,
+ * so other threads may call {@code snapshot} (and read the snapshots they
+ * get) while one thread keeps changing {@code this}, without locks. Iterators
+ * likewise iterate over the version current when they were created.
+ * </p>
+ *
+ * @param <T>
+ *            type of {@code Set} elements
+ * @mathdefinitions <pre>
+ * IS_AVL(
+ *   tree: binary tree of T
+ *  ): boolean satisfies
+ *  [tree satisfies the binary search tree properties with the ordering
+ *   reported by compareTo for T, including that it has no duplicate labels,
+ *   and at every node the heights of the two subtrees differ by at most 1]
+ * </pre>
+ * @convention <pre>
+ * IS_AVL([the tree of nodes from $this.root])  and
+ * [every node's height and size are those of the subtree rooted at it]  and
+ * [no node reachable from $this.root is ever modified]
+ * </pre>
+ * @correspondence this = labels([the tree of nodes from $this.root])
+ *
+ * @author Brayden May
+ *
+ */
+public class PersistentSet3<T extends Comparable<T>> extends SetSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Immutable node of a tree.
+     *
+     * @param <T>
+     *            type of label
+     */
+    private static final class Node<T> {
+
+        /**
+         * Label of the node.
+         */
+        private final T label;
+
+        /**
+         * Root of the left subtree, or {@code null} if it is empty.
+         */
+        private final Node<T> left;
+
+        /**
+         * Root of the right subtree, or {@code null} if it is empty.
+         */
+        private final Node<T> right;
+
+        /**
+         * Height of the subtree rooted at this node.
+         */
+        private final int height;
+
+        /**
+         * Number of nodes in the subtree rooted at this node.
+         */
+        private final int size;
+
+        /**
+         * Constructor for the node labeled {@code label} with the given
+         * subtrees.
+         *
+         * @param label
+         *            the label
+         * @param left
+         *            root of the left subtree, or null
+         * @param right
+         *            root of the right subtree, or null
+         */
+        Node(T label, Node<T> left, Node<T> right) {
+            this.label = label;
+            this.left = left;
+            this.right = right;
+            this.height = 1 + Math.max(height(left), height(right));
+            this.size = 1 + size(left) + size(right);
+        }
+
+    }
+
+    /**
+     * Root of the current version of the tree, or {@code null} if it is
+     * empty.
+     */
+    private volatile Node<T> root;
+
+    /**
+     * Returns the height of the subtree rooted at {@code n}.
+     *
+     * @param <T>
+     *            type of labels
+     * @param n
+     *            the root, or null
+     * @return the height
+     * @ensures height = [height of the tree rooted at n, or 0 if n = null]
+     */
+    private static <T> int height(Node<T> n) {
+        int height = 0;
+        if (n != null) {
+            height = n.height;
+        }
+        return height;
+    }
+
+    /**
+     * Returns the number of nodes in the subtree rooted at {@code n}.
+     *
+     * @param <T>
+     *            type of labels
+     * @param n
+     *            the root, or null
+     * @return the size
+     * @ensures size = [number of nodes in the tree rooted at n]
+     */
+    private static <T> int size(Node<T> n) {
+        int size = 0;
+        if (n != null) {
+            size = n.size;
+        }
+        return size;
+    }
+
+    /**
+     * Returns a new AVL tree with root label {@code label}, left subtree
+     * {@code left}, and right subtree {@code right}, rotating with new nodes
+     * if their heights differ by 2.
+     *
+     * @param <T>
+     *            type of labels
+     * @param label
+     *            the label
+     * @param left
+     *            root of an AVL tree of smaller labels, or null
+     * @param right
+     *            root of an AVL tree of larger labels, or null
+     * @return the root of the new tree
+     * @requires |height(left) - height(right)| <= 2
+     * @ensures <pre>
+     * IS_AVL([tree rooted at balance])  and
+     *  [the in-order sequence of balance is that of left * <label> * that of
+     *   right]
+     * </pre>
+     */
+    private static <T> Node<T> balance(T label, Node<T> left,
+            Node<T> right) {
+        Node<T> result;
+        if (height(left) > height(right) + 1) {
+            if (height(left.left) >= height(left.right)) {
+                result = new Node<>(left.label, left.left,
+                        new Node<>(label, left.right, right));
+            } else {
+                Node<T> pivot = left.right;
+                result = new Node<>(pivot.label,
+                        new Node<>(left.label, left.left, pivot.left),
+                        new Node<>(label, pivot.right, right));
+            }
+        } else if (height(right) > height(left) + 1) {
+            if (height(right.right) >= height(right.left)) {
+                result = new Node<>(right.label,
+                        new Node<>(label, left, right.left), right.right);
+            } else {
+                Node<T> pivot = right.left;
+                result = new Node<>(pivot.label,
+                        new Node<>(label, left, pivot.left),
+                        new Node<>(right.label, pivot.right, right.right));
+            }
+        } else {
+            result = new Node<>(label, left, right);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the node labeled {@code x} in the tree rooted at {@code n}.
+     *
+     * @param <T>
+     *            type of labels
+     * @param n
+     *            the root, or null
+     * @param x
+     *            the label to be searched for
+     * @return the node labeled x, or null if there is none
+     * @requires IS_AVL([tree rooted at n])
+     * @ensures <pre>
+     * if x is in labels([tree rooted at n])
+     *  then find.label = x  else  find = null
+     * </pre>
+     */
+    private static <T extends Comparable<T>> Node<T> find(Node<T> n, T x) {
+        Node<T> p = n;
+        int comparison = 1;
+        while (p != null && comparison != 0) {
+            comparison = x.compareTo(p.label);
+            if (comparison < 0) {
+                p = p.left;
+            } else if (comparison > 0) {
+                p = p.right;
+            }
+        }
+        return p;
+    }
+
+    /**
+     * Returns the smallest label of the tree rooted at {@code n}.
+     *
+     * @param <T>
+     *            type of labels
+     * @param n
+     *            the root
+     * @return the smallest label
+     * @requires n /= null
+     * @ensures smallest = [the smallest label in the tree rooted at n]
+     */
+    private static <T> T smallest(Node<T> n) {
+        Node<T> p = n;
+        while (p.left != null) {
+            p = p.left;
+        }
+        return p.label;
+    }
+
+    /**
+     * Returns a new version of the tree rooted at {@code n} with {@code x}
+     * inserted, copying the nodes on the path to it.
+     *
+     * @param <T>
+     *            type of labels
+     * @param n
+     *            the root, or null
+     * @param x
+     *            the label to be inserted
+     * @return the root of the new version
+     * @aliases reference {@code x}
+     * @requires IS_AVL([tree rooted at n]) and x is not in its labels
+     * @ensures <pre>
+     * IS_AVL([tree rooted at insertInTree])  and
+     *  labels([tree rooted at insertInTree]) =
+     *   labels([tree rooted at n]) union {x}
+     * </pre>
+     */
+    private static <T extends Comparable<T>> Node<T> insertInTree(Node<T> n,
+            T x) {
+        Node<T> result;
+        if (n == null) {
+            result = new Node<>(x, null, null);
+        } else if (x.compareTo(n.label) < 0) {
+            result = balance(n.label, insertInTree(n.left, x), n.right);
+        } else {
+            result = balance(n.label, n.left, insertInTree(n.right, x));
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new version of the tree rooted at {@code n} without its
+     * smallest label, copying the nodes on the path to it.
+     *
+     * @param <T>
+     *            type of labels
+     * @param n
+     *            the root
+     * @return the root of the new version
+     * @requires IS_AVL([tree rooted at n]) and n /= null
+     * @ensures <pre>
+     * IS_AVL([tree rooted at removeSmallest])  and
+     *  labels([tree rooted at removeSmallest]) =
+     *   labels([tree rooted at n]) \ {smallest(n)}
+     * </pre>
+     */
+    private static <T> Node<T> removeSmallest(Node<T> n) {
+        Node<T> result;
+        if (n.left == null) {
+            result = n.right;
+        } else {
+            result = balance(n.label, removeSmallest(n.left), n.right);
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new version of the tree rooted at {@code n} without label
+     * {@code x}, copying the nodes on the path to it.
+     *
+     * @param <T>
+     *            type of labels
+     * @param n
+     *            the root
+     * @param x
+     *            the label to be removed
+     * @return the root of the new version
+     * @requires IS_AVL([tree rooted at n]) and x is in its labels
+     * @ensures <pre>
+     * IS_AVL([tree rooted at removeFromTree])  and
+     *  labels([tree rooted at removeFromTree]) =
+     *   labels([tree rooted at n]) \ {x}
+     * </pre>
+     */
+    private static <T extends Comparable<T>> Node<T> removeFromTree(
+            Node<T> n, T x) {
+        Node<T> result;
+        int comparison = x.compareTo(n.label);
+        if (comparison < 0) {
+            result = balance(n.label, removeFromTree(n.left, x), n.right);
+        } else if (comparison > 0) {
+            result = balance(n.label, n.left, removeFromTree(n.right, x));
+        } else if (n.left == null) {
+            result = n.right;
+        } else if (n.right == null) {
+            result = n.left;
+        } else {
+            result = balance(smallest(n.right), n.left,
+                    removeSmallest(n.right));
+        }
+        return result;
+    }
+
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+        this.root = null;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public PersistentSet3() {
+        this.createNewRep();
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Set<T> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+    }
+
+    @Override
+    public final void transferFrom(Set<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof PersistentSet3<?> : ""
+                + "Violation of: source is of dynamic type PersistentSet3<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type
+         * PersistentSet3<?>, and the ? must be T or the call would not have
+         * compiled.
+         */
+        PersistentSet3<T> localSource = (PersistentSet3<T>) source;
+        this.root = localSource.root;
+        localSource.createNewRep();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert !this.contains(x) : "Violation of: x is not in this";
+
+        this.root = insertInTree(this.root, x);
+    }
+
+    @Override
+    public final T remove(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.contains(x) : "Violation of: x is in this";
+
+        Node<T> current = this.root;
+        T removed = find(current, x).label;
+        this.root = removeFromTree(current, x);
+
+        return removed;
+    }
+
+    @Override
+    public final T removeAny() {
+        assert this.size() > 0 : "Violation of: this /= empty_set";
+
+        Node<T> current = this.root;
+        T smallest = smallest(current);
+        this.root = removeSmallest(current);
+
+        return smallest;
+    }
+
+    @Override
+    public final boolean contains(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        return find(this.root, x) != null;
+    }
+
+    @Override
+    public final int size() {
+        return size(this.root);
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new PersistentSet3Iterator(this.root);
+    }
+
+    /*
+     * Snapshot methods -------------------------------------------------------
+     */
+
+    /**
+     * Returns a set holding the current version of {@code this}, in O(1)
+     * time. Later changes to either set do not affect the other. May be
+     * called from any thread while another changes {@code this}.
+     *
+     * @return the snapshot
+     * @ensures snapshot = this
+     */
+    public final PersistentSet3<T> snapshot() {
+        PersistentSet3<T> snapshot = new PersistentSet3<>();
+        snapshot.root = this.root;
+        return snapshot;
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for
+     * {@code PersistentSet3}, visiting the elements of one version in
+     * increasing order.
+     */
+    private final class PersistentSet3Iterator implements Iterator<T> {
+
+        /**
+         * Nodes whose labels and right subtrees are still to be visited, from
+         * the bottom of the stack up.
+         */
+        private final Node<T>[] stack;
+
+        /**
+         * Number of nodes on {@code stack}.
+         */
+        private int depth;
+
+        /**
+         * Constructor for an iterator over the version rooted at
+         * {@code version}.
+         *
+         * @param version
+         *            the root of the version, or null
+         */
+        @SuppressWarnings("unchecked")
+        PersistentSet3Iterator(Node<T> version) {
+            this.stack = (Node<T>[]) new Node<?>[height(version)];
+            this.depth = 0;
+            this.pushLeftSpine(version);
+        }
+
+        /**
+         * Pushes {@code n} and its chain of left descendants.
+         *
+         * @param n
+         *            the top of the chain, or null
+         */
+        private void pushLeftSpine(Node<T> n) {
+            for (Node<T> p = n; p != null; p = p.left) {
+                this.stack[this.depth] = p;
+                this.depth++;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.depth > 0;
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            this.depth--;
+            Node<T> n = this.stack[this.depth];
+            this.stack[this.depth] = null;
+            this.pushLeftSpine(n.right);
+            return n.label;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
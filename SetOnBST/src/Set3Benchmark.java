@@ -0,0 +1,255 @@
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import com.sun.management.ThreadMXBean;
+
+import components.set.Set;
+import components.simplereader.SimpleReader;
+import components.simplereader.SimpleReader1L;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Measures the time to add and then look up {@code n} elements in a
+ * {@code Set3a} (unbalanced) and a {@code Set3b} (AVL) when the elements are
+ * added in sorted, reverse-sorted, and random order, for a number of elements
+ * supplied by the user.
+ *
+ * <p>
+ * Every measured run is preceded by an unmeasured warm-up run so that the JIT
+ * has compiled the hot paths. Sorted input makes {@code Set3a} a list whose
+ * recursive methods are as deep as the set is large, so its runs are reported
+ * as overflowing the stack when they do.
+ * </p>
+ *
+ * <p>
+ * It also reports the bytes allocated per {@code contains} call, measured
+ * with the per-thread allocation counter of the HotSpot
+ * {@code ThreadMXBean}: {@code Set3a} allocates two {@code BinaryTree1}s at
+ * every level it visits, {@code Set3b} nothing.
+ * </p>
+ *
+ * @author Brayden May
+ *
+ */
+public final class Set3Benchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private Set3Benchmark() {
+    }
+
+    /**
+     * Seed of the random order, so that runs are repeatable.
+     */
+    private static final long SEED = 2221L;
+
+    /**
+     * Nanoseconds per millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /**
+     * Number of unmeasured passes of lookups before allocation is measured.
+     */
+    private static final int WARMUP_ROUNDS = 20;
+
+    /**
+     * Orders in which elements are added.
+     */
+    private enum Order {
+        /**
+         * Increasing order.
+         */
+        SORTED,
+        /**
+         * Decreasing order.
+         */
+        REVERSE,
+        /**
+         * A random permutation.
+         */
+        RANDOM
+    }
+
+    /**
+     * Returns the integers 0 .. n-1 in {@code order}.
+     *
+     * @param n
+     *            number of elements
+     * @param order
+     *            the order
+     * @return the elements
+     * @requires n >= 0
+     */
+    private static Integer[] elements(int n, Order order) {
+        Integer[] elements = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            if (order == Order.REVERSE) {
+                elements[i] = n - 1 - i;
+            } else {
+                elements[i] = i;
+            }
+        }
+        if (order == Order.RANDOM) {
+            Random random = new Random(SEED);
+            for (int i = n - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                Integer temp = elements[i];
+                elements[i] = elements[j];
+                elements[j] = temp;
+            }
+        }
+        return elements;
+    }
+
+    /**
+     * Adds all of {@code elements} to {@code s}, then looks each one up, and
+     * returns the elapsed time.
+     *
+     * @param s
+     *            the set
+     * @param elements
+     *            the elements, distinct
+     * @return elapsed time in nanoseconds
+     * @updates s
+     * @requires s = {}
+     * @ensures s = elements
+     */
+    private static long runNanos(Set<Integer> s, Integer[] elements) {
+        long begin = System.nanoTime();
+        for (Integer x : elements) {
+            s.add(x);
+        }
+        for (Integer x : elements) {
+            if (!s.contains(x)) {
+                throw new AssertionError("Lost element " + x);
+            }
+        }
+        return System.nanoTime() - begin;
+    }
+
+    /**
+     * Returns the time in milliseconds of a warmed-up run on a new set like
+     * {@code s}, or a note that the run overflowed the stack.
+     *
+     * @param s
+     *            a set of the implementation to measure
+     * @param elements
+     *            the elements, distinct
+     * @return the formatted time
+     */
+    private static String measure(Set<Integer> s, Integer[] elements) {
+        String result;
+        try {
+            runNanos(s.newInstance(), elements);
+            long nanos = runNanos(s.newInstance(), elements);
+            result = String.format("%.1f", nanos / NANOS_PER_MILLI);
+        } catch (StackOverflowError e) {
+            result = "overflow";
+        }
+        return result;
+    }
+
+    /**
+     * Reports whether this JVM has the HotSpot per-thread allocation counter
+     * and it is turned on.
+     *
+     * @return true if the counter can be read
+     */
+    private static boolean allocationCounterAvailable() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory
+                .getThreadMXBean();
+        return bean instanceof ThreadMXBean
+                && ((ThreadMXBean) bean).isThreadAllocatedMemorySupported()
+                && ((ThreadMXBean) bean).isThreadAllocatedMemoryEnabled();
+    }
+
+    /**
+     * Returns the average number of bytes the current thread allocates per
+     * {@code contains} call while looking up every element of {@code elements}
+     * in {@code s}, after enough warm-up lookups for the JIT to compile them.
+     *
+     * @param s
+     *            the set
+     * @param elements
+     *            the elements to look up
+     * @return bytes allocated per call
+     * @requires <pre>
+     * |elements| > 0  and  allocationCounterAvailable()
+     * </pre>
+     */
+    private static double bytesPerContains(Set<Integer> s,
+            Integer[] elements) {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        int found = 0;
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            for (Integer x : elements) {
+                if (s.contains(x)) {
+                    found++;
+                }
+            }
+        }
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (Integer x : elements) {
+            if (s.contains(x)) {
+                found++;
+            }
+        }
+        long after = threads.getThreadAllocatedBytes(thread);
+        if (found < 0) {
+            throw new AssertionError("Unreachable; keeps the lookups live");
+        }
+        return (double) (after - before) / elements.length;
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     */
+    public static void main(String[] args) {
+        SimpleReader in = new SimpleReader1L();
+        SimpleWriter out = new SimpleWriter1L();
+
+        out.print("Number of elements: ");
+        int n = in.nextInteger();
+
+        out.println();
+        out.println("Order\tSet3a ms\tSet3b ms");
+        out.println("-----\t--------\t--------");
+        for (Order order : Order.values()) {
+            Integer[] elements = elements(n, order);
+            String unbalanced = measure(new Set3a<Integer>(), elements);
+            String balanced = measure(new Set3b<Integer>(), elements);
+            out.println(order + "\t" + unbalanced + "\t\t" + balanced);
+        }
+
+        Integer[] elements = elements(n, Order.RANDOM);
+        Set<Integer> unbalanced = new Set3a<>();
+        Set<Integer> balanced = new Set3b<>();
+        for (Integer x : elements) {
+            unbalanced.add(x);
+            balanced.add(x);
+        }
+        out.println();
+        out.println("Bytes allocated per contains (random order):");
+        if (allocationCounterAvailable()) {
+            out.println(String.format("Set3a\t%.1f",
+                    bytesPerContains(unbalanced, elements)));
+            out.println(String.format("Set3b\t%.1f",
+                    bytesPerContains(balanced, elements)));
+        } else {
+            out.println("not measured: this JVM has no per-thread "
+                    + "allocation counter");
+        }
+
+        in.close();
+        out.close();
+    }
+
+}
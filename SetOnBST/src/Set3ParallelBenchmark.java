@@ -0,0 +1,195 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import components.simplereader.SimpleReader;
+import components.simplereader.SimpleReader1L;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Measures the parallel set algebra of {@code Set3b} on two random sets of a
+ * size supplied by the user, in {@code ForkJoinPool}s of 1 up to a number of
+ * threads supplied by the user, and reports each time and the speedup of the
+ * union over one thread. The merge-based sequential {@code union} is timed
+ * too, as a baseline.
+ *
+ * <p>
+ * The parallel operations take their argument apart, so every run gets fresh
+ * copies of the two sets, made before the clock starts. Every measured run is
+ * preceded by an unmeasured warm-up run so that the JIT has compiled the hot
+ * paths.
+ * </p>
+ *
+ * @author Brayden May
+ *
+ */
+public final class Set3ParallelBenchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private Set3ParallelBenchmark() {
+    }
+
+    /**
+     * Seed of the random sets, so that runs are repeatable.
+     */
+    private static final long SEED = 2231L;
+
+    /**
+     * Nanoseconds per millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /**
+     * Operations measured.
+     */
+    private enum Operation {
+        /**
+         * {@code parallelUnion}.
+         */
+        UNION,
+        /**
+         * {@code parallelIntersection}.
+         */
+        INTERSECTION,
+        /**
+         * {@code parallelDifference}.
+         */
+        DIFFERENCE
+    }
+
+    /**
+     * Returns a set of {@code n} random draws from [0, 2n).
+     *
+     * @param random
+     *            the source of randomness
+     * @param n
+     *            number of draws
+     * @return the set
+     */
+    private static Set3b<Integer> randomSet(Random random, int n) {
+        List<Integer> elements = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            elements.add(random.nextInt(2 * n));
+        }
+        return Set3b.fromElements(elements);
+    }
+
+    /**
+     * Runs {@code operation} on copies of {@code a} and {@code b} in
+     * {@code pool} and returns the elapsed time of the operation alone.
+     *
+     * @param operation
+     *            the operation
+     * @param a
+     *            the first set
+     * @param b
+     *            the second set
+     * @param pool
+     *            the pool
+     * @param granularity
+     *            largest combined size handled without forking
+     * @return elapsed time in nanoseconds
+     */
+    private static long runNanos(Operation operation, Set3b<Integer> a,
+            Set3b<Integer> b, ForkJoinPool pool, int granularity) {
+        Set3b<Integer> first = Set3b.fromSorted(a.iterator());
+        Set3b<Integer> second = Set3b.fromSorted(b.iterator());
+
+        long begin = System.nanoTime();
+        switch (operation) {
+            case UNION: {
+                first.parallelUnion(second, pool, granularity);
+                break;
+            }
+            case INTERSECTION: {
+                first.parallelIntersection(second, pool, granularity);
+                break;
+            }
+            default: {
+                first.parallelDifference(second, pool, granularity);
+                break;
+            }
+        }
+        return System.nanoTime() - begin;
+    }
+
+    /**
+     * Returns the time of a warmed-up run of {@code operation}.
+     *
+     * @param operation
+     *            the operation
+     * @param a
+     *            the first set
+     * @param b
+     *            the second set
+     * @param pool
+     *            the pool
+     * @param granularity
+     *            largest combined size handled without forking
+     * @return elapsed time in nanoseconds
+     */
+    private static long measure(Operation operation, Set3b<Integer> a,
+            Set3b<Integer> b, ForkJoinPool pool, int granularity) {
+        runNanos(operation, a, b, pool, granularity);
+        return runNanos(operation, a, b, pool, granularity);
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     */
+    public static void main(String[] args) {
+        SimpleReader in = new SimpleReader1L();
+        SimpleWriter out = new SimpleWriter1L();
+
+        out.print("Number of elements in each set: ");
+        int n = in.nextInteger();
+        out.print("Maximum number of threads: ");
+        int maxThreads = in.nextInteger();
+        out.print("Granularity (elements per sequential task): ");
+        int granularity = in.nextInteger();
+
+        Random random = new Random(SEED);
+        Set3b<Integer> a = randomSet(random, n);
+        Set3b<Integer> b = randomSet(random, n);
+
+        a.union(b);
+        long begin = System.nanoTime();
+        a.union(b);
+        long merge = System.nanoTime() - begin;
+        out.println();
+        out.println(String.format("Sequential merge union: %.1f ms",
+                merge / NANOS_PER_MILLI));
+
+        out.println();
+        out.println("Threads\tUnion ms\tInter. ms\tDiff. ms\tUnion speedup");
+        out.println("-------\t--------\t---------\t--------\t-------------");
+        long baseline = 0;
+        for (int threads = 1; threads <= maxThreads; threads++) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            long union = measure(Operation.UNION, a, b, pool, granularity);
+            long intersection = measure(Operation.INTERSECTION, a, b, pool,
+                    granularity);
+            long difference = measure(Operation.DIFFERENCE, a, b, pool,
+                    granularity);
+            pool.shutdown();
+            if (threads == 1) {
+                baseline = union;
+            }
+            out.println(String.format("%d\t%.1f\t\t%.1f\t\t%.1f\t\t%.2f",
+                    threads, union / NANOS_PER_MILLI,
+                    intersection / NANOS_PER_MILLI,
+                    difference / NANOS_PER_MILLI, (double) baseline / union));
+        }
+
+        in.close();
+        out.close();
+    }
+
+}
@@ -0,0 +1,1527 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import components.set.Set;
+import components.set.SetSecondary;
+
+/**
+ * {@code Set} represented as an AVL tree (a height-balanced binary search
+ * tree) of elements with implementations of primary methods.
+ *
+ * <p>
+ * Unlike {@code Set3a}, whose tree degenerates into a list when elements are
+ * added in sorted order, every {@code add} and {@code remove} rebalances the
+ * tree with rotations, so its height stays below 1.45 log2(n + 2) and
+ * {@code add}, {@code remove}, and {@code contains} take O(log n) time in
+ * every case.
+ * </p>
+ *
+ * <p>
+ * The nodes are its own rather than a {@code BinaryTree}'s, so no method
+ * disassembles and reassembles trees on the way down. {@code contains} is a
+ * loop that allocates nothing, {@code add} allocates just the new node, and
+ * {@code remove} and {@code removeAny} allocate nothing.
+ * </p>
+ *
+ * <p>
+ * Each node also records the size of its subtree, so {@code select},
+ * {@code rank}, {@code floor}, and {@code ceiling} take O(log n) time, and
+ * {@code range} iterates over the k elements of an interval in O(log n + k).
+ * </p>
+ *
+ * <p>
+ * Sets can also be built from sorted input in O(n) time, as perfectly
+ * balanced trees, with {@code fromSorted} and {@code fromElements}, and
+ * combined in O(n + m) time by merging their in-order sequences with
+ * {@code union}, {@code intersection}, and {@code difference}. For very
+ * large sets, {@code parallelUnion}, {@code parallelIntersection}, and
+ * {@code parallelDifference} instead split and join the trees themselves,
+ * recursing on the two sides in parallel in a {@code ForkJoinPool}.
+ * </p>
+ *
+ * @param <T>
+ *            type of {@code Set} elements
+ * @mathdefinitions <pre>
+ * IS_AVL(
+ *   tree: binary tree of T
+ *  ): boolean satisfies
+ *  [tree satisfies the binary search tree properties with the ordering
+ *   reported by compareTo for T, including that it has no duplicate labels,
+ *   and at every node the heights of the two subtrees differ by at most 1]
+ * </pre>
+ * @convention <pre>
+ * IS_AVL([the tree of nodes from $this.root])  and
+ * [every node's height is the height of the subtree rooted at it]  and
+ * [every node's size is the number of nodes in the subtree rooted at it]
+ * </pre>
+ * @correspondence this = labels([the tree of nodes from $this.root])
+ *
+ * @author Brayden May
+ *
+ */
+public class Set3b<T extends Comparable<T>> extends SetSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Node of the tree.
+     *
+     * @param <T>
+     *            type of label
+     */
+    private static final class Node<T> {
+
+        /**
+         * Label of the node.
+         */
+        private T label;
+
+        /**
+         * Root of the left subtree, or {@code null} if it is empty.
+         */
+        private Node<T> left;
+
+        /**
+         * Root of the right subtree, or {@code null} if it is empty.
+         */
+        private Node<T> right;
+
+        /**
+         * Height of the subtree rooted at this node.
+         */
+        private int height;
+
+        /**
+         * Number of nodes in the subtree rooted at this node.
+         */
+        private int size;
+
+        /**
+         * Constructor for a leaf labeled {@code label}.
+         *
+         * @param label
+         *            the label
+         */
+        Node(T label) {
+            this.label = label;
+            this.height = 1;
+            this.size = 1;
+        }
+
+    }
+
+    /**
+     * Default largest combined size of two subtrees that a parallel set
+     * operation handles in a single task rather than forking.
+     */
+    private static final int DEFAULT_GRANULARITY = 1 << 13;
+
+    /**
+     * The operations of {@code SetOperationTask}.
+     */
+    private enum Operation {
+        /**
+         * Union.
+         */
+        UNION,
+        /**
+         * Intersection.
+         */
+        INTERSECTION,
+        /**
+         * Difference.
+         */
+        DIFFERENCE
+    }
+
+    /**
+     * Result of splitting a tree at a label: the trees of the smaller and the
+     * larger labels, and whether the label itself was there.
+     *
+     * @param <T>
+     *            type of labels
+     */
+    private static final class Split<T> {
+
+        /**
+         * Root of the tree of the labels smaller than the split label.
+         */
+        private Node<T> left;
+
+        /**
+         * Whether the split label was in the tree.
+         */
+        private boolean found;
+
+        /**
+         * Root of the tree of the labels larger than the split label.
+         */
+        private Node<T> right;
+
+    }
+
+    /**
+     * Fork-join task computing a set operation on two trees, each of which it
+     * takes apart and reuses the nodes of.
+     *
+     * @param <T>
+     *            type of labels
+     */
+    private static final class SetOperationTask<T extends Comparable<T>>
+            extends RecursiveTask<Node<T>> {
+
+        /**
+         * Serialization version, as {@code RecursiveTask} is serializable.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The operation.
+         */
+        private final Operation operation;
+
+        /**
+         * Root of the first tree.
+         */
+        private final transient Node<T> first;
+
+        /**
+         * Root of the second tree.
+         */
+        private final transient Node<T> second;
+
+        /**
+         * Largest combined size handled without forking.
+         */
+        private final int granularity;
+
+        /**
+         * Constructor.
+         *
+         * @param operation
+         *            the operation
+         * @param first
+         *            root of the first tree
+         * @param second
+         *            root of the second tree
+         * @param granularity
+         *            largest combined size handled without forking
+         */
+        SetOperationTask(Operation operation, Node<T> first, Node<T> second,
+                int granularity) {
+            this.operation = operation;
+            this.first = first;
+            this.second = second;
+            this.granularity = granularity;
+        }
+
+        @Override
+        protected Node<T> compute() {
+            return combine(this.operation, this.first, this.second,
+                    this.granularity);
+        }
+
+    }
+
+    /**
+     * Root of the tree, or {@code null} if it is empty.
+     */
+    private Node<T> root;
+
+    /**
+     * Returns the height of the subtree rooted at {@code n}.
+     *
+     * @param <T>
+     *            type of labels
+     * @param n
+     *            the root, or null
+     * @return the height
+     * @ensures height = [height of the tree rooted at n, or 0 if n = null]
+     */
+    private static <T> int height(Node<T> n) {
+        int height = 0;
+        if (n != null) {
+            height = n.height;
+        }
+        return height;
+    }
+
+    /**
+     * Returns the number of nodes in the subtree rooted at {@code n}.
+     *
+     * @param <T>
+     *            type of labels
+     * @param n
+     *            the root, or null
+     * @return the size
+     * @ensures size = [number of nodes in the tree rooted at n]
+     */
+    private static <T> int size(Node<T> n) {
+        int size = 0;
+        if (n != null) {
+            size = n.size;
+        }
+        return size;
+    }
+
+    /**
+     * Recomputes the height and size of {@code n} from those of its children.
+     *
+     * @param <T>
+     *            type of labels
+     * @param n
+     *            the node
+     * @updates n.height, n.size
+     * @requires [the heights and sizes of n's children are correct]
+     */
+    private static <T> void update(Node<T> n) {
+        n.height = 1 + Math.max(height(n.left), height(n.right));
+        n.size = 1 + size(n.left) + size(n.right);
+    }
+
+    /**
+     * Rotates the subtree rooted at {@code n} to the right.
+     *
+     * @param <T>
+     *            type of labels
+     * @param n
+     *            the root, with a left child
+     * @return the new root
+     * @ensures [rotateRight is n's former left child, now with n as its
+     *          right child, and the in-order sequence is unchanged]
+     */
+    private static <T> Node<T> rotateRight(Node<T> n) {
+        Node<T> pivot = n.left;
+        n.left = pivot.right;
+        pivot.right = n;
+        update(n);
+        update(pivot);
+        return pivot;
+    }
+
+    /**
+     * Rotates the subtree rooted at {@code n} to the left.
+     *
+     * @param <T>
+     *            type of labels
+     * @param n
+     *            the root, with a right child
+     * @return the new root
+     * @ensures [rotateLeft is n's former right child, now with n as its left
+     *          child, and the in-order sequence is unchanged]
+     */
+    private static <T> Node<T> rotateLeft(Node<T> n) {
+        Node<T> pivot = n.right;
+        n.right = pivot.left;
+        pivot.left = n;
+        update(n);
+        update(pivot);
+        return pivot;
+    }
+
+    /**
+     * Restores the AVL balance at {@code n}, whose subtrees are AVL trees with
+     * heights differing by at most 2.
+     *
+     * @param <T>
+     *            type of labels
+     * @param n
+     *            the root
+     * @return the root of the rebalanced subtree
+     * @ensures [rebalance is the root of an AVL tree with the same in-order
+     *          sequence as the subtree rooted at n]
+     */
+    private static <T> Node<T> rebalance(Node<T> n) {
+        Node<T> result = n;
+        int balance = height(n.left) - height(n.right);
+        if (balance > 1) {
+            if (height(n.left.left) < height(n.left.right)) {
+                n.left = rotateLeft(n.left);
+            }
+            result = rotateRight(n);
+        } else if (balance < -1) {
+            if (height(n.right.right) < height(n.right.left)) {
+                n.right = rotateRight(n.right);
+            }
+            result = rotateLeft(n);
+        } else {
+            update(n);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the node of the tree rooted at {@code n} labeled {@code x}, or
+     * {@code null}. Walks down the tree in a loop and allocates nothing.
+     *
+     * @param <T>
+     *            type of labels
+     * @param n
+     *            the root, or null
+     * @param x
+     *            the label to be searched for
+     * @return the node labeled x, or null if there is none
+     * @requires IS_AVL([tree rooted at n])
+     * @ensures <pre>
+     * if x is in labels([tree rooted at n])
+     *  then find.label = x  else  find = null
+     * </pre>
+     */
+    private static <T extends Comparable<T>> Node<T> find(Node<T> n, T x) {
+        Node<T> p = n;
+        int comparison = 1;
+        while (p != null && comparison != 0) {
+            comparison = x.compareTo(p.label);
+            if (comparison < 0) {
+                p = p.left;
+            } else if (comparison > 0) {
+                p = p.right;
+            }
+        }
+        return p;
+    }
+
+    /**
+     * Returns the smallest label of the tree rooted at {@code n}.
+     *
+     * @param <T>
+     *            type of labels
+     * @param n
+     *            the root
+     * @return the smallest label
+     * @requires n /= null
+     * @ensures smallest = [the smallest label in the tree rooted at n]
+     */
+    private static <T> T smallest(Node<T> n) {
+        Node<T> p = n;
+        while (p.left != null) {
+            p = p.left;
+        }
+        return p.label;
+    }
+
+    /**
+     * Inserts {@code x} in the tree rooted at {@code n}.
+     *
+     * @param <T>
+     *            type of labels
+     * @param n
+     *            the root, or null
+     * @param x
+     *            the label to be inserted
+     * @return the new root
+     * @aliases reference {@code x}
+     * @requires IS_AVL([tree rooted at n]) and x is not in its labels
+     * @ensures <pre>
+     * IS_AVL([tree rooted at insertInTree])  and
+     *  labels([tree rooted at insertInTree]) =
+     *   labels([tree rooted at #n]) union {x}
+     * </pre>
+     */
+    private static <T extends Comparable<T>> Node<T> insertInTree(Node<T> n,
+            T x) {
+        Node<T> result;
+        if (n == null) {
+            result = new Node<>(x);
+        } else {
+            if (x.compareTo(n.label) < 0) {
+                n.left = insertInTree(n.left, x);
+            } else {
+                n.right = insertInTree(n.right, x);
+            }
+            result = rebalance(n);
+        }
+        return result;
+    }
+
+    /**
+     * Removes the smallest label from the tree rooted at {@code n}.
+     *
+     * @param <T>
+     *            type of labels
+     * @param n
+     *            the root
+     * @return the new root
+     * @requires IS_AVL([tree rooted at n]) and n /= null
+     * @ensures <pre>
+     * IS_AVL([tree rooted at removeSmallest])  and
+     *  labels([tree rooted at removeSmallest]) =
+     *   labels([tree rooted at #n]) \ {smallest(#n)}
+     * </pre>
+     */
+    private static <T> Node<T> removeSmallest(Node<T> n) {
+        Node<T> result;
+        if (n.left == null) {
+            result = n.right;
+        } else {
+            n.left = removeSmallest(n.left);
+            result = rebalance(n);
+        }
+        return result;
+    }
+
+    /**
+     * Removes label {@code x} from the tree rooted at {@code n}.
+     *
+     * @param <T>
+     *            type of labels
+     * @param n
+     *            the root
+     * @param x
+     *            the label to be removed
+     * @return the new root
+     * @requires IS_AVL([tree rooted at n]) and x is in its labels
+     * @ensures <pre>
+     * IS_AVL([tree rooted at removeFromTree])  and
+     *  labels([tree rooted at removeFromTree]) =
+     *   labels([tree rooted at #n]) \ {x}
+     * </pre>
+     */
+    private static <T extends Comparable<T>> Node<T> removeFromTree(
+            Node<T> n, T x) {
+        Node<T> result;
+        int comparison = x.compareTo(n.label);
+        if (comparison < 0) {
+            n.left = removeFromTree(n.left, x);
+            result = rebalance(n);
+        } else if (comparison > 0) {
+            n.right = removeFromTree(n.right, x);
+            result = rebalance(n);
+        } else if (n.left == null) {
+            result = n.right;
+        } else if (n.right == null) {
+            result = n.left;
+        } else {
+            /*
+             * Move the successor's label here and remove it from the right
+             * subtree instead.
+             */
+            n.label = smallest(n.right);
+            n.right = removeSmallest(n.right);
+            result = rebalance(n);
+        }
+        return result;
+    }
+
+    /**
+     * Joins {@code left}, the node {@code middle}, and {@code right} into one
+     * AVL tree, rebalancing along the spine of the taller tree in
+     * O(|height(left) - height(right)| + 1) time.
+     *
+     * @param <T>
+     *            type of labels
+     * @param left
+     *            root of the tree of the smaller labels, or null
+     * @param middle
+     *            the node to put between them
+     * @param right
+     *            root of the tree of the larger labels, or null
+     * @return the root of the joined tree
+     * @updates left, middle, right
+     * @requires <pre>
+     * IS_AVL([tree rooted at left])  and  IS_AVL([tree rooted at right])  and
+     *  [every label of left < middle.label < every label of right]
+     * </pre>
+     * @ensures <pre>
+     * IS_AVL([tree rooted at join])  and
+     *  [the in-order sequence of join is that of #left * <#middle.label> *
+     *   that of #right]
+     * </pre>
+     */
+    private static <T> Node<T> join(Node<T> left, Node<T> middle,
+            Node<T> right) {
+        Node<T> result;
+        if (height(left) > height(right) + 1) {
+            left.right = join(left.right, middle, right);
+            result = rebalance(left);
+        } else if (height(right) > height(left) + 1) {
+            right.left = join(left, middle, right.left);
+            result = rebalance(right);
+        } else {
+            middle.left = left;
+            middle.right = right;
+            update(middle);
+            result = middle;
+        }
+        return result;
+    }
+
+    /**
+     * Joins {@code left} and {@code right} into one AVL tree.
+     *
+     * @param <T>
+     *            type of labels
+     * @param left
+     *            root of the tree of the smaller labels, or null
+     * @param right
+     *            root of the tree of the larger labels, or null
+     * @return the root of the joined tree
+     * @updates left, right
+     * @requires <pre>
+     * IS_AVL([tree rooted at left])  and  IS_AVL([tree rooted at right])  and
+     *  [every label of left < every label of right]
+     * </pre>
+     * @ensures <pre>
+     * IS_AVL([tree rooted at join2])  and
+     *  [the in-order sequence of join2 is that of #left * that of #right]
+     * </pre>
+     */
+    private static <T> Node<T> join2(Node<T> left, Node<T> right) {
+        Node<T> result = right;
+        if (left != null) {
+            Node<T> p = left;
+            while (p.right != null) {
+                p = p.right;
+            }
+            Node<T> largest = p;
+            result = join(removeLargest(left), largest, right);
+        }
+        return result;
+    }
+
+    /**
+     * Removes the largest node from the tree rooted at {@code n}.
+     *
+     * @param <T>
+     *            type of labels
+     * @param n
+     *            the root
+     * @return the new root
+     * @requires IS_AVL([tree rooted at n]) and n /= null
+     * @ensures <pre>
+     * IS_AVL([tree rooted at removeLargest])  and
+     *  labels([tree rooted at removeLargest]) =
+     *   labels([tree rooted at #n]) \ {[the largest label of #n]}
+     * </pre>
+     */
+    private static <T> Node<T> removeLargest(Node<T> n) {
+        Node<T> result;
+        if (n.right == null) {
+            result = n.left;
+        } else {
+            n.right = removeLargest(n.right);
+            result = rebalance(n);
+        }
+        return result;
+    }
+
+    /**
+     * Splits the tree rooted at {@code n} at {@code x}, reusing its nodes,
+     * except any labeled {@code x}, which is dropped.
+     *
+     * @param <T>
+     *            type of labels
+     * @param n
+     *            the root, or null
+     * @param x
+     *            the label to split at
+     * @return the two trees and whether x was in the tree
+     * @updates n
+     * @requires IS_AVL([tree rooted at n])
+     * @ensures <pre>
+     * IS_AVL([tree rooted at split.left])  and
+     *  IS_AVL([tree rooted at split.right])  and
+     *  labels([tree rooted at split.left]) =
+     *   {y in labels([tree rooted at #n]): y < x}  and
+     *  labels([tree rooted at split.right]) =
+     *   {y in labels([tree rooted at #n]): y > x}  and
+     *  split.found = (x is in labels([tree rooted at #n]))
+     * </pre>
+     */
+    private static <T extends Comparable<T>> Split<T> split(Node<T> n, T x) {
+        Split<T> result;
+        if (n == null) {
+            result = new Split<>();
+        } else {
+            int comparison = x.compareTo(n.label);
+            if (comparison < 0) {
+                result = split(n.left, x);
+                result.right = join(result.right, n, n.right);
+            } else if (comparison > 0) {
+                result = split(n.right, x);
+                result.left = join(n.left, n, result.left);
+            } else {
+                result = new Split<>();
+                result.left = n.left;
+                result.found = true;
+                result.right = n.right;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes {@code operation} on the trees rooted at {@code first} and
+     * {@code second}, taking both apart and reusing their nodes. Splits the
+     * second tree at the root of the first (or, for a difference, the first
+     * at the root of the second) and recurses on the two sides, forking the
+     * left side as a separate task whenever the trees together have more than
+     * {@code granularity} nodes.
+     *
+     * @param <T>
+     *            type of labels
+     * @param operation
+     *            the operation
+     * @param first
+     *            root of the first tree, or null
+     * @param second
+     *            root of the second tree, or null
+     * @param granularity
+     *            largest combined size handled without forking
+     * @return the root of the result
+     * @updates first, second
+     * @requires <pre>
+     * IS_AVL([tree rooted at first])  and  IS_AVL([tree rooted at second])
+     *  and  [first and second share no nodes]
+     * </pre>
+     * @ensures <pre>
+     * IS_AVL([tree rooted at combine])  and
+     *  labels([tree rooted at combine]) = [operation applied to
+     *   labels([tree rooted at #first]) and labels([tree rooted at #second])]
+     * </pre>
+     */
+    private static <T extends Comparable<T>> Node<T> combine(
+            Operation operation, Node<T> first, Node<T> second,
+            int granularity) {
+        Node<T> result;
+        if (first == null || second == null) {
+            if (operation == Operation.UNION) {
+                result = first;
+                if (first == null) {
+                    result = second;
+                }
+            } else if (operation == Operation.INTERSECTION) {
+                result = null;
+            } else {
+                result = first;
+            }
+        } else {
+            int total = size(first) + size(second);
+            /*
+             * Split one tree at the root of the other; the root becomes the
+             * middle of the result, if it belongs there.
+             */
+            Node<T> pivot;
+            Split<T> sides;
+            Node<T> left1;
+            Node<T> right1;
+            if (operation == Operation.DIFFERENCE) {
+                pivot = second;
+                sides = split(first, second.label);
+                left1 = sides.left;
+                right1 = sides.right;
+            } else {
+                pivot = first;
+                sides = split(second, first.label);
+                left1 = first.left;
+                right1 = first.right;
+            }
+            Node<T> left2 = pivot.left;
+            Node<T> right2 = pivot.right;
+            if (operation != Operation.DIFFERENCE) {
+                left2 = sides.left;
+                right2 = sides.right;
+            }
+
+            Node<T> left;
+            Node<T> right;
+            if (total > granularity) {
+                SetOperationTask<T> leftTask = new SetOperationTask<>(
+                        operation, left1, left2, granularity);
+                leftTask.fork();
+                right = combine(operation, right1, right2, granularity);
+                left = leftTask.join();
+            } else {
+                left = combine(operation, left1, left2, granularity);
+                right = combine(operation, right1, right2, granularity);
+            }
+
+            if (operation == Operation.UNION
+                    || (operation == Operation.INTERSECTION && sides.found)) {
+                result = join(left, pivot, right);
+            } else {
+                result = join2(left, right);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the root of a perfectly balanced tree whose in-order sequence is
+     * {@code sorted[lo, hi)}.
+     *
+     * @param <T>
+     *            type of labels
+     * @param sorted
+     *            the labels, in strictly increasing order
+     * @param lo
+     *            the first index to include
+     * @param hi
+     *            the index after the last to include
+     * @return the root, or null if lo = hi
+     * @requires 0 <= lo <= hi <= |sorted|
+     * @ensures <pre>
+     * IS_AVL([tree rooted at build])  and
+     *  [the in-order sequence of the tree rooted at build] = sorted[lo, hi)
+     * </pre>
+     */
+    private static <T> Node<T> build(T[] sorted, int lo, int hi) {
+        Node<T> n = null;
+        if (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            n = new Node<>(sorted[mid]);
+            n.left = build(sorted, lo, mid);
+            n.right = build(sorted, mid + 1, hi);
+            update(n);
+        }
+        return n;
+    }
+
+    /**
+     * Returns a new set of {@code sorted[0, length)}.
+     *
+     * @param <T>
+     *            type of elements
+     * @param sorted
+     *            the elements, in strictly increasing order
+     * @param length
+     *            number of elements to use
+     * @return the set
+     * @requires 0 <= length <= |sorted|
+     * @ensures fromArray = elements(sorted[0, length))
+     */
+    private static <T extends Comparable<T>> Set3b<T> fromArray(T[] sorted,
+            int length) {
+        Set3b<T> s = new Set3b<>();
+        s.root = build(sorted, 0, length);
+        return s;
+    }
+
+    /**
+     * Returns a new array of length {@code length} for elements.
+     *
+     * @param <T>
+     *            type of elements
+     * @param length
+     *            the length
+     * @return the array
+     */
+    @SuppressWarnings("unchecked")
+    private static <T extends Comparable<T>> T[] newArray(int length) {
+        /*
+         * T erases to Comparable, so an array of Comparable is a T[] at run
+         * time.
+         */
+        return (T[]) new Comparable<?>[length];
+    }
+
+    /**
+     * Returns the elements of {@code this} in increasing order.
+     *
+     * @return the sorted elements
+     * @ensures <pre>
+     * elements(toSortedArray) = this  and
+     *  [toSortedArray is in strictly increasing order]
+     * </pre>
+     */
+    private T[] toSortedArray() {
+        T[] sorted = newArray(this.size());
+        int i = 0;
+        for (T x : this) {
+            sorted[i] = x;
+            i++;
+        }
+        return sorted;
+    }
+
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+        this.root = null;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public Set3b() {
+        this.createNewRep();
+    }
+
+    /**
+     * Returns a new set of the elements produced by {@code sorted}, which must
+     * produce them in strictly increasing order, as a perfectly balanced tree
+     * built in O(n) time.
+     *
+     * @param <T>
+     *            type of elements
+     * @param sorted
+     *            the elements, in strictly increasing order
+     * @return the set
+     * @updates sorted
+     * @requires [sorted produces its elements in strictly increasing order]
+     * @ensures <pre>
+     * fromSorted = [the elements #sorted produces]  and  ~sorted.unseen = <>
+     * </pre>
+     */
+    public static <T extends Comparable<T>> Set3b<T> fromSorted(
+            Iterator<? extends T> sorted) {
+        assert sorted != null : "Violation of: sorted is not null";
+
+        List<T> elements = new ArrayList<>();
+        while (sorted.hasNext()) {
+            T x = sorted.next();
+            assert elements.isEmpty()
+                    || elements.get(elements.size() - 1).compareTo(x) < 0
+                    : "Violation of: sorted is in strictly increasing order";
+            elements.add(x);
+        }
+        T[] array = elements.toArray(newArray(elements.size()));
+        return fromArray(array, array.length);
+    }
+
+    /**
+     * Returns a new set of the elements of {@code elements}, in any order and
+     * possibly repeated, sorting them once and then building a perfectly
+     * balanced tree, in O(n log n) time.
+     *
+     * @param <T>
+     *            type of elements
+     * @param elements
+     *            the elements
+     * @return the set
+     * @ensures fromElements = [the elements of elements]
+     */
+    public static <T extends Comparable<T>> Set3b<T> fromElements(
+            Iterable<? extends T> elements) {
+        assert elements != null : "Violation of: elements is not null";
+
+        List<T> list = new ArrayList<>();
+        for (T x : elements) {
+            list.add(x);
+        }
+        T[] array = list.toArray(newArray(list.size()));
+        Arrays.sort(array);
+        int length = 0;
+        for (int i = 0; i < array.length; i++) {
+            if (length == 0 || array[length - 1].compareTo(array[i]) < 0) {
+                array[length] = array[i];
+                length++;
+            }
+        }
+        return fromArray(array, length);
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Set<T> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+    }
+
+    @Override
+    public final void transferFrom(Set<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof Set3b<?>
+                : "" + "Violation of: source is of dynamic type Set3b<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type Set3b<?>, and
+         * the ? must be T or the call would not have compiled.
+         */
+        Set3b<T> localSource = (Set3b<T>) source;
+        this.root = localSource.root;
+        localSource.createNewRep();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert !this.contains(x) : "Violation of: x is not in this";
+
+        this.root = insertInTree(this.root, x);
+    }
+
+    @Override
+    public final T remove(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.contains(x) : "Violation of: x is in this";
+
+        T removed = find(this.root, x).label;
+        this.root = removeFromTree(this.root, x);
+
+        return removed;
+    }
+
+    @Override
+    public final T removeAny() {
+        assert this.size() > 0 : "Violation of: this /= empty_set";
+
+        T smallest = smallest(this.root);
+        this.root = removeSmallest(this.root);
+
+        return smallest;
+    }
+
+    @Override
+    public final boolean contains(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        return find(this.root, x) != null;
+    }
+
+    @Override
+    public final int size() {
+        return size(this.root);
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new Set3bIterator(null, null);
+    }
+
+    /*
+     * Order-statistic methods ------------------------------------------------
+     */
+
+    /**
+     * Reports the element of {@code this} with exactly {@code k} smaller
+     * elements (the k-th smallest, counting from 0).
+     *
+     * @param k
+     *            the rank of the element
+     * @return the element of rank k
+     * @requires 0 <= k < |this|
+     * @ensures select is in this  and  |{y in this: y < select}| = k
+     */
+    public final T select(int k) {
+        assert 0 <= k && k < this.size() : "Violation of: 0 <= k < |this|";
+
+        Node<T> p = this.root;
+        int remaining = k;
+        int leftSize = size(p.left);
+        while (remaining != leftSize) {
+            if (remaining < leftSize) {
+                p = p.left;
+            } else {
+                remaining -= leftSize + 1;
+                p = p.right;
+            }
+            leftSize = size(p.left);
+        }
+        return p.label;
+    }
+
+    /**
+     * Reports the number of elements of {@code this} smaller than {@code x}.
+     *
+     * @param x
+     *            the element to rank
+     * @return the rank of x
+     * @ensures rank = |{y in this: y < x}|
+     */
+    public final int rank(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        int rank = 0;
+        Node<T> p = this.root;
+        while (p != null) {
+            int comparison = x.compareTo(p.label);
+            if (comparison < 0) {
+                p = p.left;
+            } else if (comparison > 0) {
+                rank += size(p.left) + 1;
+                p = p.right;
+            } else {
+                rank += size(p.left);
+                p = null;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Reports the largest element of {@code this} that is at most {@code x},
+     * or {@code null} if there is none.
+     *
+     * @param x
+     *            the bound
+     * @return the floor of x, or null
+     * @ensures <pre>
+     * if {y in this: y <= x} /= {}
+     *  then floor = [the largest y in this with y <= x]  else  floor = null
+     * </pre>
+     */
+    public final T floor(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        T floor = null;
+        Node<T> p = this.root;
+        while (p != null) {
+            int comparison = x.compareTo(p.label);
+            if (comparison < 0) {
+                p = p.left;
+            } else {
+                floor = p.label;
+                if (comparison == 0) {
+                    p = null;
+                } else {
+                    p = p.right;
+                }
+            }
+        }
+        return floor;
+    }
+
+    /**
+     * Reports the smallest element of {@code this} that is at least
+     * {@code x}, or {@code null} if there is none.
+     *
+     * @param x
+     *            the bound
+     * @return the ceiling of x, or null
+     * @ensures <pre>
+     * if {y in this: y >= x} /= {}
+     *  then ceiling = [the smallest y in this with y >= x]  else
+     *  ceiling = null
+     * </pre>
+     */
+    public final T ceiling(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        T ceiling = null;
+        Node<T> p = this.root;
+        while (p != null) {
+            int comparison = x.compareTo(p.label);
+            if (comparison > 0) {
+                p = p.right;
+            } else {
+                ceiling = p.label;
+                if (comparison == 0) {
+                    p = null;
+                } else {
+                    p = p.left;
+                }
+            }
+        }
+        return ceiling;
+    }
+
+    /**
+     * Returns an iterator over the elements of {@code this} in [{@code lo},
+     * {@code hi}), in increasing order. The iterator walks the tree itself,
+     * one element at a time, so it takes O(log n) time to start and O(1)
+     * amortized time per element, and copies nothing.
+     *
+     * @param lo
+     *            the smallest element to include
+     * @param hi
+     *            the bound above every element to include
+     * @return the iterator
+     * @requires lo <= hi
+     * @ensures <pre>
+     * range ~ [the elements y of this with lo <= y < hi, in increasing
+     *          order]
+     * </pre>
+     */
+    public final Iterator<T> range(T lo, T hi) {
+        assert lo != null : "Violation of: lo is not null";
+        assert hi != null : "Violation of: hi is not null";
+        assert lo.compareTo(hi) <= 0 : "Violation of: lo <= hi";
+
+        return new Set3bIterator(lo, hi);
+    }
+
+    /*
+     * Set algebra methods ----------------------------------------------------
+     */
+
+    /**
+     * Returns a new set of the elements in {@code this} or {@code s}, merging
+     * the two in-order sequences in O(|this| + |s|) time.
+     *
+     * @param s
+     *            the other set
+     * @return the union
+     * @ensures union = this union s
+     */
+    public final Set3b<T> union(Set3b<T> s) {
+        assert s != null : "Violation of: s is not null";
+
+        T[] a = this.toSortedArray();
+        T[] b = s.toSortedArray();
+        T[] merged = newArray(a.length + b.length);
+        int i = 0;
+        int j = 0;
+        int length = 0;
+        while (i < a.length && j < b.length) {
+            int comparison = a[i].compareTo(b[j]);
+            if (comparison < 0) {
+                merged[length] = a[i];
+                i++;
+            } else if (comparison > 0) {
+                merged[length] = b[j];
+                j++;
+            } else {
+                merged[length] = a[i];
+                i++;
+                j++;
+            }
+            length++;
+        }
+        while (i < a.length) {
+            merged[length] = a[i];
+            i++;
+            length++;
+        }
+        while (j < b.length) {
+            merged[length] = b[j];
+            j++;
+            length++;
+        }
+        return fromArray(merged, length);
+    }
+
+    /**
+     * Returns a new set of the elements in both {@code this} and {@code s},
+     * merging the two in-order sequences in O(|this| + |s|) time.
+     *
+     * @param s
+     *            the other set
+     * @return the intersection
+     * @ensures intersection = this intersection s
+     */
+    public final Set3b<T> intersection(Set3b<T> s) {
+        assert s != null : "Violation of: s is not null";
+
+        T[] a = this.toSortedArray();
+        T[] b = s.toSortedArray();
+        T[] merged = newArray(Math.min(a.length, b.length));
+        int i = 0;
+        int j = 0;
+        int length = 0;
+        while (i < a.length && j < b.length) {
+            int comparison = a[i].compareTo(b[j]);
+            if (comparison < 0) {
+                i++;
+            } else if (comparison > 0) {
+                j++;
+            } else {
+                merged[length] = a[i];
+                i++;
+                j++;
+                length++;
+            }
+        }
+        return fromArray(merged, length);
+    }
+
+    /**
+     * Returns a new set of the elements in {@code this} but not in {@code s},
+     * merging the two in-order sequences in O(|this| + |s|) time.
+     *
+     * @param s
+     *            the other set
+     * @return the difference
+     * @ensures difference = this \ s
+     */
+    public final Set3b<T> difference(Set3b<T> s) {
+        assert s != null : "Violation of: s is not null";
+
+        T[] a = this.toSortedArray();
+        T[] b = s.toSortedArray();
+        T[] merged = newArray(a.length);
+        int i = 0;
+        int j = 0;
+        int length = 0;
+        while (i < a.length) {
+            int comparison = -1;
+            if (j < b.length) {
+                comparison = a[i].compareTo(b[j]);
+            }
+            if (comparison < 0) {
+                merged[length] = a[i];
+                length++;
+                i++;
+            } else if (comparison > 0) {
+                j++;
+            } else {
+                i++;
+                j++;
+            }
+        }
+        return fromArray(merged, length);
+    }
+
+    /*
+     * Parallel set algebra methods -------------------------------------------
+     */
+
+    /**
+     * Runs {@code operation} on the trees of {@code this} and {@code s} in
+     * {@code pool}, leaving the result in {@code this} and {@code s} empty.
+     *
+     * @param operation
+     *            the operation
+     * @param s
+     *            the other set
+     * @param pool
+     *            the pool to run the tasks in
+     * @param granularity
+     *            largest combined size handled without forking
+     * @updates this
+     * @clears s
+     */
+    private void combineWith(Operation operation, Set3b<T> s,
+            ForkJoinPool pool, int granularity) {
+        assert s != null : "Violation of: s is not null";
+        assert s != this : "Violation of: s is not this";
+        assert pool != null : "Violation of: pool is not null";
+        assert granularity > 0 : "Violation of: granularity > 0";
+
+        Node<T> other = s.root;
+        s.createNewRep();
+        this.root = pool.invoke(new SetOperationTask<>(operation, this.root,
+                other, granularity));
+    }
+
+    /**
+     * Adds the elements of {@code s} to {@code this} in parallel in the
+     * common pool, reusing the nodes of {@code s}, which is left empty.
+     *
+     * @param s
+     *            the other set
+     * @updates this
+     * @clears s
+     * @ensures this = #this union #s
+     */
+    public final void parallelUnion(Set3b<T> s) {
+        this.parallelUnion(s, ForkJoinPool.commonPool(), DEFAULT_GRANULARITY);
+    }
+
+    /**
+     * Adds the elements of {@code s} to {@code this} by splitting and joining
+     * the trees, recursing on the two sides in parallel in {@code pool} while
+     * they together have more than {@code granularity} elements. The nodes of
+     * {@code s} are reused, so {@code s} is left empty.
+     *
+     * @param s
+     *            the other set
+     * @param pool
+     *            the pool to run the tasks in
+     * @param granularity
+     *            largest combined size handled without forking
+     * @updates this
+     * @clears s
+     * @requires granularity > 0
+     * @ensures this = #this union #s
+     */
+    public final void parallelUnion(Set3b<T> s, ForkJoinPool pool,
+            int granularity) {
+        this.combineWith(Operation.UNION, s, pool, granularity);
+    }
+
+    /**
+     * Removes from {@code this} the elements not in {@code s} in parallel in
+     * the common pool, leaving {@code s} empty.
+     *
+     * @param s
+     *            the other set
+     * @updates this
+     * @clears s
+     * @ensures this = #this intersection #s
+     */
+    public final void parallelIntersection(Set3b<T> s) {
+        this.parallelIntersection(s, ForkJoinPool.commonPool(),
+                DEFAULT_GRANULARITY);
+    }
+
+    /**
+     * Removes from {@code this} the elements not in {@code s} by splitting and
+     * joining the trees, recursing on the two sides in parallel in
+     * {@code pool} while they together have more than {@code granularity}
+     * elements. The nodes of {@code s} are taken apart, so {@code s} is left
+     * empty.
+     *
+     * @param s
+     *            the other set
+     * @param pool
+     *            the pool to run the tasks in
+     * @param granularity
+     *            largest combined size handled without forking
+     * @updates this
+     * @clears s
+     * @requires granularity > 0
+     * @ensures this = #this intersection #s
+     */
+    public final void parallelIntersection(Set3b<T> s, ForkJoinPool pool,
+            int granularity) {
+        this.combineWith(Operation.INTERSECTION, s, pool, granularity);
+    }
+
+    /**
+     * Removes from {@code this} the elements in {@code s} in parallel in the
+     * common pool, leaving {@code s} empty.
+     *
+     * @param s
+     *            the other set
+     * @updates this
+     * @clears s
+     * @ensures this = #this \ #s
+     */
+    public final void parallelDifference(Set3b<T> s) {
+        this.parallelDifference(s, ForkJoinPool.commonPool(),
+                DEFAULT_GRANULARITY);
+    }
+
+    /**
+     * Removes from {@code this} the elements in {@code s} by splitting and
+     * joining the trees, recursing on the two sides in parallel in
+     * {@code pool} while they together have more than {@code granularity}
+     * elements. The nodes of {@code s} are taken apart, so {@code s} is left
+     * empty.
+     *
+     * @param s
+     *            the other set
+     * @param pool
+     *            the pool to run the tasks in
+     * @param granularity
+     *            largest combined size handled without forking
+     * @updates this
+     * @clears s
+     * @requires granularity > 0
+     * @ensures this = #this \ #s
+     */
+    public final void parallelDifference(Set3b<T> s, ForkJoinPool pool,
+            int granularity) {
+        this.combineWith(Operation.DIFFERENCE, s, pool, granularity);
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code Set3b}, visiting
+     * the elements between two optional bounds in increasing order.
+     */
+    private final class Set3bIterator implements Iterator<T> {
+
+        /**
+         * Nodes whose labels and right subtrees are still to be visited, from
+         * the bottom of the stack up.
+         */
+        private final Node<T>[] stack;
+
+        /**
+         * Number of nodes on {@code stack}.
+         */
+        private int depth;
+
+        /**
+         * Bound above every element to visit, or {@code null} for none.
+         */
+        private final T hi;
+
+        /**
+         * Constructor for an iterator over the elements in [{@code lo},
+         * {@code hi}).
+         *
+         * @param lo
+         *            the smallest element to visit, or null for no lower bound
+         * @param hi
+         *            the bound above every element to visit, or null for no
+         *            upper bound
+         */
+        @SuppressWarnings("unchecked")
+        Set3bIterator(T lo, T hi) {
+            this.stack = (Node<T>[]) new Node<?>[height(Set3b.this.root)];
+            this.depth = 0;
+            this.hi = hi;
+            /*
+             * Push the path to the smallest element at least lo, skipping the
+             * nodes below lo, whose left subtrees are below lo too.
+             */
+            Node<T> p = Set3b.this.root;
+            while (p != null) {
+                if (lo == null || p.label.compareTo(lo) >= 0) {
+                    this.stack[this.depth] = p;
+                    this.depth++;
+                    p = p.left;
+                } else {
+                    p = p.right;
+                }
+            }
+        }
+
+        /**
+         * Pushes {@code n} and its chain of left descendants.
+         *
+         * @param n
+         *            the top of the chain, or null
+         */
+        private void pushLeftSpine(Node<T> n) {
+            for (Node<T> p = n; p != null; p = p.left) {
+                this.stack[this.depth] = p;
+                this.depth++;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.depth > 0 && (this.hi == null
+                    || this.stack[this.depth - 1].label.compareTo(this.hi) < 0);
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            this.depth--;
+            Node<T> n = this.stack[this.depth];
+            this.stack[this.depth] = null;
+            this.pushLeftSpine(n.right);
+            return n.label;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
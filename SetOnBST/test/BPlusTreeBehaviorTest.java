@@ -0,0 +1,190 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Iterator;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+import components.map.Map.Pair;
+
+/**
+ * JUnit test fixture for the B+-tree behind {@code BPlusTreeSet} and
+ * {@code BPlusTreeMap}: long random sequences of changes checked against
+ * {@code java.util.TreeMap}, and range scans.
+ *
+ * @author Brayden May
+ *
+ */
+public final class BPlusTreeBehaviorTest {
+
+    /**
+     * Number of changes in each random sequence.
+     */
+    private static final int CHANGES = 20000;
+
+    /**
+     * Keys are drawn from [0, KEYS).
+     */
+    private static final int KEYS = 2000;
+
+    /**
+     * Checks that {@code m} has exactly the pairs of {@code expected}, in
+     * increasing order of key.
+     *
+     * @param expected
+     *            the expected pairs
+     * @param m
+     *            the map
+     */
+    private static void assertSameMap(TreeMap<Integer, Integer> expected,
+            BPlusTreeMap<Integer, Integer> m) {
+        assertEquals(expected.size(), m.size());
+        Iterator<java.util.Map.Entry<Integer, Integer>> it = expected
+                .entrySet().iterator();
+        for (Pair<Integer, Integer> pair : m) {
+            java.util.Map.Entry<Integer, Integer> entry = it.next();
+            assertEquals(entry.getKey(), pair.key());
+            assertEquals(entry.getValue(), pair.value());
+        }
+        assertFalse(it.hasNext());
+    }
+
+    /**
+     * Applies a random sequence of changes to a map with fanout
+     * {@code fanout} and to a {@code TreeMap}, checking that they agree.
+     *
+     * @param fanout
+     *            the fanout
+     * @param seed
+     *            the seed of the sequence
+     */
+    private static void randomChanges(int fanout, long seed) {
+        Random random = new Random(seed);
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        BPlusTreeMap<Integer, Integer> m = new BPlusTreeMap<>(fanout);
+        for (int i = 0; i < CHANGES; i++) {
+            Integer key = random.nextInt(KEYS);
+            if (random.nextInt(3) == 0 && m.size() > 0) {
+                Pair<Integer, Integer> any = m.removeAny();
+                assertEquals(expected.pollFirstEntry().getKey(), any.key());
+            } else if (expected.containsKey(key)) {
+                assertTrue(m.hasKey(key));
+                assertEquals(expected.remove(key), m.remove(key).value());
+            } else {
+                assertFalse(m.hasKey(key));
+                expected.put(key, i);
+                m.add(key, i);
+            }
+            if (i % 1000 == 0) {
+                assertSameMap(expected, m);
+            }
+        }
+        assertSameMap(expected, m);
+        for (Integer key : expected.keySet()) {
+            assertEquals(expected.get(key), m.value(key));
+        }
+        while (m.size() > 0) {
+            assertEquals(expected.pollFirstEntry().getKey(),
+                    m.removeAny().key());
+        }
+        assertTrue(expected.isEmpty());
+    }
+
+    @Test
+    public void testRandomChangesFanout4() {
+        randomChanges(4, 1L);
+    }
+
+    @Test
+    public void testRandomChangesFanout5() {
+        randomChanges(5, 2L);
+    }
+
+    @Test
+    public void testRandomChangesFanout16() {
+        randomChanges(16, 3L);
+    }
+
+    @Test
+    public void testRandomChangesDefaultFanout() {
+        randomChanges(BPlusTree.DEFAULT_FANOUT, 4L);
+    }
+
+    @Test
+    public void testSortedThenReverseRemoval() {
+        BPlusTreeSet<Integer> s = new BPlusTreeSet<>(4);
+        final int n = 5000;
+        for (int i = 0; i < n; i++) {
+            s.add(i);
+        }
+        int expected = 0;
+        for (Integer x : s) {
+            assertEquals(Integer.valueOf(expected), x);
+            expected++;
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            assertEquals(Integer.valueOf(i), s.remove(i));
+            assertEquals(i, s.size());
+        }
+        assertFalse(s.iterator().hasNext());
+    }
+
+    @Test
+    public void testSetRange() {
+        BPlusTreeSet<Integer> s = new BPlusTreeSet<>(4);
+        for (int i = 0; i < 1000; i += 2) {
+            s.add(i);
+        }
+        Iterator<Integer> it = s.range(101, 121);
+        for (int i = 102; i < 121; i += 2) {
+            assertTrue(it.hasNext());
+            assertEquals(Integer.valueOf(i), it.next());
+        }
+        assertFalse(it.hasNext());
+    }
+
+    @Test
+    public void testSetRangeEmptyAndBeyond() {
+        BPlusTreeSet<Integer> s = new BPlusTreeSet<>(4);
+        assertFalse(s.range(0, 10).hasNext());
+        for (int i = 0; i < 100; i++) {
+            s.add(i);
+        }
+        assertFalse(s.range(50, 50).hasNext());
+        assertFalse(s.range(100, 200).hasNext());
+        Iterator<Integer> it = s.range(-10, 2);
+        assertEquals(Integer.valueOf(0), it.next());
+        assertEquals(Integer.valueOf(1), it.next());
+        assertFalse(it.hasNext());
+    }
+
+    @Test
+    public void testMapRange() {
+        BPlusTreeMap<Integer, String> m = new BPlusTreeMap<>(5);
+        for (int i = 0; i < 300; i++) {
+            m.add(i, "v" + i);
+        }
+        Iterator<Pair<Integer, String>> it = m.range(250, 1000);
+        for (int i = 250; i < 300; i++) {
+            Pair<Integer, String> pair = it.next();
+            assertEquals(Integer.valueOf(i), pair.key());
+            assertEquals("v" + i, pair.value());
+        }
+        assertFalse(it.hasNext());
+    }
+
+    @Test
+    public void testTransferFromKeepsFanout() {
+        BPlusTreeSet<Integer> s = new BPlusTreeSet<>(8);
+        s.add(1);
+        BPlusTreeSet<Integer> t = new BPlusTreeSet<>();
+        t.transferFrom(s);
+        assertEquals(8, t.fanout());
+        assertEquals(1, t.size());
+        assertEquals(0, s.size());
+    }
+
+}
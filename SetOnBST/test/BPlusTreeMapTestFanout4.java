@@ -0,0 +1,25 @@
+import components.map.Map;
+import components.map.Map1L;
+
+/**
+ * Customized JUnit test fixture for {@code BPlusTreeMap} using non-default
+ * constructor and the smallest fanout, so that small maps split and merge.
+ */
+public class BPlusTreeMapTestFanout4 extends MapTest {
+
+    /**
+     * Fanout to be used in tests.
+     */
+    private static final int TEST_FANOUT = 4;
+
+    @Override
+    protected final Map<String, String> constructorTest() {
+        return new BPlusTreeMap<String, String>(TEST_FANOUT);
+    }
+
+    @Override
+    protected final Map<String, String> constructorRef() {
+        return new Map1L<String, String>();
+    }
+
+}
@@ -0,0 +1,20 @@
+import components.set.Set;
+import components.set.Set1L;
+
+/**
+ * Customized JUnit test fixture for {@code BPlusTreeSet} using default
+ * constructor.
+ */
+public class BPlusTreeSetTest extends SetTest {
+
+    @Override
+    protected final Set<String> constructorTest() {
+        return new BPlusTreeSet<String>();
+    }
+
+    @Override
+    protected final Set<String> constructorRef() {
+        return new Set1L<String>();
+    }
+
+}
@@ -0,0 +1,25 @@
+import components.set.Set;
+import components.set.Set1L;
+
+/**
+ * Customized JUnit test fixture for {@code BPlusTreeSet} using non-default
+ * constructor and the smallest fanout, so that small sets split and merge.
+ */
+public class BPlusTreeSetTestFanout4 extends SetTest {
+
+    /**
+     * Fanout to be used in tests.
+     */
+    private static final int TEST_FANOUT = 4;
+
+    @Override
+    protected final Set<String> constructorTest() {
+        return new BPlusTreeSet<String>(TEST_FANOUT);
+    }
+
+    @Override
+    protected final Set<String> constructorRef() {
+        return new Set1L<String>();
+    }
+
+}
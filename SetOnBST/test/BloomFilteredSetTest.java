@@ -0,0 +1,31 @@
+import components.set.Set;
+import components.set.Set1L;
+
+/**
+ * Customized JUnit test fixture for {@code BloomFilteredSet} wrapping a
+ * {@code Set3a}, with a filter small enough that it has to grow.
+ */
+public class BloomFilteredSetTest extends SetTest {
+
+    /**
+     * Number of elements the filter is first sized for in tests.
+     */
+    private static final int TEST_EXPECTED_SIZE = 2;
+
+    /**
+     * Target false-positive rate to be used in tests.
+     */
+    private static final double TEST_FALSE_POSITIVE_RATE = 0.05;
+
+    @Override
+    protected final Set<String> constructorTest() {
+        return new BloomFilteredSet<String>(new Set3a<String>(),
+                TEST_EXPECTED_SIZE, TEST_FALSE_POSITIVE_RATE);
+    }
+
+    @Override
+    protected final Set<String> constructorRef() {
+        return new Set1L<String>();
+    }
+
+}
@@ -0,0 +1,174 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for the snapshots and version sharing of
+ * {@code PersistentSet3}.
+ *
+ * @author Brayden May
+ *
+ */
+public final class PersistentSet3SnapshotTest {
+
+    /**
+     * Returns a set of the integers in [lo, hi).
+     *
+     * @param lo
+     *            the first integer
+     * @param hi
+     *            the bound
+     * @return the set
+     */
+    private static PersistentSet3<Integer> range(int lo, int hi) {
+        PersistentSet3<Integer> s = new PersistentSet3<>();
+        for (int i = lo; i < hi; i++) {
+            s.add(i);
+        }
+        return s;
+    }
+
+    /**
+     * Returns whether {@code s} is exactly the integers in [lo, hi), checking
+     * the iteration order and the size.
+     *
+     * @param s
+     *            the set
+     * @param lo
+     *            the first integer
+     * @param hi
+     *            the bound
+     * @return whether s = [lo, hi)
+     */
+    private static boolean isRange(PersistentSet3<Integer> s, int lo,
+            int hi) {
+        boolean result = s.size() == hi - lo;
+        int expected = lo;
+        Iterator<Integer> it = s.iterator();
+        while (result && it.hasNext()) {
+            result = it.next() == expected;
+            expected++;
+        }
+        return result && expected == hi;
+    }
+
+    @Test
+    public void testSnapshotOfEmpty() {
+        PersistentSet3<Integer> s = new PersistentSet3<>();
+        PersistentSet3<Integer> snapshot = s.snapshot();
+        s.add(1);
+        assertEquals(0, snapshot.size());
+        assertFalse(snapshot.contains(1));
+    }
+
+    @Test
+    public void testSnapshotUnchangedByAdd() {
+        PersistentSet3<Integer> s = range(0, 100);
+        PersistentSet3<Integer> snapshot = s.snapshot();
+        for (int i = 100; i < 200; i++) {
+            s.add(i);
+        }
+        assertTrue(isRange(snapshot, 0, 100));
+        assertTrue(isRange(s, 0, 200));
+    }
+
+    @Test
+    public void testSnapshotUnchangedByRemove() {
+        PersistentSet3<Integer> s = range(0, 100);
+        PersistentSet3<Integer> snapshot = s.snapshot();
+        for (int i = 0; i < 50; i++) {
+            s.remove(i);
+        }
+        assertTrue(isRange(snapshot, 0, 100));
+        assertTrue(isRange(s, 50, 100));
+    }
+
+    @Test
+    public void testSnapshotUnchangedByRemoveAnyAndClear() {
+        PersistentSet3<Integer> s = range(0, 10);
+        PersistentSet3<Integer> snapshot = s.snapshot();
+        assertEquals(Integer.valueOf(0), s.removeAny());
+        PersistentSet3<Integer> second = s.snapshot();
+        s.clear();
+        assertTrue(isRange(snapshot, 0, 10));
+        assertTrue(isRange(second, 1, 10));
+        assertEquals(0, s.size());
+    }
+
+    @Test
+    public void testChangingSnapshotLeavesOriginal() {
+        PersistentSet3<Integer> s = range(0, 10);
+        PersistentSet3<Integer> snapshot = s.snapshot();
+        snapshot.remove(5);
+        snapshot.add(10);
+        assertTrue(isRange(s, 0, 10));
+        assertFalse(snapshot.contains(5));
+        assertTrue(snapshot.contains(10));
+    }
+
+    @Test
+    public void testManyVersions() {
+        final int n = 300;
+        PersistentSet3<Integer> s = new PersistentSet3<>();
+        @SuppressWarnings("unchecked")
+        PersistentSet3<Integer>[] versions =
+                (PersistentSet3<Integer>[]) new PersistentSet3<?>[n + 1];
+        versions[0] = s.snapshot();
+        for (int i = 0; i < n; i++) {
+            s.add(i);
+            versions[i + 1] = s.snapshot();
+        }
+        for (int i = 0; i <= n; i++) {
+            assertTrue(isRange(versions[i], 0, i));
+        }
+    }
+
+    @Test
+    public void testIteratorSeesVersionAtCreation() {
+        PersistentSet3<Integer> s = range(0, 20);
+        Iterator<Integer> it = s.iterator();
+        s.clear();
+        s.add(100);
+        int expected = 0;
+        while (it.hasNext()) {
+            assertEquals(Integer.valueOf(expected), it.next());
+            expected++;
+        }
+        assertEquals(20, expected);
+    }
+
+    @Test
+    public void testSnapshotsWhileWriting() throws InterruptedException {
+        final int n = 20000;
+        PersistentSet3<Integer> s = new PersistentSet3<>();
+        AtomicReference<String> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            int previous = 0;
+            while (previous < n && failure.get() == null) {
+                /*
+                 * The writer adds 0, 1, 2, ... in order, so every version is
+                 * a prefix of the integers, never shorter than the last
+                 */
+                PersistentSet3<Integer> snapshot = s.snapshot();
+                int size = snapshot.size();
+                if (size < previous || !isRange(snapshot, 0, size)) {
+                    failure.set("Inconsistent snapshot of size " + size);
+                }
+                previous = size;
+            }
+        });
+        reader.start();
+        for (int i = 0; i < n; i++) {
+            s.add(i);
+        }
+        reader.join();
+        assertEquals(null, failure.get());
+        assertTrue(isRange(s, 0, n));
+    }
+
+}
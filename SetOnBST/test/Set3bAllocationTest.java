@@ -0,0 +1,89 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture checking that {@code Set3b.contains} allocates nothing
+ * and that {@code remove} returns the element that was in the set.
+ *
+ * @author Brayden May
+ *
+ */
+public final class Set3bAllocationTest {
+
+    /**
+     * Number of elements.
+     */
+    private static final int N = 4096;
+
+    /**
+     * Number of unmeasured lookups of every element before the measured
+     * ones, so that the JIT has compiled {@code contains}.
+     */
+    private static final int WARMUP_ROUNDS = 20;
+
+    @Test
+    public void testContainsAllocatesNothing() {
+        /*
+         * The per-thread allocation counter is a HotSpot extension of
+         * ThreadMXBean; on a JVM without it there is nothing to measure.
+         */
+        java.lang.management.ThreadMXBean bean = ManagementFactory
+                .getThreadMXBean();
+        assumeTrue("per-thread allocation counter is not available",
+                bean instanceof com.sun.management.ThreadMXBean
+                        && ((com.sun.management.ThreadMXBean) bean)
+                                .isThreadAllocatedMemorySupported()
+                        && ((com.sun.management.ThreadMXBean) bean)
+                                .isThreadAllocatedMemoryEnabled());
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) bean;
+        long thread = Thread.currentThread().getId();
+
+        Set3b<Integer> s = new Set3b<>();
+        Integer[] elements = new Integer[N];
+        for (int i = 0; i < N; i++) {
+            elements[i] = i * 7;
+            s.add(elements[i]);
+        }
+        int found = 0;
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            for (Integer x : elements) {
+                if (s.contains(x)) {
+                    found++;
+                }
+            }
+        }
+        /*
+         * Nothing else in the measured loop allocates, so any bytes seen here
+         * would come from contains.
+         */
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (Integer x : elements) {
+            if (s.contains(x)) {
+                found++;
+            }
+        }
+        long after = threads.getThreadAllocatedBytes(thread);
+        double bytes = (double) (after - before) / N;
+        assertEquals((WARMUP_ROUNDS + 1) * N, found);
+        assertTrue("Allocated " + bytes + " bytes per contains", bytes < 1.0);
+    }
+
+    @Test
+    public void testRemoveReturnsStoredElement() {
+        Set3b<String> s = new Set3b<>();
+        String stored = new String("b");
+        s.add("a");
+        s.add(stored);
+        s.add("c");
+        String removed = s.remove(new String("b"));
+        assertTrue(removed == stored);
+        assertEquals(2, s.size());
+    }
+
+}
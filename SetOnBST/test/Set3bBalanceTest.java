@@ -0,0 +1,75 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code Set3b} on large inputs in the orders that
+ * unbalance a plain binary search tree.
+ *
+ * @author Brayden May
+ *
+ */
+public final class Set3bBalanceTest {
+
+    /**
+     * Number of elements, far more than an unbalanced tree's recursion could
+     * handle when added in sorted order.
+     */
+    private static final int N = 200000;
+
+    @Test
+    public void testSortedInsertion() {
+        Set3b<Integer> s = new Set3b<>();
+        for (int i = 0; i < N; i++) {
+            s.add(i);
+        }
+        assertEquals(N, s.size());
+        assertTrue(s.contains(0));
+        assertTrue(s.contains(N - 1));
+        assertFalse(s.contains(N));
+    }
+
+    @Test
+    public void testReverseInsertionIteratesInOrder() {
+        Set3b<Integer> s = new Set3b<>();
+        for (int i = N - 1; i >= 0; i--) {
+            s.add(i);
+        }
+        int expected = 0;
+        for (Integer x : s) {
+            assertEquals(expected, x.intValue());
+            expected++;
+        }
+        assertEquals(N, expected);
+    }
+
+    @Test
+    public void testRemoveInAlternatingOrder() {
+        Set3b<Integer> s = new Set3b<>();
+        for (int i = 0; i < N; i++) {
+            s.add(i);
+        }
+        for (int i = 0; i < N; i += 2) {
+            assertEquals(i, s.remove(i).intValue());
+        }
+        assertEquals(N / 2, s.size());
+        for (int i = 0; i < N; i++) {
+            assertEquals(i % 2 == 1, s.contains(i));
+        }
+    }
+
+    @Test
+    public void testRemoveAnyDrainsInOrder() {
+        Set3b<Integer> s = new Set3b<>();
+        for (int i = N - 1; i >= 0; i--) {
+            s.add(i);
+        }
+        for (int i = 0; i < N; i++) {
+            assertEquals(i, s.removeAny().intValue());
+        }
+        assertEquals(0, s.size());
+    }
+
+}
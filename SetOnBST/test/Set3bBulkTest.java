@@ -0,0 +1,129 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import components.set.Set;
+import components.set.Set1L;
+
+/**
+ * JUnit test fixture for the bulk construction and set algebra of
+ * {@code Set3b}.
+ *
+ * @author Brayden May
+ *
+ */
+public final class Set3bBulkTest {
+
+    /**
+     * Returns the integers in [lo, hi) stepping by {@code step}.
+     *
+     * @param lo
+     *            the first integer
+     * @param hi
+     *            the bound
+     * @param step
+     *            the step
+     * @return the integers, in increasing order
+     */
+    private static List<Integer> range(int lo, int hi, int step) {
+        List<Integer> list = new ArrayList<>();
+        for (int i = lo; i < hi; i += step) {
+            list.add(i);
+        }
+        return list;
+    }
+
+    /**
+     * Returns a {@code Set1L} of {@code elements}.
+     *
+     * @param elements
+     *            the elements
+     * @return the set
+     */
+    private static Set<Integer> reference(List<Integer> elements) {
+        Set<Integer> s = new Set1L<>();
+        for (Integer x : elements) {
+            if (!s.contains(x)) {
+                s.add(x);
+            }
+        }
+        return s;
+    }
+
+    @Test
+    public void testFromSortedEmpty() {
+        Set3b<Integer> s = Set3b
+                .fromSorted(new ArrayList<Integer>().iterator());
+        assertEquals(0, s.size());
+    }
+
+    @Test
+    public void testFromSortedLarge() {
+        List<Integer> elements = range(0, 1000000, 1);
+        Set3b<Integer> s = Set3b.fromSorted(elements.iterator());
+        assertEquals(1000000, s.size());
+        assertEquals(123456, s.select(123456).intValue());
+        assertTrue(s.contains(999999));
+        s.add(-1);
+        s.remove(500000);
+        assertEquals(1000000, s.size());
+        assertEquals(-1, s.removeAny().intValue());
+    }
+
+    @Test
+    public void testFromSortedIsUsableSet() {
+        List<Integer> elements = range(0, 100, 3);
+        Set3b<Integer> s = Set3b.fromSorted(elements.iterator());
+        assertEquals(reference(elements), s);
+        for (int i = 0; i < 100; i++) {
+            if (i % 3 != 0) {
+                s.add(i);
+            }
+        }
+        assertEquals(reference(range(0, 100, 1)), s);
+    }
+
+    @Test
+    public void testFromElementsSortsAndDeduplicates() {
+        List<Integer> elements = Arrays.asList(5, 3, 9, 3, 1, 5, 7, 1);
+        Set3b<Integer> s = Set3b.fromElements(elements);
+        assertEquals(reference(elements), s);
+        assertEquals(5, s.size());
+        assertEquals(1, s.select(0).intValue());
+        assertEquals(9, s.select(4).intValue());
+    }
+
+    @Test
+    public void testUnion() {
+        Set3b<Integer> a = Set3b.fromSorted(range(0, 300, 2).iterator());
+        Set3b<Integer> b = Set3b.fromSorted(range(0, 300, 3).iterator());
+        List<Integer> both = new ArrayList<>(range(0, 300, 2));
+        both.addAll(range(0, 300, 3));
+        assertEquals(reference(both), a.union(b));
+        assertEquals(150, a.size());
+        assertEquals(100, b.size());
+    }
+
+    @Test
+    public void testIntersection() {
+        Set3b<Integer> a = Set3b.fromSorted(range(0, 300, 2).iterator());
+        Set3b<Integer> b = Set3b.fromSorted(range(0, 300, 3).iterator());
+        assertEquals(reference(range(0, 300, 6)), a.intersection(b));
+        assertEquals(0, a.intersection(new Set3b<>()).size());
+    }
+
+    @Test
+    public void testDifference() {
+        Set3b<Integer> a = Set3b.fromSorted(range(0, 30, 1).iterator());
+        Set3b<Integer> b = Set3b.fromSorted(range(0, 40, 2).iterator());
+        assertEquals(reference(range(1, 30, 2)), a.difference(b));
+        assertEquals(reference(range(30, 40, 2)), b.difference(a));
+        assertEquals(a, a.difference(new Set3b<>()));
+    }
+
+}
@@ -0,0 +1,130 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Iterator;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code select}, {@code rank}, {@code floor},
+ * {@code ceiling}, and {@code range} of {@code Set3b}.
+ *
+ * @author Brayden May
+ *
+ */
+public final class Set3bOrderStatisticTest {
+
+    /**
+     * Returns a set of the even numbers in [0, 2n), added in a scrambled
+     * order.
+     *
+     * @param n
+     *            number of elements
+     * @return the set
+     */
+    private static Set3b<Integer> evens(int n) {
+        Set3b<Integer> s = new Set3b<>();
+        for (int i = 0; i < n; i++) {
+            s.add(2 * ((i * 7919) % n));
+        }
+        return s;
+    }
+
+    /**
+     * Returns the elements from {@code it}, concatenated with commas.
+     *
+     * @param it
+     *            the iterator
+     * @return the elements
+     */
+    private static String drain(Iterator<Integer> it) {
+        StringBuilder text = new StringBuilder();
+        while (it.hasNext()) {
+            if (text.length() > 0) {
+                text.append(",");
+            }
+            text.append(it.next());
+        }
+        return text.toString();
+    }
+
+    @Test
+    public void testSelect() {
+        Set3b<Integer> s = evens(1000);
+        for (int k = 0; k < 1000; k++) {
+            assertEquals(2 * k, s.select(k).intValue());
+        }
+    }
+
+    @Test
+    public void testRank() {
+        Set3b<Integer> s = evens(1000);
+        assertEquals(0, s.rank(-5));
+        assertEquals(0, s.rank(0));
+        assertEquals(1, s.rank(1));
+        assertEquals(1, s.rank(2));
+        assertEquals(500, s.rank(1000));
+        assertEquals(1000, s.rank(5000));
+    }
+
+    @Test
+    public void testSelectAndRankAfterRemoves() {
+        Set3b<Integer> s = evens(100);
+        for (int i = 0; i < 100; i += 4) {
+            s.remove(i);
+        }
+        s.removeAny();
+        for (int k = 0; k < s.size(); k++) {
+            assertEquals(k, s.rank(s.select(k)));
+        }
+    }
+
+    @Test
+    public void testFloorAndCeiling() {
+        Set3b<Integer> s = evens(10);
+        assertNull(s.floor(-1));
+        assertEquals(0, s.floor(0).intValue());
+        assertEquals(4, s.floor(5).intValue());
+        assertEquals(18, s.floor(100).intValue());
+        assertEquals(0, s.ceiling(-1).intValue());
+        assertEquals(6, s.ceiling(5).intValue());
+        assertEquals(18, s.ceiling(18).intValue());
+        assertNull(s.ceiling(19));
+    }
+
+    @Test
+    public void testFloorAndCeilingEmpty() {
+        Set3b<Integer> s = new Set3b<>();
+        assertNull(s.floor(3));
+        assertNull(s.ceiling(3));
+        assertEquals(0, s.rank(3));
+    }
+
+    @Test
+    public void testRange() {
+        Set3b<Integer> s = evens(10);
+        assertEquals("4,6,8", drain(s.range(3, 10)));
+        assertEquals("4,6,8,10", drain(s.range(4, 11)));
+        assertEquals("", drain(s.range(5, 6)));
+        assertEquals("", drain(s.range(7, 7)));
+        assertEquals("0,2", drain(s.range(-10, 3)));
+        assertEquals("16,18", drain(s.range(15, 100)));
+        assertEquals("", drain(s.range(20, 30)));
+    }
+
+    @Test
+    public void testRangeMatchesIterator() {
+        Set3b<Integer> s = evens(3000);
+        Iterator<Integer> range = s.range(1001, 4001);
+        for (Integer x : s) {
+            if (x >= 1001 && x < 4001) {
+                assertTrue(range.hasNext());
+                assertEquals(x, range.next());
+            }
+        }
+        assertFalse(range.hasNext());
+    }
+
+}
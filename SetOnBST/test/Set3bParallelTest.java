@@ -0,0 +1,152 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for the parallel set algebra of {@code Set3b}.
+ *
+ * @author Brayden May
+ *
+ */
+public final class Set3bParallelTest {
+
+    /**
+     * Returns a set of {@code n} random draws from [0, bound).
+     *
+     * @param random
+     *            the source of randomness
+     * @param n
+     *            number of draws
+     * @param bound
+     *            bound on the integers
+     * @return the set
+     */
+    private static Set3b<Integer> randomSet(Random random, int n, int bound) {
+        List<Integer> elements = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            elements.add(random.nextInt(bound));
+        }
+        return Set3b.fromElements(elements);
+    }
+
+    /**
+     * Returns a copy of {@code s}.
+     *
+     * @param s
+     *            the set
+     * @return the copy
+     */
+    private static Set3b<Integer> copy(Set3b<Integer> s) {
+        return Set3b.fromSorted(s.iterator());
+    }
+
+    /**
+     * Checks each parallel operation against its sequential counterpart on
+     * random sets, with the given pool and granularity.
+     *
+     * @param pool
+     *            the pool
+     * @param granularity
+     *            the granularity
+     * @param n
+     *            size of the draws
+     */
+    private static void checkAgainstSequential(ForkJoinPool pool,
+            int granularity, int n) {
+        Random random = new Random(n + granularity);
+        for (int trial = 0; trial < 5; trial++) {
+            Set3b<Integer> a = randomSet(random, n, 2 * n);
+            Set3b<Integer> b = randomSet(random, n / 2 + trial, 2 * n);
+
+            Set3b<Integer> union = copy(a);
+            Set3b<Integer> other = copy(b);
+            union.parallelUnion(other, pool, granularity);
+            assertEquals(a.union(b), union);
+            assertEquals(0, other.size());
+
+            Set3b<Integer> intersection = copy(a);
+            intersection.parallelIntersection(copy(b), pool, granularity);
+            assertEquals(a.intersection(b), intersection);
+
+            Set3b<Integer> difference = copy(a);
+            difference.parallelDifference(copy(b), pool, granularity);
+            assertEquals(a.difference(b), difference);
+
+            Set3b<Integer> reverse = copy(b);
+            reverse.parallelDifference(copy(a), pool, granularity);
+            assertEquals(b.difference(a), reverse);
+        }
+    }
+
+    @Test
+    public void testSmallGranularity() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            checkAgainstSequential(pool, 1, 2000);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testSequentialGranularity() {
+        checkAgainstSequential(ForkJoinPool.commonPool(), Integer.MAX_VALUE,
+                2000);
+    }
+
+    @Test
+    public void testDefaults() {
+        Set3b<Integer> a = randomSet(new Random(1), 50000, 100000);
+        Set3b<Integer> b = randomSet(new Random(2), 50000, 100000);
+        Set3b<Integer> union = copy(a);
+        union.parallelUnion(copy(b));
+        assertEquals(a.union(b), union);
+        Set3b<Integer> intersection = copy(a);
+        intersection.parallelIntersection(copy(b));
+        assertEquals(a.intersection(b), intersection);
+        Set3b<Integer> difference = copy(a);
+        difference.parallelDifference(copy(b));
+        assertEquals(a.difference(b), difference);
+    }
+
+    @Test
+    public void testResultIsUsableSet() {
+        Set3b<Integer> a = randomSet(new Random(3), 3000, 6000);
+        Set3b<Integer> b = randomSet(new Random(4), 3000, 6000);
+        Set3b<Integer> expected = a.union(b);
+        a.parallelUnion(b, ForkJoinPool.commonPool(), 8);
+        for (int k = 0; k < a.size(); k++) {
+            assertEquals(k, a.rank(a.select(k)));
+        }
+        for (int i = 0; i < 6000; i += 2) {
+            if (a.contains(i)) {
+                a.remove(i);
+                expected.remove(i);
+            } else {
+                a.add(i);
+                expected.add(i);
+            }
+        }
+        assertEquals(expected, a);
+        assertTrue(a.size() > 0);
+    }
+
+    @Test
+    public void testWithEmpty() {
+        Set3b<Integer> a = randomSet(new Random(5), 100, 1000);
+        Set3b<Integer> expected = copy(a);
+        a.parallelUnion(new Set3b<>());
+        assertEquals(expected, a);
+        a.parallelDifference(new Set3b<>());
+        assertEquals(expected, a);
+        a.parallelIntersection(new Set3b<>());
+        assertEquals(0, a.size());
+    }
+
+}
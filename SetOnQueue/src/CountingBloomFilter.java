@@ -0,0 +1,241 @@
+/**
+ * Counting Bloom filter: a probabilistic set that answers "definitely not
+ * present" or "possibly present". Each element sets {@code k} of {@code m}
+ * small counters; unlike a plain Bloom filter, elements can be removed again
+ * by decrementing their counters.
+ *
+ * <p>
+ * {@code m} and {@code k} are chosen at construction so that, with up to the
+ * expected number of elements, the probability that an absent element is
+ * reported as possibly present is about the target false-positive rate.
+ * </p>
+ *
+ * @param <T>
+ *            type of elements
+ * @convention <pre>
+ * |$this.counters| = m  and  1 <= $this.hashCount  and
+ * [each counter below MAX_COUNT is the number of elements in the filter
+ *  hashing to it at least once; a counter at MAX_COUNT has saturated and is
+ *  never decremented again]
+ * </pre>
+ *
+ * @author Brayden May
+ *
+ */
+public final class CountingBloomFilter<T> {
+
+    /**
+     * Largest value of a counter; counters that reach it stay there.
+     */
+    private static final int MAX_COUNT = 0xFF;
+
+    /**
+     * Multiplier deriving the second hash from the first.
+     */
+    private static final int GOLDEN_GAMMA = 0x9E3779B9;
+
+    /**
+     * Counters, unsigned.
+     */
+    private byte[] counters;
+
+    /**
+     * Number of counters set by each element.
+     */
+    private final int hashCount;
+
+    /**
+     * Number of elements the filter was sized for.
+     */
+    private final int expectedInsertions;
+
+    /**
+     * Target false-positive rate the filter was sized for.
+     */
+    private final double falsePositiveRate;
+
+    /**
+     * Returns the bits of {@code h} thoroughly mixed (the MurmurHash3
+     * finalizer).
+     *
+     * @param h
+     *            the value to mix
+     * @return the mixed value
+     */
+    private static int mix(int h) {
+        int x = h;
+        x ^= x >>> 16;
+        x *= 0x85EBCA6B;
+        x ^= x >>> 13;
+        x *= 0xC2B2AE35;
+        x ^= x >>> 16;
+        return x;
+    }
+
+    /**
+     * Returns the first of the two hashes of an element whose
+     * {@code hashCode} is {@code h}.
+     *
+     * @param h
+     *            the element's hash code
+     * @return the first hash
+     */
+    private static int firstHash(int h) {
+        return mix(h);
+    }
+
+    /**
+     * Returns the second, odd, hash of an element whose {@code hashCode} is
+     * {@code h}.
+     *
+     * @param h
+     *            the element's hash code
+     * @return the second hash
+     */
+    private static int secondHash(int h) {
+        return mix(h * GOLDEN_GAMMA) | 1;
+    }
+
+    /**
+     * Returns the index of the {@code i}-th counter of an element with hashes
+     * {@code h1} and {@code h2}, by double hashing. Callers compute the two
+     * hashes once and reuse them for all {@code $this.hashCount} counters.
+     *
+     * @param h1
+     *            the element's first hash
+     * @param h2
+     *            the element's second hash
+     * @param i
+     *            which of the element's counters
+     * @return the index
+     * @requires 0 <= i < $this.hashCount
+     */
+    private int indexOf(int h1, int h2, int i) {
+        return Math.floorMod(h1 + i * h2, this.counters.length);
+    }
+
+    /**
+     * Constructor for a filter sized for {@code expectedInsertions} elements
+     * at a false-positive rate of {@code falsePositiveRate}.
+     *
+     * @param expectedInsertions
+     *            the number of elements expected
+     * @param falsePositiveRate
+     *            the target false-positive rate
+     * @requires expectedInsertions > 0  and  0 < falsePositiveRate < 1
+     * @ensures this = {}
+     */
+    public CountingBloomFilter(int expectedInsertions,
+            double falsePositiveRate) {
+        assert expectedInsertions > 0 : "Violation of: expectedInsertions > 0";
+        assert falsePositiveRate > 0 && falsePositiveRate < 1
+                : "Violation of: 0 < falsePositiveRate < 1";
+
+        double ln2 = Math.log(2);
+        double bits = -expectedInsertions * Math.log(falsePositiveRate)
+                / (ln2 * ln2);
+        int m = (int) Math.min(Integer.MAX_VALUE - Byte.SIZE,
+                Math.max(Byte.SIZE, Math.ceil(bits)));
+        this.counters = new byte[m];
+        this.hashCount = Math.max(1,
+                (int) Math.round((double) m / expectedInsertions * ln2));
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    /**
+     * Adds {@code x} to this.
+     *
+     * @param x
+     *            the element to add
+     * @updates this
+     * @ensures mightContain(x)
+     */
+    public void add(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        int h = x.hashCode();
+        int h1 = firstHash(h);
+        int h2 = secondHash(h);
+        for (int i = 0; i < this.hashCount; i++) {
+            int j = this.indexOf(h1, h2, i);
+            if ((this.counters[j] & MAX_COUNT) < MAX_COUNT) {
+                this.counters[j]++;
+            }
+        }
+    }
+
+    /**
+     * Removes one occurrence of {@code x} from this.
+     *
+     * @param x
+     *            the element to remove
+     * @updates this
+     * @requires [x was added to this and not yet removed]
+     */
+    public void remove(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        int h = x.hashCode();
+        int h1 = firstHash(h);
+        int h2 = secondHash(h);
+        for (int i = 0; i < this.hashCount; i++) {
+            int j = this.indexOf(h1, h2, i);
+            int count = this.counters[j] & MAX_COUNT;
+            assert count > 0 : "Violation of: x is in this";
+            if (count < MAX_COUNT) {
+                this.counters[j]--;
+            }
+        }
+    }
+
+    /**
+     * Reports whether {@code x} might be in this; {@code false} means it is
+     * certainly not.
+     *
+     * @param x
+     *            the element to look for
+     * @return false if x is not in this
+     * @ensures if x is in this then mightContain = true
+     */
+    public boolean mightContain(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        int h = x.hashCode();
+        int h1 = firstHash(h);
+        int h2 = secondHash(h);
+        boolean result = true;
+        for (int i = 0; result && i < this.hashCount; i++) {
+            result = this.counters[this.indexOf(h1, h2, i)] != 0;
+        }
+        return result;
+    }
+
+    /**
+     * Removes every element from this.
+     *
+     * @clears this
+     */
+    public void clear() {
+        this.counters = new byte[this.counters.length];
+    }
+
+    /**
+     * Reports the number of elements this was sized for.
+     *
+     * @return the expected number of insertions
+     */
+    public int expectedInsertions() {
+        return this.expectedInsertions;
+    }
+
+    /**
+     * Reports the false-positive rate this was sized for.
+     *
+     * @return the target false-positive rate
+     */
+    public double falsePositiveRate() {
+        return this.falsePositiveRate;
+    }
+
+}
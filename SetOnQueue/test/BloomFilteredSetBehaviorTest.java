@@ -0,0 +1,122 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for the filtering and statistics of
+ * {@code BloomFilteredSet} and for {@code CountingBloomFilter}.
+ *
+ * @author Brayden May
+ *
+ */
+public final class BloomFilteredSetBehaviorTest {
+
+
+    @Test
+    public void testFilterHasNoFalseNegatives() {
+        CountingBloomFilter<String> f = new CountingBloomFilter<>(100, 0.01);
+        for (int i = 0; i < 100; i++) {
+            f.add("x" + i);
+        }
+        for (int i = 0; i < 100; i++) {
+            assertTrue(f.mightContain("x" + i));
+        }
+    }
+
+    @Test
+    public void testFilterRemoveForgets() {
+        CountingBloomFilter<String> f = new CountingBloomFilter<>(10, 0.01);
+        f.add("a");
+        f.add("b");
+        f.remove("a");
+        assertTrue(f.mightContain("b"));
+        assertFalse(f.mightContain("a"));
+        f.clear();
+        assertFalse(f.mightContain("b"));
+    }
+
+    @Test
+    public void testMissesAreFiltered() {
+        BloomFilteredSet<String> s = SetFixtures.createFromArgs(
+                new BloomFilteredSet<>(new Set2<>(), 200, 0.01),
+                SetFixtures.numbered(200));
+        for (int i = 200; i < 1200; i++) {
+            assertFalse(s.contains(Integer.toString(i)));
+        }
+        assertEquals(1000, s.lookups());
+        assertEquals(1000, s.filtered() + s.falsePositives());
+        assertTrue(s.observedFalsePositiveRate() < 0.05);
+    }
+
+    @Test
+    public void testHitsAreNotFiltered() {
+        BloomFilteredSet<String> s = SetFixtures.createFromArgs(
+                new BloomFilteredSet<>(new Set2<>(), 50, 0.01),
+                SetFixtures.numbered(50));
+        for (int i = 0; i < 50; i++) {
+            assertTrue(s.contains(Integer.toString(i)));
+        }
+        assertEquals(50, s.lookups());
+        assertEquals(0, s.filtered());
+        assertEquals(0, s.falsePositives());
+        assertEquals(0.0, s.observedFalsePositiveRate(), 0.0);
+    }
+
+    @Test
+    public void testRemovedElementsAreFilteredAgain() {
+        BloomFilteredSet<String> s = SetFixtures.createFromArgs(
+                new BloomFilteredSet<>(new Set2<>(), 100, 0.01),
+                SetFixtures.numbered(100));
+        for (int i = 0; i < 100; i++) {
+            s.remove(Integer.toString(i));
+        }
+        for (int i = 0; i < 100; i++) {
+            assertFalse(s.contains(Integer.toString(i)));
+        }
+        assertEquals(100, s.filtered());
+    }
+
+    @Test
+    public void testRemoveAnyKeepsFilterExact() {
+        BloomFilteredSet<String> s = SetFixtures.createFromArgs(
+                new BloomFilteredSet<>(new Set2<>(), 100, 0.01),
+                SetFixtures.numbered(100));
+        while (s.size() > 10) {
+            String x = s.removeAny();
+            assertFalse(s.contains(x));
+        }
+        /*
+         * Set2.contains rotates its queue, so the survivors are copied out
+         * before they are looked up rather than looked up while iterating
+         */
+        List<String> survivors = new ArrayList<>();
+        for (String x : s) {
+            survivors.add(x);
+        }
+        assertEquals(10, survivors.size());
+        for (String x : survivors) {
+            assertTrue(s.contains(x));
+        }
+    }
+
+    @Test
+    public void testGrowthKeepsRateNearTarget() {
+        BloomFilteredSet<String> s = new BloomFilteredSet<>(new Set2<>(), 4,
+                0.02);
+        for (int i = 0; i < 500; i++) {
+            s.add(Integer.toString(i));
+        }
+        s.resetStatistics();
+        for (int i = 500; i < 2500; i++) {
+            s.contains(Integer.toString(i));
+        }
+        assertTrue(s.observedFalsePositiveRate() < 0.06);
+        assertEquals(0.02, s.targetFalsePositiveRate(), 0.0);
+    }
+
+}
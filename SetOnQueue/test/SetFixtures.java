@@ -0,0 +1,66 @@
+import components.set.Set;
+
+/**
+ * Helpers shared by the JUnit test fixtures of this project that build a set
+ * of a particular configuration, rather than through {@code SetTest}'s
+ * {@code constructorTest}.
+ *
+ * @author Brayden May
+ *
+ */
+final class SetFixtures {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private SetFixtures() {
+    }
+
+    /**
+     * Adds each of {@code args} to {@code set} and returns {@code set}.
+     *
+     * @param <S>
+     *            type of the set
+     * @param set
+     *            the set to fill
+     * @param args
+     *            the entries to add
+     * @return {@code set}
+     * @updates set
+     * @requires <pre>
+     * [every entry in args is unique]  and
+     * [no entry in args is in set]
+     * </pre>
+     * @ensures createFromArgs = set  and  set = #set union [entries in args]
+     */
+    static <S extends Set<String>> S createFromArgs(S set, String... args) {
+        for (String s : args) {
+            /*
+             * No contains check here, as in createFromArgsTest: it would count
+             * as a lookup in the statistics of some implementations, and
+             * add checks its own precondition.
+             */
+            set.add(s);
+        }
+        return set;
+    }
+
+    /**
+     * Returns the strings "0", "1", ..., n - 1 written in decimal.
+     *
+     * @param n
+     *            number of strings
+     * @return the strings, in order
+     * @requires n >= 0
+     * @ensures numbered = <"0", "1", ..., [n - 1 in decimal]>
+     */
+    static String[] numbered(int n) {
+        assert n >= 0 : "Violation of: n >= 0";
+        String[] strings = new String[n];
+        for (int i = 0; i < n; i++) {
+            strings[i] = Integer.toString(i);
+        }
+        return strings;
+    }
+
+}
@@ -1,3 +1,4 @@
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
@@ -11,6 +12,31 @@ import components.sortingmachine.SortingMachineSecondary;
  * {@code SortingMachine} represented as a {@code Queue} and an array (using an
  * embedding of heap sort), with implementations of primary methods.
  *
+ * <p>
+ * The heap is built bottom-up (Floyd's method, O(n)) and entries are sifted
+ * down by moving a hole rather than by exchanges, both without recursion. A
+ * machine in {@code Mode.CHECKED} (the default) also checks the whole
+ * convention, including the heap ordering, after every call when assertions
+ * are enabled, which makes every call, {@code removeFirst} included, take
+ * O(n) time. One in {@code Mode.PRODUCTION} never checks it, so there
+ * {@code removeFirst} takes O(log n) time whether assertions are enabled or
+ * not.
+ * </p>
+ *
+ * <p>
+ * The heap is d-ary for an arity d chosen at construction (binary by
+ * default): the children of index i are the d adjacent entries at indices
+ * d * i + 1 through d * i + d.
+ * </p>
+ *
+ * <p>
+ * With {@code Construction.BATCH} (the default), {@code add} enqueues entries
+ * and {@code changeToExtractionMode} builds the heap from all of them at
+ * once. With {@code Construction.INCREMENTAL}, {@code add} sifts each entry
+ * up into a heap in a growable array, in O(log n) time, and
+ * {@code changeToExtractionMode} only changes the mode, in O(1) time.
+ * </p>
+ *
  * @param <T>
  *            type of {@code SortingMachine} entries
  * @mathdefinitions <pre>
@@ -25,39 +51,45 @@ import components.sortingmachine.SortingMachineSecondary;
  *   a: string of T,
  *   start: integer,
  *   stop: integer,
+ *   d: integer,
  *   r: binary relation on T
  *  ) : boolean is
- *  [the subtree of a (when a is interpreted as a complete binary tree) rooted
- *   at index start and only through entry stop of a satisfies the heap
- *   ordering property according to the relation r]
+ *  [the subtree of a (when a is interpreted as a complete d-ary tree, the
+ *   children of index i being indices d * i + 1 through d * i + d) rooted at
+ *   index start and only through entry stop of a satisfies the heap ordering
+ *   property according to the relation r]
  *
  * SUBTREE_ARRAY_ENTRIES (
  *   a: string of T,
  *   start: integer,
- *   stop: integer
+ *   stop: integer,
+ *   d: integer
  *  ) : finite multiset of T is
  *  [the multiset of entries in a that belong to the subtree of a
- *   (when a is interpreted as a complete binary tree) rooted at
+ *   (when a is interpreted as a complete d-ary tree) rooted at
  *   index start and only through entry stop]
  * </pre>
  * @convention <pre>
  * IS_TOTAL_PREORDER([relation computed by $this.machineOrder.compare method]  and
- * if $this.insertionMode then
+ * $this.arity >= 2  and
+ * if $this.insertionMode  and  $this.construction = BATCH then
  *   $this.heapSize = 0
  * else
  *   $this.entries = <>  and
  *   for all i: integer
- *       where (0 <= i  and  i < |$this.heap|)
+ *       where (0 <= i  and  i < |$this.heap|  and
+ *              ($this.construction = BATCH  or  i < $this.heapSize))
  *     ([entry at position i in $this.heap is not null])  and
- *   SUBTREE_IS_HEAP($this.heap, 0, $this.heapSize - 1,
+ *   SUBTREE_IS_HEAP($this.heap, 0, $this.heapSize - 1, $this.arity,
  *     [relation computed by $this.machineOrder.compare method])  and
  *   0 <= $this.heapSize <= |$this.heap|
  * </pre>
  * @correspondence <pre>
- * if $this.insertionMode then
+ * if $this.insertionMode  and  $this.construction = BATCH then
  *   this = (true, $this.machineOrder, multiset_entries($this.entries))
  * else
- *   this = (false, $this.machineOrder, multiset_entries($this.heap[0, $this.heapSize)))
+ *   this = ($this.insertionMode, $this.machineOrder,
+ *           multiset_entries($this.heap[0, $this.heapSize)))
  * </pre>
  *
  * @author Brayden May
@@ -65,10 +97,65 @@ import components.sortingmachine.SortingMachineSecondary;
  */
 public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
 
+    /**
+     * Whether the convention is checked.
+     */
+    public enum Mode {
+        /**
+         * Check the whole convention after every call when assertions are
+         * enabled.
+         */
+        CHECKED,
+        /**
+         * Never check the whole convention.
+         */
+        PRODUCTION
+    }
+
+    /**
+     * When the heap is built.
+     */
+    public enum Construction {
+        /**
+         * Queue the entries and build the heap from all of them when the
+         * mode changes.
+         */
+        BATCH,
+        /**
+         * Add every entry to the heap as it arrives.
+         */
+        INCREMENTAL
+    }
+
+    /**
+     * Default number of children of each node of the heap.
+     */
+    public static final int DEFAULT_ARITY = 2;
+
+    /**
+     * Initial capacity of the heap with {@code Construction.INCREMENTAL}.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
     /*
      * Private members --------------------------------------------------------
      */
 
+    /**
+     * Whether the convention is checked.
+     */
+    private Mode mode;
+
+    /**
+     * Number of children of each node of the heap.
+     */
+    private int arity;
+
+    /**
+     * When the heap is built.
+     */
+    private Construction construction;
+
     /**
      * Order.
      */
@@ -95,173 +182,182 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
     private int heapSize;
 
     /**
-     * Exchanges entries at indices {@code i} and {@code j} of {@code array}.
+     * Given an array that represents a complete {@code arity}-ary tree and an
+     * index referring to the root of a subtree that would be a heap except for
+     * its root, sifts the root down to turn that whole subtree into a heap.
+     * The root is lifted out, leaving a hole that moves down one level per
+     * iteration as the smallest child moves up into it, and is put in the
+     * hole's final position, so each level costs one write instead of an
+     * exchange. The children of a node are adjacent in {@code array}, so the
+     * search for the smallest one scans a contiguous run of entries.
      *
      * @param <T>
      *            type of array entries
      * @param array
-     *            the array whose entries are to be exchanged
-     * @param i
-     *            one index
-     * @param j
-     *            the other index
+     *            the complete tree
+     * @param top
+     *            the index of the root of the "subtree"
+     * @param last
+     *            the index of the last entry in the heap
+     * @param arity
+     *            the number of children of each node
+     * @param order
+     *            total preorder for sorting
      * @updates array
-     * @requires 0 <= i < |array| and 0 <= j < |array|
-     * @ensures array = [#array with entries at indices i and j exchanged]
+     * @requires <pre>
+     * 0 <= top  and  last < |array|  and  arity >= 2  and
+     * for all i: integer
+     *     where (0 <= i  and  i <= last)
+     *   ([entry at position i in array is not null])  and
+     * [subtree rooted at {@code top} is a complete arity-ary tree]  and
+     * for all k: integer
+     *     where (1 <= k  and  k <= arity)
+     *   (SUBTREE_IS_HEAP(array, arity * top + k, last, arity,
+     *     [relation computed by order.compare method]))  and
+     * IS_TOTAL_PREORDER([relation computed by order.compare method])
+     * </pre>
+     * @ensures <pre>
+     * SUBTREE_IS_HEAP(array, top, last, arity,
+     *     [relation computed by order.compare method])  and
+     * perms(array, #array)  and
+     * SUBTREE_ARRAY_ENTRIES(array, top, last, arity) =
+     *  SUBTREE_ARRAY_ENTRIES(#array, top, last, arity)  and
+     * [the other entries in array are the same as in #array]
+     * </pre>
      */
-    private static <T> void exchangeEntries(T[] array, int i, int j) {
+    private static <T> void siftDown(T[] array, int top, int last, int arity,
+            Comparator<T> order) {
         assert array != null : "Violation of: array is not null";
-        assert 0 <= i : "Violation of: 0 <= i";
-        assert i < array.length : "Violation of: i < |array|";
-        assert 0 <= j : "Violation of: 0 <= j";
-        assert j < array.length : "Violation of: j < |array|";
-
-        if (i != j) {
-            T temp = array[i];
-            array[i] = array[j];
-            array[j] = temp;
+        assert order != null : "Violation of: order is not null";
+        assert 0 <= top : "Violation of: 0 <= top";
+        assert last < array.length : "Violation of: last < |array|";
+        assert arity >= 2 : "Violation of: arity >= 2";
+        /*
+         * The SUBTREE_IS_HEAP preconditions are not checked here: that would
+         * visit the whole subtree on every call. Callers in Mode.CHECKED
+         * check the whole heap afterwards instead.
+         */
+
+        T root = array[top];
+        int hole = top;
+        int first = arity * hole + 1;
+        boolean settled = false;
+        while (!settled && first <= last) {
+            // pick the smallest child, the leftmost one on a tie
+            int smallest = first;
+            int end = Math.min(first + arity - 1, last);
+            for (int child = first + 1; child <= end; child++) {
+                if (order.compare(array[child], array[smallest]) < 0) {
+                    smallest = child;
+                }
+            }
+            if (order.compare(array[smallest], root) < 0) {
+                array[hole] = array[smallest];
+                hole = smallest;
+                first = arity * hole + 1;
+            } else {
+                settled = true;
+            }
         }
+        array[hole] = root;
     }
 
     /**
-     * Given an array that represents a complete binary tree and an index
-     * referring to the root of a subtree that would be a heap except for its
-     * root, sifts the root down to turn that whole subtree into a heap.
+     * Given an array that represents a complete {@code arity}-ary tree that
+     * is a heap through entry {@code bottom - 1}, sifts entry {@code bottom}
+     * up to make it a heap through entry {@code bottom}. As in
+     * {@code siftDown}, a hole moves up one level per iteration as each
+     * larger parent moves down into it.
      *
      * @param <T>
      *            type of array entries
      * @param array
-     *            the complete binary tree
-     * @param top
-     *            the index of the root of the "subtree"
-     * @param last
-     *            the index of the last entry in the heap
+     *            the complete tree
+     * @param bottom
+     *            the index of the entry to sift up
+     * @param arity
+     *            the number of children of each node
      * @param order
      *            total preorder for sorting
      * @updates array
      * @requires <pre>
-     * 0 <= top  and  last < |array|  and
+     * 0 <= bottom < |array|  and  arity >= 2  and
      * for all i: integer
-     *     where (0 <= i  and  i < |array|)
+     *     where (0 <= i  and  i <= bottom)
      *   ([entry at position i in array is not null])  and
-     * [subtree rooted at {@code top} is a complete binary tree]  and
-     * SUBTREE_IS_HEAP(array, 2 * top + 1, last,
-     *     [relation computed by order.compare method])  and
-     * SUBTREE_IS_HEAP(array, 2 * top + 2, last,
+     * SUBTREE_IS_HEAP(array, 0, bottom - 1, arity,
      *     [relation computed by order.compare method])  and
      * IS_TOTAL_PREORDER([relation computed by order.compare method])
      * </pre>
      * @ensures <pre>
-     * SUBTREE_IS_HEAP(array, top, last,
+     * SUBTREE_IS_HEAP(array, 0, bottom, arity,
      *     [relation computed by order.compare method])  and
      * perms(array, #array)  and
-     * SUBTREE_ARRAY_ENTRIES(array, top, last) =
-     *  SUBTREE_ARRAY_ENTRIES(#array, top, last)  and
-     * [the other entries in array are the same as in #array]
+     * [the entries after bottom in array are the same as in #array]
      * </pre>
      */
-    private static <T> void siftDown(T[] array, int top, int last, Comparator<T> order) {
+    private static <T> void siftUp(T[] array, int bottom, int arity,
+            Comparator<T> order) {
         assert array != null : "Violation of: array is not null";
         assert order != null : "Violation of: order is not null";
-        assert 0 <= top : "Violation of: 0 <= top";
-        assert last < array.length : "Violation of: last < |array|";
-        for (int i = 0; i < array.length; i++) {
-            assert array[i] != null
-                    : "" + "Violation of: all entries in array are not null";
-        }
-        assert isHeap(array, 2 * top + 1, last, order)
-                : "" + "Violation of: SUBTREE_IS_HEAP(array, 2 * top + 1, last,"
-                        + " [relation computed by order.compare method])";
-        assert isHeap(array, 2 * top + 2, last, order)
-                : "" + "Violation of: SUBTREE_IS_HEAP(array, 2 * top + 2, last,"
-                        + " [relation computed by order.compare method])";
-
-        int leftIdx = top * 2 + 1;
-        if (leftIdx <= last) {
-            T root = array[top];
-
-            T left;
-            T right;
-
-            int rightIdx = leftIdx + 1;
-
-            // the heap has both children
-            if (rightIdx <= last) {
-                left = array[leftIdx];
-                right = array[rightIdx];
-
-                // the right child is the smaller of the two
-                if (order.compare(right, left) < 0) {
-                    if (order.compare(right, root) < 0) {
-                        exchangeEntries(array, top, rightIdx);
-                        siftDown(array, rightIdx, last, order);
-                    }
-                } else { // the left child is the smaller of the two or tie
-                    if (order.compare(left, root) < 0) {
-                        exchangeEntries(array, top, leftIdx);
-                        siftDown(array, leftIdx, last, order);
-                    }
-                }
-            } else { // there is only a left child
-                left = array[leftIdx];
-
-                if (order.compare(left, root) < 0) {
-                    exchangeEntries(array, top, leftIdx);
-                    siftDown(array, leftIdx, last, order);
-                }
+        assert 0 <= bottom : "Violation of: 0 <= bottom";
+        assert bottom < array.length : "Violation of: bottom < |array|";
+        assert arity >= 2 : "Violation of: arity >= 2";
+
+        T entry = array[bottom];
+        int hole = bottom;
+        boolean settled = false;
+        while (!settled && hole > 0) {
+            int parent = (hole - 1) / arity;
+            if (order.compare(entry, array[parent]) < 0) {
+                array[hole] = array[parent];
+                hole = parent;
+            } else {
+                settled = true;
             }
         }
+        array[hole] = entry;
     }
 
     /**
-     * Heapifies the subtree of the given array rooted at the given {@code top}.
+     * Heapifies the given array bottom-up (Floyd's method): sifts down the
+     * root of every subtree, from the last entry with a child back to the
+     * root, in O(|array|) time.
      *
      * @param <T>
      *            type of array entries
      * @param array
-     *            the complete binary tree
-     * @param top
-     *            the index of the root of the "subtree" to heapify
+     *            the complete tree
+     * @param arity
+     *            the number of children of each node
      * @param order
      *            the total preorder for sorting
      * @updates array
      * @requires <pre>
-     * 0 <= top  and
+     * arity >= 2  and
      * for all i: integer
      *     where (0 <= i  and  i < |array|)
      *   ([entry at position i in array is not null])  and
-     * [subtree rooted at {@code top} is a complete binary tree]  and
      * IS_TOTAL_PREORDER([relation computed by order.compare method])
      * </pre>
      * @ensures <pre>
-     * SUBTREE_IS_HEAP(array, top, |array| - 1,
+     * SUBTREE_IS_HEAP(array, 0, |array| - 1, arity,
      *     [relation computed by order.compare method])  and
      * perms(array, #array)
      * </pre>
      */
-    private static <T> void heapify(T[] array, int top, Comparator<T> order) {
+    private static <T> void heapify(T[] array, int arity,
+            Comparator<T> order) {
         assert array != null : "Violation of: array is not null";
+        assert arity >= 2 : "Violation of: arity >= 2";
         assert order != null : "Violation of: order is not null";
-        assert 0 <= top : "Violation of: 0 <= top";
-        for (int i = 0; i < array.length; i++) {
-            assert array[i] != null
-                    : "" + "Violation of: all entries in array are not null";
-        }
-
-        int length = array.length;
-        int last = length - 1;
-
-        int left = top * 2 + 1;
-        if (left < last) {
-            heapify(array, left, order);
-        }
 
-        int right = left + 1;
-        if (right < last) {
-            heapify(array, right, order);
+        int last = array.length - 1;
+        if (last > 0) {
+            for (int top = (last - 1) / arity; top >= 0; top--) {
+                siftDown(array, top, last, arity, order);
+            }
         }
-
-        siftDown(array, top, last, order);
     }
 
     /**
@@ -272,13 +368,18 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
      *            type of {@code Queue} and array entries
      * @param q
      *            the {@code Queue} with the entries for the heap
+     * @param arity
+     *            the number of children of each node
      * @param order
      *            the total preorder for sorting
      * @return the array representation of a heap
      * @clears q
-     * @requires IS_TOTAL_PREORDER([relation computed by order.compare method])
+     * @requires <pre>
+     * arity >= 2  and
+     * IS_TOTAL_PREORDER([relation computed by order.compare method])
+     * </pre>
      * @ensures <pre>
-     * SUBTREE_IS_HEAP(buildHeap, 0, |buildHeap| - 1)  and
+     * SUBTREE_IS_HEAP(buildHeap, 0, |buildHeap| - 1, arity)  and
      * perms(buildHeap, #q)  and
      * for all i: integer
      *     where (0 <= i  and  i < |buildHeap|)
@@ -286,7 +387,8 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
      * </pre>
      */
     @SuppressWarnings("unchecked")
-    private static <T> T[] buildHeap(Queue<T> q, Comparator<T> order) {
+    private static <T> T[] buildHeap(Queue<T> q, int arity,
+            Comparator<T> order) {
         assert q != null : "Violation of: q is not null";
         assert order != null : "Violation of: order is not null";
 
@@ -298,7 +400,7 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
                 heap[i] = q.dequeue();
             }
 
-            heapify(heap, 0, order);
+            heapify(heap, arity, order);
         }
 
         return heap;
@@ -311,49 +413,48 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
      * @param <T>
      *            type of array entries
      * @param array
-     *            the complete binary tree
+     *            the complete tree
      * @param top
      *            the index of the root of the "subtree"
      * @param last
      *            the index of the last entry in the heap
+     * @param arity
+     *            the number of children of each node
      * @param order
      *            total preorder for sorting
      * @return true if the subtree of the given {@code array} rooted at the
      *         given {@code top} is a heap; false otherwise
      * @requires <pre>
-     * 0 <= top  and  last < |array|  and
+     * 0 <= top  and  last < |array|  and  arity >= 2  and
      * for all i: integer
-     *     where (0 <= i  and  i < |array|)
+     *     where (0 <= i  and  i <= last)
      *   ([entry at position i in array is not null])  and
-     * [subtree rooted at {@code top} is a complete binary tree]
+     * [subtree rooted at {@code top} is a complete arity-ary tree]
      * </pre>
      * @ensures <pre>
-     * isHeap = SUBTREE_IS_HEAP(array, top, last,
+     * isHeap = SUBTREE_IS_HEAP(array, top, last, arity,
      *     [relation computed by order.compare method])
      * </pre>
      */
-    private static <T> boolean isHeap(T[] array, int top, int last, Comparator<T> order) {
+    private static <T> boolean isHeap(T[] array, int top, int last, int arity,
+            Comparator<T> order) {
         assert array != null : "Violation of: array is not null";
         assert 0 <= top : "Violation of: 0 <= top";
         assert last < array.length : "Violation of: last < |array|";
-        for (int i = 0; i < array.length; i++) {
-            assert array[i] != null
-                    : "" + "Violation of: all entries in array are not null";
+        for (int i = 0; i <= last; i++) {
+            assert array[i] != null : ""
+                    + "Violation of: all entries through last are not null";
         }
         /*
          * No need to check the other requires clause, because it must be true
-         * when using the Array representation for a complete binary tree.
+         * when using the Array representation for a complete tree.
          */
-        int left = 2 * top + 1;
         boolean isHeap = true;
-        if (left <= last) {
-            isHeap = (order.compare(array[top], array[left]) <= 0)
-                    && isHeap(array, left, last, order);
-            int right = left + 1;
-            if (isHeap && (right <= last)) {
-                isHeap = (order.compare(array[top], array[right]) <= 0)
-                        && isHeap(array, right, last, order);
-            }
+        int first = arity * top + 1;
+        for (int child = first; isHeap && child < first + arity
+                && child <= last; child++) {
+            isHeap = (order.compare(array[top], array[child]) <= 0)
+                    && isHeap(array, child, last, arity, order);
         }
         return isHeap;
     }
@@ -362,42 +463,56 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
      * Checks that the part of the convention repeated below holds for the
      * current representation.
      *
-     * @return true if the convention holds (or if assertion checking is off);
-     *         otherwise reports a violated assertion
+     * @return true if the convention holds (or if assertion checking is off,
+     *         or {@code $this.mode} is {@code PRODUCTION}); otherwise reports
+     *         a violated assertion
      * @convention <pre>
-     * if $this.insertionMode then
+     * if $this.insertionMode  and  $this.construction = BATCH then
      *   $this.heapSize = 0
      * else
      *   $this.entries = <>  and
      *   for all i: integer
-     *       where (0 <= i  and  i < |$this.heap|)
+     *       where (0 <= i  and  i < |$this.heap|  and
+     *              ($this.construction = BATCH  or  i < $this.heapSize))
      *     ([entry at position i in $this.heap is not null])  and
-     *   SUBTREE_IS_HEAP($this.heap, 0, $this.heapSize - 1,
+     *   SUBTREE_IS_HEAP($this.heap, 0, $this.heapSize - 1, $this.arity,
      *     [relation computed by $this.machineOrder.compare method])  and
      *   0 <= $this.heapSize <= |$this.heap|
      * </pre>
      */
     private boolean conventionHolds() {
-        if (this.insertionMode) {
-            assert this.heapSize == 0
-                    : "" + "Violation of: if $this.insertionMode then $this.heapSize = 0";
-        } else {
-            assert this.entries.length() == 0 : ""
-                    + "Violation of: if not $this.insertionMode then $this.entries = <>";
-            assert 0 <= this.heapSize : ""
-                    + "Violation of: if not $this.insertionMode then 0 <= $this.heapSize";
-            assert this.heapSize <= this.heap.length
-                    : "" + "Violation of: if not $this.insertionMode then"
-                            + " $this.heapSize <= |$this.heap|";
-            for (int i = 0; i < this.heap.length; i++) {
-                assert this.heap[i] != null
+        /*
+         * Checking visits the whole heap, so it is skipped in production
+         */
+        if (this.mode == Mode.CHECKED) {
+            if (this.entriesInQueue()) {
+                assert this.heapSize == 0 : ""
+                        + "Violation of: if $this.insertionMode and"
+                        + " $this.construction = BATCH then $this.heapSize = 0";
+            } else {
+                assert this.entries.length() == 0 : ""
+                        + "Violation of: if not $this.insertionMode then $this.entries = <>";
+                assert 0 <= this.heapSize : ""
+                        + "Violation of: if not $this.insertionMode then 0 <= $this.heapSize";
+                assert this.heapSize <= this.heap.length
                         : "" + "Violation of: if not $this.insertionMode then"
-                                + " all entries in $this.heap are not null";
+                                + " $this.heapSize <= |$this.heap|";
+                int filled = this.heap.length;
+                if (this.construction == Construction.INCREMENTAL) {
+                    filled = this.heapSize;
+                }
+                for (int i = 0; i < filled; i++) {
+                    assert this.heap[i] != null
+                            : "" + "Violation of: if not $this.insertionMode then"
+                                    + " all entries in $this.heap are not null";
+                }
+                assert isHeap(this.heap, 0, this.heapSize - 1, this.arity,
+                        this.machineOrder) : ""
+                        + "Violation of: if not $this.insertionMode then"
+                        + " SUBTREE_IS_HEAP($this.heap, 0, $this.heapSize - 1,"
+                        + " $this.arity,"
+                        + " [relation computed by $this.machineOrder.compare" + " method])";
             }
-            assert isHeap(this.heap, 0, this.heapSize - 1, this.machineOrder) : ""
-                    + "Violation of: if not $this.insertionMode then"
-                    + " SUBTREE_IS_HEAP($this.heap, 0, $this.heapSize - 1,"
-                    + " [relation computed by $this.machineOrder.compare" + " method])";
         }
         return true;
     }
@@ -412,14 +527,30 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
      * $this.insertionMode = true  and
      * $this.machineOrder = order  and
      * $this.entries = <>  and
-     * $this.heapSize = 0
+     * $this.heapSize = 0  and
+     * [if $this.construction = INCREMENTAL then $this.heap is a new array of
+     *  INITIAL_CAPACITY nulls]
      * </pre>
      */
+    @SuppressWarnings("unchecked")
     private void createNewRep(Comparator<T> order) {
         this.insertionMode = true;
         this.machineOrder = order;
         this.entries = new Queue1L<T>();
         this.heapSize = 0;
+        if (this.construction == Construction.INCREMENTAL) {
+            this.heap = (T[]) (new Object[INITIAL_CAPACITY]);
+        }
+    }
+
+    /**
+     * Reports whether the entries are in {@code $this.entries} rather than in
+     * {@code $this.heap}.
+     *
+     * @return true iff $this.insertionMode and $this.construction = BATCH
+     */
+    private boolean entriesInQueue() {
+        return this.insertionMode && this.construction == Construction.BATCH;
     }
 
     /*
@@ -427,12 +558,72 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
      */
 
     /**
-     * Constructor from order.
+     * Constructor from order, in {@code Mode.CHECKED}.
      *
      * @param order
      *            total preorder for sorting
      */
     public SortingMachine5a(Comparator<T> order) {
+        this(order, Mode.CHECKED);
+    }
+
+    /**
+     * Constructor from order and mode.
+     *
+     * @param order
+     *            total preorder for sorting
+     * @param mode
+     *            whether the convention is checked
+     */
+    public SortingMachine5a(Comparator<T> order, Mode mode) {
+        this(order, mode, DEFAULT_ARITY);
+    }
+
+    /**
+     * Constructor from order, mode, and arity of the heap. A heap of higher
+     * arity is shallower, so {@code removeFirst} moves an entry fewer levels,
+     * but compares more children, which are adjacent in the array, at each
+     * level.
+     *
+     * @param order
+     *            total preorder for sorting
+     * @param mode
+     *            whether the convention is checked
+     * @param arity
+     *            number of children of each node of the heap, such as 2, 4,
+     *            or 8
+     * @requires arity >= 2
+     */
+    public SortingMachine5a(Comparator<T> order, Mode mode, int arity) {
+        this(order, mode, arity, Construction.BATCH);
+    }
+
+    /**
+     * Constructor from order, mode, arity of the heap, and when the heap is
+     * built. {@code Construction.INCREMENTAL} spreads the work of building
+     * the heap over the calls to {@code add}, so that
+     * {@code changeToExtractionMode} does not pause for it.
+     *
+     * @param order
+     *            total preorder for sorting
+     * @param mode
+     *            whether the convention is checked
+     * @param arity
+     *            number of children of each node of the heap, such as 2, 4,
+     *            or 8
+     * @param construction
+     *            when the heap is built
+     * @requires arity >= 2
+     */
+    public SortingMachine5a(Comparator<T> order, Mode mode, int arity,
+            Construction construction) {
+        assert mode != null : "Violation of: mode is not null";
+        assert arity >= 2 : "Violation of: arity >= 2";
+        assert construction != null : "Violation of: construction is not null";
+
+        this.mode = mode;
+        this.arity = arity;
+        this.construction = construction;
         this.createNewRep(order);
         assert this.conventionHolds();
     }
@@ -445,8 +636,11 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
     @Override
     public final SortingMachine<T> newInstance() {
         try {
-            return this.getClass().getConstructor(Comparator.class)
-                    .newInstance(this.machineOrder);
+            return this.getClass()
+                    .getConstructor(Comparator.class, Mode.class, int.class,
+                            Construction.class)
+                    .newInstance(this.machineOrder, this.mode, this.arity,
+                            this.construction);
         } catch (ReflectiveOperationException e) {
             throw new AssertionError(
                     "Cannot construct object of type " + this.getClass());
@@ -472,6 +666,9 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
          * compiled.
          */
         SortingMachine5a<T> localSource = (SortingMachine5a<T>) source;
+        this.mode = localSource.mode;
+        this.arity = localSource.arity;
+        this.construction = localSource.construction;
         this.insertionMode = localSource.insertionMode;
         this.machineOrder = localSource.machineOrder;
         this.entries = localSource.entries;
@@ -491,7 +688,16 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
         assert x != null : "Violation of: x is not null";
         assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
 
-        this.entries.enqueue(x);
+        if (this.construction == Construction.BATCH) {
+            this.entries.enqueue(x);
+        } else {
+            if (this.heapSize == this.heap.length) {
+                this.heap = Arrays.copyOf(this.heap, 2 * this.heap.length);
+            }
+            this.heap[this.heapSize] = x;
+            siftUp(this.heap, this.heapSize, this.arity, this.machineOrder);
+            this.heapSize++;
+        }
 
         assert this.conventionHolds();
     }
@@ -500,8 +706,11 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
     public final void changeToExtractionMode() {
         assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
 
-        this.heap = buildHeap(this.entries, this.machineOrder);
-        this.heapSize = this.heap.length;
+        if (this.construction == Construction.BATCH) {
+            this.heap = buildHeap(this.entries, this.arity,
+                    this.machineOrder);
+            this.heapSize = this.heap.length;
+        }
         this.insertionMode = false;
 
         assert this.conventionHolds();
@@ -513,13 +722,17 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
         assert this.size() > 0 : "Violation of: this.contents /= {}";
 
         T first = this.heap[0];
-        if (this.heapSize > 1) {
-            exchangeEntries(this.heap, 0, this.heapSize - 1);
-        }
         this.heapSize--;
-
-        if (this.heapSize > 1) {
-            siftDown(this.heap, 0, this.heapSize - 1, this.machineOrder);
+        if (this.heapSize > 0) {
+            /*
+             * The last entry is sifted down from the root, and first takes
+             * its place past the end of the heap, as in heap sort
+             */
+            T last = this.heap[this.heapSize];
+            this.heap[this.heapSize] = first;
+            this.heap[0] = last;
+            siftDown(this.heap, 0, this.heapSize - 1, this.arity,
+                    this.machineOrder);
         }
 
         assert this.conventionHolds();
@@ -542,7 +755,7 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
     public final int size() {
 
         int size;
-        if (this.insertionMode) {
+        if (this.entriesInQueue()) {
             size = this.entries.length();
         } else {
             size = this.heapSize;
@@ -565,12 +778,12 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
     private final class SortingMachine5aIterator implements Iterator<T> {
 
         /**
-         * Representation iterator when in insertion mode.
+         * Representation iterator when the entries are in the queue.
          */
         private Iterator<T> queueIterator;
 
         /**
-         * Representation iterator count when in extraction mode.
+         * Representation iterator count when the entries are in the heap.
          */
         private int arrayCurrentIndex;
 
@@ -578,7 +791,7 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
          * No-argument constructor.
          */
         private SortingMachine5aIterator() {
-            if (SortingMachine5a.this.insertionMode) {
+            if (SortingMachine5a.this.entriesInQueue()) {
                 this.queueIterator = SortingMachine5a.this.entries.iterator();
             } else {
                 this.arrayCurrentIndex = 0;
@@ -589,7 +802,7 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
         @Override
         public boolean hasNext() {
             boolean hasNext;
-            if (SortingMachine5a.this.insertionMode) {
+            if (SortingMachine5a.this.entriesInQueue()) {
                 hasNext = this.queueIterator.hasNext();
             } else {
                 hasNext = this.arrayCurrentIndex < SortingMachine5a.this.heapSize;
@@ -610,7 +823,7 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
                 throw new NoSuchElementException();
             }
             T next;
-            if (SortingMachine5a.this.insertionMode) {
+            if (SortingMachine5a.this.entriesInQueue()) {
                 next = this.queueIterator.next();
             } else {
                 next = SortingMachine5a.this.heap[this.arrayCurrentIndex];
@@ -0,0 +1,257 @@
+import java.util.Comparator;
+import java.util.Random;
+
+import components.simplereader.SimpleReader;
+import components.simplereader.SimpleReader1L;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+import components.sortingmachine.SortingMachine;
+
+/**
+ * Measures the extraction throughput of {@code SortingMachine5a} in
+ * {@code Mode.PRODUCTION} with heaps of arity 2, 4, and 8, for
+ * {@code Integer} and {@code String} entries, at every power of ten between
+ * two exponents supplied by the user. For {@code Integer} entries it also
+ * measures the total time of the {@code add} calls and the pause of
+ * {@code changeToExtractionMode}, with {@code Construction.BATCH} and
+ * {@code Construction.INCREMENTAL}.
+ *
+ * <p>
+ * Only the {@code removeFirst} calls that empty the machine are timed;
+ * filling it and changing to extraction mode are not. Every measured run is
+ * preceded by an unmeasured warm-up run so that the JIT has compiled the hot
+ * paths.
+ * </p>
+ *
+ * @author Brayden May
+ *
+ */
+public final class SortingMachine5aBenchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private SortingMachine5aBenchmark() {
+    }
+
+    /**
+     * Seed of the random entries, so that runs are repeatable.
+     */
+    private static final long SEED = 2251L;
+
+    /**
+     * Arities measured.
+     */
+    private static final int[] ARITIES = {2, 4, 8};
+
+    /**
+     * Nanoseconds per second.
+     */
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * Entries per million.
+     */
+    private static final double MILLION = 1e6;
+
+    /**
+     * Nanoseconds per millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /**
+     * Returns {@code n} random {@code Integer}s.
+     *
+     * @param n
+     *            number of entries
+     * @return the entries
+     */
+    private static Integer[] randomIntegers(int n) {
+        Random random = new Random(SEED);
+        Integer[] entries = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            entries[i] = random.nextInt();
+        }
+        return entries;
+    }
+
+    /**
+     * Returns {@code n} random {@code String}s of decimal digits.
+     *
+     * @param n
+     *            number of entries
+     * @return the entries
+     */
+    private static String[] randomStrings(int n) {
+        Random random = new Random(SEED);
+        String[] entries = new String[n];
+        for (int i = 0; i < n; i++) {
+            entries[i] = Integer.toString(random.nextInt(Integer.MAX_VALUE));
+        }
+        return entries;
+    }
+
+    /**
+     * Fills a machine of arity {@code arity} with {@code entries}, changes it
+     * to extraction mode, and returns the time taken to remove them all.
+     *
+     * @param <T>
+     *            type of entries
+     * @param entries
+     *            the entries
+     * @param arity
+     *            the arity of the heap
+     * @param order
+     *            the order
+     * @return elapsed time in nanoseconds
+     */
+    private static <T> long runNanos(T[] entries, int arity,
+            Comparator<T> order) {
+        SortingMachine<T> m = new SortingMachine5a<>(order,
+                SortingMachine5a.Mode.PRODUCTION, arity);
+        for (T x : entries) {
+            m.add(x);
+        }
+        m.changeToExtractionMode();
+
+        long begin = System.nanoTime();
+        while (m.size() > 0) {
+            m.removeFirst();
+        }
+        return System.nanoTime() - begin;
+    }
+
+    /**
+     * Returns the extraction throughput, in millions of entries per second,
+     * of a warmed-up run, formatted.
+     *
+     * @param <T>
+     *            type of entries
+     * @param entries
+     *            the entries
+     * @param arity
+     *            the arity of the heap
+     * @param order
+     *            the order
+     * @return the formatted throughput
+     */
+    private static <T> String measure(T[] entries, int arity,
+            Comparator<T> order) {
+        runNanos(entries, arity, order);
+        long nanos = runNanos(entries, arity, order);
+        return String.format("%.2f",
+                entries.length / MILLION / (nanos / NANOS_PER_SECOND));
+    }
+
+    /**
+     * Fills a binary-heap machine built as {@code construction} says with
+     * {@code entries} and changes it to extraction mode, and returns the
+     * elapsed time of each.
+     *
+     * @param entries
+     *            the entries
+     * @param construction
+     *            when the heap is built
+     * @return elapsed nanoseconds of the adds and of the mode change
+     */
+    private static long[] constructionNanos(Integer[] entries,
+            SortingMachine5a.Construction construction) {
+        SortingMachine<Integer> m = new SortingMachine5a<>(
+                Comparator.<Integer>naturalOrder(),
+                SortingMachine5a.Mode.PRODUCTION,
+                SortingMachine5a.DEFAULT_ARITY, construction);
+        long[] nanos = new long[2];
+        long begin = System.nanoTime();
+        for (Integer x : entries) {
+            m.add(x);
+        }
+        nanos[0] = System.nanoTime() - begin;
+        begin = System.nanoTime();
+        m.changeToExtractionMode();
+        nanos[1] = System.nanoTime() - begin;
+        return nanos;
+    }
+
+    /**
+     * Returns the times of a warmed-up run of {@code constructionNanos},
+     * formatted in milliseconds and separated by tabs.
+     *
+     * @param entries
+     *            the entries
+     * @param construction
+     *            when the heap is built
+     * @return the formatted times
+     */
+    private static String measureConstruction(Integer[] entries,
+            SortingMachine5a.Construction construction) {
+        constructionNanos(entries, construction);
+        long[] nanos = constructionNanos(entries, construction);
+        return String.format("%.1f\t\t%.1f", nanos[0] / NANOS_PER_MILLI,
+                nanos[1] / NANOS_PER_MILLI);
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     */
+    public static void main(String[] args) {
+        SimpleReader in = new SimpleReader1L();
+        SimpleWriter out = new SimpleWriter1L();
+
+        out.print("Smallest power of ten of entries: ");
+        int smallest = in.nextInteger();
+        out.print("Largest power of ten of entries: ");
+        int largest = in.nextInteger();
+
+        out.println();
+        out.println("Construction of a binary heap of Integers");
+        out.println("Entries\t\tHeap built\tAdds ms\t\tMode change ms");
+        out.println("-------\t\t----------\t-------\t\t--------------");
+        int n = 1;
+        for (int e = 0; e < smallest; e++) {
+            n *= 10;
+        }
+        for (int e = smallest; e <= largest; e++) {
+            Integer[] integers = randomIntegers(n);
+            for (SortingMachine5a.Construction construction
+                    : SortingMachine5a.Construction.values()) {
+                out.println(String.format("%d\t\t%-11s\t%s", n, construction,
+                        measureConstruction(integers, construction)));
+            }
+            n *= 10;
+        }
+
+        out.println();
+        out.println("Extraction throughput (million removeFirst per second)");
+        out.println("Entries\t\tType\td = 2\td = 4\td = 8");
+        out.println("-------\t\t----\t-----\t-----\t-----");
+        n = 1;
+        for (int e = 0; e < smallest; e++) {
+            n *= 10;
+        }
+        for (int e = smallest; e <= largest; e++) {
+            Integer[] integers = randomIntegers(n);
+            StringBuilder line = new StringBuilder(n + "\t\tInteger");
+            for (int arity : ARITIES) {
+                line.append('\t').append(measure(integers, arity,
+                        Comparator.<Integer>naturalOrder()));
+            }
+            out.println(line.toString());
+
+            String[] strings = randomStrings(n);
+            line = new StringBuilder(n + "\t\tString");
+            for (int arity : ARITIES) {
+                line.append('\t').append(measure(strings, arity,
+                        Comparator.<String>naturalOrder()));
+            }
+            out.println(line.toString());
+            n *= 10;
+        }
+
+        in.close();
+        out.close();
+    }
+
+}
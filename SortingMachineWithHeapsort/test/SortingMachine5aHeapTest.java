@@ -0,0 +1,306 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import org.junit.Test;
+
+import components.sortingmachine.SortingMachine;
+
+/**
+ * JUnit test fixture for the heap of {@code SortingMachine5a}: sorting larger
+ * inputs in both modes, and the cost of {@code removeFirst} in
+ * {@code Mode.PRODUCTION}.
+ *
+ * @author Brayden May
+ *
+ */
+public final class SortingMachine5aHeapTest {
+
+    /**
+     * Integer order that counts its comparisons.
+     */
+    private static final class CountingOrder implements Comparator<Integer> {
+
+        /**
+         * Number of comparisons made.
+         */
+        private long comparisons = 0;
+
+        @Override
+        public int compare(Integer x, Integer y) {
+            this.comparisons++;
+            return x.compareTo(y);
+        }
+
+    }
+
+    /**
+     * Returns {@code n} random integers in [0, bound).
+     *
+     * @param n
+     *            number of integers
+     * @param bound
+     *            the bound
+     * @param seed
+     *            the seed
+     * @return the integers
+     */
+    private static Integer[] randomIntegers(int n, int bound, long seed) {
+        Random random = new Random(seed);
+        Integer[] integers = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            integers[i] = random.nextInt(bound);
+        }
+        return integers;
+    }
+
+    /**
+     * Sorts {@code entries} with a machine in {@code mode} and checks the
+     * result against {@code Arrays.sort}.
+     *
+     * @param entries
+     *            the entries
+     * @param mode
+     *            the mode
+     */
+    private static void assertSorts(Integer[] entries,
+            SortingMachine5a.Mode mode) {
+        assertSorts(entries, mode, SortingMachine5a.DEFAULT_ARITY);
+    }
+
+    /**
+     * Sorts {@code entries} with a machine in {@code mode} with a heap of
+     * arity {@code arity} and checks the result against {@code Arrays.sort}.
+     *
+     * @param entries
+     *            the entries
+     * @param mode
+     *            the mode
+     * @param arity
+     *            the arity
+     */
+    private static void assertSorts(Integer[] entries,
+            SortingMachine5a.Mode mode, int arity) {
+        assertSorts(entries, mode, arity, SortingMachine5a.Construction.BATCH);
+    }
+
+    /**
+     * Sorts {@code entries} with a machine in {@code mode} with a heap of
+     * arity {@code arity} built as {@code construction} says, and checks the
+     * result against {@code Arrays.sort}.
+     *
+     * @param entries
+     *            the entries
+     * @param mode
+     *            the mode
+     * @param arity
+     *            the arity
+     * @param construction
+     *            when the heap is built
+     */
+    private static void assertSorts(Integer[] entries,
+            SortingMachine5a.Mode mode, int arity,
+            SortingMachine5a.Construction construction) {
+        SortingMachine<Integer> m = new SortingMachine5a<>(
+                Comparator.<Integer>naturalOrder(), mode, arity, construction);
+        for (Integer x : entries) {
+            m.add(x);
+        }
+        m.changeToExtractionMode();
+        Integer[] expected = entries.clone();
+        Arrays.sort(expected);
+        for (Integer x : expected) {
+            assertEquals(x, m.removeFirst());
+        }
+        assertEquals(0, m.size());
+    }
+
+    @Test
+    public void testSortsRandomChecked() {
+        assertSorts(randomIntegers(500, 1000, 1L),
+                SortingMachine5a.Mode.CHECKED);
+    }
+
+    @Test
+    public void testSortsRandomProduction() {
+        assertSorts(randomIntegers(50000, 100000, 2L),
+                SortingMachine5a.Mode.PRODUCTION);
+    }
+
+    @Test
+    public void testSortsDuplicatesProduction() {
+        assertSorts(randomIntegers(10000, 10, 3L),
+                SortingMachine5a.Mode.PRODUCTION);
+    }
+
+    @Test
+    public void testSortsSmallSizes() {
+        for (int n = 0; n < 40; n++) {
+            assertSorts(randomIntegers(n, 20, n),
+                    SortingMachine5a.Mode.CHECKED);
+        }
+    }
+
+    @Test
+    public void testHeapifyIsLinear() {
+        final int n = 1 << 16;
+        CountingOrder order = new CountingOrder();
+        SortingMachine<Integer> m = new SortingMachine5a<>(order,
+                SortingMachine5a.Mode.PRODUCTION);
+        for (Integer x : randomIntegers(n, n, 4L)) {
+            m.add(x);
+        }
+        m.changeToExtractionMode();
+        assertTrue(order.comparisons <= 2L * n);
+    }
+
+    @Test
+    public void testRemoveFirstIsLogarithmic() {
+        final int n = 1 << 16;
+        final int log = 16;
+        CountingOrder order = new CountingOrder();
+        SortingMachine<Integer> m = new SortingMachine5a<>(order,
+                SortingMachine5a.Mode.PRODUCTION);
+        for (Integer x : randomIntegers(n, n, 5L)) {
+            m.add(x);
+        }
+        m.changeToExtractionMode();
+        for (int i = 0; i < 100; i++) {
+            order.comparisons = 0;
+            m.removeFirst();
+            assertTrue(order.comparisons <= 2L * log);
+        }
+    }
+
+    @Test
+    public void testSortsEveryArityChecked() {
+        for (int arity = 2; arity <= 9; arity++) {
+            for (int n = 0; n < 30; n++) {
+                assertSorts(randomIntegers(n, 10, n),
+                        SortingMachine5a.Mode.CHECKED, arity);
+            }
+        }
+    }
+
+    @Test
+    public void testSortsArity4And8Production() {
+        assertSorts(randomIntegers(20000, 5000, 7L),
+                SortingMachine5a.Mode.PRODUCTION, 4);
+        assertSorts(randomIntegers(20000, 5000, 8L),
+                SortingMachine5a.Mode.PRODUCTION, 8);
+    }
+
+    @Test
+    public void testRemoveFirstArity4IsLogarithmic() {
+        final int n = 1 << 16;
+        final int arity = 4;
+        final int levels = 8;
+        CountingOrder order = new CountingOrder();
+        SortingMachine<Integer> m = new SortingMachine5a<>(order,
+                SortingMachine5a.Mode.PRODUCTION, arity);
+        for (Integer x : randomIntegers(n, n, 9L)) {
+            m.add(x);
+        }
+        m.changeToExtractionMode();
+        for (int i = 0; i < 100; i++) {
+            order.comparisons = 0;
+            m.removeFirst();
+            assertTrue(order.comparisons <= (long) arity * levels);
+        }
+    }
+
+    @Test
+    public void testSortsIncrementalEveryArityChecked() {
+        for (int arity = 2; arity <= 5; arity++) {
+            for (int n = 0; n < 40; n++) {
+                assertSorts(randomIntegers(n, 10, n),
+                        SortingMachine5a.Mode.CHECKED, arity,
+                        SortingMachine5a.Construction.INCREMENTAL);
+            }
+        }
+    }
+
+    @Test
+    public void testSortsIncrementalProduction() {
+        assertSorts(randomIntegers(50000, 100000, 10L),
+                SortingMachine5a.Mode.PRODUCTION, 4,
+                SortingMachine5a.Construction.INCREMENTAL);
+    }
+
+    @Test
+    public void testIncrementalModeChangeCompares() {
+        CountingOrder order = new CountingOrder();
+        SortingMachine<Integer> m = new SortingMachine5a<>(order,
+                SortingMachine5a.Mode.PRODUCTION,
+                SortingMachine5a.DEFAULT_ARITY,
+                SortingMachine5a.Construction.INCREMENTAL);
+        for (Integer x : randomIntegers(10000, 10000, 11L)) {
+            m.add(x);
+        }
+        order.comparisons = 0;
+        m.changeToExtractionMode();
+        assertEquals(0, order.comparisons);
+        assertEquals(10000, m.size());
+    }
+
+    @Test
+    public void testIncrementalIteratorInInsertionMode() {
+        SortingMachine<Integer> m = new SortingMachine5a<>(
+                Comparator.<Integer>naturalOrder(),
+                SortingMachine5a.Mode.CHECKED, SortingMachine5a.DEFAULT_ARITY,
+                SortingMachine5a.Construction.INCREMENTAL);
+        int sum = 0;
+        for (int i = 0; i < 100; i++) {
+            m.add(i);
+            sum += i;
+        }
+        int count = 0;
+        for (Integer x : m) {
+            sum -= x;
+            count++;
+        }
+        assertEquals(100, count);
+        assertEquals(0, sum);
+        assertTrue(m.isInInsertionMode());
+    }
+
+    @Test
+    public void testIncrementalClearAndNewInstance() {
+        SortingMachine<Integer> m = new SortingMachine5a<>(
+                Comparator.<Integer>naturalOrder(),
+                SortingMachine5a.Mode.CHECKED, SortingMachine5a.DEFAULT_ARITY,
+                SortingMachine5a.Construction.INCREMENTAL);
+        m.add(3);
+        m.changeToExtractionMode();
+        m.clear();
+        m.add(2);
+        m.add(1);
+        SortingMachine<Integer> other = m.newInstance();
+        other.transferFrom(m);
+        other.changeToExtractionMode();
+        assertEquals(Integer.valueOf(1), other.removeFirst());
+        assertEquals(Integer.valueOf(2), other.removeFirst());
+        assertEquals(0, m.size());
+        assertTrue(m.isInInsertionMode());
+    }
+
+    @Test
+    public void testNewInstanceAndTransferKeepMode() {
+        CountingOrder order = new CountingOrder();
+        SortingMachine<Integer> m = new SortingMachine5a<>(order,
+                SortingMachine5a.Mode.PRODUCTION);
+        SortingMachine<Integer> copy = m.newInstance();
+        for (Integer x : randomIntegers(1000, 1000, 6L)) {
+            copy.add(x);
+        }
+        copy.changeToExtractionMode();
+        m.transferFrom(copy);
+        order.comparisons = 0;
+        m.removeFirst();
+        assertTrue(order.comparisons <= 2L * 10);
+    }
+
+}
@@ -0,0 +1,24 @@
+import java.util.Comparator;
+
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachine1L;
+
+/**
+ * Customized JUnit test fixture for {@code SortingMachine5a} with
+ * {@code Construction.INCREMENTAL}.
+ */
+public final class SortingMachine5aTestIncremental extends SortingMachineTest {
+
+    @Override
+    protected SortingMachine<String> constructorTest(Comparator<String> order) {
+        return new SortingMachine5a<String>(order,
+                SortingMachine5a.Mode.CHECKED, SortingMachine5a.DEFAULT_ARITY,
+                SortingMachine5a.Construction.INCREMENTAL);
+    }
+
+    @Override
+    protected SortingMachine<String> constructorRef(Comparator<String> order) {
+        return new SortingMachine1L<String>(order);
+    }
+
+}